@@ -808,6 +808,345 @@ public enum DefaultDriverOption implements DriverOption {
    * <p>Value-type: int
    */
   SESSION_LEAK_THRESHOLD("advanced.session-leak.threshold"),
+
+  /**
+   * The Netty transport used for I/O: NIO, EPOLL, IO_URING or AUTO.
+   *
+   * <p>Value-type: {@link String}
+   */
+  NETTY_IO_TRANSPORT("advanced.netty.io-group.transport"),
+
+  /**
+   * The algorithm used to allocate stream ids on each connection: BITSET or FREE_LIST.
+   *
+   * <p>Value-type: {@link String}
+   */
+  CONNECTION_STREAM_ID_ALLOCATOR("advanced.connection.stream-id-allocator"),
+
+  /**
+   * How a pool picks a connection when it has more than one: LEAST_BUSY, POWER_OF_TWO_CHOICES or
+   * ROUND_ROBIN.
+   *
+   * <p>Value-type: {@link String}
+   */
+  CONNECTION_POOL_SELECTION_STRATEGY("advanced.connection.pool.selection-strategy"),
+
+  /**
+   * The class of the component that coalesces writes on the connections.
+   *
+   * <p>Value-type: {@link String}
+   */
+  COALESCER_CLASS("advanced.coalescer.class"),
+
+  /**
+   * The number of bytes buffered on a connection that triggers a flush, in the adaptive write
+   * coalescer.
+   *
+   * <p>Value-type: long
+   */
+  COALESCER_MAX_BATCH_BYTES("advanced.coalescer.max-batch-bytes"),
+
+  /**
+   * The maximum time a write can wait before being flushed, in the adaptive write coalescer.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  COALESCER_MAX_DELAY("advanced.coalescer.max-delay"),
+
+  /**
+   * The lower bound of the concurrency limit, in the adaptive concurrency-limiting throttler.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS("advanced.throttler.min-concurrent-requests"),
+
+  /**
+   * The initial concurrency limit, in the adaptive concurrency-limiting throttler.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS("advanced.throttler.initial-concurrent-requests"),
+
+  /**
+   * The algorithm that adjusts the concurrency limit, in the adaptive concurrency-limiting
+   * throttler: AIMD or GRADIENT.
+   *
+   * <p>Value-type: {@link String}
+   */
+  REQUEST_THROTTLER_LIMIT_ALGORITHM("advanced.throttler.limit-algorithm"),
+
+  /**
+   * The latency above which the AIMD algorithm reduces the concurrency limit.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  REQUEST_THROTTLER_LATENCY_THRESHOLD("advanced.throttler.latency-threshold"),
+
+  /**
+   * The factor applied to the concurrency limit when the AIMD algorithm reduces it.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_BACKOFF_RATIO("advanced.throttler.backoff-ratio"),
+
+  /**
+   * How much the latency can exceed its long-term average before the GRADIENT algorithm reduces the
+   * concurrency limit.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_LATENCY_TOLERANCE("advanced.throttler.latency-tolerance"),
+
+  /**
+   * How fast the GRADIENT algorithm moves the concurrency limit towards its target, between 0 and
+   * 1.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_SMOOTHING("advanced.throttler.smoothing"),
+
+  /**
+   * The maximum number of statements in a batch created by the auto-batching writer.
+   *
+   * <p>Value-type: int
+   */
+  AUTO_BATCHING_MAX_STATEMENTS("advanced.auto-batching.max-statements"),
+
+  /**
+   * How long the auto-batching writer accumulates statements before sending an incomplete batch.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  AUTO_BATCHING_MAX_DELAY("advanced.auto-batching.max-delay"),
+
+  /**
+   * How the auto-batching writer groups statements: PARTITION or REPLICA_SET.
+   *
+   * <p>Value-type: {@link String}
+   */
+  AUTO_BATCHING_GROUPING("advanced.auto-batching.grouping"),
+
+  /**
+   * Number of independent timer wheels that timeouts are spread over.
+   *
+   * <p>Value-type: int
+   */
+  NETTY_TIMER_SHARDS("advanced.netty.timer.shards"),
+
+  /**
+   * Whether to decode the cells of ROWS responses on demand.
+   *
+   * <p>Value-type: boolean
+   */
+  PROTOCOL_LAZY_ROWS("advanced.protocol.lazy-rows"),
+
+  /**
+   * How many pages the synchronous API requests in advance while the current one is being iterated.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_PREFETCH_PAGES("basic.request.prefetch-pages"),
+
+  /**
+   * The maximum size of the pages that the synchronous API holds in advance.
+   *
+   * <p>Value-type: long
+   */
+  REQUEST_PREFETCH_MAX_BYTES("basic.request.prefetch-max-bytes"),
+
+  /**
+   * The minimum number of token sub-ranges per node in a token range scan.
+   *
+   * <p>Value-type: int
+   */
+  TOKEN_RANGE_SCAN_SPLITS_PER_NODE("advanced.token-range-scan.splits-per-node"),
+
+  /**
+   * The maximum number of token sub-ranges scanned concurrently in a token range scan.
+   *
+   * <p>Value-type: int
+   */
+  TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES("advanced.token-range-scan.max-concurrent-ranges"),
+
+  /**
+   * How many times a page request is retried on another replica in a token range scan.
+   *
+   * <p>Value-type: int
+   */
+  TOKEN_RANGE_SCAN_MAX_RETRIES("advanced.token-range-scan.max-retries"),
+
+  /**
+   * The maximum number of routing keys for which the load balancing policy caches replicas.
+   *
+   * <p>Value-type: int
+   */
+  LOAD_BALANCING_REPLICA_CACHE_SIZE("basic.load-balancing-policy.replica-cache-size"),
+
+  /**
+   * How fast past latency samples lose their weight in LatencyAwareLoadBalancingPolicy.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  LOAD_BALANCING_LATENCY_DECAY_TIME("basic.load-balancing-policy.latency-decay-time"),
+
+  /**
+   * The rack that is considered "local": nodes from this rack are tried first.
+   *
+   * <p>Value-type: String
+   */
+  LOAD_BALANCING_LOCAL_RACK("basic.load-balancing-policy.local-rack"),
+
+  /**
+   * The maximum number of nodes from each remote datacenter to include in query plans, after the
+   * local nodes.
+   *
+   * <p>Value-type: int
+   */
+  LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC(
+      "advanced.load-balancing-policy.dc-failover.max-nodes-per-remote-dc"),
+
+  /**
+   * Whether to include remote nodes in query plans for requests with a local consistency level.
+   *
+   * <p>Value-type: boolean
+   */
+  LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS(
+      "advanced.load-balancing-policy.dc-failover.allow-for-local-consistency-levels"),
+
+  /**
+   * The latency percentile at which PercentileSpeculativeExecutionPolicy starts a speculative
+   * execution.
+   *
+   * <p>Value-type: double
+   */
+  SPECULATIVE_EXECUTION_PERCENTILE("advanced.speculative-execution-policy.percentile"),
+
+  /**
+   * The maximum ratio of speculative executions to requests in
+   * PercentileSpeculativeExecutionPolicy.
+   *
+   * <p>Value-type: double
+   */
+  SPECULATIVE_EXECUTION_BUDGET("advanced.speculative-execution-policy.budget"),
+
+  /**
+   * The number of latency samples that PercentileSpeculativeExecutionPolicy needs for a node before
+   * it uses its percentile.
+   *
+   * <p>Value-type: int
+   */
+  SPECULATIVE_EXECUTION_MIN_SAMPLES("advanced.speculative-execution-policy.min-samples"),
+
+  /**
+   * How often PercentileSpeculativeExecutionPolicy recomputes the latency percentile of each node.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_REFRESH_INTERVAL("advanced.speculative-execution-policy.refresh-interval"),
+
+  /**
+   * The file where the driver saves a snapshot of the schema rows, to speed up the next startup.
+   *
+   * <p>Value-type: {@link String}
+   */
+  METADATA_SCHEMA_SNAPSHOT_FILE("advanced.metadata.schema.snapshot-file"),
+
+  /**
+   * The fraction of LOCAL pools that must be connected before the session is reported ready; the
+   * remaining pools keep connecting in the background.
+   *
+   * <p>Value-type: double
+   */
+  CONNECTION_POOL_INIT_READY_THRESHOLD("advanced.connection.pool.init-ready-threshold"),
+
+  /**
+   * The maximum number of connections in the LOCAL pool, when elastic sizing is enabled.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_LOCAL_MAX_SIZE("advanced.connection.pool.local.max-size"),
+
+  /**
+   * The maximum number of connections in the REMOTE pool, when elastic sizing is enabled.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_REMOTE_MAX_SIZE("advanced.connection.pool.remote.max-size"),
+
+  /**
+   * The fraction of stream ids in use above which an elastic pool adds a connection.
+   *
+   * <p>Value-type: double
+   */
+  CONNECTION_POOL_ELASTIC_GROW_WATERMARK("advanced.connection.pool.elastic.grow-watermark"),
+
+  /**
+   * The fraction of stream ids in use below which an elastic pool removes a connection, after the
+   * cool-down.
+   *
+   * <p>Value-type: double
+   */
+  CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK("advanced.connection.pool.elastic.shrink-watermark"),
+
+  /**
+   * How often elastic pools check their stream id utilization.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  CONNECTION_POOL_ELASTIC_INTERVAL("advanced.connection.pool.elastic.interval"),
+
+  /**
+   * How long the utilization of an elastic pool must stay below the shrink watermark before a
+   * connection is removed.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  CONNECTION_POOL_ELASTIC_COOL_DOWN("advanced.connection.pool.elastic.cool-down"),
+
+  /**
+   * The maximum number of statements per second reprepared on a given node, across all sessions in
+   * the JVM.
+   *
+   * <p>Value-type: int
+   */
+  REPREPARE_MAX_RATE_PER_NODE("advanced.prepared-statements.reprepare-on-up.max-rate-per-node"),
+
+  /**
+   * How long a statement reprepared on a node by one session is skipped by the other sessions in
+   * the JVM.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  REPREPARE_DEDUPE_WINDOW("advanced.prepared-statements.reprepare-on-up.dedupe-window"),
+
+  /**
+   * The minimum latency recorded for a failed request in LatencyAwareLoadBalancingPolicy.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  LOAD_BALANCING_LATENCY_ERROR_PENALTY("basic.load-balancing-policy.latency-error-penalty"),
+
+  /**
+   * The largest initialization time that we expect to record for connection pools.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_NODE_POOL_INIT_TIME_HIGHEST("advanced.metrics.node.pool.init-time.highest-latency"),
+
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for
+   * connection pool initialization times.
+   *
+   * <p>Value-type: int
+   */
+  METRICS_NODE_POOL_INIT_TIME_DIGITS("advanced.metrics.node.pool.init-time.significant-digits"),
+
+  /**
+   * The interval at which percentile data is refreshed for connection pool initialization times.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_NODE_POOL_INIT_TIME_INTERVAL("advanced.metrics.node.pool.init-time.refresh-interval"),
   ;
 
   private final String path;
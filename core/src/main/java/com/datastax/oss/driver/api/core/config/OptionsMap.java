@@ -253,14 +253,22 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.GRAPH_TRAVERSAL_SOURCE, "g");
     map.put(TypedDriverOption.LOAD_BALANCING_POLICY_CLASS, "DefaultLoadBalancingPolicy");
     map.put(TypedDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true);
+    map.put(TypedDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC, 0);
+    map.put(TypedDriverOption.LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS, false);
     map.put(TypedDriverOption.SESSION_LEAK_THRESHOLD, 4);
     map.put(TypedDriverOption.CONNECTION_CONNECT_TIMEOUT, Duration.ofSeconds(5));
     map.put(TypedDriverOption.CONNECTION_INIT_QUERY_TIMEOUT, Duration.ofMillis(500));
     map.put(TypedDriverOption.CONNECTION_SET_KEYSPACE_TIMEOUT, Duration.ofMillis(500));
     map.put(TypedDriverOption.CONNECTION_POOL_LOCAL_SIZE, 1);
     map.put(TypedDriverOption.CONNECTION_POOL_REMOTE_SIZE, 1);
+    map.put(TypedDriverOption.CONNECTION_POOL_SELECTION_STRATEGY, "LEAST_BUSY");
+    map.put(TypedDriverOption.CONNECTION_POOL_ELASTIC_GROW_WATERMARK, 0.75);
+    map.put(TypedDriverOption.CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK, 0.25);
+    map.put(TypedDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL, Duration.ofSeconds(1));
+    map.put(TypedDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN, Duration.ofMinutes(1));
     map.put(TypedDriverOption.CONNECTION_MAX_REQUESTS, 1024);
     map.put(TypedDriverOption.CONNECTION_MAX_ORPHAN_REQUESTS, 256);
+    map.put(TypedDriverOption.CONNECTION_STREAM_ID_ALLOCATOR, "BITSET");
     map.put(TypedDriverOption.CONNECTION_WARN_INIT_ERROR, true);
     map.put(TypedDriverOption.RECONNECT_ON_INIT, false);
     map.put(TypedDriverOption.RECONNECTION_POLICY_CLASS, "ExponentialReconnectionPolicy");
@@ -274,11 +282,18 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.TIMESTAMP_GENERATOR_FORCE_JAVA_CLOCK, false);
     map.put(TypedDriverOption.REQUEST_TRACKER_CLASS, "NoopRequestTracker");
     map.put(TypedDriverOption.REQUEST_THROTTLER_CLASS, "PassThroughRequestThrottler");
+    map.put(TypedDriverOption.AUTO_BATCHING_MAX_STATEMENTS, 20);
+    map.put(TypedDriverOption.AUTO_BATCHING_MAX_DELAY, Duration.ofMillis(10));
+    map.put(TypedDriverOption.AUTO_BATCHING_GROUPING, "PARTITION");
+    map.put(TypedDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE, 8);
+    map.put(TypedDriverOption.TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES, 16);
+    map.put(TypedDriverOption.TOKEN_RANGE_SCAN_MAX_RETRIES, 2);
     map.put(TypedDriverOption.METADATA_NODE_STATE_LISTENER_CLASS, "NoopNodeStateListener");
     map.put(TypedDriverOption.METADATA_SCHEMA_CHANGE_LISTENER_CLASS, "NoopSchemaChangeListener");
     map.put(TypedDriverOption.ADDRESS_TRANSLATOR_CLASS, "PassThroughAddressTranslator");
     map.put(TypedDriverOption.RESOLVE_CONTACT_POINTS, true);
     map.put(TypedDriverOption.PROTOCOL_MAX_FRAME_LENGTH, 256L * 1024 * 1024);
+    map.put(TypedDriverOption.PROTOCOL_LAZY_ROWS, false);
     map.put(TypedDriverOption.REQUEST_WARN_IF_SET_KEYSPACE, true);
     map.put(TypedDriverOption.REQUEST_TRACE_ATTEMPTS, 5);
     map.put(TypedDriverOption.REQUEST_TRACE_INTERVAL, Duration.ofMillis(3));
@@ -321,6 +336,9 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_HIGHEST, Duration.ofSeconds(3));
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_DIGITS, 3);
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_INTERVAL, Duration.ofMinutes(5));
+    map.put(TypedDriverOption.METRICS_NODE_POOL_INIT_TIME_HIGHEST, Duration.ofSeconds(30));
+    map.put(TypedDriverOption.METRICS_NODE_POOL_INIT_TIME_DIGITS, 3);
+    map.put(TypedDriverOption.METRICS_NODE_POOL_INIT_TIME_INTERVAL, Duration.ofMinutes(5));
     map.put(TypedDriverOption.SOCKET_TCP_NODELAY, true);
     map.put(TypedDriverOption.HEARTBEAT_INTERVAL, Duration.ofSeconds(30));
     map.put(TypedDriverOption.HEARTBEAT_TIMEOUT, Duration.ofMillis(500));
@@ -342,8 +360,11 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.REPREPARE_MAX_STATEMENTS, 0);
     map.put(TypedDriverOption.REPREPARE_MAX_PARALLELISM, 100);
     map.put(TypedDriverOption.REPREPARE_TIMEOUT, Duration.ofMillis(500));
+    map.put(TypedDriverOption.REPREPARE_MAX_RATE_PER_NODE, 0);
+    map.put(TypedDriverOption.REPREPARE_DEDUPE_WINDOW, Duration.ofSeconds(30));
     map.put(TypedDriverOption.NETTY_DAEMON, false);
     map.put(TypedDriverOption.NETTY_IO_SIZE, 0);
+    map.put(TypedDriverOption.NETTY_IO_TRANSPORT, "NIO");
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_QUIET_PERIOD, 2);
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_TIMEOUT, 15);
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_UNIT, "SECONDS");
@@ -353,6 +374,7 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.NETTY_ADMIN_SHUTDOWN_UNIT, "SECONDS");
     map.put(TypedDriverOption.NETTY_TIMER_TICK_DURATION, Duration.ofMillis(100));
     map.put(TypedDriverOption.NETTY_TIMER_TICKS_PER_WHEEL, 2048);
+    map.put(TypedDriverOption.COALESCER_CLASS, "DefaultWriteCoalescer");
     map.put(TypedDriverOption.COALESCER_INTERVAL, Duration.of(10, ChronoUnit.MICROS));
   }
 
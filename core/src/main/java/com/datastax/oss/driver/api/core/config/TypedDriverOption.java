@@ -553,6 +553,234 @@ public class TypedDriverOption<ValueT> {
   /** The maximum number of live sessions that are allowed to coexist in a given VM. */
   public static final TypedDriverOption<Integer> SESSION_LEAK_THRESHOLD =
       new TypedDriverOption<>(DefaultDriverOption.SESSION_LEAK_THRESHOLD, GenericType.INTEGER);
+  /** The Netty transport used for I/O: NIO, EPOLL, IO_URING or AUTO. */
+  public static final TypedDriverOption<String> NETTY_IO_TRANSPORT =
+      new TypedDriverOption<>(DefaultDriverOption.NETTY_IO_TRANSPORT, GenericType.STRING);
+  /** The algorithm used to allocate stream ids on each connection: BITSET or FREE_LIST. */
+  public static final TypedDriverOption<String> CONNECTION_STREAM_ID_ALLOCATOR =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_STREAM_ID_ALLOCATOR, GenericType.STRING);
+  /**
+   * How a pool picks a connection when it has more than one: LEAST_BUSY, POWER_OF_TWO_CHOICES or
+   * ROUND_ROBIN.
+   */
+  public static final TypedDriverOption<String> CONNECTION_POOL_SELECTION_STRATEGY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_SELECTION_STRATEGY, GenericType.STRING);
+  /** The class of the component that coalesces writes on the connections. */
+  public static final TypedDriverOption<String> COALESCER_CLASS =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_CLASS, GenericType.STRING);
+  /**
+   * The number of bytes buffered on a connection that triggers a flush, in the adaptive write
+   * coalescer.
+   */
+  public static final TypedDriverOption<Long> COALESCER_MAX_BATCH_BYTES =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_MAX_BATCH_BYTES, GenericType.LONG);
+  /** The maximum time a write can wait before being flushed, in the adaptive write coalescer. */
+  public static final TypedDriverOption<Duration> COALESCER_MAX_DELAY =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_MAX_DELAY, GenericType.DURATION);
+  /** The lower bound of the concurrency limit, in the adaptive concurrency-limiting throttler. */
+  public static final TypedDriverOption<Integer> REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS, GenericType.INTEGER);
+  /** The initial concurrency limit, in the adaptive concurrency-limiting throttler. */
+  public static final TypedDriverOption<Integer> REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS, GenericType.INTEGER);
+  /**
+   * The algorithm that adjusts the concurrency limit, in the adaptive concurrency-limiting
+   * throttler: AIMD or GRADIENT.
+   */
+  public static final TypedDriverOption<String> REQUEST_THROTTLER_LIMIT_ALGORITHM =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_LIMIT_ALGORITHM, GenericType.STRING);
+  /** The latency above which the AIMD algorithm reduces the concurrency limit. */
+  public static final TypedDriverOption<Duration> REQUEST_THROTTLER_LATENCY_THRESHOLD =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD, GenericType.DURATION);
+  /** The factor applied to the concurrency limit when the AIMD algorithm reduces it. */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_BACKOFF_RATIO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO, GenericType.DOUBLE);
+  /**
+   * How much the latency can exceed its long-term average before the GRADIENT algorithm reduces the
+   * concurrency limit.
+   */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_LATENCY_TOLERANCE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_LATENCY_TOLERANCE, GenericType.DOUBLE);
+  /**
+   * How fast the GRADIENT algorithm moves the concurrency limit towards its target, between 0 and
+   * 1.
+   */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_SMOOTHING =
+      new TypedDriverOption<>(DefaultDriverOption.REQUEST_THROTTLER_SMOOTHING, GenericType.DOUBLE);
+  /** The maximum number of statements in a batch created by the auto-batching writer. */
+  public static final TypedDriverOption<Integer> AUTO_BATCHING_MAX_STATEMENTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.AUTO_BATCHING_MAX_STATEMENTS, GenericType.INTEGER);
+  /**
+   * How long the auto-batching writer accumulates statements before sending an incomplete batch.
+   */
+  public static final TypedDriverOption<Duration> AUTO_BATCHING_MAX_DELAY =
+      new TypedDriverOption<>(DefaultDriverOption.AUTO_BATCHING_MAX_DELAY, GenericType.DURATION);
+  /** How the auto-batching writer groups statements: PARTITION or REPLICA_SET. */
+  public static final TypedDriverOption<String> AUTO_BATCHING_GROUPING =
+      new TypedDriverOption<>(DefaultDriverOption.AUTO_BATCHING_GROUPING, GenericType.STRING);
+  /** Number of independent timer wheels that timeouts are spread over. */
+  public static final TypedDriverOption<Integer> NETTY_TIMER_SHARDS =
+      new TypedDriverOption<>(DefaultDriverOption.NETTY_TIMER_SHARDS, GenericType.INTEGER);
+  /** Whether to decode the cells of ROWS responses on demand. */
+  public static final TypedDriverOption<Boolean> PROTOCOL_LAZY_ROWS =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_LAZY_ROWS, GenericType.BOOLEAN);
+  /**
+   * How many pages the synchronous API requests in advance while the current one is being iterated.
+   */
+  public static final TypedDriverOption<Integer> REQUEST_PREFETCH_PAGES =
+      new TypedDriverOption<>(DefaultDriverOption.REQUEST_PREFETCH_PAGES, GenericType.INTEGER);
+  /** The maximum size of the pages that the synchronous API holds in advance. */
+  public static final TypedDriverOption<Long> REQUEST_PREFETCH_MAX_BYTES =
+      new TypedDriverOption<>(DefaultDriverOption.REQUEST_PREFETCH_MAX_BYTES, GenericType.LONG);
+  /** The minimum number of token sub-ranges per node in a token range scan. */
+  public static final TypedDriverOption<Integer> TOKEN_RANGE_SCAN_SPLITS_PER_NODE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE, GenericType.INTEGER);
+  /** The maximum number of token sub-ranges scanned concurrently in a token range scan. */
+  public static final TypedDriverOption<Integer> TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES, GenericType.INTEGER);
+  /** How many times a page request is retried on another replica in a token range scan. */
+  public static final TypedDriverOption<Integer> TOKEN_RANGE_SCAN_MAX_RETRIES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_RETRIES, GenericType.INTEGER);
+  /** The maximum number of routing keys for which the load balancing policy caches replicas. */
+  public static final TypedDriverOption<Integer> LOAD_BALANCING_REPLICA_CACHE_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_REPLICA_CACHE_SIZE, GenericType.INTEGER);
+  /** How fast past latency samples lose their weight in LatencyAwareLoadBalancingPolicy. */
+  public static final TypedDriverOption<Duration> LOAD_BALANCING_LATENCY_DECAY_TIME =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_LATENCY_DECAY_TIME, GenericType.DURATION);
+  /** The rack that is considered "local": nodes from this rack are tried first. */
+  public static final TypedDriverOption<String> LOAD_BALANCING_LOCAL_RACK =
+      new TypedDriverOption<>(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, GenericType.STRING);
+  /**
+   * The maximum number of nodes from each remote datacenter to include in query plans, after the
+   * local nodes.
+   */
+  public static final TypedDriverOption<Integer>
+      LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC =
+          new TypedDriverOption<>(
+              DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC,
+              GenericType.INTEGER);
+  /** Whether to include remote nodes in query plans for requests with a local consistency level. */
+  public static final TypedDriverOption<Boolean>
+      LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS =
+          new TypedDriverOption<>(
+              DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS,
+              GenericType.BOOLEAN);
+  /**
+   * The latency percentile at which PercentileSpeculativeExecutionPolicy starts a speculative
+   * execution.
+   */
+  public static final TypedDriverOption<Double> SPECULATIVE_EXECUTION_PERCENTILE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, GenericType.DOUBLE);
+  /**
+   * The maximum ratio of speculative executions to requests in
+   * PercentileSpeculativeExecutionPolicy.
+   */
+  public static final TypedDriverOption<Double> SPECULATIVE_EXECUTION_BUDGET =
+      new TypedDriverOption<>(DefaultDriverOption.SPECULATIVE_EXECUTION_BUDGET, GenericType.DOUBLE);
+  /**
+   * The number of latency samples that PercentileSpeculativeExecutionPolicy needs for a node before
+   * it uses its percentile.
+   */
+  public static final TypedDriverOption<Integer> SPECULATIVE_EXECUTION_MIN_SAMPLES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES, GenericType.INTEGER);
+  /**
+   * How often PercentileSpeculativeExecutionPolicy recomputes the latency percentile of each node.
+   */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_REFRESH_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, GenericType.DURATION);
+  /**
+   * The file where the driver saves a snapshot of the schema rows, to speed up the next startup.
+   */
+  public static final TypedDriverOption<String> METADATA_SCHEMA_SNAPSHOT_FILE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METADATA_SCHEMA_SNAPSHOT_FILE, GenericType.STRING);
+  /**
+   * The fraction of LOCAL pools that must be connected before the session is reported ready; the
+   * remaining pools keep connecting in the background.
+   */
+  public static final TypedDriverOption<Double> CONNECTION_POOL_INIT_READY_THRESHOLD =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD, GenericType.DOUBLE);
+  /** The maximum number of connections in the LOCAL pool, when elastic sizing is enabled. */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_LOCAL_MAX_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_LOCAL_MAX_SIZE, GenericType.INTEGER);
+  /** The maximum number of connections in the REMOTE pool, when elastic sizing is enabled. */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_REMOTE_MAX_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_REMOTE_MAX_SIZE, GenericType.INTEGER);
+  /** The fraction of stream ids in use above which an elastic pool adds a connection. */
+  public static final TypedDriverOption<Double> CONNECTION_POOL_ELASTIC_GROW_WATERMARK =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_ELASTIC_GROW_WATERMARK, GenericType.DOUBLE);
+  /**
+   * The fraction of stream ids in use below which an elastic pool removes a connection, after the
+   * cool-down.
+   */
+  public static final TypedDriverOption<Double> CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK, GenericType.DOUBLE);
+  /** How often elastic pools check their stream id utilization. */
+  public static final TypedDriverOption<Duration> CONNECTION_POOL_ELASTIC_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL, GenericType.DURATION);
+  /**
+   * How long the utilization of an elastic pool must stay below the shrink watermark before a
+   * connection is removed.
+   */
+  public static final TypedDriverOption<Duration> CONNECTION_POOL_ELASTIC_COOL_DOWN =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN, GenericType.DURATION);
+  /**
+   * The maximum number of statements per second reprepared on a given node, across all sessions in
+   * the JVM.
+   */
+  public static final TypedDriverOption<Integer> REPREPARE_MAX_RATE_PER_NODE =
+      new TypedDriverOption<>(DefaultDriverOption.REPREPARE_MAX_RATE_PER_NODE, GenericType.INTEGER);
+  /**
+   * How long a statement reprepared on a node by one session is skipped by the other sessions in
+   * the JVM.
+   */
+  public static final TypedDriverOption<Duration> REPREPARE_DEDUPE_WINDOW =
+      new TypedDriverOption<>(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW, GenericType.DURATION);
+  /** The minimum latency recorded for a failed request in LatencyAwareLoadBalancingPolicy. */
+  public static final TypedDriverOption<Duration> LOAD_BALANCING_LATENCY_ERROR_PENALTY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_LATENCY_ERROR_PENALTY, GenericType.DURATION);
+  /** The largest initialization time that we expect to record for connection pools. */
+  public static final TypedDriverOption<Duration> METRICS_NODE_POOL_INIT_TIME_HIGHEST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_HIGHEST, GenericType.DURATION);
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for
+   * connection pool initialization times.
+   */
+  public static final TypedDriverOption<Integer> METRICS_NODE_POOL_INIT_TIME_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_DIGITS, GenericType.INTEGER);
+  /**
+   * The interval at which percentile data is refreshed for connection pool initialization times.
+   */
+  public static final TypedDriverOption<Duration> METRICS_NODE_POOL_INIT_TIME_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_INTERVAL, GenericType.DURATION);
 
   /** The name of the application using the session. */
   public static final TypedDriverOption<String> APPLICATION_NAME =
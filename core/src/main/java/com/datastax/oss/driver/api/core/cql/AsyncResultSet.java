@@ -17,6 +17,8 @@ package com.datastax.oss.driver.api.core.cql;
 
 import com.datastax.oss.driver.api.core.AsyncPagingIterable;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnarPage;
+import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
  * The result of an asynchronous CQL query.
@@ -40,4 +42,20 @@ public interface AsyncResultSet extends AsyncPagingIterable<Row, AsyncResultSet>
    */
   @Override
   boolean wasApplied();
+
+  /**
+   * Returns the remaining rows of the current page, laid out by column.
+   *
+   * <p>This consumes the rows: after this method returns, {@link #currentPage()} is exhausted.
+   * Conversely, rows that were already consumed from {@link #currentPage()} are not included. Use
+   * {@link #hasMorePages()} and {@link #fetchNextPage()} to continue with the next page.
+   *
+   * <p>The built-in implementation decodes the page directly from the response, without creating
+   * intermediary {@link Row} objects. The default implementation of this method, used by custom
+   * result sets, converts each row.
+   */
+  @NonNull
+  default ColumnarPage currentPageColumns() {
+    return DefaultColumnarPage.fromRows(getColumnDefinitions(), remaining(), currentPage());
+  }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.cql;
+
+import com.datastax.oss.driver.api.core.AsyncAutoCloseable;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.internal.core.cql.DefaultAutoBatchingWriter;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Accumulates independent statements, and executes them in unlogged batches that target a single
+ * partition or replica set.
+ *
+ * <p>This is intended for bulk ingestion: instead of executing each statement separately, the
+ * application {@linkplain #addAsync(BatchableStatement) adds} them to the writer, which groups them
+ * by routing information, and sends a batch as soon as a group reaches {@code
+ * advanced.auto-batching.max-statements}, or {@code advanced.auto-batching.max-delay} after the
+ * first statement of the group was added. Grouping can happen:
+ *
+ * <ul>
+ *   <li>by partition ({@code PARTITION}): the batch only contains updates to the same partition, so
+ *       Cassandra applies it as a single mutation;
+ *   <li>or by replica set ({@code REPLICA_SET}): partitions that are owned by the same replicas get
+ *       batched together. This produces fewer, larger batches, and the coordinator is always a
+ *       replica.
+ * </ul>
+ *
+ * Statements that can't be grouped (because their keyspace or routing key is unknown, or the token
+ * metadata is not available) are executed immediately.
+ *
+ * <p>The statements must be suitable for an unlogged batch: no counter updates, and no conditional
+ * updates (unless grouped by partition). The batch uses the execution profile, consistency levels
+ * and timeout of the first statement of each group; statements with different execution profiles or
+ * consistency levels never end up in the same batch.
+ *
+ * <p>Implementations are thread-safe.
+ */
+public interface AutoBatchingWriter extends AsyncAutoCloseable {
+
+  /**
+   * Creates a new instance that executes batches on the given session, with the options of the
+   * session's default profile.
+   */
+  @NonNull
+  static AutoBatchingWriter newInstance(@NonNull CqlSession session) {
+    return new DefaultAutoBatchingWriter(session);
+  }
+
+  /**
+   * Adds a statement to the writer.
+   *
+   * @return a stage that completes when the batch that contains the statement (or the statement
+   *     itself, if it was executed individually) has completed. Note that, in the case of a batch,
+   *     all the statements of the batch share the same result.
+   */
+  @NonNull
+  CompletionStage<AsyncResultSet> addAsync(@NonNull BatchableStatement<?> statement);
+
+  /**
+   * Sends all the statements that are currently accumulated, without waiting for their group to be
+   * full or their delay to expire.
+   *
+   * @return a stage that completes when all the flushed statements have completed (successfully or
+   *     not).
+   */
+  @NonNull
+  CompletionStage<Void> flushAsync();
+}
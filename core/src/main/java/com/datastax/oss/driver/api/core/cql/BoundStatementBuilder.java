@@ -23,10 +23,12 @@ import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.type.DataType;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.internal.core.cql.DefaultBoundStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
 import net.jcip.annotations.NotThreadSafe;
 
@@ -34,6 +36,14 @@ import net.jcip.annotations.NotThreadSafe;
  * A builder to create a bound statement.
  *
  * <p>This class is mutable and not thread-safe.
+ *
+ * <p>A builder can be reused to build several statements: values are bound in place, and the
+ * statements returned by {@link #build()} are not affected by subsequent changes to the builder.
+ * For example, a write-heavy application can keep one builder per thread and prepared statement,
+ * and rebind all variables before each {@link #build()}: the other attributes of the builder
+ * (execution profile, routing information, etc.) are kept across statements, and the value array is
+ * copied only once per statement (on the first modification after {@link #build()}), instead of
+ * once per modified variable with the immutable setters of {@link BoundStatement}.
  */
 @NotThreadSafe
 public class BoundStatementBuilder extends StatementBuilder<BoundStatementBuilder, BoundStatement>
@@ -41,7 +51,10 @@ public class BoundStatementBuilder extends StatementBuilder<BoundStatementBuilde
 
   @NonNull private final PreparedStatement preparedStatement;
   @NonNull private final ColumnDefinitions variableDefinitions;
-  @NonNull private final ByteBuffer[] values;
+  @NonNull private ByteBuffer[] values;
+  // Whether the current values array was handed to a built statement, and must be copied before
+  // the next modification.
+  private boolean valuesShared;
   @NonNull private final CodecRegistry codecRegistry;
   @NonNull private final ProtocolVersion protocolVersion;
 
@@ -119,10 +132,31 @@ public class BoundStatementBuilder extends StatementBuilder<BoundStatementBuilde
   @NonNull
   @Override
   public BoundStatementBuilder setBytesUnsafe(int i, ByteBuffer v) {
+    if (valuesShared) {
+      values = values.clone();
+      valuesShared = false;
+    }
     values[i] = v;
     return this;
   }
 
+  /**
+   * Unsets all the variables, as if {@link #unset(int)} had been called on each of them.
+   *
+   * <p>This is intended for builders that are reused to build multiple statements. Note that it
+   * does not reset the other execution parameters (execution profile, timestamp, paging state,
+   * etc).
+   */
+  @NonNull
+  public BoundStatementBuilder unsetAll() {
+    if (valuesShared) {
+      values = new ByteBuffer[values.length];
+      valuesShared = false;
+    }
+    Arrays.fill(values, ProtocolConstants.UNSET_VALUE);
+    return this;
+  }
+
   @Override
   public ByteBuffer getBytesUnsafe(int i) {
     return values[i];
@@ -154,6 +188,8 @@ public class BoundStatementBuilder extends StatementBuilder<BoundStatementBuilde
   @NonNull
   @Override
   public BoundStatement build() {
+    // Don't copy now: if the builder is not reused, the copy is unnecessary
+    valuesShared = true;
     return new DefaultBoundStatement(
         preparedStatement,
         variableDefinitions,
@@ -0,0 +1,157 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.cql;
+
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * A page of results, laid out by column instead of by row.
+ *
+ * <p>This is intended for analytical workloads that scan large amounts of data, and process it
+ * column by column: columns of CQL type {@code int}, {@code bigint}, {@code counter}, {@code
+ * float}, {@code double} and {@code boolean} are decoded into primitive arrays, without boxing nor
+ * intermediary row objects; other columns are stored in their serialized form, in a single
+ * contiguous array per column, and decoded on demand.
+ *
+ * <p>Columns are identified by their index in {@link #getColumnDefinitions()}, and rows by their
+ * position in the page, starting at 0.
+ *
+ * <p>For efficiency, the arrays returned by this class are not copied: they must not be modified.
+ *
+ * @see AsyncResultSet#currentPageColumns()
+ */
+public interface ColumnarPage {
+
+  /** The metadata of the columns in this page. */
+  @NonNull
+  ColumnDefinitions getColumnDefinitions();
+
+  /** The number of rows in this page. */
+  int getRowCount();
+
+  /**
+   * Whether the value of the given column is {@code NULL} in the given row.
+   *
+   * @throws IndexOutOfBoundsException if the column or row index is invalid.
+   */
+  boolean isNull(int column, int row);
+
+  /**
+   * The rows where the given column is {@code NULL}.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   */
+  @NonNull
+  BitSet getNulls(int column);
+
+  /**
+   * The values of a column of CQL type {@code int}, one per row. {@code NULL} values are
+   * represented as 0; use {@link #isNull(int, int)} to distinguish them.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   * @throws IllegalArgumentException if the column is not of a supported type.
+   */
+  @NonNull
+  int[] getInts(int column);
+
+  /**
+   * The values of a column of CQL type {@code bigint} or {@code counter}, one per row. {@code NULL}
+   * values are represented as 0; use {@link #isNull(int, int)} to distinguish them.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   * @throws IllegalArgumentException if the column is not of a supported type.
+   */
+  @NonNull
+  long[] getLongs(int column);
+
+  /**
+   * The values of a column of CQL type {@code float}, one per row. {@code NULL} values are
+   * represented as 0; use {@link #isNull(int, int)} to distinguish them.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   * @throws IllegalArgumentException if the column is not of a supported type.
+   */
+  @NonNull
+  float[] getFloats(int column);
+
+  /**
+   * The values of a column of CQL type {@code double}, one per row. {@code NULL} values are
+   * represented as 0; use {@link #isNull(int, int)} to distinguish them.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   * @throws IllegalArgumentException if the column is not of a supported type.
+   */
+  @NonNull
+  double[] getDoubles(int column);
+
+  /**
+   * The values of a column of CQL type {@code boolean}, one per row. {@code NULL} values are
+   * represented as {@code false}; use {@link #isNull(int, int)} to distinguish them.
+   *
+   * @throws IndexOutOfBoundsException if the column index is invalid.
+   * @throws IllegalArgumentException if the column is not of a supported type.
+   */
+  @NonNull
+  boolean[] getBooleans(int column);
+
+  /**
+   * Returns the raw binary representation of a value, as it was received from the server.
+   *
+   * <p>For columns stored in serialized form, this is a view over the page's internal storage; for
+   * primitive columns, the value gets re-encoded.
+   *
+   * @throws IndexOutOfBoundsException if the column or row index is invalid.
+   */
+  @Nullable
+  ByteBuffer getBytesUnsafe(int column, int row);
+
+  /**
+   * Decodes a value with the given codec.
+   *
+   * @throws IndexOutOfBoundsException if the column or row index is invalid.
+   */
+  @Nullable
+  <ValueT> ValueT get(int column, int row, @NonNull TypeCodec<ValueT> codec);
+
+  /**
+   * Decodes a value, converting it to the given Java type.
+   *
+   * <p>The codec is looked up in the session's codec registry, in the same way as {@link
+   * Row#get(int, Class)}.
+   *
+   * @throws IndexOutOfBoundsException if the column or row index is invalid.
+   * @throws com.datastax.oss.driver.api.core.type.codec.CodecNotFoundException if no codec can
+   *     perform the conversion.
+   */
+  @Nullable
+  <ValueT> ValueT get(int column, int row, @NonNull Class<ValueT> targetClass);
+
+  /**
+   * Decodes a value of CQL type {@code text}, {@code varchar} or {@code ascii}.
+   *
+   * @throws IndexOutOfBoundsException if the column or row index is invalid.
+   * @throws com.datastax.oss.driver.api.core.type.codec.CodecNotFoundException if the column is not
+   *     of a supported type.
+   */
+  @Nullable
+  default String getString(int column, int row) {
+    return get(column, row, String.class);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.cql;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.internal.core.cql.DefaultTokenRangeScanner;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.reactivestreams.Publisher;
+
+/**
+ * Reads all the rows of a table, by splitting the token ring into sub-ranges that are scanned in
+ * parallel.
+ *
+ * <p>This automates the usual approach for full table scans: the ranges of the {@linkplain
+ * com.datastax.oss.driver.api.core.metadata.TokenMap token map} are split evenly (according to
+ * {@code advanced.token-range-scan.splits-per-node}), and each sub-range is read with a query of
+ * the form {@code SELECT * FROM table WHERE token(pk) > ? AND token(pk) <= ?}, executed on one of
+ * its replicas in the local datacenter. If a page request fails, it is retried on the next replica
+ * of the sub-range, from the last page that was received (see {@code
+ * advanced.token-range-scan.max-retries}).
+ *
+ * <p>Rows are not returned in any particular order. Each call to {@link #spliterator()}, {@link
+ * #stream()} or {@link #publisher()} starts a new scan, based on the token metadata at that time;
+ * it requires token metadata to be enabled (see {@code advanced.metadata.token-map.enabled}).
+ *
+ * <p>Implementations are thread-safe.
+ */
+public interface TokenRangeScanner {
+
+  /**
+   * Creates a new instance that scans the given table, with the session's default execution
+   * profile.
+   */
+  @NonNull
+  static TokenRangeScanner newInstance(
+      @NonNull CqlSession session, @NonNull CqlIdentifier keyspace, @NonNull CqlIdentifier table) {
+    return new DefaultTokenRangeScanner(session, keyspace, table, null);
+  }
+
+  /**
+   * Creates a new instance that scans the given table, with the given execution profile.
+   *
+   * <p>The profile is used both for the scanner's options and for the queries, so this is a good
+   * place to configure a dedicated page size, timeout and consistency level for scans.
+   */
+  @NonNull
+  static TokenRangeScanner newInstance(
+      @NonNull CqlSession session,
+      @NonNull CqlIdentifier keyspace,
+      @NonNull CqlIdentifier table,
+      @Nullable DriverExecutionProfile profile) {
+    return new DefaultTokenRangeScanner(session, keyspace, table, profile);
+  }
+
+  /**
+   * Shortcut for {@link #newInstance(CqlSession, CqlIdentifier, CqlIdentifier) newInstance(session,
+   * CqlIdentifier.fromCql(keyspaceName), CqlIdentifier.fromCql(tableName))}.
+   */
+  @NonNull
+  static TokenRangeScanner newInstance(
+      @NonNull CqlSession session, @NonNull String keyspaceName, @NonNull String tableName) {
+    return newInstance(
+        session, CqlIdentifier.fromCql(keyspaceName), CqlIdentifier.fromCql(tableName));
+  }
+
+  /**
+   * Starts a new scan and returns a spliterator over its rows.
+   *
+   * <p>The spliterator splits by sub-range: each split reads its sub-ranges one after the other,
+   * with synchronous calls. At most {@code advanced.token-range-scan.max-concurrent-ranges} page
+   * requests are in flight at the same time, across all the splits; when that limit is reached, the
+   * splits that need a new page block until another request completes. In practice, the concurrency
+   * is also bounded by the parallelism of the stream's thread pool.
+   *
+   * <p>This method blocks until the scan queries are prepared. Don't call it, or consume the
+   * spliterator, from a driver thread.
+   */
+  @NonNull
+  Spliterator<Row> spliterator();
+
+  /**
+   * Starts a new scan and returns a parallel stream over its rows.
+   *
+   * <p>This is based on {@link #spliterator()}, and has the same blocking characteristics. If the
+   * stream is not fully consumed, it should be closed; as with any stream, operations such as
+   * {@code limit()} stop pulling from the sub-ranges that are still in progress.
+   */
+  @NonNull
+  default Stream<Row> stream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Returns a publisher that starts a new scan each time it is subscribed to.
+   *
+   * <p>Rows are fetched asynchronously: up to {@code
+   * advanced.token-range-scan.max-concurrent-ranges} sub-ranges are read at the same time, each
+   * with at most one page buffered (so this also bounds memory usage if the subscriber is slower
+   * than the cluster). The scan starts when the subscriber requests its first element, and it is
+   * stopped if the subscription is cancelled.
+   *
+   * <p>This requires the <a href="http://www.reactive-streams.org/">Reactive Streams</a> API to be
+   * present on the classpath.
+   */
+  @NonNull
+  Publisher<Row> publisher();
+}
@@ -25,6 +25,10 @@ public enum DefaultNodeMetric implements NodeMetric {
   AVAILABLE_STREAMS("pool.available-streams"),
   IN_FLIGHT("pool.in-flight"),
   ORPHANED_STREAMS("pool.orphaned-streams"),
+  CHANNEL_SELECTION_RETRIES("pool.selection-retries"),
+  POOL_INIT_TIME("pool.init-time"),
+  REPREPARE_SENT("reprepare.sent"),
+  REPREPARE_SKIPPED("reprepare.skipped"),
   BYTES_SENT("bytes-sent"),
   BYTES_RECEIVED("bytes-received"),
   CQL_MESSAGES("cql-messages"),
@@ -124,4 +124,14 @@ public class AdminRow {
       return codec.decode(data.get(index), protocolVersion);
     }
   }
+
+  /** The metadata of the row's columns, indexed by name. */
+  public Map<String, ColumnSpec> getColumnSpecs() {
+    return columnSpecs;
+  }
+
+  /** The raw values of the row's columns, in the order of {@link ColumnSpec#index}. */
+  public List<ByteBuffer> getData() {
+    return data;
+  }
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A write coalescer that holds back flushes until enough bytes are batched, or the oldest pending
+ * write has waited long enough.
+ *
+ * <p>Like {@link DefaultWriteCoalescer}, it maintains a queue per event loop, drained by a single
+ * task. But instead of flushing every channel at the end of each run, a channel is flushed:
+ *
+ * <ul>
+ *   <li>as soon as its outbound buffer holds at least {@code advanced.coalescer.max-batch-bytes};
+ *   <li>otherwise, when {@code advanced.coalescer.max-delay} has elapsed since the oldest unflushed
+ *       write was submitted.
+ * </ul>
+ *
+ * This trades a bit of latency for fewer {@code write()} system calls when many requests target the
+ * same channels. With a max delay of 0, it behaves like the default coalescer.
+ *
+ * <p>Note that the byte threshold is evaluated against the channel's outbound buffer, as accounted
+ * by Netty (which adds a small fixed overhead per message). If a handler holds back encoded bytes
+ * until the flush (for example {@code SslHandler}), only the deadline applies.
+ *
+ * <p>Per-event-loop statistics are available through {@link #getStatistics()}.
+ */
+@ThreadSafe
+public class AdaptiveWriteCoalescer implements WriteCoalescer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveWriteCoalescer.class);
+
+  private final long rescheduleIntervalNanos;
+  private final long maxBatchBytes;
+  private final long maxDelayNanos;
+  private final ConcurrentMap<EventLoop, Flusher> flushers = new ConcurrentHashMap<>();
+
+  public AdaptiveWriteCoalescer(DriverContext context) {
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.rescheduleIntervalNanos =
+        config.getDuration(DefaultDriverOption.COALESCER_INTERVAL).toNanos();
+    this.maxBatchBytes = config.getBytes(DefaultDriverOption.COALESCER_MAX_BATCH_BYTES);
+    this.maxDelayNanos = config.getDuration(DefaultDriverOption.COALESCER_MAX_DELAY).toNanos();
+    LOG.debug(
+        "[{}] Initializing with maxBatchBytes = {}, maxDelay = {} ns",
+        context.getSessionName(),
+        maxBatchBytes,
+        maxDelayNanos);
+  }
+
+  @Override
+  public ChannelFuture writeAndFlush(Channel channel, Object message) {
+    ChannelPromise writePromise = channel.newPromise();
+    Write write = new Write(channel, message, writePromise, System.nanoTime());
+    flushers.computeIfAbsent(channel.eventLoop(), Flusher::new).enqueue(write);
+    return writePromise;
+  }
+
+  /** Returns a snapshot of the statistics of each event loop that has processed writes so far. */
+  @NonNull
+  public Map<EventLoop, Statistics> getStatistics() {
+    ImmutableMap.Builder<EventLoop, Statistics> result = ImmutableMap.builder();
+    for (Map.Entry<EventLoop, Flusher> entry : flushers.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().statistics());
+    }
+    return result.build();
+  }
+
+  private class Flusher {
+    private final EventLoop eventLoop;
+
+    // These variables are accessed both from client threads and the event loop
+    private final Queue<Write> writes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Only updated from the event loop, but read from any thread
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedBytes = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+
+    // These variables are accessed only from the event loop, they don't need to be thread-safe
+    private final Set<Channel> pendingChannels = new HashSet<>();
+    private long batchStartNanos;
+    private boolean deadlineScheduled;
+    private long runFlushes;
+    private long runBytes;
+
+    private Flusher(EventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    private void enqueue(Write write) {
+      boolean added = writes.offer(write);
+      assert added; // always true (see ConcurrentLinkedQueue implementation)
+      if (running.compareAndSet(false, true)) {
+        eventLoop.execute(this::runOnEventLoop);
+      }
+    }
+
+    private void runOnEventLoop() {
+      assert eventLoop.inEventLoop();
+
+      long now = System.nanoTime();
+      long runWrites = 0;
+      long runWaitNanos = 0;
+      Write write;
+      while ((write = writes.poll()) != null) {
+        Channel channel = write.channel;
+        if (pendingChannels.isEmpty()) {
+          batchStartNanos = write.enqueuedNanos;
+        }
+        runWrites += 1;
+        runWaitNanos += now - write.enqueuedNanos;
+        channel.write(write.message, write.writePromise);
+        if (pendingBytes(channel) >= maxBatchBytes) {
+          flush(channel);
+          pendingChannels.remove(channel);
+        } else {
+          pendingChannels.add(channel);
+        }
+      }
+
+      if (!pendingChannels.isEmpty()) {
+        long elapsed = System.nanoTime() - batchStartNanos;
+        if (elapsed >= maxDelayNanos) {
+          flushPending();
+        } else if (!deadlineScheduled) {
+          deadlineScheduled = true;
+          eventLoop.schedule(this::onDeadline, maxDelayNanos - elapsed, TimeUnit.NANOSECONDS);
+        }
+      }
+      writeCount.addAndGet(runWrites);
+      queueWaitNanos.addAndGet(runWaitNanos);
+      publishFlushes();
+
+      // Prepare to stop
+      running.set(false);
+
+      // Same race handling as DefaultWriteCoalescer: if a concurrent enqueue() observed
+      // running==true before we flipped it, it didn't schedule another run.
+      if (writes.isEmpty()) {
+        return;
+      }
+      boolean shouldRestartMyself = running.compareAndSet(false, true);
+      if (shouldRestartMyself && !eventLoop.isShuttingDown()) {
+        eventLoop.schedule(this::runOnEventLoop, rescheduleIntervalNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void onDeadline() {
+      assert eventLoop.inEventLoop();
+      deadlineScheduled = false;
+      flushPending();
+      publishFlushes();
+    }
+
+    private void flushPending() {
+      for (Channel channel : pendingChannels) {
+        flush(channel);
+      }
+      pendingChannels.clear();
+    }
+
+    private void flush(Channel channel) {
+      runFlushes += 1;
+      runBytes += pendingBytes(channel);
+      channel.flush();
+    }
+
+    private void publishFlushes() {
+      if (runFlushes > 0) {
+        flushCount.addAndGet(runFlushes);
+        flushedBytes.addAndGet(runBytes);
+        runFlushes = 0;
+        runBytes = 0;
+      }
+    }
+
+    private long pendingBytes(Channel channel) {
+      ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+      return (buffer == null) ? 0 : buffer.totalPendingWriteBytes();
+    }
+
+    private Statistics statistics() {
+      return new Statistics(
+          writeCount.get(), flushCount.get(), flushedBytes.get(), queueWaitNanos.get());
+    }
+  }
+
+  /** Cumulative statistics of the writes processed on a given event loop. */
+  @Immutable
+  public static class Statistics {
+    private final long writes;
+    private final long flushes;
+    private final long bytes;
+    private final long queueWaitNanos;
+
+    public Statistics(long writes, long flushes, long bytes, long queueWaitNanos) {
+      this.writes = writes;
+      this.flushes = flushes;
+      this.bytes = bytes;
+      this.queueWaitNanos = queueWaitNanos;
+    }
+
+    /** The total number of messages written. */
+    public long getWrites() {
+      return writes;
+    }
+
+    /** The total number of channel flushes. */
+    public long getFlushes() {
+      return flushes;
+    }
+
+    /** The total number of bytes that were pending in outbound buffers when they got flushed. */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** The average number of messages written per flush. */
+    public double getWritesPerFlush() {
+      return (flushes == 0) ? 0 : (double) writes / flushes;
+    }
+
+    /** The average number of bytes written per flush. */
+    public double getBytesPerFlush() {
+      return (flushes == 0) ? 0 : (double) bytes / flushes;
+    }
+
+    /**
+     * The average time that messages spent in the queue, between the call to {@link
+     * #writeAndFlush(Channel, Object)} and the actual write on the event loop.
+     */
+    public long getAverageQueueWait(TimeUnit unit) {
+      return (writes == 0) ? 0 : unit.convert(queueWaitNanos / writes, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "writes=%d, flushes=%d, writes/flush=%.2f, bytes/flush=%.2f, avg queue wait=%d us",
+          writes,
+          flushes,
+          getWritesPerFlush(),
+          getBytesPerFlush(),
+          getAverageQueueWait(TimeUnit.MICROSECONDS));
+    }
+  }
+
+  private static class Write {
+    private final Channel channel;
+    private final Object message;
+    private final ChannelPromise writePromise;
+    private final long enqueuedNanos;
+
+    private Write(
+        Channel channel, Object message, ChannelPromise writePromise, long enqueuedNanos) {
+      this.channel = channel;
+      this.message = message;
+      this.writePromise = writePromise;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+}
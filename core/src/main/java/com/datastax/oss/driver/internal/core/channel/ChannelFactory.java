@@ -44,6 +44,7 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -251,6 +252,23 @@ public class ChannelFactory {
         });
   }
 
+  private StreamIdGenerator newStreamIdGenerator(
+      DriverExecutionProfile config, int maxRequestsPerConnection) {
+    String allocator =
+        config.getString(DefaultDriverOption.CONNECTION_STREAM_ID_ALLOCATOR, "BITSET");
+    switch (allocator.toUpperCase(Locale.ROOT)) {
+      case "BITSET":
+        return new StreamIdGenerator(maxRequestsPerConnection);
+      case "FREE_LIST":
+        return new FreeListStreamIdGenerator(maxRequestsPerConnection);
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown value for %s: %s (expected BITSET or FREE_LIST)",
+                DefaultDriverOption.CONNECTION_STREAM_ID_ALLOCATOR.getPath(), allocator));
+    }
+  }
+
   @VisibleForTesting
   ChannelInitializer<Channel> initializer(
       EndPoint endPoint,
@@ -291,7 +309,7 @@ public class ChannelFactory {
           InFlightHandler inFlightHandler =
               new InFlightHandler(
                   protocolVersion,
-                  new StreamIdGenerator(maxRequestsPerConnection),
+                  newStreamIdGenerator(defaultConfig, maxRequestsPerConnection),
                   maxOrphanRequests,
                   setKeyspaceTimeoutMillis,
                   channel.newPromise(),
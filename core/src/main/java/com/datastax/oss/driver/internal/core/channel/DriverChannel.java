@@ -26,11 +26,13 @@ import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
 import com.datastax.oss.protocol.internal.Message;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoop;
 import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCounted;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
 import java.net.SocketAddress;
@@ -50,6 +52,8 @@ public class DriverChannel {
   static final AttributeKey<String> CLUSTER_NAME_KEY = AttributeKey.newInstance("cluster_name");
   static final AttributeKey<Map<String, List<String>>> OPTIONS_KEY =
       AttributeKey.newInstance("options");
+  static final AttributeKey<ProtocolVersion> PROTOCOL_VERSION_KEY =
+      AttributeKey.newInstance("protocol_version");
 
   @SuppressWarnings("RedundantStringConstructorCall")
   static final Object GRACEFUL_CLOSE_MESSAGE = new String("GRACEFUL_CLOSE_MESSAGE");
@@ -75,6 +79,7 @@ public class DriverChannel {
     this.inFlightHandler = channel.pipeline().get(InFlightHandler.class);
     this.writeCoalescer = writeCoalescer;
     this.protocolVersion = protocolVersion;
+    channel.attr(PROTOCOL_VERSION_KEY).set(protocolVersion);
   }
 
   /**
@@ -291,6 +296,62 @@ public class DriverChannel {
     }
   }
 
+  /**
+   * A request whose frame was already encoded by the client thread (see {@link
+   * EncodingWriteCoalescer}), with a placeholder stream id that will be overwritten from within the
+   * event loop.
+   *
+   * <p>It owns the buffer until it gets written: if the message is discarded by Netty before that
+   * (for example because the channel was closed), releasing it releases the buffer.
+   */
+  static class EncodedRequestMessage extends RequestMessage implements ReferenceCounted {
+    final ByteBuf frame;
+
+    EncodedRequestMessage(RequestMessage message, ByteBuf frame) {
+      super(message.request, message.tracing, message.customPayload, message.responseCallback);
+      this.frame = frame;
+    }
+
+    @Override
+    public int refCnt() {
+      return frame.refCnt();
+    }
+
+    @Override
+    public ReferenceCounted retain() {
+      frame.retain();
+      return this;
+    }
+
+    @Override
+    public ReferenceCounted retain(int increment) {
+      frame.retain(increment);
+      return this;
+    }
+
+    @Override
+    public ReferenceCounted touch() {
+      frame.touch();
+      return this;
+    }
+
+    @Override
+    public ReferenceCounted touch(Object hint) {
+      frame.touch(hint);
+      return this;
+    }
+
+    @Override
+    public boolean release() {
+      return frame.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+      return frame.release(decrement);
+    }
+  }
+
   static class SetKeyspaceEvent {
     final CqlIdentifier keyspaceName;
     final Promise<Void> promise;
@@ -0,0 +1,105 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel.EncodedRequestMessage;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel.RequestMessage;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A write coalescer that encodes request frames on the calling thread, instead of the event loop.
+ *
+ * <p>Writes are still batched per event loop like in {@link DefaultWriteCoalescer}, but the frames
+ * reach the event loop as pooled buffers that are already serialized (and compressed, if
+ * compression is enabled). The only thing left to do there is to fill in the stream id, which is
+ * assigned by {@link InFlightHandler}, and write the buffers: since the channel is flushed once per
+ * batch, the transport sends them with a single gathering write.
+ *
+ * <p>This moves most of the encoding CPU cost off the event loops, which helps when they are
+ * saturated, at the expense of the client threads.
+ *
+ * <p>If a frame can't be encoded on the calling thread, the request is passed as-is to the event
+ * loop, where the regular encoder will process it (and report any error).
+ */
+@ThreadSafe
+public class EncodingWriteCoalescer extends DefaultWriteCoalescer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EncodingWriteCoalescer.class);
+
+  private final String logPrefix;
+  private final FrameCodec<ByteBuf> frameCodec;
+  private final int maxFrameLength;
+
+  public EncodingWriteCoalescer(DriverContext context) {
+    super(context);
+    this.logPrefix = context.getSessionName();
+    this.frameCodec = ((InternalDriverContext) context).getFrameCodec();
+    this.maxFrameLength =
+        (int)
+            context
+                .getConfig()
+                .getDefaultProfile()
+                .getBytes(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH);
+  }
+
+  @Override
+  public ChannelFuture writeAndFlush(Channel channel, Object message) {
+    if (message instanceof RequestMessage && !(message instanceof EncodedRequestMessage)) {
+      message = encode(channel, (RequestMessage) message);
+    }
+    return super.writeAndFlush(channel, message);
+  }
+
+  private RequestMessage encode(Channel channel, RequestMessage message) {
+    ProtocolVersion protocolVersion = channel.attr(DriverChannel.PROTOCOL_VERSION_KEY).get();
+    if (protocolVersion == null || !channel.isActive()) {
+      return message;
+    }
+    ByteBuf frame;
+    try {
+      // The actual stream id will be set by InFlightHandler
+      frame =
+          frameCodec.encode(
+              Frame.forRequest(
+                  protocolVersion.getCode(),
+                  0,
+                  message.tracing,
+                  message.customPayload,
+                  message.request));
+    } catch (Throwable t) {
+      // FrameEncoder will run into the same error, and report it through the write future
+      LOG.debug("[{}] Error while encoding {}, deferring to event loop", logPrefix, message, t);
+      return message;
+    }
+    if (frame.readableBytes() > maxFrameLength) {
+      // Let FrameEncoder report the error
+      frame.release();
+      return message;
+    }
+    return new EncodedRequestMessage(message, frame);
+  }
+}
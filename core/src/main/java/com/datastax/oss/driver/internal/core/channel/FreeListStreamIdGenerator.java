@@ -0,0 +1,61 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A stream id generator that hands out ids in constant time, from a stack of free ids.
+ *
+ * <p>{@link StreamIdGenerator} scans its bitset from the start on every {@link #acquire()}, which
+ * gets slower as the connection fills up (up to 32K ids with protocol v3+). Here the free ids are
+ * kept in a preallocated array used as a stack: acquiring pops the top element, releasing pushes
+ * the id back. Nothing is allocated after construction. The bitset inherited from the parent class
+ * is still used to detect invalid releases.
+ *
+ * <p>Ids are initially returned in ascending order; after that, the most recently released id is
+ * reused first (which also keeps the working set of ids small when the load is low).
+ *
+ * <p>Same threading rules as the parent class: only {@link #preAcquire()}, {@link
+ * #cancelPreAcquire()} and {@link #getAvailableIds()} can be called from any thread.
+ */
+@NotThreadSafe
+class FreeListStreamIdGenerator extends StreamIdGenerator {
+
+  // Stream ids are always lower than 32768, so they fit in a short
+  private final short[] freeIds;
+  private int freeCount;
+
+  FreeListStreamIdGenerator(int maxAvailableIds) {
+    super(maxAvailableIds);
+    this.freeIds = new short[maxAvailableIds];
+    // Push in reverse order so that the first ids handed out are 0, 1, 2...
+    for (int i = 0; i < maxAvailableIds; i++) {
+      freeIds[i] = (short) (maxAvailableIds - 1 - i);
+    }
+    this.freeCount = maxAvailableIds;
+  }
+
+  @Override
+  int nextAvailableId() {
+    return (freeCount == 0) ? -1 : freeIds[--freeCount];
+  }
+
+  @Override
+  void onReleased(int id) {
+    freeIds[freeCount++] = (short) id;
+  }
+}
@@ -21,6 +21,7 @@ import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.connection.BusyConnectionException;
 import com.datastax.oss.driver.api.core.connection.ClosedConnectionException;
 import com.datastax.oss.driver.api.core.connection.HeartbeatException;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel.EncodedRequestMessage;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel.RequestMessage;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel.SetKeyspaceEvent;
 import com.datastax.oss.driver.internal.core.protocol.FrameDecodingException;
@@ -31,11 +32,13 @@ import com.datastax.oss.protocol.internal.Frame;
 import com.datastax.oss.protocol.internal.Message;
 import com.datastax.oss.protocol.internal.request.Query;
 import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Promise;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +51,9 @@ import org.slf4j.LoggerFactory;
 public class InFlightHandler extends ChannelDuplexHandler {
   private static final Logger LOG = LoggerFactory.getLogger(InFlightHandler.class);
 
+  // In protocol v3+, the stream id is a short that follows the version and flags bytes
+  private static final int STREAM_ID_OFFSET = 2;
+
   private final ProtocolVersion protocolVersion;
   private final StreamIdGenerator streamIds;
   final ChannelPromise closeStartedFuture;
@@ -116,6 +122,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
     if (closingGracefully) {
       promise.setFailure(new IllegalStateException("Channel is closing"));
       streamIds.cancelPreAcquire();
+      ReferenceCountUtil.release(message);
       return;
     }
     int streamId = streamIds.acquire();
@@ -126,6 +133,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
               String.format(
                   "Couldn't acquire a stream id from InFlightHandler on %s", ctx.channel())));
       streamIds.cancelPreAcquire();
+      ReferenceCountUtil.release(message);
       return;
     }
 
@@ -133,20 +141,29 @@ public class InFlightHandler extends ChannelDuplexHandler {
       promise.setFailure(
           new IllegalStateException("Found pending callback for stream id " + streamId));
       streamIds.cancelPreAcquire();
+      ReferenceCountUtil.release(message);
       return;
     }
 
     LOG.trace("[{}] Writing {} on stream id {}", logPrefix, message.responseCallback, streamId);
-    Frame frame =
-        Frame.forRequest(
-            protocolVersion.getCode(),
-            streamId,
-            message.tracing,
-            message.customPayload,
-            message.request);
+    Object toWrite;
+    if (message instanceof EncodedRequestMessage) {
+      // The frame was encoded by the client thread, we only need to fill in the stream id
+      ByteBuf frame = ((EncodedRequestMessage) message).frame;
+      frame.setShort(frame.readerIndex() + STREAM_ID_OFFSET, streamId);
+      toWrite = frame;
+    } else {
+      toWrite =
+          Frame.forRequest(
+              protocolVersion.getCode(),
+              streamId,
+              message.tracing,
+              message.customPayload,
+              message.request);
+    }
 
     inFlight.put(streamId, message.responseCallback);
-    ChannelFuture writeFuture = ctx.write(frame, promise);
+    ChannelFuture writeFuture = ctx.write(toWrite, promise);
     writeFuture.addListener(
         future -> {
           if (future.isSuccess()) {
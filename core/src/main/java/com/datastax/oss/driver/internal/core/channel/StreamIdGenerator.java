@@ -27,6 +27,9 @@ import net.jcip.annotations.NotThreadSafe;
  *
  * <p>Other methods are not synchronized, they are only called by {@link InFlightHandler} on the I/O
  * thread.
+ *
+ * <p>This implementation always returns the lowest available id, by scanning a bitset from the
+ * start. See {@link FreeListStreamIdGenerator} for a constant-time alternative.
  */
 @NotThreadSafe
 class StreamIdGenerator {
@@ -61,8 +64,8 @@ class StreamIdGenerator {
 
   int acquire() {
     assert availableIds.get() < maxAvailableIds;
-    int id = ids.nextClearBit(0);
-    if (id >= maxAvailableIds) {
+    int id = nextAvailableId();
+    if (id < 0 || id >= maxAvailableIds) {
       return -1;
     }
     ids.set(id);
@@ -74,10 +77,24 @@ class StreamIdGenerator {
       throw new IllegalStateException("Tried to release id that hadn't been borrowed: " + id);
     }
     ids.clear(id);
+    onReleased(id);
     int available = availableIds.incrementAndGet();
     assert available <= maxAvailableIds;
   }
 
+  /**
+   * Finds an id that is not currently borrowed, or returns a negative value or a value greater than
+   * or equal to {@link #getMaxAvailableIds()} if there is none.
+   */
+  int nextAvailableId() {
+    return ids.nextClearBit(0);
+  }
+
+  /** Invoked after an id has been released, to let subclasses update their own state. */
+  void onReleased(int id) {
+    // nothing to do
+  }
+
   int getAvailableIds() {
     return availableIds.get();
   }
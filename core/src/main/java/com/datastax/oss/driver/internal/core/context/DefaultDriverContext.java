@@ -81,6 +81,7 @@ import com.datastax.oss.driver.internal.core.metrics.DropwizardMetricsFactory;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.pool.ChannelPoolFactory;
 import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.driver.internal.core.protocol.LazyRowsCodecGroup;
 import com.datastax.oss.driver.internal.core.protocol.Lz4Compressor;
 import com.datastax.oss.driver.internal.core.protocol.SnappyCompressor;
 import com.datastax.oss.driver.internal.core.servererrors.DefaultWriteTypeRegistry;
@@ -440,6 +441,16 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected FrameCodec<ByteBuf> buildFrameCodec() {
+    if (getConfig().getDefaultProfile().getBoolean(DefaultDriverOption.PROTOCOL_LAZY_ROWS)) {
+      return new FrameCodec<>(
+          new ByteBufPrimitiveCodec(getNettyOptions().allocator()),
+          getCompressor(),
+          new LazyRowsCodecGroup(new ProtocolV3ClientCodecs()),
+          new LazyRowsCodecGroup(new ProtocolV4ClientCodecsForDse()),
+          new LazyRowsCodecGroup(new ProtocolV5ClientCodecs()),
+          new DseProtocolV1ClientCodecs(),
+          new DseProtocolV2ClientCodecs());
+    }
     return new FrameCodec<>(
         new ByteBufPrimitiveCodec(getNettyOptions().allocator()),
         getCompressor(),
@@ -475,7 +486,12 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected WriteCoalescer buildWriteCoalescer() {
-    return new DefaultWriteCoalescer(this);
+    return Reflection.buildFromConfig(
+            this,
+            DefaultDriverOption.COALESCER_CLASS,
+            WriteCoalescer.class,
+            "com.datastax.oss.driver.internal.core.channel")
+        .orElseGet(() -> new DefaultWriteCoalescer(this));
   }
 
   protected ChannelFactory buildChannelFactory() {
@@ -19,6 +19,7 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.internal.core.util.concurrent.BlockingOperation;
 import com.datastax.oss.driver.internal.core.util.concurrent.PromiseCombiner;
+import com.datastax.oss.driver.internal.core.util.concurrent.ShardedTimer;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBufAllocator;
@@ -27,8 +28,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultPromise;
@@ -49,6 +48,7 @@ public class DefaultNettyOptions implements NettyOptions {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultNettyOptions.class);
 
   private final DriverExecutionProfile config;
+  private final NettyTransport transport;
   private final EventLoopGroup ioEventLoopGroup;
   private final EventLoopGroup adminEventLoopGroup;
   private final int ioShutdownQuietPeriod;
@@ -81,7 +81,12 @@ public class DefaultNettyOptions implements NettyOptions {
             .setNameFormat(context.getSessionName() + "-io-%d")
             .setDaemon(daemon)
             .build();
-    this.ioEventLoopGroup = new NioEventLoopGroup(ioGroupSize, ioThreadFactory);
+    this.transport =
+        NettyTransport.resolve(
+            config.getString(DefaultDriverOption.NETTY_IO_TRANSPORT, null),
+            context.getSessionName());
+    LOG.info("[{}] Using {} transport for I/O", context.getSessionName(), transport);
+    this.ioEventLoopGroup = transport.newEventLoopGroup(ioGroupSize, ioThreadFactory);
 
     ThreadFactory adminThreadFactory =
         new ThreadFactoryBuilder()
@@ -108,12 +113,22 @@ public class DefaultNettyOptions implements NettyOptions {
               + "Please set advanced.netty.timer.tick-duration to 100 ms or higher.",
           tickDuration.toMillis());
     }
-    timer =
-        new HashedWheelTimer(
-            timerThreadFactory,
-            tickDuration.toNanos(),
-            TimeUnit.NANOSECONDS,
-            config.getInt(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL));
+    int ticksPerWheel = config.getInt(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL);
+    int timerShards = config.getInt(DefaultDriverOption.NETTY_TIMER_SHARDS, 1);
+    if (timerShards > 1) {
+      LOG.debug("[{}] Using {} timer shards", context.getSessionName(), timerShards);
+      timer =
+          new ShardedTimer(
+              timerShards,
+              timerThreadFactory,
+              tickDuration.toNanos(),
+              TimeUnit.NANOSECONDS,
+              ticksPerWheel);
+    } else {
+      timer =
+          new HashedWheelTimer(
+              timerThreadFactory, tickDuration.toNanos(), TimeUnit.NANOSECONDS, ticksPerWheel);
+    }
   }
 
   @Override
@@ -128,7 +143,7 @@ public class DefaultNettyOptions implements NettyOptions {
 
   @Override
   public Class<? extends Channel> channelClass() {
-    return NioSocketChannel.class;
+    return transport.channelClass();
   }
 
   @Override
@@ -0,0 +1,189 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import com.datastax.oss.driver.internal.core.util.DependencyCheck;
+import com.datastax.oss.driver.internal.core.util.Reflection;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Netty transports that {@link DefaultNettyOptions} can use for I/O.
+ *
+ * <p>Native transports are optional dependencies: they are loaded reflectively, and only used if
+ * their classes are present on the classpath and their native library could be loaded on the
+ * current platform. {@link #NIO} is always available.
+ */
+public enum NettyTransport {
+  NIO(null, null, null, null) {
+    @Override
+    public boolean isAvailable() {
+      return true;
+    }
+
+    @NonNull
+    @Override
+    public EventLoopGroup newEventLoopGroup(int size, @NonNull ThreadFactory threadFactory) {
+      return new NioEventLoopGroup(size, threadFactory);
+    }
+
+    @NonNull
+    @Override
+    public Class<? extends Channel> channelClass() {
+      return NioSocketChannel.class;
+    }
+  },
+  EPOLL(
+      DependencyCheck.NETTY_EPOLL,
+      "io.netty.channel.epoll.Epoll",
+      "io.netty.channel.epoll.EpollEventLoopGroup",
+      "io.netty.channel.epoll.EpollSocketChannel"),
+  IO_URING(
+      DependencyCheck.NETTY_IO_URING,
+      "io.netty.incubator.channel.uring.IOUring",
+      "io.netty.incubator.channel.uring.IOUringEventLoopGroup",
+      "io.netty.incubator.channel.uring.IOUringSocketChannel"),
+  ;
+
+  private static final Logger LOG = LoggerFactory.getLogger(NettyTransport.class);
+
+  /**
+   * The value of {@code advanced.netty.io-group.transport} that selects the best transport
+   * available on the current platform.
+   */
+  public static final String AUTO = "AUTO";
+
+  private final DependencyCheck dependency;
+  private final String availabilityClassName;
+  private final String eventLoopGroupClassName;
+  private final String channelClassName;
+
+  NettyTransport(
+      DependencyCheck dependency,
+      String availabilityClassName,
+      String eventLoopGroupClassName,
+      String channelClassName) {
+    this.dependency = dependency;
+    this.availabilityClassName = availabilityClassName;
+    this.eventLoopGroupClassName = eventLoopGroupClassName;
+    this.channelClassName = channelClassName;
+  }
+
+  /**
+   * Whether the transport's classes are present, and its native library was successfully loaded on
+   * the current platform.
+   */
+  public boolean isAvailable() {
+    if (!dependency.isPresent()) {
+      return false;
+    }
+    try {
+      Class<?> availabilityClass = Reflection.loadClass(null, availabilityClassName);
+      return availabilityClass != null
+          && (Boolean) availabilityClass.getMethod("isAvailable").invoke(null);
+    } catch (Exception e) {
+      LOG.debug("Error while checking availability of transport " + this, e);
+      return false;
+    }
+  }
+
+  /**
+   * Creates a new event loop group for this transport. This must only be called if {@link
+   * #isAvailable()} returned true.
+   */
+  @NonNull
+  public EventLoopGroup newEventLoopGroup(int size, @NonNull ThreadFactory threadFactory) {
+    Class<?> groupClass = Reflection.loadClass(null, eventLoopGroupClassName);
+    if (groupClass == null) {
+      throw new IllegalStateException("Could not load " + eventLoopGroupClassName);
+    }
+    try {
+      return (EventLoopGroup)
+          groupClass
+              .getConstructor(int.class, ThreadFactory.class)
+              .newInstance(size, threadFactory);
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not create " + eventLoopGroupClassName, e);
+    }
+  }
+
+  /**
+   * The class of the client socket channel for this transport. This must only be called if {@link
+   * #isAvailable()} returned true.
+   */
+  @NonNull
+  public Class<? extends Channel> channelClass() {
+    Class<?> channelClass = Reflection.loadClass(null, channelClassName);
+    if (channelClass == null) {
+      throw new IllegalStateException("Could not load " + channelClassName);
+    }
+    return channelClass.asSubclass(Channel.class);
+  }
+
+  /**
+   * Resolves the transport to use from the value of {@code advanced.netty.io-group.transport}.
+   *
+   * <p>{@link #AUTO} picks the first available native transport, preferring {@link #IO_URING} over
+   * {@link #EPOLL}. If a native transport was explicitly requested but is not available, this falls
+   * back to {@link #NIO} with a warning.
+   *
+   * @param configValue the configured value (case insensitive); if null, defaults to {@link #NIO}.
+   * @param logPrefix the prefix to use in log messages.
+   */
+  @NonNull
+  public static NettyTransport resolve(@Nullable String configValue, @NonNull String logPrefix) {
+    if (configValue == null) {
+      return NIO;
+    }
+    String name = configValue.toUpperCase(Locale.ROOT);
+    if (AUTO.equals(name)) {
+      for (NettyTransport candidate : new NettyTransport[] {IO_URING, EPOLL}) {
+        if (candidate.isAvailable()) {
+          return candidate;
+        }
+      }
+      return NIO;
+    }
+    NettyTransport requested;
+    try {
+      requested = NettyTransport.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Unknown Netty transport '%s', expected one of %s, NIO, EPOLL, IO_URING",
+              configValue, AUTO),
+          e);
+    }
+    if (requested.isAvailable()) {
+      return requested;
+    }
+    LOG.warn(
+        "[{}] The {} transport was requested but is not available on this platform "
+            + "(check that the corresponding Netty native library is on the classpath), "
+            + "falling back to NIO",
+        logPrefix,
+        requested);
+    return NIO;
+  }
+}
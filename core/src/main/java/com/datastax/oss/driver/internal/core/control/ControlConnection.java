@@ -34,6 +34,7 @@ import com.datastax.oss.driver.internal.core.metadata.DistanceEvent;
 import com.datastax.oss.driver.internal.core.metadata.MetadataManager;
 import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
 import com.datastax.oss.driver.internal.core.metadata.TopologyEvent;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.util.Loggers;
 import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
 import com.datastax.oss.driver.internal.core.util.concurrent.Reconnection;
@@ -226,7 +227,7 @@ public class ControlConnection implements EventCallback, AsyncAutoCloseable {
     SchemaChangeEvent sce = (SchemaChangeEvent) event;
     context
         .getMetadataManager()
-        .refreshSchema(sce.keyspace, false, false)
+        .refreshSchema(sce.keyspace, SchemaRefreshTarget.fromEvent(sce), false, false)
         .whenComplete(
             (metadata, error) -> {
               if (error != null) {
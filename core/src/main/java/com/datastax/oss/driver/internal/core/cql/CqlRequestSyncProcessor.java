@@ -15,6 +15,8 @@
  */
 package com.datastax.oss.driver.internal.core.cql;
 
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Statement;
@@ -30,6 +32,8 @@ import net.jcip.annotations.ThreadSafe;
 @ThreadSafe
 public class CqlRequestSyncProcessor implements RequestProcessor<Statement<?>, ResultSet> {
 
+  private static final long DEFAULT_PREFETCH_MAX_BYTES = 16 * 1024 * 1024;
+
   private final CqlRequestAsyncProcessor asyncProcessor;
 
   public CqlRequestSyncProcessor(CqlRequestAsyncProcessor asyncProcessor) {
@@ -52,7 +56,15 @@ public class CqlRequestSyncProcessor implements RequestProcessor<Statement<?>, R
     AsyncResultSet firstPage =
         CompletableFutures.getUninterruptibly(
             asyncProcessor.process(request, session, context, sessionLogPrefix));
-    return ResultSets.newInstance(firstPage);
+    if (!firstPage.hasMorePages()) {
+      return new SinglePageResultSet(firstPage);
+    }
+    DriverExecutionProfile profile = Conversions.resolveExecutionProfile(request, context);
+    return new MultiPageResultSet(
+        firstPage,
+        profile.getInt(DefaultDriverOption.REQUEST_PREFETCH_PAGES, 0),
+        profile.getBytes(
+            DefaultDriverOption.REQUEST_PREFETCH_MAX_BYTES, DEFAULT_PREFETCH_MAX_BYTES));
   }
 
   @Override
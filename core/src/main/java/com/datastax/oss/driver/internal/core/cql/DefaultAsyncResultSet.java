@@ -18,6 +18,7 @@ package com.datastax.oss.driver.internal.core.cql;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ColumnarPage;
 import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
@@ -42,7 +43,8 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
   private final ColumnDefinitions definitions;
   private final ExecutionInfo executionInfo;
   private final CqlSession session;
-  private final CountingIterator<Row> iterator;
+  private final InternalDriverContext context;
+  private final RowIterator iterator;
   private final Iterable<Row> currentPage;
 
   public DefaultAsyncResultSet(
@@ -54,14 +56,8 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
     this.definitions = definitions;
     this.executionInfo = executionInfo;
     this.session = session;
-    this.iterator =
-        new CountingIterator<Row>(data.size()) {
-          @Override
-          protected Row computeNext() {
-            List<ByteBuffer> rowData = data.poll();
-            return (rowData == null) ? endOfData() : new DefaultRow(definitions, rowData, context);
-          }
-        };
+    this.context = context;
+    this.iterator = new RowIterator(data);
     this.currentPage = () -> iterator;
   }
 
@@ -107,6 +103,19 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
     return session.executeAsync(nextStatement);
   }
 
+  @NonNull
+  @Override
+  public ColumnarPage currentPageColumns() {
+    DefaultColumnarPage.Builder builder =
+        new DefaultColumnarPage.Builder(
+            definitions,
+            iterator.remaining(),
+            context.getCodecRegistry(),
+            context.getProtocolVersion());
+    iterator.drainTo(builder);
+    return builder.build();
+  }
+
   @Override
   public boolean wasApplied() {
     if (!definitions.contains("[applied]")
@@ -124,6 +133,34 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
     }
   }
 
+  private class RowIterator extends CountingIterator<Row> {
+    private final Queue<List<ByteBuffer>> data;
+
+    private RowIterator(Queue<List<ByteBuffer>> data) {
+      super(data.size());
+      this.data = data;
+    }
+
+    @Override
+    protected Row computeNext() {
+      List<ByteBuffer> rowData = data.poll();
+      return (rowData == null) ? endOfData() : new DefaultRow(definitions, rowData, context);
+    }
+
+    /** Consumes the remaining rows directly from the raw data, without wrapping them. */
+    private void drainTo(DefaultColumnarPage.Builder builder) {
+      if (isNextComputed()) {
+        // A row was already polled by a call to hasNext() or peek()
+        builder.addRow(next());
+      }
+      List<ByteBuffer> rowData;
+      while ((rowData = data.poll()) != null) {
+        builder.addRow(rowData);
+        remaining -= 1;
+      }
+    }
+  }
+
   static AsyncResultSet empty(final ExecutionInfo executionInfo) {
     return new AsyncResultSet() {
       @NonNull
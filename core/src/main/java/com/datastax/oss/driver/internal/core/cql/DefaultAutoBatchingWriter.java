@@ -0,0 +1,368 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.AutoBatchingWriter;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.util.concurrent.EventExecutor;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ThreadSafe
+public class DefaultAutoBatchingWriter implements AutoBatchingWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DefaultAutoBatchingWriter.class);
+
+  private final CqlSession session;
+  private final String logPrefix;
+  private final int maxStatements;
+  private final long maxDelayNanos;
+  private final boolean groupByReplicas;
+  private final EventExecutor scheduler;
+
+  // Groups are removed as soon as they are flushed, so this only holds the statements that are
+  // currently accumulating.
+  private final ConcurrentMap<GroupKey, Group> groups = new ConcurrentHashMap<>();
+  private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
+  private volatile boolean closed;
+
+  public DefaultAutoBatchingWriter(@NonNull CqlSession session) {
+    this.session = session;
+    InternalDriverContext context = (InternalDriverContext) session.getContext();
+    this.logPrefix = context.getSessionName();
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxStatements = config.getInt(DefaultDriverOption.AUTO_BATCHING_MAX_STATEMENTS);
+    Duration maxDelay = config.getDuration(DefaultDriverOption.AUTO_BATCHING_MAX_DELAY);
+    if (maxStatements < 1 || maxDelay.isNegative() || maxDelay.isZero()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid values for %s (%d) or %s (%s): both must be strictly positive",
+              DefaultDriverOption.AUTO_BATCHING_MAX_STATEMENTS.getPath(),
+              maxStatements,
+              DefaultDriverOption.AUTO_BATCHING_MAX_DELAY.getPath(),
+              maxDelay));
+    }
+    this.maxDelayNanos = maxDelay.toNanos();
+    String grouping = config.getString(DefaultDriverOption.AUTO_BATCHING_GROUPING);
+    switch (grouping.toUpperCase(Locale.ROOT)) {
+      case "PARTITION":
+        this.groupByReplicas = false;
+        break;
+      case "REPLICA_SET":
+        this.groupByReplicas = true;
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown value for %s: %s (expected PARTITION or REPLICA_SET)",
+                DefaultDriverOption.AUTO_BATCHING_GROUPING.getPath(), grouping));
+    }
+    this.scheduler = context.getNettyOptions().adminEventExecutorGroup().next();
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<AsyncResultSet> addAsync(@NonNull BatchableStatement<?> statement) {
+    if (closed) {
+      return CompletableFutures.failedFuture(
+          new IllegalStateException("Auto-batching writer was closed"));
+    }
+    Pending pending = new Pending(statement);
+    GroupKey key = computeKey(statement);
+    if (key == null) {
+      LOG.trace("[{}] No routing information for {}, executing immediately", logPrefix, statement);
+      send(singletonList(pending));
+    } else {
+      // Guarantees that only one of the calls that update a group will see it full
+      List<Pending> toSend = new ArrayList<>(0);
+      groups.compute(
+          key,
+          (k, group) -> {
+            if (group == null) {
+              group = new Group(k);
+            }
+            group.statements.add(pending);
+            if (group.statements.size() >= maxStatements) {
+              toSend.addAll(group.statements);
+              return null;
+            } else {
+              if (group.statements.size() == 1) {
+                Group toFlush = group;
+                scheduler.schedule(() -> flush(toFlush), maxDelayNanos, TimeUnit.NANOSECONDS);
+              }
+              return group;
+            }
+          });
+      if (!toSend.isEmpty()) {
+        send(toSend);
+      }
+    }
+    return pending.future;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> flushAsync() {
+    List<CompletableFuture<AsyncResultSet>> futures = new ArrayList<>();
+    for (Group group : groups.values()) {
+      List<Pending> flushed = flush(group);
+      if (flushed != null) {
+        for (Pending pending : flushed) {
+          futures.add(pending.future);
+        }
+      }
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        // we only report completion, errors are reported to each statement's future
+        .handle((result, error) -> null);
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> closeFuture() {
+    return closeFuture;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> closeAsync() {
+    if (!closed) {
+      closed = true;
+      flushAsync()
+          .whenComplete(
+              (result, error) -> {
+                closeFuture.complete(null);
+              });
+    }
+    return closeFuture;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> forceCloseAsync() {
+    closed = true;
+    for (GroupKey key : groups.keySet()) {
+      Group group = groups.remove(key);
+      if (group != null) {
+        for (Pending pending : group.statements) {
+          pending.future.completeExceptionally(
+              new IllegalStateException("Auto-batching writer was force-closed"));
+        }
+      }
+    }
+    closeFuture.complete(null);
+    return closeFuture;
+  }
+
+  /** Removes the group if it is still current, and sends its statements. */
+  @Nullable
+  private List<Pending> flush(Group group) {
+    if (groups.remove(group.key, group)) {
+      send(group.statements);
+      return group.statements;
+    } else {
+      // Already flushed because it was full, or by another flush
+      return null;
+    }
+  }
+
+  private void send(List<Pending> statements) {
+    CompletionStage<AsyncResultSet> result;
+    if (statements.size() == 1) {
+      result = session.executeAsync(statements.get(0).statement);
+    } else {
+      BatchableStatement<?> first = statements.get(0).statement;
+      BatchStatementBuilder builder =
+          BatchStatement.builder(DefaultBatchType.UNLOGGED)
+              .setExecutionProfileName(first.getExecutionProfileName())
+              .setExecutionProfile(first.getExecutionProfile())
+              .setConsistencyLevel(first.getConsistencyLevel())
+              .setSerialConsistencyLevel(first.getSerialConsistencyLevel())
+              .setTimeout(first.getTimeout())
+              .setIdempotence(computeIdempotence(statements));
+      for (Pending pending : statements) {
+        builder.addStatement(pending.statement);
+      }
+      LOG.trace("[{}] Sending batch of {} statements", logPrefix, statements.size());
+      result = session.executeAsync(builder.build());
+    }
+    result.whenComplete(
+        (resultSet, error) -> {
+          for (Pending pending : statements) {
+            if (error != null) {
+              pending.future.completeExceptionally(error);
+            } else {
+              pending.future.complete(resultSet);
+            }
+          }
+        });
+  }
+
+  @Nullable
+  private static Boolean computeIdempotence(List<Pending> statements) {
+    boolean allIdempotent = true;
+    for (Pending pending : statements) {
+      Boolean idempotent = pending.statement.isIdempotent();
+      if (Boolean.FALSE.equals(idempotent)) {
+        return false;
+      } else if (idempotent == null) {
+        allIdempotent = false;
+      }
+    }
+    // If some statements rely on the default, let the batch do the same
+    return allIdempotent ? true : null;
+  }
+
+  @Nullable
+  private GroupKey computeKey(BatchableStatement<?> statement) {
+    CqlIdentifier keyspace = statement.getKeyspace();
+    if (keyspace == null) {
+      keyspace = statement.getRoutingKeyspace();
+    }
+    if (keyspace == null) {
+      keyspace = session.getKeyspace().orElse(null);
+    }
+    if (keyspace == null) {
+      return null;
+    }
+    Token token = statement.getRoutingToken();
+    ByteBuffer key = (token == null) ? statement.getRoutingKey() : null;
+    if (token == null && key == null) {
+      return null;
+    }
+    Object routing;
+    if (groupByReplicas) {
+      Optional<TokenMap> maybeTokenMap = session.getMetadata().getTokenMap();
+      if (!maybeTokenMap.isPresent()) {
+        return null;
+      }
+      TokenMap tokenMap = maybeTokenMap.get();
+      routing =
+          (token != null)
+              ? tokenMap.getReplicas(keyspace, token)
+              : tokenMap.getReplicas(keyspace, key);
+    } else {
+      routing = (token != null) ? token : key;
+    }
+    return new GroupKey(
+        keyspace,
+        routing,
+        statement.getExecutionProfileName(),
+        statement.getExecutionProfile(),
+        statement.getConsistencyLevel(),
+        statement.getSerialConsistencyLevel());
+  }
+
+  private static List<Pending> singletonList(Pending pending) {
+    List<Pending> list = new ArrayList<>(1);
+    list.add(pending);
+    return list;
+  }
+
+  private static class Pending {
+    private final BatchableStatement<?> statement;
+    private final CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+
+    private Pending(BatchableStatement<?> statement) {
+      this.statement = statement;
+    }
+  }
+
+  // Only accessed from ConcurrentMap.compute, or after being removed from the map
+  private static class Group {
+    private final GroupKey key;
+    private final List<Pending> statements = new ArrayList<>();
+
+    private Group(GroupKey key) {
+      this.key = key;
+    }
+  }
+
+  private static class GroupKey {
+    private final CqlIdentifier keyspace;
+    // Either a routing token, a routing key or a set of replicas
+    private final Object routing;
+    private final String profileName;
+    private final DriverExecutionProfile profile;
+    private final ConsistencyLevel consistencyLevel;
+    private final ConsistencyLevel serialConsistencyLevel;
+
+    private GroupKey(
+        CqlIdentifier keyspace,
+        Object routing,
+        String profileName,
+        DriverExecutionProfile profile,
+        ConsistencyLevel consistencyLevel,
+        ConsistencyLevel serialConsistencyLevel) {
+      this.keyspace = keyspace;
+      this.routing = routing;
+      this.profileName = profileName;
+      this.profile = profile;
+      this.consistencyLevel = consistencyLevel;
+      this.serialConsistencyLevel = serialConsistencyLevel;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other == this) {
+        return true;
+      } else if (other instanceof GroupKey) {
+        GroupKey that = (GroupKey) other;
+        return this.keyspace.equals(that.keyspace)
+            && this.routing.equals(that.routing)
+            && Objects.equals(this.profileName, that.profileName)
+            && this.profile == that.profile
+            && Objects.equals(this.consistencyLevel, that.consistencyLevel)
+            && Objects.equals(this.serialConsistencyLevel, that.serialConsistencyLevel);
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(keyspace, routing, profileName, consistencyLevel, serialConsistencyLevel);
+    }
+  }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ColumnarPage;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.data.GettableByIndex;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.PrimitiveBooleanCodec;
+import com.datastax.oss.driver.api.core.type.codec.PrimitiveDoubleCodec;
+import com.datastax.oss.driver.api.core.type.codec.PrimitiveFloatCodec;
+import com.datastax.oss.driver.api.core.type.codec.PrimitiveIntCodec;
+import com.datastax.oss.driver.api.core.type.codec.PrimitiveLongCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+@Immutable
+public class DefaultColumnarPage implements ColumnarPage {
+
+  /**
+   * Builds a page from rows that were already wrapped into {@link Row} objects. This is the
+   * fallback for custom result set implementations.
+   */
+  @NonNull
+  public static ColumnarPage fromRows(
+      @NonNull ColumnDefinitions definitions, int expectedRows, @NonNull Iterable<Row> rows) {
+    Iterator<Row> iterator = rows.iterator();
+    if (!iterator.hasNext()) {
+      return new Builder(definitions, 0, CodecRegistry.DEFAULT, ProtocolVersion.DEFAULT).build();
+    }
+    Row first = iterator.next();
+    Builder builder =
+        new Builder(definitions, expectedRows, first.codecRegistry(), first.protocolVersion());
+    builder.addRow(first);
+    while (iterator.hasNext()) {
+      builder.addRow(iterator.next());
+    }
+    return builder.build();
+  }
+
+  private final ColumnDefinitions definitions;
+  private final int rowCount;
+  private final ColumnVector[] columns;
+  private final CodecRegistry codecRegistry;
+  private final ProtocolVersion protocolVersion;
+
+  private DefaultColumnarPage(
+      ColumnDefinitions definitions,
+      int rowCount,
+      ColumnVector[] columns,
+      CodecRegistry codecRegistry,
+      ProtocolVersion protocolVersion) {
+    this.definitions = definitions;
+    this.rowCount = rowCount;
+    this.columns = columns;
+    this.codecRegistry = codecRegistry;
+    this.protocolVersion = protocolVersion;
+  }
+
+  @NonNull
+  @Override
+  public ColumnDefinitions getColumnDefinitions() {
+    return definitions;
+  }
+
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public boolean isNull(int column, int row) {
+    return columns[column].nulls.get(checkRow(row));
+  }
+
+  @NonNull
+  @Override
+  public BitSet getNulls(int column) {
+    return columns[column].nulls;
+  }
+
+  @NonNull
+  @Override
+  public int[] getInts(int column) {
+    return vector(column, IntVector.class, "int").values;
+  }
+
+  @NonNull
+  @Override
+  public long[] getLongs(int column) {
+    return vector(column, LongVector.class, "long").values;
+  }
+
+  @NonNull
+  @Override
+  public float[] getFloats(int column) {
+    return vector(column, FloatVector.class, "float").values;
+  }
+
+  @NonNull
+  @Override
+  public double[] getDoubles(int column) {
+    return vector(column, DoubleVector.class, "double").values;
+  }
+
+  @NonNull
+  @Override
+  public boolean[] getBooleans(int column) {
+    return vector(column, BooleanVector.class, "boolean").values;
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer getBytesUnsafe(int column, int row) {
+    ColumnVector vector = columns[column];
+    checkRow(row);
+    return vector.nulls.get(row) ? null : vector.getBytes(row, protocolVersion);
+  }
+
+  @Nullable
+  @Override
+  public <ValueT> ValueT get(int column, int row, @NonNull TypeCodec<ValueT> codec) {
+    return codec.decode(getBytesUnsafe(column, row), protocolVersion);
+  }
+
+  @Nullable
+  @Override
+  public <ValueT> ValueT get(int column, int row, @NonNull Class<ValueT> targetClass) {
+    DataType cqlType = definitions.get(column).getType();
+    return get(column, row, codecRegistry.codecFor(cqlType, targetClass));
+  }
+
+  private int checkRow(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row index: " + row + ", row count: " + rowCount);
+    }
+    return row;
+  }
+
+  private <VectorT extends ColumnVector> VectorT vector(
+      int column, Class<VectorT> vectorClass, String javaType) {
+    ColumnVector vector = columns[column];
+    if (!vectorClass.isInstance(vector)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Column %d (%s) can't be read as an array of %s",
+              column, definitions.get(column).getType(), javaType));
+    }
+    return vectorClass.cast(vector);
+  }
+
+  /**
+   * Accumulates the rows of a page into column vectors.
+   *
+   * <p>The vector type of each column is determined by the codec that the registry returns for its
+   * CQL type: if it is one of the primitive codecs, values are decoded into a primitive array as
+   * they are added, otherwise they are copied in serialized form.
+   */
+  @NotThreadSafe
+  public static class Builder {
+
+    private final ColumnDefinitions definitions;
+    private final CodecRegistry codecRegistry;
+    private final ProtocolVersion protocolVersion;
+    private final ColumnVector[] columns;
+    private int rowCount;
+
+    public Builder(
+        @NonNull ColumnDefinitions definitions,
+        int expectedRows,
+        @NonNull CodecRegistry codecRegistry,
+        @NonNull ProtocolVersion protocolVersion) {
+      this.definitions = definitions;
+      this.codecRegistry = codecRegistry;
+      this.protocolVersion = protocolVersion;
+      int capacity = Math.max(expectedRows, 0);
+      this.columns = new ColumnVector[definitions.size()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = newVector(codecRegistry.codecFor(definitions.get(i).getType()), capacity);
+      }
+    }
+
+    @NonNull
+    public Builder addRow(@NonNull List<ByteBuffer> row) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].add(rowCount, row.get(i), protocolVersion);
+      }
+      rowCount += 1;
+      return this;
+    }
+
+    @NonNull
+    public Builder addRow(@NonNull GettableByIndex row) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].add(rowCount, row.getBytesUnsafe(i), protocolVersion);
+      }
+      rowCount += 1;
+      return this;
+    }
+
+    @NonNull
+    public ColumnarPage build() {
+      for (ColumnVector column : columns) {
+        column.trim(rowCount);
+      }
+      return new DefaultColumnarPage(
+          definitions, rowCount, columns, codecRegistry, protocolVersion);
+    }
+
+    private static ColumnVector newVector(TypeCodec<?> codec, int capacity) {
+      if (codec instanceof PrimitiveIntCodec) {
+        return new IntVector((PrimitiveIntCodec) codec, capacity);
+      } else if (codec instanceof PrimitiveLongCodec) {
+        return new LongVector((PrimitiveLongCodec) codec, capacity);
+      } else if (codec instanceof PrimitiveFloatCodec) {
+        return new FloatVector((PrimitiveFloatCodec) codec, capacity);
+      } else if (codec instanceof PrimitiveDoubleCodec) {
+        return new DoubleVector((PrimitiveDoubleCodec) codec, capacity);
+      } else if (codec instanceof PrimitiveBooleanCodec) {
+        return new BooleanVector((PrimitiveBooleanCodec) codec, capacity);
+      } else {
+        return new SerializedVector(capacity);
+      }
+    }
+  }
+
+  private abstract static class ColumnVector {
+    final BitSet nulls = new BitSet();
+
+    void add(int row, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      ensureCapacity(row + 1);
+      if (bytes == null) {
+        nulls.set(row);
+      } else {
+        set(row, bytes, protocolVersion);
+      }
+    }
+
+    abstract void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion);
+
+    abstract void ensureCapacity(int minCapacity);
+
+    /** Shrinks the storage to the exact number of rows, once the page is complete. */
+    abstract void trim(int rowCount);
+
+    /** Only called for non-null values. */
+    abstract ByteBuffer getBytes(int row, ProtocolVersion protocolVersion);
+
+    static int newCapacity(int currentCapacity, int minCapacity) {
+      return Math.max(minCapacity, Math.max(currentCapacity * 2, 16));
+    }
+  }
+
+  private static class IntVector extends ColumnVector {
+    private final PrimitiveIntCodec codec;
+    private int[] values;
+
+    private IntVector(PrimitiveIntCodec codec, int capacity) {
+      this.codec = codec;
+      this.values = new int[capacity];
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      values[row] = codec.decodePrimitive(bytes, protocolVersion);
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (values.length < minCapacity) {
+        values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (values.length != rowCount) {
+        values = Arrays.copyOf(values, rowCount);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      return codec.encodePrimitive(values[row], protocolVersion);
+    }
+  }
+
+  private static class LongVector extends ColumnVector {
+    private final PrimitiveLongCodec codec;
+    private long[] values;
+
+    private LongVector(PrimitiveLongCodec codec, int capacity) {
+      this.codec = codec;
+      this.values = new long[capacity];
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      values[row] = codec.decodePrimitive(bytes, protocolVersion);
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (values.length < minCapacity) {
+        values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (values.length != rowCount) {
+        values = Arrays.copyOf(values, rowCount);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      return codec.encodePrimitive(values[row], protocolVersion);
+    }
+  }
+
+  private static class FloatVector extends ColumnVector {
+    private final PrimitiveFloatCodec codec;
+    private float[] values;
+
+    private FloatVector(PrimitiveFloatCodec codec, int capacity) {
+      this.codec = codec;
+      this.values = new float[capacity];
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      values[row] = codec.decodePrimitive(bytes, protocolVersion);
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (values.length < minCapacity) {
+        values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (values.length != rowCount) {
+        values = Arrays.copyOf(values, rowCount);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      return codec.encodePrimitive(values[row], protocolVersion);
+    }
+  }
+
+  private static class DoubleVector extends ColumnVector {
+    private final PrimitiveDoubleCodec codec;
+    private double[] values;
+
+    private DoubleVector(PrimitiveDoubleCodec codec, int capacity) {
+      this.codec = codec;
+      this.values = new double[capacity];
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      values[row] = codec.decodePrimitive(bytes, protocolVersion);
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (values.length < minCapacity) {
+        values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (values.length != rowCount) {
+        values = Arrays.copyOf(values, rowCount);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      return codec.encodePrimitive(values[row], protocolVersion);
+    }
+  }
+
+  private static class BooleanVector extends ColumnVector {
+    private final PrimitiveBooleanCodec codec;
+    private boolean[] values;
+
+    private BooleanVector(PrimitiveBooleanCodec codec, int capacity) {
+      this.codec = codec;
+      this.values = new boolean[capacity];
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      values[row] = codec.decodePrimitive(bytes, protocolVersion);
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (values.length < minCapacity) {
+        values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (values.length != rowCount) {
+        values = Arrays.copyOf(values, rowCount);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      return codec.encodePrimitive(values[row], protocolVersion);
+    }
+  }
+
+  /**
+   * Stores values in serialized form: all the bytes are concatenated in a single array, and
+   * offsets[i] is the start of value i (the end being offsets[i + 1]).
+   */
+  private static class SerializedVector extends ColumnVector {
+    private byte[] data;
+    private int dataSize;
+    private int[] offsets;
+
+    private SerializedVector(int capacity) {
+      this.data = new byte[0];
+      this.offsets = new int[capacity + 1];
+    }
+
+    @Override
+    void add(int row, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      super.add(row, bytes, protocolVersion);
+      offsets[row + 1] = dataSize;
+    }
+
+    @Override
+    void set(int row, @NonNull ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      int length = bytes.remaining();
+      if (data.length < dataSize + length) {
+        data = Arrays.copyOf(data, newCapacity(data.length, dataSize + length));
+      }
+      // Absolute read, don't change the position of the source buffer
+      bytes.duplicate().get(data, dataSize, length);
+      dataSize += length;
+    }
+
+    @Override
+    void ensureCapacity(int minCapacity) {
+      if (offsets.length < minCapacity + 1) {
+        offsets = Arrays.copyOf(offsets, newCapacity(offsets.length, minCapacity + 1));
+      }
+    }
+
+    @Override
+    void trim(int rowCount) {
+      if (data.length != dataSize) {
+        data = Arrays.copyOf(data, dataSize);
+      }
+    }
+
+    @Override
+    ByteBuffer getBytes(int row, ProtocolVersion protocolVersion) {
+      int start = offsets[row];
+      return ByteBuffer.wrap(data, start, offsets[row + 1] - start).slice();
+    }
+  }
+}
@@ -153,6 +153,7 @@ public class DefaultPreparedStatement implements PreparedStatement {
   @NonNull
   @Override
   public BoundStatement bind(@NonNull Object... values) {
+    repreparePayload.markUsed();
     return new DefaultBoundStatement(
         this,
         variableDefinitions,
@@ -181,6 +182,7 @@ public class DefaultPreparedStatement implements PreparedStatement {
   @NonNull
   @Override
   public BoundStatementBuilder boundStatementBuilder(@NonNull Object... values) {
+    repreparePayload.markUsed();
     return new BoundStatementBuilder(
         this,
         variableDefinitions,
@@ -0,0 +1,501 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.cql.TokenRangeScanner;
+import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.api.core.servererrors.QueryValidationException;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.loadbalancing.BasicLoadBalancingPolicy;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
+import com.datastax.oss.driver.internal.core.util.concurrent.BlockingOperation;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import com.datastax.oss.driver.shaded.guava.common.collect.AbstractIterator;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ThreadSafe
+public class DefaultTokenRangeScanner implements TokenRangeScanner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DefaultTokenRangeScanner.class);
+
+  // Bit flags that identify the query variant of a sub-range
+  private static final int LOWER_BOUND = 1;
+  private static final int UPPER_BOUND = 2;
+
+  private final CqlSession session;
+  private final InternalDriverContext context;
+  private final String logPrefix;
+  private final CqlIdentifier keyspace;
+  private final CqlIdentifier table;
+  private final DriverExecutionProfile profile;
+
+  public DefaultTokenRangeScanner(
+      @NonNull CqlSession session,
+      @NonNull CqlIdentifier keyspace,
+      @NonNull CqlIdentifier table,
+      @Nullable DriverExecutionProfile profile) {
+    this.session = Objects.requireNonNull(session, "session cannot be null");
+    this.context = (InternalDriverContext) session.getContext();
+    this.logPrefix = context.getSessionName();
+    this.keyspace = Objects.requireNonNull(keyspace, "keyspace cannot be null");
+    this.table = Objects.requireNonNull(table, "table cannot be null");
+    this.profile = profile;
+  }
+
+  @NonNull
+  @Override
+  public Spliterator<Row> spliterator() {
+    BlockingOperation.checkNotDriverThread();
+    Scan scan = CompletableFutures.getUninterruptibly(startAsync());
+    return new RangeSpliterator(
+        scan, 0, scan.ranges.size(), new Semaphore(scan.maxConcurrentRanges));
+  }
+
+  @NonNull
+  @Override
+  public Publisher<Row> publisher() {
+    return new TokenRangeScanPublisher(this::startAsync);
+  }
+
+  /**
+   * Computes the sub-ranges to scan with the current token metadata, and prepares the queries.
+   *
+   * <p>Never throws, errors are reported through the returned stage.
+   */
+  @NonNull
+  CompletionStage<Scan> startAsync() {
+    try {
+      DriverExecutionProfile config =
+          (profile == null) ? context.getConfig().getDefaultProfile() : profile;
+      int splitsPerNode = config.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE);
+      int maxConcurrentRanges =
+          config.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES);
+      int maxRetries = config.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_RETRIES);
+      if (splitsPerNode < 1 || maxConcurrentRanges < 1 || maxRetries < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid values for %s (%d), %s (%d) or %s (%d): "
+                    + "the first two must be strictly positive, the last one positive",
+                DefaultDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE.getPath(),
+                splitsPerNode,
+                DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES.getPath(),
+                maxConcurrentRanges,
+                DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_RETRIES.getPath(),
+                maxRetries));
+      }
+
+      Metadata metadata = session.getMetadata();
+      TokenMap tokenMap =
+          metadata
+              .getTokenMap()
+              .orElseThrow(
+                  () ->
+                      new IllegalStateException(
+                          "Token metadata is not available, can't scan by token range "
+                              + "(check that advanced.metadata.token-map.enabled is true)"));
+      TableMetadata tableMetadata =
+          metadata
+              .getKeyspace(keyspace)
+              .flatMap(ks -> ks.getTable(table))
+              .orElseThrow(
+                  () ->
+                      new IllegalArgumentException(
+                          String.format(
+                              "Unknown table %s.%s", keyspace.asCql(true), table.asCql(true))));
+      Token minToken = ((DefaultTokenMap) tokenMap).getTokenFactory().minToken();
+      String localDc = getLocalDatacenter(config);
+
+      Set<TokenRange> ringRanges = tokenMap.getTokenRanges();
+      int targetSplits = splitsPerNode * Math.max(1, metadata.getNodes().size());
+      int splitsPerRange = Math.max(1, (targetSplits + ringRanges.size() - 1) / ringRanges.size());
+      List<ScanRange> ranges = new ArrayList<>();
+      for (TokenRange ringRange : ringRanges) {
+        // All the tokens of a ring range have the same replicas
+        List<Node> preferred = new ArrayList<>();
+        List<Node> others = new ArrayList<>();
+        sortReplicas(tokenMap.getReplicas(keyspace, ringRange), localDc, preferred, others);
+        List<TokenRange> splits =
+            (splitsPerRange > 1)
+                ? ringRange.splitEvenly(splitsPerRange)
+                : ImmutableList.of(ringRange);
+        for (TokenRange split : splits) {
+          for (TokenRange range : split.unwrap()) {
+            if (!range.isEmpty()) {
+              ranges.add(
+                  new ScanRange(
+                      range.getStart().equals(minToken) ? null : range.getStart(),
+                      range.getEnd().equals(minToken) ? null : range.getEnd(),
+                      replicasFor(preferred, others, ranges.size())));
+            }
+          }
+        }
+      }
+      // Consecutive sub-ranges are often owned by the same replicas, shuffle them to spread the
+      // load of concurrent scans across the cluster.
+      Collections.shuffle(ranges, ThreadLocalRandom.current());
+      LOG.debug(
+          "[{}] Scanning {}.{} with {} sub-ranges",
+          logPrefix,
+          keyspace.asCql(true),
+          table.asCql(true),
+          ranges.size());
+
+      List<CompletionStage<PreparedStatement>> prepareStages = new ArrayList<>(4);
+      @SuppressWarnings("unchecked")
+      CompletionStage<PreparedStatement>[] stagesByVariant = new CompletionStage[4];
+      for (ScanRange range : ranges) {
+        int variant = range.variant();
+        if (stagesByVariant[variant] == null) {
+          SimpleStatement statement =
+              SimpleStatement.newInstance(buildQuery(tableMetadata, variant));
+          if (profile != null) {
+            statement = statement.setExecutionProfile(profile);
+          }
+          stagesByVariant[variant] = session.prepareAsync(statement);
+          prepareStages.add(stagesByVariant[variant]);
+        }
+      }
+      return CompletableFutures.allSuccessful(prepareStages)
+          .thenApply(
+              v -> {
+                for (ScanRange range : ranges) {
+                  range.prepared =
+                      CompletableFutures.getCompleted(stagesByVariant[range.variant()]);
+                }
+                return new Scan(ranges, maxConcurrentRanges, maxRetries);
+              });
+    } catch (Throwable t) {
+      return CompletableFutures.failedFuture(t);
+    }
+  }
+
+  @Nullable
+  private String getLocalDatacenter(DriverExecutionProfile config) {
+    LoadBalancingPolicy policy = context.getLoadBalancingPolicy(config.getName());
+    if (policy instanceof BasicLoadBalancingPolicy) {
+      return ((BasicLoadBalancingPolicy) policy).getLocalDatacenter().orElse(null);
+    }
+    return config.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_DATACENTER, null);
+  }
+
+  /**
+   * Sorts replicas into the preferred ones (up in the local datacenter), and the others (except
+   * ignored nodes) that are only used as a last resort for retries.
+   */
+  private static void sortReplicas(
+      @NonNull Set<Node> replicas,
+      @Nullable String localDc,
+      @NonNull List<Node> preferred,
+      @NonNull List<Node> others) {
+    for (Node replica : replicas) {
+      if (replica.getDistance() == NodeDistance.IGNORED) {
+        continue;
+      }
+      if (replica.getState() == NodeState.UP
+          && (localDc == null || localDc.equals(replica.getDatacenter()))) {
+        preferred.add(replica);
+      } else {
+        others.add(replica);
+      }
+    }
+  }
+
+  /**
+   * Returns the replicas to try for a sub-range, in order. The preferred replicas are rotated, so
+   * that the sub-ranges of the same replica set are spread evenly among them.
+   */
+  @NonNull
+  private static List<Node> replicasFor(
+      @NonNull List<Node> preferred, @NonNull List<Node> others, int distance) {
+    List<Node> result = new ArrayList<>(preferred.size() + others.size());
+    for (int i = 0; i < preferred.size(); i++) {
+      result.add(preferred.get((i + distance) % preferred.size()));
+    }
+    result.addAll(others);
+    return result;
+  }
+
+  @NonNull
+  private String buildQuery(@NonNull TableMetadata tableMetadata, int variant) {
+    StringBuilder query =
+        new StringBuilder("SELECT * FROM ")
+            .append(keyspace.asCql(false))
+            .append('.')
+            .append(table.asCql(false));
+    if (variant != 0) {
+      String token =
+          tableMetadata.getPartitionKey().stream()
+              .map(column -> column.getName().asCql(false))
+              .collect(Collectors.joining(",", "token(", ")"));
+      query.append(" WHERE ");
+      if ((variant & LOWER_BOUND) != 0) {
+        query.append(token).append(" > ?");
+      }
+      if (variant == (LOWER_BOUND | UPPER_BOUND)) {
+        query.append(" AND ");
+      }
+      if ((variant & UPPER_BOUND) != 0) {
+        query.append(token).append(" <= ?");
+      }
+    }
+    return query.toString();
+  }
+
+  /** A scan in progress. */
+  @ThreadSafe
+  class Scan {
+    final List<ScanRange> ranges;
+    final int maxConcurrentRanges;
+    private final int maxRetries;
+
+    private Scan(List<ScanRange> ranges, int maxConcurrentRanges, int maxRetries) {
+      this.ranges = ranges;
+      this.maxConcurrentRanges = maxConcurrentRanges;
+      this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Fetches a page of a sub-range, retrying on the next replicas if needed.
+     *
+     * @param pagingState the paging state of the previous page, or null for the first page.
+     */
+    @NonNull
+    CompletionStage<AsyncResultSet> fetch(
+        @NonNull ScanRange range, @Nullable ByteBuffer pagingState) {
+      CompletableFuture<AsyncResultSet> result = new CompletableFuture<>();
+      fetch(range, pagingState, 0, result);
+      return result;
+    }
+
+    private void fetch(
+        ScanRange range,
+        ByteBuffer pagingState,
+        int attempt,
+        CompletableFuture<AsyncResultSet> result) {
+      Statement<?> statement;
+      try {
+        statement = range.newStatement(pagingState, attempt);
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+        return;
+      }
+      session
+          .executeAsync(statement)
+          .whenComplete(
+              (page, error) -> {
+                if (error == null) {
+                  result.complete(page);
+                } else if (attempt < maxRetries && !(error instanceof QueryValidationException)) {
+                  LOG.debug(
+                      "[{}] Error while scanning {}, retrying on next replica ({}/{})",
+                      logPrefix,
+                      range,
+                      attempt + 1,
+                      maxRetries,
+                      error);
+                  fetch(range, pagingState, attempt + 1, result);
+                } else {
+                  result.completeExceptionally(error);
+                }
+              });
+    }
+  }
+
+  /** A non-wrapping sub-range of the ring, and the replicas to query it. */
+  @ThreadSafe
+  class ScanRange {
+    // null if the range starts at the beginning of the ring, or ends at the end
+    private final Token lowerBound;
+    private final Token upperBound;
+    private final List<Node> replicas;
+    // Set once before the scan starts, and then only read
+    private volatile PreparedStatement prepared;
+
+    private ScanRange(
+        @Nullable Token lowerBound, @Nullable Token upperBound, @NonNull List<Node> replicas) {
+      this.lowerBound = lowerBound;
+      this.upperBound = upperBound;
+      this.replicas = replicas;
+    }
+
+    private int variant() {
+      return (lowerBound == null ? 0 : LOWER_BOUND) | (upperBound == null ? 0 : UPPER_BOUND);
+    }
+
+    @NonNull
+    private Statement<?> newStatement(@Nullable ByteBuffer pagingState, int attempt) {
+      BoundStatementBuilder builder = prepared.boundStatementBuilder();
+      int i = 0;
+      if (lowerBound != null) {
+        builder = builder.setToken(i++, lowerBound);
+      }
+      if (upperBound != null) {
+        builder = builder.setToken(i, upperBound);
+      }
+      builder =
+          builder
+              .setPagingState(pagingState)
+              .setNode(replicas.isEmpty() ? null : replicas.get(attempt % replicas.size()))
+              .setIdempotence(true);
+      if (profile != null) {
+        builder = builder.setExecutionProfile(profile);
+      }
+      return builder.build();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("]%s, %s]", lowerBound, upperBound);
+    }
+  }
+
+  /**
+   * Splits by sub-range, and reads each sub-range synchronously, one page at a time.
+   *
+   * <p>The splits share a semaphore that bounds the number of page requests in flight. It is only
+   * held while waiting for a response (not while the rows are consumed), so that abandoning the
+   * spliterator never leaks permits.
+   */
+  @NotThreadSafe
+  private static class RangeSpliterator implements Spliterator<Row> {
+
+    private final Scan scan;
+    private final Semaphore permits;
+    private int next;
+    private int end;
+    private Iterator<Row> current;
+
+    private RangeSpliterator(Scan scan, int start, int end, Semaphore permits) {
+      this.scan = scan;
+      this.permits = permits;
+      this.next = start;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+      Objects.requireNonNull(action, "action cannot be null");
+      while (current == null || !current.hasNext()) {
+        if (next >= end) {
+          return false;
+        }
+        current = new RangeIterator(scan, scan.ranges.get(next++), permits);
+      }
+      action.accept(current.next());
+      return true;
+    }
+
+    @Override
+    @Nullable
+    public Spliterator<Row> trySplit() {
+      int remaining = end - next;
+      if (remaining < 2) {
+        return null;
+      }
+      int mid = next + remaining / 2;
+      Spliterator<Row> split = new RangeSpliterator(scan, mid, end, permits);
+      end = mid;
+      return split;
+    }
+
+    @Override
+    public long estimateSize() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.NONNULL | Spliterator.IMMUTABLE;
+    }
+  }
+
+  @NotThreadSafe
+  private static class RangeIterator extends AbstractIterator<Row> {
+    private final Scan scan;
+    private final ScanRange range;
+    private final Semaphore permits;
+    private AsyncResultSet page;
+    private Iterator<Row> rows = Collections.emptyIterator();
+
+    private RangeIterator(Scan scan, ScanRange range, Semaphore permits) {
+      this.scan = scan;
+      this.range = range;
+      this.permits = permits;
+    }
+
+    @Override
+    protected Row computeNext() {
+      while (!rows.hasNext()) {
+        ByteBuffer pagingState;
+        if (page == null) {
+          pagingState = null;
+        } else if (page.hasMorePages()) {
+          pagingState = page.getExecutionInfo().getPagingState();
+        } else {
+          return endOfData();
+        }
+        BlockingOperation.checkNotDriverThread();
+        permits.acquireUninterruptibly();
+        try {
+          page = CompletableFutures.getUninterruptibly(scan.fetch(range, pagingState));
+        } finally {
+          permits.release();
+        }
+        rows = page.currentPage().iterator();
+      }
+      return rows.next();
+    }
+  }
+}
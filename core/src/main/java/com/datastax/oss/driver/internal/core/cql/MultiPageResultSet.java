@@ -37,8 +37,25 @@ public class MultiPageResultSet implements ResultSet {
   private ColumnDefinitions columnDefinitions;
 
   public MultiPageResultSet(@NonNull AsyncResultSet firstPage) {
+    this(firstPage, 0, 0);
+  }
+
+  /**
+   * @param prefetchPages how many pages to request in advance while the current one is being
+   *     iterated. If 0 or negative, the next page is only requested when the current one is
+   *     exhausted.
+   * @param prefetchMaxBytes the maximum size of the pages that are held in advance (ignored if
+   *     {@code prefetchPages} is not positive).
+   */
+  public MultiPageResultSet(
+      @NonNull AsyncResultSet firstPage, int prefetchPages, long prefetchMaxBytes) {
     assert firstPage.hasMorePages();
-    this.iterator = new RowIterator(firstPage);
+    this.iterator =
+        new RowIterator(
+            firstPage,
+            (prefetchPages > 0)
+                ? new PagePrefetcher(firstPage, prefetchPages, prefetchMaxBytes)
+                : null);
     this.executionInfos.add(firstPage.getExecutionInfo());
     this.columnDefinitions = firstPage.getColumnDefinitions();
   }
@@ -79,9 +96,11 @@ public class MultiPageResultSet implements ResultSet {
   private class RowIterator extends CountingIterator<Row> {
     private AsyncResultSet currentPage;
     private Iterator<Row> currentRows;
+    private final PagePrefetcher prefetcher;
 
-    private RowIterator(AsyncResultSet firstPage) {
+    private RowIterator(AsyncResultSet firstPage, PagePrefetcher prefetcher) {
       super(firstPage.remaining());
+      this.prefetcher = prefetcher;
       this.currentPage = firstPage;
       this.currentRows = firstPage.currentPage().iterator();
     }
@@ -96,7 +115,8 @@ public class MultiPageResultSet implements ResultSet {
       if (!currentRows.hasNext() && currentPage.hasMorePages()) {
         BlockingOperation.checkNotDriverThread();
         AsyncResultSet nextPage =
-            CompletableFutures.getUninterruptibly(currentPage.fetchNextPage());
+            CompletableFutures.getUninterruptibly(
+                (prefetcher == null) ? currentPage.fetchNextPage() : prefetcher.next(currentPage));
         currentPage = nextPage;
         remaining += nextPage.remaining();
         currentRows = nextPage.currentPage().iterator();
@@ -0,0 +1,131 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Requests the next pages of a result in advance, on behalf of {@link MultiPageResultSet}.
+ *
+ * <p>Pages can only be requested one after the other (each request needs the paging state of the
+ * previous response), so this maintains a chain of at most {@code maxPages} in-flight or buffered
+ * pages: each time a page arrives, the next one is requested, until either limit is reached. The
+ * consumer gets pages in order with {@link #next(AsyncResultSet)}, which frees a slot and resumes
+ * the chain if needed.
+ *
+ * <p>If a request fails, the chain stops; the error is surfaced when the consumer reaches that
+ * page.
+ */
+@ThreadSafe
+class PagePrefetcher {
+
+  private final int maxPages;
+  private final long maxBytes;
+
+  @GuardedBy("this")
+  private final Deque<PendingPage> pages = new ArrayDeque<>();
+
+  /**
+   * The last page received whose successor hasn't been requested yet; null if a request is in
+   * flight, the last page was reached, or a request failed.
+   */
+  @GuardedBy("this")
+  private AsyncResultSet tail;
+
+  @GuardedBy("this")
+  private long bufferedBytes;
+
+  PagePrefetcher(@NonNull AsyncResultSet firstPage, int maxPages, long maxBytes) {
+    assert firstPage.hasMorePages();
+    assert maxPages > 0;
+    this.maxPages = maxPages;
+    this.maxBytes = maxBytes;
+    synchronized (this) {
+      this.tail = firstPage;
+      maybeFetchMore();
+    }
+  }
+
+  /**
+   * Returns the page that follows {@code currentPage}, which must be the last page returned by this
+   * method (or the first page).
+   */
+  @NonNull
+  synchronized CompletionStage<AsyncResultSet> next(@NonNull AsyncResultSet currentPage) {
+    PendingPage page = pages.poll();
+    if (page == null) {
+      // The byte limit prevented the successor from being requested in advance
+      assert tail == currentPage;
+      fetch();
+      page = pages.poll();
+      assert page != null;
+    }
+    page.buffered = false;
+    bufferedBytes -= page.sizeInBytes;
+    maybeFetchMore();
+    return page.future;
+  }
+
+  @GuardedBy("this")
+  private void maybeFetchMore() {
+    if (tail != null && pages.size() < maxPages && bufferedBytes < maxBytes) {
+      fetch();
+    }
+  }
+
+  @GuardedBy("this")
+  private void fetch() {
+    PendingPage page = new PendingPage(tail.fetchNextPage().toCompletableFuture());
+    tail = null;
+    pages.offer(page);
+    // Might complete immediately and reenter (the monitor is reentrant, and recursion is bounded by
+    // maxPages)
+    page.future.whenComplete((result, error) -> onPageReceived(page, result));
+  }
+
+  private synchronized void onPageReceived(PendingPage page, AsyncResultSet result) {
+    if (result == null) {
+      // Failed, don't go any further. The consumer will get the error from the future.
+      return;
+    }
+    if (page.buffered) {
+      page.sizeInBytes = result.getExecutionInfo().getResponseSizeInBytes();
+      bufferedBytes += page.sizeInBytes;
+    }
+    if (result.hasMorePages()) {
+      tail = result;
+      maybeFetchMore();
+    }
+  }
+
+  private static class PendingPage {
+    private final CompletableFuture<AsyncResultSet> future;
+    // Whether the consumer hasn't reached this page yet. Guarded by the enclosing instance.
+    private boolean buffered = true;
+    private long sizeInBytes;
+
+    private PendingPage(CompletableFuture<AsyncResultSet> future) {
+      this.future = future;
+    }
+  }
+}
@@ -29,6 +29,9 @@ import net.jcip.annotations.NotThreadSafe;
  * A Spliterator for {@link PagingIterable} instances that splits the stream in chunks of equal
  * size.
  *
+ * <p>Elements are pulled from the iterable's iterator, so this benefits from page prefetching if
+ * the underlying result set was configured with it (see {@code basic.request.prefetch-pages}).
+ *
  * @param <ElementT> The element type of the underlying stream.
  */
 @NotThreadSafe
@@ -0,0 +1,326 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.dse.driver.internal.core.cql.reactive.ReactiveOperators;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.internal.core.cql.DefaultTokenRangeScanner.Scan;
+import com.datastax.oss.driver.internal.core.cql.DefaultTokenRangeScanner.ScanRange;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import net.jcip.annotations.ThreadSafe;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** A publisher that starts a new token range scan for each subscriber. */
+@ThreadSafe
+class TokenRangeScanPublisher implements Publisher<Row> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TokenRangeScanPublisher.class);
+
+  private final Supplier<CompletionStage<Scan>> scanStarter;
+
+  TokenRangeScanPublisher(@NonNull Supplier<CompletionStage<Scan>> scanStarter) {
+    this.scanStarter = scanStarter;
+  }
+
+  @Override
+  public void subscribe(@NonNull Subscriber<? super Row> subscriber) {
+    // As per rule 1.9, we need to throw an NPE if subscriber is null
+    Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+    ScanSubscription subscription = new ScanSubscription(subscriber);
+    try {
+      subscriber.onSubscribe(subscription);
+    } catch (Throwable t) {
+      // As per rule 2.13, consider the subscription cancelled
+      subscription.doOnError(
+          new IllegalStateException(
+              subscriber
+                  + " violated the Reactive Streams rule 2.13 by throwing an exception from onSubscribe.",
+              t));
+    }
+  }
+
+  /**
+   * Reads up to {@code maxConcurrentRanges} sub-ranges at a time, and emits their rows as they
+   * arrive.
+   *
+   * <p>Each active sub-range has at most one page either in flight or buffered: the next page is
+   * only requested once the previous one has been fully emitted. This bounds memory usage if the
+   * subscriber is slower than the cluster.
+   *
+   * <p>The emission logic follows the same principles as {@code ReactiveResultSetSubscription}:
+   * only one thread at a time drains the buffered pages, other threads that attempt to drain
+   * concurrently only record that another round is needed.
+   */
+  @ThreadSafe
+  private class ScanSubscription implements Subscription {
+
+    private final AtomicLong requested = new AtomicLong(0);
+    private final AtomicInteger draining = new AtomicInteger(0);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Queue<Page> pages = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicInteger nextRange = new AtomicInteger();
+    // -1 until the scan has started
+    private final AtomicInteger remainingRanges = new AtomicInteger(-1);
+
+    private volatile Scan scan;
+    private volatile boolean cancelled;
+
+    /** Non-final because it has to be de-referenced, see {@link #clear()}. */
+    private volatile Subscriber<? super Row> subscriber;
+
+    private ScanSubscription(Subscriber<? super Row> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      // As per 3.6: after the Subscription is cancelled, additional calls to request() MUST be
+      // NOPs.
+      if (!cancelled) {
+        if (n < 1) {
+          // Validate request as per rule 3.9
+          doOnError(
+              new IllegalArgumentException(
+                  subscriber
+                      + " violated the Reactive Streams rule 3.9 by requesting a non-positive number of elements."));
+        } else {
+          ReactiveOperators.addCap(requested, n);
+          if (started.compareAndSet(false, true)) {
+            start();
+          }
+          drain();
+        }
+      }
+    }
+
+    @Override
+    public void cancel() {
+      if (!cancelled) {
+        cancelled = true;
+        if (draining.getAndIncrement() == 0) {
+          // If nobody is draining, clear now; otherwise, the draining thread will do it.
+          clear();
+        }
+      }
+    }
+
+    private void start() {
+      scanStarter
+          .get()
+          .whenComplete(
+              (scan, startError) -> {
+                if (startError != null) {
+                  onFailure(startError);
+                } else {
+                  this.scan = scan;
+                  remainingRanges.set(scan.ranges.size());
+                  for (int i = 0; i < scan.maxConcurrentRanges; i++) {
+                    startNextRange();
+                  }
+                }
+                drain();
+              });
+    }
+
+    private void startNextRange() {
+      int i = nextRange.getAndIncrement();
+      if (i < scan.ranges.size()) {
+        fetch(scan.ranges.get(i), null);
+      }
+    }
+
+    private void fetch(ScanRange range, AsyncResultSet previousPage) {
+      if (cancelled) {
+        return;
+      }
+      scan.fetch(
+              range,
+              (previousPage == null) ? null : previousPage.getExecutionInfo().getPagingState())
+          .whenComplete(
+              (page, fetchError) -> {
+                if (fetchError != null) {
+                  onFailure(fetchError);
+                } else {
+                  pages.offer(new Page(range, page));
+                }
+                drain();
+              });
+    }
+
+    private void onFailure(Throwable t) {
+      // Unwrap CompletionExceptions created by combined futures
+      if (t instanceof CompletionException && t.getCause() != null) {
+        t = t.getCause();
+      }
+      error.compareAndSet(null, t);
+    }
+
+    /** @see ReactiveResultSetSubscription#drain() */
+    private void drain() {
+      if (draining.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      for (; ; ) {
+        long r = requested.get();
+        long emitted = 0L;
+        while (emitted != r) {
+          if (cancelled) {
+            clear();
+            return;
+          }
+          if (checkFailed()) {
+            return;
+          }
+          Row row = tryNext();
+          if (row == null) {
+            break;
+          }
+          doOnNext(row);
+          emitted++;
+        }
+        if (checkFailed()) {
+          return;
+        }
+        if (remainingRanges.get() == 0 && pages.isEmpty()) {
+          doOnComplete();
+          clear();
+          return;
+        }
+        if (cancelled) {
+          clear();
+          return;
+        }
+        if (emitted != 0) {
+          ReactiveOperators.subCap(requested, emitted);
+        }
+        missed = draining.addAndGet(-missed);
+        if (missed == 0) {
+          break;
+        }
+      }
+    }
+
+    private boolean checkFailed() {
+      Throwable t = error.get();
+      if (t != null) {
+        doOnError(t);
+        clear();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Returns the next buffered row, or null if there is none. When a page is exhausted, requests
+     * the next one for its sub-range, or starts a new sub-range.
+     *
+     * <p>Cannot run concurrently due to the {@link #draining} field.
+     */
+    @Nullable
+    private Row tryNext() {
+      Page page;
+      while ((page = pages.peek()) != null) {
+        if (page.rows.hasNext()) {
+          return page.rows.next();
+        }
+        pages.poll();
+        if (page.resultSet.hasMorePages()) {
+          fetch(page.range, page.resultSet);
+        } else {
+          remainingRanges.decrementAndGet();
+          startNextRange();
+        }
+      }
+      return null;
+    }
+
+    private void doOnNext(@NonNull Row row) {
+      try {
+        subscriber.onNext(row);
+      } catch (Throwable t) {
+        LOG.error(
+            subscriber
+                + " violated the Reactive Streams rule 2.13 by throwing an exception from onNext.",
+            t);
+        cancel();
+      }
+    }
+
+    private void doOnComplete() {
+      try {
+        subscriber.onComplete();
+      } catch (Throwable t) {
+        LOG.error(
+            subscriber
+                + " violated the Reactive Streams rule 2.13 by throwing an exception from onComplete.",
+            t);
+      }
+      // As per rule 1.6, consider this subscription as cancelled
+      cancel();
+    }
+
+    private void doOnError(@NonNull Throwable error) {
+      try {
+        subscriber.onError(error);
+      } catch (Throwable t) {
+        t.addSuppressed(error);
+        LOG.error(
+            subscriber
+                + " violated the Reactive Streams rule 2.13 by throwing an exception from onError.",
+            t);
+      }
+      // As per rule 1.6, consider this subscription as cancelled
+      cancel();
+    }
+
+    private void clear() {
+      pages.clear();
+      // As per 3.13, drop the reference to the subscriber
+      subscriber = null;
+    }
+  }
+
+  private static class Page {
+    private final ScanRange range;
+    private final AsyncResultSet resultSet;
+    private final Iterator<Row> rows;
+
+    private Page(ScanRange range, AsyncResultSet resultSet) {
+      this.range = range;
+      this.resultSet = resultSet;
+      this.rows = resultSet.currentPage().iterator();
+    }
+  }
+}
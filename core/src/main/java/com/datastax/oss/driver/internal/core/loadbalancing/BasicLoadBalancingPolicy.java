@@ -15,9 +15,12 @@
  */
 package com.datastax.oss.driver.internal.core.loadbalancing;
 
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
 import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
 import com.datastax.oss.driver.api.core.metadata.Node;
@@ -26,25 +29,35 @@ import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.internal.core.ConsistencyLevelRegistry;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.loadbalancing.helper.DefaultNodeFilterHelper;
 import com.datastax.oss.driver.internal.core.loadbalancing.helper.OptionalLocalDcHelper;
 import com.datastax.oss.driver.internal.core.util.ArrayUtils;
+import com.datastax.oss.driver.internal.core.util.collection.FailoverQueryPlan;
 import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
+import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,8 +89,24 @@ import org.slf4j.LoggerFactory;
  * <p><b>Query plan</b>: This implementation prioritizes replica nodes over non-replica ones; if
  * more than one replica is available, the replicas will be shuffled. Non-replica nodes will be
  * included in a round-robin fashion. If the local datacenter is defined (see above), query plans
- * will only include local nodes, never remote ones; if it is unspecified however, query plans may
- * contain nodes from different datacenters.
+ * will only include local nodes, never remote ones (unless datacenter failover is enabled, see
+ * below); if it is unspecified however, query plans may contain nodes from different datacenters.
+ *
+ * <p><b>Datacenter failover</b>: if {@code
+ * advanced.load-balancing-policy.dc-failover.max-nodes-per-remote-dc} is greater than 0 (and a
+ * local datacenter is defined), the policy also connects to up to that many live nodes in each
+ * remote datacenter, and appends them to query plans after the local nodes. This can be disabled
+ * for requests with a local consistency level, see {@code
+ * advanced.load-balancing-policy.dc-failover.allow-for-local-consistency-levels}.
+ *
+ * <p><b>Local rack</b>: if {@code basic.load-balancing-policy.local-rack} is set, nodes from that
+ * rack are tried first, both among replicas and among non-replicas. In other words, query plans
+ * contain: local rack replicas, other replicas, local rack non-replicas, other non-replicas.
+ *
+ * <p><b>Replica cache</b>: if {@code basic.load-balancing-policy.replica-cache-size} is set, the
+ * live replicas of the most recently used routing keys are cached. This avoids hashing the routing
+ * key and looking it up in the token map for every request. The cache is cleared when the token map
+ * changes, and when a node is added to or removed from the live set.
  *
  * <p><b>This class is not recommended for normal users who should always prefer {@link
  * DefaultLoadBalancingPolicy}</b>.
@@ -101,10 +130,38 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   private volatile Predicate<Node> filter;
   private volatile String localDc;
 
+  // null if disabled
+  @Nullable private final ReplicaCache replicaCache;
+  @Nullable private final String localRack;
+
+  private final int maxNodesPerRemoteDc;
+  private final boolean allowFailoverForLocalConsistencyLevels;
+  // Only set in init() if DC failover is enabled, never modified after
+  private volatile Predicate<Node> remoteFilter;
+  private volatile boolean defaultConsistencyIsLocal;
+
+  // The remote nodes that can be used for DC failover: all the remote nodes that match the filter
+  // and are not down, by DC. Only the first maxNodesPerRemoteDc of each DC are actually used.
+  @GuardedBy("remoteNodesLock")
+  private final Map<String, Set<Node>> remoteNodes = new TreeMap<>();
+
+  private final Object remoteNodesLock = new Object();
+  // The nodes in use in each remote DC, concatenated. Recomputed on every change to remoteNodes.
+  private volatile Object[] remoteTail = new Object[0];
+
   public BasicLoadBalancingPolicy(@NonNull DriverContext context, @NonNull String profileName) {
     this.context = (InternalDriverContext) context;
     profile = context.getConfig().getProfile(profileName);
     logPrefix = context.getSessionName() + "|" + profileName;
+    int replicaCacheSize = profile.getInt(DefaultDriverOption.LOAD_BALANCING_REPLICA_CACHE_SIZE, 0);
+    replicaCache = (replicaCacheSize > 0) ? new ReplicaCache(replicaCacheSize) : null;
+    localRack = profile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, null);
+    maxNodesPerRemoteDc =
+        profile.getInt(DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC, 0);
+    allowFailoverForLocalConsistencyLevels =
+        profile.getBoolean(
+            DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS,
+            false);
   }
 
   /** @return The local datacenter, if known; empty otherwise. */
@@ -112,6 +169,11 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
     return Optional.ofNullable(localDc);
   }
 
+  /** @return The local rack, if configured; empty otherwise. */
+  public Optional<String> getLocalRack() {
+    return Optional.ofNullable(localRack);
+  }
+
   /**
    * @return An immutable copy of the nodes currently considered as live; if the local datacenter is
    *     known, this set will contain only nodes belonging to that datacenter.
@@ -125,6 +187,15 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
     this.distanceReporter = distanceReporter;
     localDc = discoverLocalDc(nodes).orElse(null);
     filter = createNodeFilter(localDc, nodes);
+    if (localDc != null && maxNodesPerRemoteDc > 0) {
+      remoteFilter = createRemoteNodeFilter(localDc, nodes);
+      ConsistencyLevelRegistry registry = context.getConsistencyLevelRegistry();
+      defaultConsistencyIsLocal =
+          registry
+              .codeToLevel(
+                  registry.nameToCode(profile.getString(DefaultDriverOption.REQUEST_CONSISTENCY)))
+              .isDcLocal();
+    }
     for (Node node : nodes.values()) {
       if (filter.test(node)) {
         distanceReporter.setDistance(node, NodeDistance.LOCAL);
@@ -136,8 +207,14 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         }
       } else {
         distanceReporter.setDistance(node, NodeDistance.IGNORED);
+        if (isRemoteCandidate(node) && node.getState() != NodeState.DOWN) {
+          addRemoteNode(node);
+        }
       }
     }
+    if (remoteFilter != null) {
+      updateRemoteNodes();
+    }
   }
 
   /**
@@ -183,17 +260,208 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         .createNodeFilter(localDc, nodes);
   }
 
+  /**
+   * Creates the filter that selects the remote nodes to use for datacenter failover, among those
+   * that were rejected by the {@linkplain #createNodeFilter(String, Map) main filter}.
+   *
+   * <p>This method is called only once, during {@linkplain LoadBalancingPolicy#init(Map,
+   * LoadBalancingPolicy.DistanceReporter) initialization}, and only if datacenter failover is
+   * enabled.
+   *
+   * @param localDc The local datacenter.
+   * @param nodes All the nodes that were known to exist in the cluster when the load balancing
+   *     policy was initialized.
+   * @return the node filter to use for remote nodes.
+   */
+  @NonNull
+  protected Predicate<Node> createRemoteNodeFilter(
+      @NonNull String localDc, @NonNull Map<UUID, Node> nodes) {
+    return new DefaultNodeFilterHelper(context, profile, logPrefix)
+        .createRemoteNodeFilter(localDc, nodes);
+  }
+
   @NonNull
   @Override
   public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
     // Take a snapshot since the set is concurrent:
     Object[] currentNodes = liveNodes.toArray();
 
-    Set<Node> allReplicas = getReplicas(request, session);
-    int replicaCount = 0; // in currentNodes
+    int replicaCount = moveReplicasFirst(currentNodes, request, session);
+    if (replicaCount > 1) {
+      shuffleHead(currentNodes, replicaCount);
+    }
+    moveLocalRackFirst(currentNodes, 0, replicaCount);
+
+    LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
+
+    rotateNonReplicas(currentNodes, replicaCount);
+
+    return buildQueryPlan(currentNodes, request);
+  }
+
+  /**
+   * Wraps the final ordering of the local nodes into a query plan, adding the datacenter failover
+   * nodes if applicable.
+   */
+  @NonNull
+  protected Queue<Node> buildQueryPlan(@NonNull Object[] currentNodes, @Nullable Request request) {
+    Object[] tail = remoteTail;
+    if (tail.length == 0 || !allowsDcFailover(request)) {
+      return new QueryPlan(currentNodes);
+    }
+    return new FailoverQueryPlan(currentNodes, tail, roundRobinAmount.get());
+  }
+
+  private boolean allowsDcFailover(@Nullable Request request) {
+    if (allowFailoverForLocalConsistencyLevels || request == null) {
+      // Internal queries (with no request) are not bound by a consistency level, they can always
+      // use remote nodes
+      return true;
+    }
+    ConsistencyLevel consistency =
+        (request instanceof Statement) ? ((Statement<?>) request).getConsistencyLevel() : null;
+    boolean isLocal = (consistency == null) ? defaultConsistencyIsLocal : consistency.isDcLocal();
+    return !isLocal;
+  }
+
+  /** @return the remote nodes that are currently used for datacenter failover. */
+  @NonNull
+  public List<Node> getRemoteNodes() {
+    ImmutableList.Builder<Node> builder = ImmutableList.builder();
+    for (Object node : remoteTail) {
+      builder.add((Node) node);
+    }
+    return builder.build();
+  }
+
+  private boolean isRemoteCandidate(Node node) {
+    Predicate<Node> remoteFilter = this.remoteFilter;
+    return remoteFilter != null && remoteFilter.test(node);
+  }
+
+  private boolean addRemoteNode(Node node) {
+    synchronized (remoteNodesLock) {
+      return remoteNodes
+          .computeIfAbsent(node.getDatacenter(), dc -> new LinkedHashSet<>())
+          .add(node);
+    }
+  }
+
+  private boolean removeRemoteNode(Node node) {
+    synchronized (remoteNodesLock) {
+      Set<Node> dcNodes = remoteNodes.get(node.getDatacenter());
+      return dcNodes != null && dcNodes.remove(node);
+    }
+  }
 
+  /**
+   * Recomputes which remote nodes are used: the first {@code maxNodesPerRemoteDc} of each DC get
+   * the REMOTE distance (which makes the session open a pool to them), the others are ignored.
+   */
+  private void updateRemoteNodes() {
+    synchronized (remoteNodesLock) {
+      List<Object> tail = new ArrayList<>();
+      for (Set<Node> dcNodes : remoteNodes.values()) {
+        int count = 0;
+        for (Node node : dcNodes) {
+          if (count < maxNodesPerRemoteDc) {
+            distanceReporter.setDistance(node, NodeDistance.REMOTE);
+            tail.add(node);
+            count += 1;
+          } else {
+            distanceReporter.setDistance(node, NodeDistance.IGNORED);
+          }
+        }
+      }
+      remoteTail = tail.toArray();
+      LOG.debug("[{}] Remote nodes for DC failover: {}", logPrefix, tail);
+    }
+  }
+
+  /**
+   * Round-robins the nodes that follow the replicas, then moves those of the local rack (if any)
+   * first.
+   */
+  protected void rotateNonReplicas(@NonNull Object[] currentNodes, int replicaCount) {
+    ArrayUtils.rotate(
+        currentNodes,
+        replicaCount,
+        currentNodes.length - replicaCount,
+        roundRobinAmount.getAndUpdate(INCREMENT));
+    moveLocalRackFirst(currentNodes, replicaCount, currentNodes.length);
+  }
+
+  /**
+   * Moves the nodes of the local rack to the beginning of the range {@code [from, to)} of {@code
+   * currentNodes}, while preserving the relative order of all nodes otherwise. This does nothing if
+   * no local rack is configured.
+   *
+   * @return the number of nodes that were moved.
+   */
+  protected int moveLocalRackFirst(@NonNull Object[] currentNodes, int from, int to) {
+    return moveLocalRackFirst(currentNodes, from, to, i -> true);
+  }
+
+  /**
+   * Same as {@link #moveLocalRackFirst(Object[], int, int)}, but only moves the local rack nodes
+   * whose index matches {@code eligible}. Indices are tested before the corresponding node is
+   * moved, so they refer to the order of {@code currentNodes} when this method was called.
+   */
+  protected int moveLocalRackFirst(
+      @NonNull Object[] currentNodes, int from, int to, @NonNull IntPredicate eligible) {
+    if (localRack == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      Node node = (Node) currentNodes[i];
+      if (localRack.equals(node.getRack()) && eligible.test(i)) {
+        ArrayUtils.bubbleUp(currentNodes, i, from + count);
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Moves the replicas of the request's partition to the beginning of {@code currentNodes}, while
+   * preserving the relative order of all the other nodes.
+   *
+   * <p>If the replica cache is enabled, the replicas are looked up there first, and {@link
+   * #getReplicas(Request, Session)} is only invoked on a cache miss.
+   *
+   * @param currentNodes a snapshot of the live nodes.
+   * @return the number of replicas that are now at the beginning of the array.
+   */
+  protected int moveReplicasFirst(
+      @NonNull Object[] currentNodes, @Nullable Request request, @Nullable Session session) {
+    if (replicaCache != null && request != null && session != null) {
+      Optional<TokenMap> maybeTokenMap = context.getMetadataManager().getMetadata().getTokenMap();
+      ReplicaCache.Key key =
+          maybeTokenMap.isPresent() ? getReplicaCacheKey(request, session) : null;
+      if (key != null) {
+        long epoch = replicaCache.epoch(maybeTokenMap.get());
+        Object[] replicas = replicaCache.get(key);
+        if (replicas == null) {
+          // Take a new snapshot: the cache was possibly invalidated between the moment the caller
+          // took theirs and the moment we read the epoch.
+          replicas = filterReplicas(liveNodes.toArray(), getReplicas(request, session));
+          replicaCache.put(key, replicas, epoch);
+        }
+        int replicaCount = moveReplicasFirst(currentNodes, replicas);
+        if (replicaCount >= 0) {
+          return replicaCount;
+        }
+        // Otherwise the live nodes changed since the entry was computed, and the cache is about to
+        // be invalidated. Use the slow path (which copes with a partially rearranged array).
+      }
+    }
+    return moveReplicasFirst(currentNodes, getReplicas(request, session));
+  }
+
+  private static int moveReplicasFirst(Object[] currentNodes, Set<Node> allReplicas) {
+    int replicaCount = 0;
     if (!allReplicas.isEmpty()) {
-      // Move replicas to the beginning
       for (int i = 0; i < currentNodes.length; i++) {
         Node node = (Node) currentNodes[i];
         if (allReplicas.contains(node)) {
@@ -201,22 +469,65 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
           replicaCount += 1;
         }
       }
+    }
+    return replicaCount;
+  }
 
-      if (replicaCount > 1) {
-        shuffleHead(currentNodes, replicaCount);
+  /**
+   * Same thing, but with replicas that are known to appear in the same order as in {@code
+   * currentNodes}: we only need to compare each node to the next expected replica.
+   *
+   * @return the number of replicas, or -1 if some of them were not found.
+   */
+  private static int moveReplicasFirst(Object[] currentNodes, Object[] replicas) {
+    int replicaCount = 0;
+    for (int i = 0; i < currentNodes.length && replicaCount < replicas.length; i++) {
+      if (currentNodes[i] == replicas[replicaCount]) {
+        ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
+        replicaCount += 1;
       }
     }
+    return (replicaCount == replicas.length) ? replicaCount : -1;
+  }
 
-    LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
+  private static Object[] filterReplicas(Object[] nodes, Set<Node> allReplicas) {
+    int replicaCount = moveReplicasFirst(nodes, allReplicas);
+    return (replicaCount == nodes.length) ? nodes : Arrays.copyOf(nodes, replicaCount);
+  }
 
-    // Round-robin the remaining nodes
-    ArrayUtils.rotate(
-        currentNodes,
-        replicaCount,
-        currentNodes.length - replicaCount,
-        roundRobinAmount.getAndUpdate(INCREMENT));
+  @Nullable
+  private ReplicaCache.Key getReplicaCacheKey(@NonNull Request request, @NonNull Session session) {
+    // Same logic as getReplicas()
+    try {
+      CqlIdentifier keyspace = request.getKeyspace();
+      if (keyspace == null) {
+        keyspace = request.getRoutingKeyspace();
+      }
+      if (keyspace == null && session.getKeyspace().isPresent()) {
+        keyspace = session.getKeyspace().get();
+      }
+      if (keyspace == null) {
+        return null;
+      }
+
+      Token token = request.getRoutingToken();
+      if (token != null) {
+        return ReplicaCache.Key.forToken(keyspace, token);
+      }
+      ByteBuffer key = request.getRoutingKey();
+      return (key == null) ? null : ReplicaCache.Key.forRoutingKey(keyspace, key);
+    } catch (Exception e) {
+      // Protect against poorly-implemented Request instances
+      LOG.error("Unexpected error while trying to compute query plan", e);
+      return null;
+    }
+  }
 
-    return new QueryPlan(currentNodes);
+  /** Clears the replica cache, if it is enabled. */
+  protected void invalidateReplicaCache() {
+    if (replicaCache != null) {
+      replicaCache.invalidate();
+    }
   }
 
   @NonNull
@@ -277,6 +588,12 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
       // Setting to a non-ignored distance triggers the session to open a pool, which will in turn
       // set the node UP when the first channel gets opened.
       distanceReporter.setDistance(node, NodeDistance.LOCAL);
+    } else if (isRemoteCandidate(node)) {
+      // Same thing, updateRemoteNodes() sets it to REMOTE if the DC needs more nodes
+      if (addRemoteNode(node)) {
+        LOG.debug("[{}] {} was added, candidate for DC failover", logPrefix, node);
+      }
+      updateRemoteNodes();
     } else {
       distanceReporter.setDistance(node, NodeDistance.IGNORED);
     }
@@ -290,6 +607,12 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
       distanceReporter.setDistance(node, NodeDistance.LOCAL);
       if (liveNodes.add(node)) {
         LOG.debug("[{}] {} came back UP, added to live set", logPrefix, node);
+        invalidateReplicaCache();
+      }
+    } else if (isRemoteCandidate(node)) {
+      if (addRemoteNode(node)) {
+        LOG.debug("[{}] {} came back UP, candidate for DC failover", logPrefix, node);
+        updateRemoteNodes();
       }
     } else {
       distanceReporter.setDistance(node, NodeDistance.IGNORED);
@@ -300,6 +623,13 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   public void onDown(@NonNull Node node) {
     if (liveNodes.remove(node)) {
       LOG.debug("[{}] {} went DOWN, removed from live set", logPrefix, node);
+      invalidateReplicaCache();
+    } else if (removeRemoteNode(node)) {
+      LOG.debug("[{}] {} went DOWN, removed from DC failover candidates", logPrefix, node);
+      // Stop reconnecting to it, it will come back with a topology event. Another node of the same
+      // DC replaces it in the meantime.
+      distanceReporter.setDistance(node, NodeDistance.IGNORED);
+      updateRemoteNodes();
     }
   }
 
@@ -307,6 +637,10 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   public void onRemove(@NonNull Node node) {
     if (liveNodes.remove(node)) {
       LOG.debug("[{}] {} was removed, removed from live set", logPrefix, node);
+      invalidateReplicaCache();
+    } else if (removeRemoteNode(node)) {
+      LOG.debug("[{}] {} was removed, removed from DC failover candidates", logPrefix, node);
+      updateRemoteNodes();
     }
   }
 
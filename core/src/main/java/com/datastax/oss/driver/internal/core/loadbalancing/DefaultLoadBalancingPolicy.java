@@ -30,14 +30,12 @@ import com.datastax.oss.driver.internal.core.loadbalancing.helper.MandatoryLocal
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.util.ArrayUtils;
-import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.BitSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
@@ -83,7 +81,8 @@ import org.slf4j.LoggerFactory;
  * available, they will be ordered from most healthy to least healthy ("Power of 2 choices" or busy
  * node avoidance algorithm). Non-replica nodes will be included in a round-robin fashion. If the
  * local datacenter is defined (see above), query plans will only include local nodes, never remote
- * ones; if it is unspecified however, query plans may contain nodes from different datacenters.
+ * ones (unless datacenter failover is enabled, see {@link BasicLoadBalancingPolicy}); if it is
+ * unspecified however, query plans may contain nodes from different datacenters.
  */
 @ThreadSafe
 public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy implements RequestTracker {
@@ -128,19 +127,10 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
     // Take a snapshot since the set is concurrent:
     Object[] currentNodes = liveNodes.toArray();
 
-    Set<Node> allReplicas = getReplicas(request, session);
-    int replicaCount = 0; // in currentNodes
+    // Move replicas to the beginning of the plan
+    int replicaCount = moveReplicasFirst(currentNodes, request, session);
 
-    if (!allReplicas.isEmpty()) {
-
-      // Move replicas to the beginning of the plan
-      for (int i = 0; i < currentNodes.length; i++) {
-        Node node = (Node) currentNodes[i];
-        if (allReplicas.contains(node)) {
-          ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
-          replicaCount++;
-        }
-      }
+    if (replicaCount > 0) {
 
       if (replicaCount > 1) {
 
@@ -178,6 +168,8 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
           // - there is a majority of healthy replicas
           int unhealthyReplicasCount =
               unhealthyReplicas == null ? 0 : unhealthyReplicas.cardinality();
+          // The replicas at the front of the list that the local rack preference applies to
+          int preferredCount = replicaCount;
           if (newestUpReplica == null
               && unhealthyReplicasCount > 0
               && unhealthyReplicasCount < (replicaCount / 2.0)) {
@@ -192,6 +184,9 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
                 counter++;
               }
             }
+            preferredCount = replicaCount - unhealthyReplicasCount;
+            // The preferred replicas are all healthy now, and the bits don't match their indices
+            unhealthyReplicas = null;
           }
 
           // When:
@@ -204,28 +199,40 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
             // Send it to the back of the replicas
             ArrayUtils.bubbleDown(
                 currentNodes, newestUpReplica == currentNodes[0] ? 0 : 1, replicaCount - 1);
+            // The unhealthy replicas can only be before the newest up one (see above), so their
+            // indices haven't changed
+            preferredCount = replicaCount - 1;
           }
 
+          // Local rack replicas go first, unless we consider them unhealthy or newly up (even if
+          // they were not reordered above)
+          BitSet unhealthy = unhealthyReplicas;
+          Node newestUp = newestUpReplica;
+          int localRackCount =
+              moveLocalRackFirst(
+                  currentNodes,
+                  0,
+                  preferredCount,
+                  i -> (unhealthy == null || !unhealthy.get(i)) && currentNodes[i] != newestUp);
+
           // Reorder the first two replicas in the shuffled list based on the number of
-          // in-flight requests
-          if (getInFlight((Node) currentNodes[0], session)
-              > getInFlight((Node) currentNodes[1], session)) {
+          // in-flight requests (unless that would put a non-local rack replica first)
+          if (localRackCount != 1
+              && getInFlight((Node) currentNodes[0], session)
+                  > getInFlight((Node) currentNodes[1], session)) {
             ArrayUtils.swap(currentNodes, 0, 1);
           }
+        } else {
+          moveLocalRackFirst(currentNodes, 0, replicaCount);
         }
       }
     }
 
     LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
 
-    // Round-robin the remaining nodes
-    ArrayUtils.rotate(
-        currentNodes,
-        replicaCount,
-        currentNodes.length - replicaCount,
-        roundRobinAmount.getAndUpdate(INCREMENT));
+    rotateNonReplicas(currentNodes, replicaCount);
 
-    return new QueryPlan(currentNodes);
+    return buildQueryPlan(currentNodes, request);
   }
 
   @Override
@@ -0,0 +1,291 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.QueryValidationException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.internal.core.loadbalancing.helper.MandatoryLocalDcHelper;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A load balancing policy that orders replicas according to their recent response times.
+ *
+ * <p>To activate this policy, modify the {@code basic.load-balancing-policy} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   basic.load-balancing-policy {
+ *     class = LatencyAwareLoadBalancingPolicy
+ *     local-datacenter = datacenter1
+ *     latency-decay-time = 10 seconds
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p><b>Local datacenter</b>: like {@link DefaultLoadBalancingPolicy}, this implementation requires
+ * a local datacenter to be defined.
+ *
+ * <p><b>Latency score</b>: the policy registers itself as a {@link RequestTracker}, and maintains a
+ * "peak EWMA" of the latency of each node: a new sample that is higher than the current average
+ * replaces it immediately, whereas lower samples are blended in with an exponentially weighted
+ * moving average. The weight of the past decreases with the time elapsed since the last sample,
+ * according to {@code basic.load-balancing-policy.latency-decay-time}. In other words, a node that
+ * suddenly becomes slow (for example because of a GC pause) is penalized right away, and recovers
+ * progressively once it responds quickly again. A node that is not queried anymore also sees its
+ * score decay over time, so that it eventually gets another chance.
+ *
+ * <p>The score used to rank a node is its average latency, multiplied by the number of requests
+ * currently in flight to it, plus one. A node that has never been sampled has a score of zero.
+ *
+ * <p>Errors are handled according to their type: timeouts are recorded with their actual latency;
+ * other errors are recorded with at least {@code basic.load-balancing-policy.latency-error-penalty}
+ * (by default, the request timeout), so that a node that fails fast does not look faster than its
+ * healthy peers; errors caused by the query itself (syntax errors, invalid queries, etc.) are
+ * ignored.
+ *
+ * <p><b>Query plan</b>: replicas come first, ordered from lowest to highest score (replicas with
+ * equal scores are shuffled). Non-replica nodes follow, in a round-robin fashion. If a local rack
+ * is configured, its nodes come first within each of those groups. If the local datacenter is
+ * defined, query plans will only include local nodes.
+ */
+@ThreadSafe
+public class LatencyAwareLoadBalancingPolicy extends BasicLoadBalancingPolicy
+    implements RequestTracker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LatencyAwareLoadBalancingPolicy.class);
+
+  protected final Map<Node, PeakEwma> latencies = new ConcurrentHashMap<>();
+  private final double decayTimeNanos;
+  private final long errorPenaltyNanos;
+
+  public LatencyAwareLoadBalancingPolicy(
+      @NonNull DriverContext context, @NonNull String profileName) {
+    super(context, profileName);
+    Duration decayTime =
+        profile.getDuration(
+            DefaultDriverOption.LOAD_BALANCING_LATENCY_DECAY_TIME, Duration.ofSeconds(10));
+    if (decayTime.isNegative() || decayTime.isZero()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s: expected a positive duration (got %s)",
+              DefaultDriverOption.LOAD_BALANCING_LATENCY_DECAY_TIME.getPath(), decayTime));
+    }
+    this.decayTimeNanos = decayTime.toNanos();
+    Duration errorPenalty =
+        profile.isDefined(DefaultDriverOption.LOAD_BALANCING_LATENCY_ERROR_PENALTY)
+            ? profile.getDuration(DefaultDriverOption.LOAD_BALANCING_LATENCY_ERROR_PENALTY)
+            : profile.getDuration(DefaultDriverOption.REQUEST_TIMEOUT);
+    if (errorPenalty.isNegative()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s: expected a non-negative duration (got %s)",
+              DefaultDriverOption.LOAD_BALANCING_LATENCY_ERROR_PENALTY.getPath(), errorPenalty));
+    }
+    this.errorPenaltyNanos = errorPenalty.toNanos();
+  }
+
+  @Override
+  public void init(@NonNull Map<UUID, Node> nodes, @NonNull DistanceReporter distanceReporter) {
+    super.init(nodes, distanceReporter);
+    ((MultiplexingRequestTracker) context.getRequestTracker()).register(this);
+  }
+
+  @NonNull
+  @Override
+  protected Optional<String> discoverLocalDc(@NonNull Map<UUID, Node> nodes) {
+    return new MandatoryLocalDcHelper(context, profile, logPrefix).discoverLocalDc(nodes);
+  }
+
+  @NonNull
+  @Override
+  public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
+    // Take a snapshot since the set is concurrent:
+    Object[] currentNodes = liveNodes.toArray();
+
+    int replicaCount = moveReplicasFirst(currentNodes, request, session);
+    if (replicaCount > 1) {
+      // Shuffle first, so that replicas with the same score (typically 0 when they haven't been
+      // sampled yet) don't always come in the same order.
+      shuffleHead(currentNodes, replicaCount);
+
+      assert session != null;
+      long now = nanoTime();
+      double[] scores = new double[replicaCount];
+      for (int i = 0; i < replicaCount; i++) {
+        scores[i] = getScore((Node) currentNodes[i], session, now);
+      }
+      // Stable insertion sort, there are only a handful of replicas
+      for (int i = 1; i < replicaCount; i++) {
+        Object node = currentNodes[i];
+        double score = scores[i];
+        int j = i - 1;
+        while (j >= 0 && scores[j] > score) {
+          currentNodes[j + 1] = currentNodes[j];
+          scores[j + 1] = scores[j];
+          j -= 1;
+        }
+        currentNodes[j + 1] = node;
+        scores[j + 1] = score;
+      }
+    }
+    moveLocalRackFirst(currentNodes, 0, replicaCount);
+
+    LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
+
+    rotateNonReplicas(currentNodes, replicaCount);
+
+    return buildQueryPlan(currentNodes, request);
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    updateLatency(node, latencyNanos);
+  }
+
+  @Override
+  public void onNodeError(
+      @NonNull Request request,
+      @NonNull Throwable error,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    if (error instanceof DriverTimeoutException
+        || error instanceof ReadTimeoutException
+        || error instanceof WriteTimeoutException) {
+      // The node was slow to respond, the latency is meaningful
+      updateLatency(node, latencyNanos);
+    } else if (!(error instanceof QueryValidationException)) {
+      // Don't let a node that fails fast get a better score than its healthy peers
+      updateLatency(node, Math.max(latencyNanos, errorPenaltyNanos));
+    }
+  }
+
+  @Override
+  public void onUp(@NonNull Node node) {
+    // Forget what we knew about a node that was down, it starts over with a score of zero
+    latencies.remove(node);
+    super.onUp(node);
+  }
+
+  @Override
+  public void onRemove(@NonNull Node node) {
+    latencies.remove(node);
+    super.onRemove(node);
+  }
+
+  /** Exposed as a protected method so that it can be accessed by tests */
+  @Override
+  protected void shuffleHead(Object[] currentNodes, int replicaCount) {
+    super.shuffleHead(currentNodes, replicaCount);
+  }
+
+  /** Exposed as a protected method so that it can be accessed by tests */
+  protected long nanoTime() {
+    return System.nanoTime();
+  }
+
+  protected void updateLatency(@NonNull Node node, long latencyNanos) {
+    latencies.computeIfAbsent(node, n -> new PeakEwma()).update(latencyNanos, nanoTime());
+  }
+
+  /**
+   * The score of a node: its decayed average latency, weighted by the number of requests currently
+   * in flight. Lower is better.
+   */
+  protected double getScore(@NonNull Node node, @NonNull Session session, long now) {
+    PeakEwma latency = latencies.get(node);
+    return (latency == null) ? 0 : latency.get(now) * (getInFlight(node, session) + 1);
+  }
+
+  protected int getInFlight(@NonNull Node node, @NonNull Session session) {
+    // The cast will always succeed because there's no way to replace the internal session impl
+    ChannelPool pool = ((DefaultSession) session).getPools().get(node);
+    return (pool == null) ? 0 : pool.getInFlight();
+  }
+
+  /** The decaying average latency of a node. */
+  @ThreadSafe
+  protected class PeakEwma {
+
+    @GuardedBy("this")
+    private double average;
+
+    @GuardedBy("this")
+    private long timestamp;
+
+    @GuardedBy("this")
+    private boolean sampled;
+
+    synchronized void update(long latencyNanos, long now) {
+      if (!sampled || latencyNanos > average) {
+        average = latencyNanos;
+      } else {
+        double weight = weight(now);
+        average = average * weight + latencyNanos * (1 - weight);
+      }
+      timestamp = now;
+      sampled = true;
+    }
+
+    /** @return the average as of {@code now}, decayed if there were no samples recently. */
+    synchronized double get(long now) {
+      return decay(now);
+    }
+
+    @GuardedBy("this")
+    private double decay(long now) {
+      return sampled ? average * weight(now) : 0;
+    }
+
+    @GuardedBy("this")
+    private double weight(long now) {
+      long elapsed = Math.max(0, now - timestamp);
+      return Math.exp(-elapsed / decayTimeNanos);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A bounded cache from routing information (keyspace + routing token or key) to the live replicas
+ * of the corresponding partition, in query plan order.
+ *
+ * <p>Entries are spread over a fixed number of segments, each of which is a LRU map guarded by its
+ * own lock. Eviction is therefore approximately LRU at the cache level.
+ *
+ * <p>The cache is cleared when the token map changes, or when {@link #invalidate()} is called.
+ * Every invalidation bumps an epoch: a value computed while an invalidation was in progress is
+ * rejected by {@link #put(Key, Object[], long)}, so that a stale entry never survives a topology or
+ * state change.
+ */
+@ThreadSafe
+class ReplicaCache {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment[] segments;
+  private final AtomicLong epoch = new AtomicLong();
+  private final AtomicReference<TokenMap> tokenMap = new AtomicReference<>();
+
+  ReplicaCache(int maxSize) {
+    int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+    int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+  }
+
+  /**
+   * Returns the current epoch, to pass to a subsequent {@link #put(Key, Object[], long)} call.
+   *
+   * <p>If the token map is not the one that the cached entries were computed from, the cache gets
+   * invalidated first.
+   */
+  long epoch(@NonNull TokenMap currentTokenMap) {
+    TokenMap previous = tokenMap.get();
+    if (previous != currentTokenMap && tokenMap.compareAndSet(previous, currentTokenMap)) {
+      invalidate();
+    }
+    return epoch.get();
+  }
+
+  /** @return the cached replicas, or null if the key is not cached. */
+  @Nullable
+  Object[] get(@NonNull Key key) {
+    return segmentFor(key).get(key);
+  }
+
+  /**
+   * Caches the replicas for the given key, unless the cache was invalidated since {@code epoch} was
+   * obtained.
+   */
+  void put(@NonNull Key key, @NonNull Object[] replicas, long epoch) {
+    segmentFor(key).put(key.copy(), replicas, epoch);
+  }
+
+  void invalidate() {
+    epoch.incrementAndGet();
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  private Segment segmentFor(Key key) {
+    // Spread the bits, the hash codes of byte buffers are not uniformly distributed
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return segments[(hash & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private class Segment {
+    @GuardedBy("this")
+    private final LinkedHashMap<Key, Object[]> entries;
+
+    private Segment(int maxSize) {
+      this.entries =
+          new LinkedHashMap<Key, Object[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object[]> eldest) {
+              return size() > maxSize;
+            }
+          };
+    }
+
+    private synchronized Object[] get(Key key) {
+      return entries.get(key);
+    }
+
+    private synchronized void put(Key key, Object[] replicas, long expectedEpoch) {
+      // Checked under the lock: an invalidation bumps the epoch before it clears the segments, so
+      // either we see the new epoch, or our entry gets cleared.
+      if (epoch.get() == expectedEpoch) {
+        entries.put(key, replicas);
+      }
+    }
+
+    private synchronized void clear() {
+      entries.clear();
+    }
+
+    private synchronized int size() {
+      return entries.size();
+    }
+  }
+
+  /**
+   * The routing information of a request: either a token, or a routing key.
+   *
+   * <p>Routing keys are not copied for lookups, only when an entry is stored, since the driver (or
+   * the client) might reuse the underlying buffer afterwards.
+   */
+  @Immutable
+  static class Key {
+
+    static Key forToken(@NonNull CqlIdentifier keyspace, @NonNull Token token) {
+      return new Key(keyspace, token);
+    }
+
+    static Key forRoutingKey(@NonNull CqlIdentifier keyspace, @NonNull ByteBuffer routingKey) {
+      return new Key(keyspace, routingKey);
+    }
+
+    private final CqlIdentifier keyspace;
+    private final Object routing; // Token or ByteBuffer
+    private final int hashCode;
+
+    private Key(CqlIdentifier keyspace, Object routing) {
+      this.keyspace = keyspace;
+      this.routing = routing;
+      this.hashCode = 31 * keyspace.hashCode() + routing.hashCode();
+    }
+
+    private Key copy() {
+      if (routing instanceof ByteBuffer) {
+        return new Key(keyspace, ByteBuffer.wrap(Bytes.getArray((ByteBuffer) routing)));
+      } else {
+        return this;
+      }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other == this) {
+        return true;
+      } else if (other instanceof Key) {
+        Key that = (Key) other;
+        return this.hashCode == that.hashCode
+            && this.keyspace.equals(that.keyspace)
+            && this.routing.equals(that.routing);
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -81,6 +81,20 @@ public class DefaultNodeFilterHelper implements NodeFilterHelper {
     };
   }
 
+  /**
+   * Creates the filter for datacenter failover: it accepts the nodes that match the user-supplied
+   * filter, if any, and report a datacenter different from the local one.
+   */
+  @NonNull
+  public Predicate<Node> createRemoteNodeFilter(
+      @NonNull String localDc, @NonNull Map<UUID, Node> nodes) {
+    Predicate<Node> filterFromConfig = nodeFilterFromConfig();
+    return node -> {
+      String dc = node.getDatacenter();
+      return dc != null && !localDc.equals(dc) && filterFromConfig.test(node);
+    };
+  }
+
   @NonNull
   protected Predicate<Node> nodeFilterFromConfig() {
     Predicate<Node> filter = context.getNodeFilter(profile.getName());
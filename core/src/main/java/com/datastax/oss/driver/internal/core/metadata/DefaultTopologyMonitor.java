@@ -228,6 +228,20 @@ public class DefaultTopologyMonitor implements TopologyMonitor {
     return new SchemaAgreementChecker(channel, context, logPrefix).run();
   }
 
+  @Override
+  public boolean supportsSchemaVersion() {
+    return true;
+  }
+
+  @Override
+  public CompletionStage<UUID> checkSchemaVersion() {
+    if (closeFuture.isDone()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    DriverChannel channel = controlConnection.channel();
+    return new SchemaAgreementChecker(channel, context, logPrefix).runForVersion();
+  }
+
   @NonNull
   @Override
   public CompletionStage<Void> closeFuture() {
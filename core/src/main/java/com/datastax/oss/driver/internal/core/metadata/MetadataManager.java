@@ -21,12 +21,15 @@ import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.EndPoint;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.config.ConfigChangeEvent;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.control.ControlConnection;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.metadata.schema.parsing.SchemaParserFactory;
 import com.datastax.oss.driver.internal.core.metadata.schema.queries.SchemaQueriesFactory;
 import com.datastax.oss.driver.internal.core.metadata.schema.queries.SchemaRows;
+import com.datastax.oss.driver.internal.core.metadata.schema.queries.SchemaSnapshotFile;
 import com.datastax.oss.driver.internal.core.metadata.schema.refresh.SchemaRefresh;
 import com.datastax.oss.driver.internal.core.util.Loggers;
 import com.datastax.oss.driver.internal.core.util.NanoTime;
@@ -35,14 +38,19 @@ import com.datastax.oss.driver.internal.core.util.concurrent.Debouncer;
 import com.datastax.oss.driver.internal.core.util.concurrent.RunOrSchedule;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import io.netty.util.concurrent.EventExecutor;
 import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -223,10 +231,26 @@ public class MetadataManager implements AsyncAutoCloseable {
    */
   public CompletionStage<RefreshSchemaResult> refreshSchema(
       String keyspace, boolean evenIfDisabled, boolean flushNow) {
+    return refreshSchema(keyspace, null, evenIfDisabled, flushNow);
+  }
+
+  /**
+   * @param keyspace if this refresh was triggered by an event, that event's keyspace, otherwise
+   *     null (this is only used to discard the event if it targets a keyspace that we're ignoring)
+   * @param target if this refresh was triggered by an event that concerns specific elements, those
+   *     elements; otherwise null (full refresh). Targeted requests that get coalesced with other
+   *     requests are merged, or turned into a full refresh if they target different keyspaces.
+   * @param evenIfDisabled force the refresh even if schema is currently disabled (used for user
+   *     request)
+   * @param flushNow bypass the debouncer and force an immediate refresh (used to avoid a delay at
+   *     startup)
+   */
+  public CompletionStage<RefreshSchemaResult> refreshSchema(
+      String keyspace, SchemaRefreshTarget target, boolean evenIfDisabled, boolean flushNow) {
     CompletableFuture<RefreshSchemaResult> future = new CompletableFuture<>();
     RunOrSchedule.on(
         adminExecutor,
-        () -> singleThreaded.refreshSchema(keyspace, evenIfDisabled, flushNow, future));
+        () -> singleThreaded.refreshSchema(keyspace, target, evenIfDisabled, flushNow, future));
     return future;
   }
 
@@ -294,16 +318,18 @@ public class MetadataManager implements AsyncAutoCloseable {
     private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
     private boolean closeWasCalled;
     private final CompletableFuture<Void> firstSchemaRefreshFuture = new CompletableFuture<>();
-    private final Debouncer<
-            CompletableFuture<RefreshSchemaResult>, CompletableFuture<RefreshSchemaResult>>
-        schemaRefreshDebouncer;
+    private final Debouncer<SchemaRefreshRequest, SchemaRefreshRequest> schemaRefreshDebouncer;
     private final SchemaQueriesFactory schemaQueriesFactory;
     private final SchemaParserFactory schemaParserFactory;
+    private final SchemaSnapshotFile snapshotFile; // null if disabled
+    // Snapshot files are read and written on a dedicated thread, to keep blocking I/O off the admin
+    // thread (null if disabled)
+    private final ExecutorService snapshotExecutor;
 
     // We don't allow concurrent schema refreshes. If one is already running, the next one is queued
     // (and the ones after that are merged with the queued one).
     private CompletableFuture<RefreshSchemaResult> currentSchemaRefresh;
-    private CompletableFuture<RefreshSchemaResult> queuedSchemaRefresh;
+    private SchemaRefreshRequest queuedSchemaRefresh;
 
     private boolean didFirstNodeListRefresh;
 
@@ -317,6 +343,21 @@ public class MetadataManager implements AsyncAutoCloseable {
               config.getInt(DefaultDriverOption.METADATA_SCHEMA_MAX_EVENTS));
       this.schemaQueriesFactory = context.getSchemaQueriesFactory();
       this.schemaParserFactory = context.getSchemaParserFactory();
+      this.snapshotFile =
+          config.isDefined(DefaultDriverOption.METADATA_SCHEMA_SNAPSHOT_FILE)
+              ? new SchemaSnapshotFile(
+                  Paths.get(config.getString(DefaultDriverOption.METADATA_SCHEMA_SNAPSHOT_FILE)),
+                  context,
+                  logPrefix)
+              : null;
+      this.snapshotExecutor =
+          (snapshotFile == null)
+              ? null
+              : Executors.newSingleThreadExecutor(
+                  new ThreadFactoryBuilder()
+                      .setNameFormat(logPrefix + "-schema-snapshot-%d")
+                      .setDaemon(true)
+                      .build());
     }
 
     private Void refreshNodes(Iterable<NodeInfo> nodeInfos) {
@@ -360,6 +401,7 @@ public class MetadataManager implements AsyncAutoCloseable {
 
     private void refreshSchema(
         String keyspace,
+        SchemaRefreshTarget target,
         boolean evenIfDisabled,
         boolean flushNow,
         CompletableFuture<RefreshSchemaResult> future) {
@@ -376,7 +418,7 @@ public class MetadataManager implements AsyncAutoCloseable {
           keyspace == null || refreshedKeyspaces.isEmpty() || refreshedKeyspaces.contains(keyspace);
 
       if (isRefreshedKeyspace && (evenIfDisabled || isSchemaEnabled())) {
-        acceptSchemaRequest(future, flushNow);
+        acceptSchemaRequest(new SchemaRefreshRequest(future, target), flushNow);
       } else {
         future.complete(new RefreshSchemaResult(metadata));
         singleThreaded.firstSchemaRefreshFuture.complete(null);
@@ -384,13 +426,12 @@ public class MetadataManager implements AsyncAutoCloseable {
     }
 
     // An external component has requested a schema refresh, feed it to the debouncer.
-    private void acceptSchemaRequest(
-        CompletableFuture<RefreshSchemaResult> future, boolean flushNow) {
+    private void acceptSchemaRequest(SchemaRefreshRequest request, boolean flushNow) {
       assert adminExecutor.inEventLoop();
       if (closeWasCalled) {
-        future.complete(new RefreshSchemaResult(metadata));
+        request.future.complete(new RefreshSchemaResult(metadata));
       } else {
-        schemaRefreshDebouncer.receive(future);
+        schemaRefreshDebouncer.receive(request);
         if (flushNow) {
           schemaRefreshDebouncer.flushNow();
         }
@@ -398,71 +439,242 @@ public class MetadataManager implements AsyncAutoCloseable {
     }
 
     // Multiple requests have arrived within the debouncer window, coalesce them.
-    private CompletableFuture<RefreshSchemaResult> coalesceSchemaRequests(
-        List<CompletableFuture<RefreshSchemaResult>> futures) {
+    private SchemaRefreshRequest coalesceSchemaRequests(List<SchemaRefreshRequest> requests) {
       assert adminExecutor.inEventLoop();
-      assert !futures.isEmpty();
+      assert !requests.isEmpty();
       // Keep only one, but ensure that the discarded ones will still be completed when we're done
-      CompletableFuture<RefreshSchemaResult> result = null;
-      for (CompletableFuture<RefreshSchemaResult> future : futures) {
+      SchemaRefreshRequest result = null;
+      for (SchemaRefreshRequest request : requests) {
         if (result == null) {
-          result = future;
+          result = request;
         } else {
-          CompletableFutures.completeFrom(result, future);
+          result = result.merge(request);
         }
       }
       return result;
     }
 
     // The debouncer has flushed, start the actual work.
-    private void startSchemaRequest(CompletableFuture<RefreshSchemaResult> refreshFuture) {
+    private void startSchemaRequest(SchemaRefreshRequest request) {
       assert adminExecutor.inEventLoop();
+      CompletableFuture<RefreshSchemaResult> refreshFuture = request.future;
       if (closeWasCalled) {
         refreshFuture.complete(new RefreshSchemaResult(metadata));
         return;
       }
       if (currentSchemaRefresh == null) {
         currentSchemaRefresh = refreshFuture;
-        LOG.debug("[{}] Starting schema refresh", logPrefix);
-        initControlConnectionForSchema()
-            .thenCompose(v -> context.getTopologyMonitor().checkSchemaAgreement())
+        SchemaRefreshTarget target = request.target;
+        if (target != null && !metadata.getKeyspaces().containsKey(target.getKeyspace())) {
+          // We need the rest of the keyspace to merge the targeted elements into
+          target = null;
+        }
+        Node controlNode = (target == null) ? getSnapshotNode() : null;
+        if (controlNode != null) {
+          loadSnapshot(controlNode, refreshFuture);
+        } else {
+          querySchema(target, refreshFuture);
+        }
+      } else if (queuedSchemaRefresh == null) {
+        queuedSchemaRefresh = request; // wait for our turn
+      } else {
+        queuedSchemaRefresh = queuedSchemaRefresh.merge(request); // join the queued request
+      }
+    }
+
+    private void querySchema(
+        SchemaRefreshTarget target, CompletableFuture<RefreshSchemaResult> refreshFuture) {
+      assert adminExecutor.inEventLoop();
+      LOG.debug(
+          "[{}] Starting schema refresh{}", logPrefix, (target == null) ? "" : " for " + target);
+      // If we will need to save a snapshot, get the agreed version from the same check
+      boolean isFullRefreshWithSnapshot = target == null && snapshotFile != null;
+      initControlConnectionForSchema()
+          .thenCompose(v -> checkSchemaAgreement(isFullRefreshWithSnapshot))
+          .whenComplete(
+              (agreement, agreementError) -> {
+                if (agreementError != null) {
+                  refreshFuture.completeExceptionally(agreementError);
+                } else {
+                  (target == null
+                          ? schemaQueriesFactory.newInstance()
+                          : schemaQueriesFactory.newInstance(target))
+                      .execute()
+                      .thenApplyAsync(
+                          schemaRows -> {
+                            Metadata newMetadata = parseAndApplySchemaRows(schemaRows);
+                            if (agreement.version != null) {
+                              saveSnapshot(schemaRows, agreement.version);
+                            }
+                            return newMetadata;
+                          },
+                          adminExecutor)
+                      .whenComplete(
+                          (newMetadata, metadataError) -> {
+                            if (metadataError != null) {
+                              refreshFuture.completeExceptionally(metadataError);
+                            } else {
+                              refreshFuture.complete(
+                                  new RefreshSchemaResult(newMetadata, agreement.inAgreement));
+                            }
+                            firstSchemaRefreshFuture.complete(null);
+                            onSchemaRequestDone();
+                          });
+                }
+              });
+    }
+
+    private void onSchemaRequestDone() {
+      currentSchemaRefresh = null;
+      // If another refresh was enqueued during this one, run it now
+      if (queuedSchemaRefresh != null) {
+        SchemaRefreshRequest tmp = this.queuedSchemaRefresh;
+        this.queuedSchemaRefresh = null;
+        startSchemaRequest(tmp);
+      }
+    }
+
+    /**
+     * @param needVersion whether we need the agreed version (to save a snapshot). If the topology
+     *     monitor does not {@linkplain TopologyMonitor#supportsSchemaVersion() support} it, we do a
+     *     regular agreement check, and the version will be null.
+     */
+    private CompletionStage<SchemaAgreement> checkSchemaAgreement(boolean needVersion) {
+      TopologyMonitor topologyMonitor = context.getTopologyMonitor();
+      if (needVersion && topologyMonitor.supportsSchemaVersion()) {
+        return topologyMonitor
+            .checkSchemaVersion()
+            .thenApply(version -> new SchemaAgreement(version != null, version));
+      } else {
+        return topologyMonitor
+            .checkSchemaAgreement()
+            .thenApply(inAgreement -> new SchemaAgreement(inAgreement, null));
+      }
+    }
+
+    /**
+     * Returns the node to attribute snapshot rows to if the schema should be initialized from the
+     * snapshot file, or null if it should be queried.
+     */
+    private Node getSnapshotNode() {
+      if (snapshotFile == null || firstSchemaRefreshFuture.isDone()) {
+        return null;
+      }
+      DriverChannel channel = controlConnection.channel();
+      return (channel == null) ? null : metadata.findNode(channel.getEndPoint()).orElse(null);
+    }
+
+    // Reading the file is blocking I/O, do it on the snapshot executor and come back to the admin
+    // thread to parse the rows (or fall back to a regular refresh).
+    private void loadSnapshot(Node node, CompletableFuture<RefreshSchemaResult> refreshFuture) {
+      assert adminExecutor.inEventLoop();
+      String clusterName = metadata.getClusterName().orElse(null);
+      List<String> keyspaces = refreshedKeyspaces;
+      long start = System.nanoTime();
+      CompletableFuture.supplyAsync(
+              () -> snapshotFile.load(node, clusterName, keyspaces), snapshotExecutor)
+          .whenCompleteAsync(
+              (snapshot, error) -> {
+                if (snapshot != null && applySnapshot(snapshot, start, refreshFuture)) {
+                  onSchemaRequestDone();
+                } else {
+                  querySchema(null, refreshFuture);
+                }
+              },
+              adminExecutor);
+    }
+
+    private void saveSnapshot(SchemaRows schemaRows, UUID version) {
+      assert adminExecutor.inEventLoop();
+      if (closeWasCalled) {
+        return;
+      }
+      String clusterName = metadata.getClusterName().orElse(null);
+      List<String> keyspaces = refreshedKeyspaces;
+      snapshotExecutor.execute(
+          () -> snapshotFile.save(schemaRows, version, clusterName, keyspaces));
+    }
+
+    /**
+     * Initializes the schema from the snapshot, and schedules a check to replace it if the schema
+     * has changed since.
+     *
+     * @return whether the snapshot was applied (if so, the request is complete).
+     */
+    private boolean applySnapshot(
+        SchemaSnapshotFile.Snapshot snapshot,
+        long start,
+        CompletableFuture<RefreshSchemaResult> refreshFuture) {
+      assert adminExecutor.inEventLoop();
+      try {
+        parseAndApplySchemaRows(snapshot.getRows());
+      } catch (Throwable t) {
+        Loggers.warnWithException(
+            LOG,
+            "[{}] Error while parsing schema snapshot {}, ignoring",
+            logPrefix,
+            snapshotFile.getPath(),
+            t);
+        return false;
+      }
+      UUID snapshotVersion = snapshot.getSchemaVersion();
+      LOG.debug(
+          "[{}] Initialized schema from snapshot {} (version {}) in {}",
+          logPrefix,
+          snapshotFile.getPath(),
+          snapshotVersion,
+          NanoTime.formatTimeSince(start));
+      refreshFuture.complete(new RefreshSchemaResult(metadata, false));
+      firstSchemaRefreshFuture.complete(null);
+
+      TopologyMonitor topologyMonitor = context.getTopologyMonitor();
+      if (!topologyMonitor.supportsSchemaVersion()) {
+        LOG.debug(
+            "[{}] Topology monitor can't report schema versions, "
+                + "refreshing to replace schema snapshot",
+            logPrefix);
+        refreshStaleSnapshot();
+      } else {
+        topologyMonitor
+            .checkSchemaVersion()
             .whenComplete(
-                (schemaInAgreement, agreementError) -> {
-                  if (agreementError != null) {
-                    refreshFuture.completeExceptionally(agreementError);
+                (currentVersion, error) -> {
+                  if (error != null) {
+                    Loggers.warnWithException(
+                        LOG,
+                        "[{}] Error while checking schema version, refreshing to replace schema "
+                            + "snapshot",
+                        logPrefix,
+                        error);
+                    refreshStaleSnapshot();
+                  } else if (snapshotVersion.equals(currentVersion)) {
+                    LOG.debug("[{}] Schema snapshot is up to date", logPrefix);
                   } else {
-                    schemaQueriesFactory
-                        .newInstance()
-                        .execute()
-                        .thenApplyAsync(this::parseAndApplySchemaRows, adminExecutor)
-                        .whenComplete(
-                            (newMetadata, metadataError) -> {
-                              if (metadataError != null) {
-                                refreshFuture.completeExceptionally(metadataError);
-                              } else {
-                                refreshFuture.complete(
-                                    new RefreshSchemaResult(newMetadata, schemaInAgreement));
-                              }
-
-                              firstSchemaRefreshFuture.complete(null);
-
-                              currentSchemaRefresh = null;
-                              // If another refresh was enqueued during this one, run it now
-                              if (queuedSchemaRefresh != null) {
-                                CompletableFuture<RefreshSchemaResult> tmp =
-                                    this.queuedSchemaRefresh;
-                                this.queuedSchemaRefresh = null;
-                                startSchemaRequest(tmp);
-                              }
-                            });
+                    LOG.debug(
+                        "[{}] Schema snapshot might be stale (current version {}), refreshing",
+                        logPrefix,
+                        currentVersion);
+                    refreshStaleSnapshot();
                   }
                 });
-      } else if (queuedSchemaRefresh == null) {
-        queuedSchemaRefresh = refreshFuture; // wait for our turn
-      } else {
-        CompletableFutures.completeFrom(
-            queuedSchemaRefresh, refreshFuture); // join the queued request
       }
+      return true;
+    }
+
+    private void refreshStaleSnapshot() {
+      MetadataManager.this
+          .refreshSchema(null, false, true)
+          .whenComplete(
+              (result, refreshError) -> {
+                if (refreshError != null) {
+                  Loggers.warnWithException(
+                      LOG,
+                      "[{}] Unexpected error while refreshing stale schema snapshot, "
+                          + "keeping previous version",
+                      logPrefix,
+                      refreshError);
+                }
+              });
     }
 
     // To query schema tables, we need the control connection.
@@ -496,12 +708,46 @@ public class MetadataManager implements AsyncAutoCloseable {
       LOG.debug("[{}] Closing", logPrefix);
       // The current schema refresh should fail when its channel gets closed.
       if (queuedSchemaRefresh != null) {
-        queuedSchemaRefresh.completeExceptionally(new IllegalStateException("Cluster is closed"));
+        queuedSchemaRefresh.future.completeExceptionally(
+            new IllegalStateException("Cluster is closed"));
+      }
+      if (snapshotExecutor != null) {
+        // Let a pending save complete, but don't wait for it
+        snapshotExecutor.shutdown();
       }
       closeFuture.complete(null);
     }
   }
 
+  /** The outcome of the agreement check that precedes a schema refresh. */
+  private static class SchemaAgreement {
+    private final boolean inAgreement;
+    private final UUID version; // only fetched if we need to save a snapshot
+
+    private SchemaAgreement(boolean inAgreement, UUID version) {
+      this.inAgreement = inAgreement;
+      this.version = version;
+    }
+  }
+
+  /** A schema refresh request, and the elements it is limited to (null for a full refresh). */
+  private static class SchemaRefreshRequest {
+    private final CompletableFuture<RefreshSchemaResult> future;
+    private final SchemaRefreshTarget target;
+
+    private SchemaRefreshRequest(
+        CompletableFuture<RefreshSchemaResult> future, SchemaRefreshTarget target) {
+      this.future = future;
+      this.target = target;
+    }
+
+    /** Keeps this request's future, and completes the other one from it. */
+    private SchemaRefreshRequest merge(SchemaRefreshRequest other) {
+      CompletableFutures.completeFrom(this.future, other.future);
+      return new SchemaRefreshRequest(future, SchemaRefreshTarget.merge(target, other.target));
+    }
+  }
+
   @VisibleForTesting
   Void apply(MetadataRefresh refresh) {
     assert adminExecutor.inEventLoop();
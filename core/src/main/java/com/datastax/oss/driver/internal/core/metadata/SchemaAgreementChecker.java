@@ -65,6 +65,7 @@ class SchemaAgreementChecker {
   private final boolean warnOnFailure;
   private final long start;
   private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+  private volatile UUID agreedVersion;
 
   SchemaAgreementChecker(DriverChannel channel, InternalDriverContext context, String logPrefix) {
     this.channel = channel;
@@ -90,6 +91,14 @@ class SchemaAgreementChecker {
     return result;
   }
 
+  /**
+   * Same as {@link #run()}, but completes with the version that the nodes agree on, or {@code null}
+   * if agreement was not reached.
+   */
+  public CompletionStage<UUID> runForVersion() {
+    return run().thenApply(inAgreement -> inAgreement ? agreedVersion : null);
+  }
+
   private void sendQueries() {
     long elapsedNs = System.nanoTime() - start;
     if (elapsedNs > timeoutNs) {
@@ -177,8 +186,8 @@ class SchemaAgreementChecker {
           "[{}] Error while checking schema agreement, completing now (false)", logPrefix, error);
       result.complete(false);
     } else if (uuids.size() == 1) {
-      LOG.debug(
-          "[{}] Schema agreement reached ({}), completing", logPrefix, uuids.iterator().next());
+      agreedVersion = uuids.iterator().next();
+      LOG.debug("[{}] Schema agreement reached ({}), completing", logPrefix, agreedVersion);
       result.complete(true);
     } else {
       LOG.debug(
@@ -21,8 +21,10 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.session.Session;
 import com.datastax.oss.driver.internal.core.context.EventBus;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
 import java.net.InetSocketAddress;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -117,4 +119,32 @@ public interface TopologyMonitor extends AsyncAutoCloseable {
    * take a while to replicate across nodes.
    */
   CompletionStage<Boolean> checkSchemaAgreement();
+
+  /**
+   * Whether this monitor implements {@link #checkSchemaVersion()}.
+   *
+   * <p>If not, the driver uses {@link #checkSchemaAgreement()} instead. Schema snapshots (see
+   * {@code advanced.metadata.schema.snapshot-file} in the configuration) will never be written, and
+   * any existing snapshot will always be followed by a full schema refresh.
+   */
+  default boolean supportsSchemaVersion() {
+    return false;
+  }
+
+  /**
+   * Checks whether the nodes in the cluster agree on a common schema version, and returns that
+   * version.
+   *
+   * <p>This is used to validate schema snapshots. When snapshots are enabled, the driver calls it
+   * <em>instead of</em> {@link #checkSchemaAgreement()} before full schema refreshes, so it should
+   * follow the same retry and timeout rules. It is only invoked if {@link #supportsSchemaVersion()}
+   * returns true; the default implementation fails with {@link UnsupportedOperationException}.
+   *
+   * @return a future that completes with the common version, or {@code null} if the nodes don't
+   *     agree.
+   */
+  default CompletionStage<UUID> checkSchemaVersion() {
+    return CompletableFutures.failedFuture(
+        new UnsupportedOperationException("This topology monitor can't report schema versions"));
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.schema;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.event.SchemaChangeEvent;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.Set;
+import net.jcip.annotations.Immutable;
+
+/**
+ * The elements of a single keyspace that a schema refresh is limited to.
+ *
+ * <p>Throughout the driver, a {@code null} target stands for a full schema refresh.
+ *
+ * <p>Tables and views share the same namespace, and the server reports changes to both as {@code
+ * TABLE} events, so {@link #getTables()} may contain view names.
+ */
+@Immutable
+public class SchemaRefreshTarget {
+
+  /**
+   * Returns the target corresponding to a protocol event, or {@code null} if that event requires a
+   * full refresh.
+   *
+   * <p>Only table events, and the creation or removal of a type, can be handled by a targeted
+   * refresh: when a type is altered, the tables and types that reference it must also be rebuilt.
+   */
+  @Nullable
+  public static SchemaRefreshTarget fromEvent(@NonNull SchemaChangeEvent event) {
+    if (event.keyspace == null || event.object == null) {
+      return null;
+    }
+    CqlIdentifier keyspace = CqlIdentifier.fromInternal(event.keyspace);
+    CqlIdentifier name = CqlIdentifier.fromInternal(event.object);
+    switch (event.target) {
+      case ProtocolConstants.SchemaChangeTarget.TABLE:
+        return forTable(keyspace, name);
+      case ProtocolConstants.SchemaChangeTarget.TYPE:
+        return ProtocolConstants.SchemaChangeType.UPDATED.equals(event.changeType)
+            ? null
+            : forType(keyspace, name);
+      default:
+        return null;
+    }
+  }
+
+  @NonNull
+  public static SchemaRefreshTarget forTable(
+      @NonNull CqlIdentifier keyspace, @NonNull CqlIdentifier table) {
+    return new SchemaRefreshTarget(keyspace, ImmutableSet.of(table), ImmutableSet.of());
+  }
+
+  @NonNull
+  public static SchemaRefreshTarget forType(
+      @NonNull CqlIdentifier keyspace, @NonNull CqlIdentifier type) {
+    return new SchemaRefreshTarget(keyspace, ImmutableSet.of(), ImmutableSet.of(type));
+  }
+
+  /**
+   * Combines two targets, for example when refresh requests get coalesced.
+   *
+   * @return a target that covers the elements of both, or {@code null} (full refresh) if either of
+   *     them is {@code null}, or if they target different keyspaces.
+   */
+  @Nullable
+  public static SchemaRefreshTarget merge(
+      @Nullable SchemaRefreshTarget target1, @Nullable SchemaRefreshTarget target2) {
+    if (target1 == null || target2 == null || !target1.keyspace.equals(target2.keyspace)) {
+      return null;
+    }
+    return new SchemaRefreshTarget(
+        target1.keyspace,
+        ImmutableSet.<CqlIdentifier>builder().addAll(target1.tables).addAll(target2.tables).build(),
+        ImmutableSet.<CqlIdentifier>builder().addAll(target1.types).addAll(target2.types).build());
+  }
+
+  private final CqlIdentifier keyspace;
+  private final Set<CqlIdentifier> tables;
+  private final Set<CqlIdentifier> types;
+
+  private SchemaRefreshTarget(
+      CqlIdentifier keyspace, Set<CqlIdentifier> tables, Set<CqlIdentifier> types) {
+    this.keyspace = keyspace;
+    this.tables = tables;
+    this.types = types;
+  }
+
+  @NonNull
+  public CqlIdentifier getKeyspace() {
+    return keyspace;
+  }
+
+  /** The names of the tables or views to refresh. */
+  @NonNull
+  public Set<CqlIdentifier> getTables() {
+    return tables;
+  }
+
+  /** The names of the user types to refresh. */
+  @NonNull
+  public Set<CqlIdentifier> getTypes() {
+    return types;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    } else if (other instanceof SchemaRefreshTarget) {
+      SchemaRefreshTarget that = (SchemaRefreshTarget) other;
+      return this.keyspace.equals(that.keyspace)
+          && this.tables.equals(that.tables)
+          && this.types.equals(that.types);
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(keyspace, tables, types);
+  }
+
+  @Override
+  public String toString() {
+    return "SchemaRefreshTarget(" + keyspace + ", tables=" + tables + ", types=" + types + ")";
+  }
+}
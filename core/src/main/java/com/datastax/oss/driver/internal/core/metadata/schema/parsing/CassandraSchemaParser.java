@@ -26,13 +26,16 @@ import com.datastax.oss.driver.api.core.type.UserDefinedType;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.schema.DefaultKeyspaceMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.metadata.schema.queries.SchemaRows;
 import com.datastax.oss.driver.internal.core.metadata.schema.refresh.SchemaRefresh;
 import com.datastax.oss.driver.internal.core.util.NanoTime;
 import com.datastax.oss.driver.shaded.guava.common.base.MoreObjects;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,11 +57,13 @@ public class CassandraSchemaParser implements SchemaParser {
   private final ViewParser viewParser;
   private final FunctionParser functionParser;
   private final AggregateParser aggregateParser;
+  private final InternalDriverContext context;
   private final String logPrefix;
   private final long startTimeNs = System.nanoTime();
 
   public CassandraSchemaParser(SchemaRows rows, InternalDriverContext context) {
     this.rows = rows;
+    this.context = context;
     this.logPrefix = context.getSessionName();
 
     this.userDefinedTypeParser = new UserDefinedTypeParser(rows.dataTypeParser(), context);
@@ -70,6 +75,10 @@ public class CassandraSchemaParser implements SchemaParser {
 
   @Override
   public SchemaRefresh parse() {
+    SchemaRefreshTarget target = rows.refreshTarget();
+    if (target != null) {
+      return parseTargeted(target);
+    }
     ImmutableMap.Builder<CqlIdentifier, KeyspaceMetadata> keyspacesBuilder = ImmutableMap.builder();
     for (AdminRow row : rows.keyspaces()) {
       KeyspaceMetadata keyspace = parseKeyspace(row);
@@ -84,6 +93,70 @@ public class CassandraSchemaParser implements SchemaParser {
     return refresh;
   }
 
+  /**
+   * Merges the rows of a targeted refresh into the current metadata: the targeted elements are
+   * replaced (or removed if they don't exist anymore), everything else is reused as-is.
+   */
+  private SchemaRefresh parseTargeted(SchemaRefreshTarget target) {
+    CqlIdentifier keyspaceId = target.getKeyspace();
+    Map<CqlIdentifier, KeyspaceMetadata> oldKeyspaces =
+        context.getMetadataManager().getMetadata().getKeyspaces();
+    KeyspaceMetadata oldKeyspace = oldKeyspaces.get(keyspaceId);
+    if (oldKeyspace == null) {
+      // MetadataManager only targets known keyspaces, and schema refreshes are serialized
+      throw new IllegalStateException(
+          String.format("Can't apply %s, the keyspace is not known", target));
+    }
+
+    Map<CqlIdentifier, UserDefinedType> types =
+        userDefinedTypeParser.parse(
+            rows.types().get(keyspaceId),
+            keyspaceId,
+            without(oldKeyspace.getUserDefinedTypes(), target.getTypes()));
+
+    Map<CqlIdentifier, TableMetadata> tables =
+        new LinkedHashMap<>(without(oldKeyspace.getTables(), target.getTables()));
+    tables.putAll(parseTables(keyspaceId, types));
+    Map<CqlIdentifier, ViewMetadata> views =
+        new LinkedHashMap<>(without(oldKeyspace.getViews(), target.getTables()));
+    views.putAll(parseViews(keyspaceId, types));
+
+    KeyspaceMetadata newKeyspace =
+        new DefaultKeyspaceMetadata(
+            keyspaceId,
+            oldKeyspace.isDurableWrites(),
+            oldKeyspace.isVirtual(),
+            oldKeyspace.getReplication(),
+            types,
+            ImmutableMap.copyOf(tables),
+            ImmutableMap.copyOf(views),
+            oldKeyspace.getFunctions(),
+            oldKeyspace.getAggregates());
+
+    ImmutableMap.Builder<CqlIdentifier, KeyspaceMetadata> keyspacesBuilder = ImmutableMap.builder();
+    for (Map.Entry<CqlIdentifier, KeyspaceMetadata> entry : oldKeyspaces.entrySet()) {
+      keyspacesBuilder.put(
+          entry.getKey(), entry.getKey().equals(keyspaceId) ? newKeyspace : entry.getValue());
+    }
+    SchemaRefresh refresh = new SchemaRefresh(keyspacesBuilder.build());
+    LOG.debug(
+        "[{}] Schema parsing for {} took {}",
+        logPrefix,
+        target,
+        NanoTime.formatTimeSince(startTimeNs));
+    return refresh;
+  }
+
+  private static <V> Map<CqlIdentifier, V> without(
+      Map<CqlIdentifier, V> elements, Set<CqlIdentifier> removedKeys) {
+    if (removedKeys.isEmpty()) {
+      return elements;
+    }
+    Map<CqlIdentifier, V> result = new LinkedHashMap<>(elements);
+    result.keySet().removeAll(removedKeys);
+    return result;
+  }
+
   private KeyspaceMetadata parseKeyspace(AdminRow keyspaceRow) {
 
     // Cassandra <= 2.2
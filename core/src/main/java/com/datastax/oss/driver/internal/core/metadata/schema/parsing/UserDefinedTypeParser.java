@@ -68,6 +68,28 @@ public class UserDefinedTypeParser {
     }
   }
 
+  /**
+   * Parses the given types on top of a set of existing ones (this is used for targeted refreshes,
+   * where the new rows may reference types that were parsed previously).
+   *
+   * @return the existing types, plus the new ones.
+   */
+  public Map<CqlIdentifier, UserDefinedType> parse(
+      Collection<AdminRow> typeRows,
+      CqlIdentifier keyspaceId,
+      Map<CqlIdentifier, UserDefinedType> existingTypes) {
+    if (typeRows.isEmpty()) {
+      return existingTypes;
+    } else {
+      Map<CqlIdentifier, UserDefinedType> types = new LinkedHashMap<>(existingTypes);
+      for (AdminRow row : topologicalSort(typeRows, keyspaceId)) {
+        UserDefinedType type = parseType(row, keyspaceId, types);
+        types.put(type.getName(), type);
+      }
+      return ImmutableMap.copyOf(types);
+    }
+  }
+
   @VisibleForTesting
   Map<CqlIdentifier, UserDefinedType> parse(CqlIdentifier keyspaceId, AdminRow... typeRows) {
     return parse(Arrays.asList(typeRows), keyspaceId);
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.driver.internal.core.metadata.schema.queries;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
@@ -22,14 +23,18 @@ import com.datastax.oss.driver.internal.core.adminrequest.AdminRequestHandler;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminResult;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.util.NanoTime;
+import com.datastax.oss.driver.internal.core.util.Strings;
 import com.datastax.oss.driver.internal.core.util.concurrent.RunOrSchedule;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.util.concurrent.EventExecutor;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
@@ -49,6 +54,7 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
   private final Duration timeout;
   private final int pageSize;
   private final String whereClause;
+  private final SchemaRefreshTarget refreshTarget;
   // The future we return from execute, completes when all the queries are done.
   private final CompletableFuture<SchemaRows> schemaRowsFuture = new CompletableFuture<>();
   private final long startTimeNs = System.nanoTime();
@@ -59,6 +65,19 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
 
   protected CassandraSchemaQueries(
       DriverChannel channel, Node node, DriverExecutionProfile config, String logPrefix) {
+    this(channel, node, config, logPrefix, null);
+  }
+
+  /**
+   * @param refreshTarget if not null, only query the rows of the elements of this target. This is
+   *     only supported for Cassandra 3+ schema tables.
+   */
+  protected CassandraSchemaQueries(
+      DriverChannel channel,
+      Node node,
+      DriverExecutionProfile config,
+      String logPrefix,
+      @Nullable SchemaRefreshTarget refreshTarget) {
     this.channel = channel;
     this.adminExecutor = channel.eventLoop();
     this.node = node;
@@ -70,6 +89,7 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
         config.getStringList(
             DefaultDriverOption.METADATA_SCHEMA_REFRESHED_KEYSPACES, Collections.emptyList());
     this.whereClause = buildWhereClause(refreshedKeyspaces);
+    this.refreshTarget = refreshTarget;
   }
 
   private static String buildWhereClause(List<String> refreshedKeyspaces) {
@@ -90,6 +110,20 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
     }
   }
 
+  private static String buildInClause(String column, Set<CqlIdentifier> names) {
+    StringBuilder builder = new StringBuilder(" AND ").append(column).append(" IN (");
+    boolean first = true;
+    for (CqlIdentifier name : names) {
+      if (first) {
+        first = false;
+      } else {
+        builder.append(",");
+      }
+      builder.append(Strings.quote(name.asInternal()));
+    }
+    return builder.append(")").toString();
+  }
+
   protected abstract String selectKeyspacesQuery();
 
   protected abstract Optional<String> selectVirtualKeyspacesQuery();
@@ -127,6 +161,10 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
 
     schemaRowsBuilder = new CassandraSchemaRows.Builder(node, logPrefix);
 
+    if (refreshTarget != null) {
+      executeTargetedOnAdminExecutor();
+      return;
+    }
     query(selectKeyspacesQuery() + whereClause, schemaRowsBuilder::withKeyspaces);
     query(selectTypesQuery() + whereClause, schemaRowsBuilder::withTypes);
     query(selectTablesQuery() + whereClause, schemaRowsBuilder::withTables);
@@ -151,6 +189,34 @@ public abstract class CassandraSchemaQueries implements SchemaQueries {
         .ifPresent(select -> query(select + whereClause, schemaRowsBuilder::withVertices));
   }
 
+  // Element-level queries: the primary keys of the schema tables are
+  // (keyspace_name, <element>_name), so the server only reads the targeted partitions and rows.
+  private void executeTargetedOnAdminExecutor() {
+    assert adminExecutor.inEventLoop();
+
+    schemaRowsBuilder = schemaRowsBuilder.withRefreshTarget(refreshTarget);
+    String keyspaceClause =
+        " WHERE keyspace_name=" + Strings.quote(refreshTarget.getKeyspace().asInternal());
+
+    Set<CqlIdentifier> types = refreshTarget.getTypes();
+    if (!types.isEmpty()) {
+      String typesClause = keyspaceClause + buildInClause("type_name", types);
+      query(selectTypesQuery() + typesClause, schemaRowsBuilder::withTypes);
+    }
+    Set<CqlIdentifier> tables = refreshTarget.getTables();
+    if (!tables.isEmpty()) {
+      String tablesClause = keyspaceClause + buildInClause("table_name", tables);
+      query(selectTablesQuery() + tablesClause, schemaRowsBuilder::withTables);
+      // Columns of views are stored with their view name in the table_name column
+      query(selectColumnsQuery() + tablesClause, schemaRowsBuilder::withColumns);
+      selectIndexesQuery()
+          .ifPresent(select -> query(select + tablesClause, schemaRowsBuilder::withIndexes));
+      String viewsClause = keyspaceClause + buildInClause("view_name", tables);
+      selectViewsQuery()
+          .ifPresent(select -> query(select + viewsClause, schemaRowsBuilder::withViews));
+    }
+  }
+
   private void query(
       String queryString,
       Function<Iterable<AdminRow>, CassandraSchemaRows.Builder> builderUpdater) {
@@ -20,6 +20,7 @@ import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.Version;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.metadata.schema.parsing.DataTypeClassNameParser;
 import com.datastax.oss.driver.internal.core.metadata.schema.parsing.DataTypeCqlNameParser;
 import com.datastax.oss.driver.internal.core.metadata.schema.parsing.DataTypeParser;
@@ -29,6 +30,7 @@ import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMultimap;
 import com.datastax.oss.driver.shaded.guava.common.collect.Multimap;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +56,7 @@ public class CassandraSchemaRows implements SchemaRows {
   private final Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> indexes;
   private final Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> vertices;
   private final Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> edges;
+  private final SchemaRefreshTarget refreshTarget;
 
   private CassandraSchemaRows(
       Node node,
@@ -70,7 +73,8 @@ public class CassandraSchemaRows implements SchemaRows {
       Multimap<CqlIdentifier, AdminRow> functions,
       Multimap<CqlIdentifier, AdminRow> aggregates,
       Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> vertices,
-      Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> edges) {
+      Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> edges,
+      SchemaRefreshTarget refreshTarget) {
     this.node = node;
     this.dataTypeParser = dataTypeParser;
     this.keyspaces = keyspaces;
@@ -86,6 +90,7 @@ public class CassandraSchemaRows implements SchemaRows {
     this.aggregates = aggregates;
     this.vertices = vertices;
     this.edges = edges;
+    this.refreshTarget = refreshTarget;
   }
 
   @NonNull
@@ -164,6 +169,12 @@ public class CassandraSchemaRows implements SchemaRows {
     return edges;
   }
 
+  @Nullable
+  @Override
+  public SchemaRefreshTarget refreshTarget() {
+    return refreshTarget;
+  }
+
   public static class Builder {
     private static final Logger LOG = LoggerFactory.getLogger(Builder.class);
 
@@ -195,6 +206,7 @@ public class CassandraSchemaRows implements SchemaRows {
         verticesBuilders = new LinkedHashMap<>();
     private final Map<CqlIdentifier, ImmutableMultimap.Builder<CqlIdentifier, AdminRow>>
         edgesBuilders = new LinkedHashMap<>();
+    private SchemaRefreshTarget refreshTarget;
 
     public Builder(Node node, String logPrefix) {
       this.node = node;
@@ -228,6 +240,11 @@ public class CassandraSchemaRows implements SchemaRows {
       }
     }
 
+    public Builder withRefreshTarget(@Nullable SchemaRefreshTarget refreshTarget) {
+      this.refreshTarget = refreshTarget;
+      return this;
+    }
+
     public Builder withKeyspaces(Iterable<AdminRow> rows) {
       keyspacesBuilder.addAll(rows);
       return this;
@@ -358,7 +375,8 @@ public class CassandraSchemaRows implements SchemaRows {
           functionsBuilder.build(),
           aggregatesBuilder.build(),
           build(verticesBuilders),
-          build(edgesBuilders));
+          build(edgesBuilders),
+          refreshTarget);
     }
 
     private static <K1, K2, V> Map<K1, Multimap<K2, V>> build(
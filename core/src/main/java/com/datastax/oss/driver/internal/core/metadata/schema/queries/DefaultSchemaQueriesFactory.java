@@ -21,6 +21,8 @@ import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,11 @@ public class DefaultSchemaQueriesFactory implements SchemaQueriesFactory {
 
   @Override
   public SchemaQueries newInstance() {
+    return newInstance((SchemaRefreshTarget) null);
+  }
+
+  @Override
+  public SchemaQueries newInstance(@Nullable SchemaRefreshTarget target) {
     DriverChannel channel = context.getControlConnection().channel();
     if (channel == null || channel.closeFuture().isDone()) {
       throw new IllegalStateException("Control channel not available, aborting schema refresh");
@@ -55,10 +62,20 @@ public class DefaultSchemaQueriesFactory implements SchemaQueriesFactory {
                         "Could not find control node metadata "
                             + channel.getEndPoint()
                             + ", aborting schema refresh"));
-    return newInstance(node, channel);
+    return newInstance(node, channel, target);
   }
 
   protected SchemaQueries newInstance(Node node, DriverChannel channel) {
+    return newInstance(node, channel, null);
+  }
+
+  /**
+   * @param target if not null, the elements to limit the queries to. This is only honored for
+   *     Cassandra 3+ (DSE nodes always get a full refresh, because their graph metadata is not
+   *     handled by targeted refreshes).
+   */
+  protected SchemaQueries newInstance(
+      Node node, DriverChannel channel, @Nullable SchemaRefreshTarget target) {
 
     DriverExecutionProfile config = context.getConfig().getDefaultProfile();
 
@@ -100,9 +117,9 @@ public class DefaultSchemaQueriesFactory implements SchemaQueriesFactory {
       } else if (cassandraVersion.compareTo(Version.V3_0_0) < 0) {
         return new Cassandra22SchemaQueries(channel, node, config, logPrefix);
       } else if (cassandraVersion.compareTo(Version.V4_0_0) < 0) {
-        return new Cassandra3SchemaQueries(channel, node, config, logPrefix);
+        return new Cassandra3SchemaQueries(channel, node, config, logPrefix, target);
       } else {
-        return new Cassandra4SchemaQueries(channel, node, config, logPrefix);
+        return new Cassandra4SchemaQueries(channel, node, config, logPrefix, target);
       }
     }
   }
@@ -15,6 +15,20 @@
  */
 package com.datastax.oss.driver.internal.core.metadata.schema.queries;
 
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
 public interface SchemaQueriesFactory {
   SchemaQueries newInstance();
+
+  /**
+   * Creates queries limited to the given elements.
+   *
+   * <p>Implementations that don't support targeted refreshes may ignore the target and return
+   * {@link #newInstance()}: the resulting {@link SchemaRows#refreshTarget()} tells the parser which
+   * kind of refresh it is handling.
+   */
+  default SchemaQueries newInstance(@NonNull SchemaRefreshTarget target) {
+    return newInstance();
+  }
 }
@@ -18,9 +18,11 @@ package com.datastax.oss.driver.internal.core.metadata.schema.queries;
 import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.metadata.schema.parsing.DataTypeParser;
 import com.datastax.oss.driver.shaded.guava.common.collect.Multimap;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,4 +70,15 @@ public interface SchemaRows {
   default Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> edges() {
     return new LinkedHashMap<>();
   }
+
+  /**
+   * The elements that these rows are limited to, or {@code null} if this is a full schema refresh.
+   *
+   * <p>If this is not null, only the tables, views and types of the target were queried (along with
+   * their columns and indexes); all the other collections are empty.
+   */
+  @Nullable
+  default SchemaRefreshTarget refreshTarget() {
+    return null;
+  }
 }
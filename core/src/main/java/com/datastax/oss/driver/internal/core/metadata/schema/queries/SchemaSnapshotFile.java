@@ -0,0 +1,356 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.schema.queries;
+
+import com.datastax.dse.driver.api.core.metadata.DseNodeProperties;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.driver.internal.core.util.NanoTime;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.Multimap;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves the raw contents of the schema tables to a file, and reads them back to build the initial
+ * schema metadata without querying the cluster.
+ *
+ * <p>We store the rows rather than the parsed metadata, so that loading a snapshot goes through the
+ * regular {@link SchemaRows} parsing path: the resulting metadata is identical to what a refresh
+ * would have produced. The rows are encoded with the native protocol's primitives (the same
+ * representation as in a {@code ROWS} response), and the whole file is compressed.
+ *
+ * <p>A snapshot is only valid for the cluster, server version and keyspace filter that it was
+ * written with; {@link #load(Node, String, List)} returns {@code null} if any of them differs.
+ * Checking that the schema itself hasn't changed since is up to the caller, with the {@linkplain
+ * Snapshot#getSchemaVersion() schema version}.
+ */
+@ThreadSafe
+public class SchemaSnapshotFile {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaSnapshotFile.class);
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final ByteBufPrimitiveCodec CODEC =
+      new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT);
+
+  private final Path path;
+  private final InternalDriverContext context;
+  private final String logPrefix;
+
+  public SchemaSnapshotFile(
+      @NonNull Path path, @NonNull InternalDriverContext context, @NonNull String logPrefix) {
+    this.path = path;
+    this.context = context;
+    this.logPrefix = logPrefix;
+  }
+
+  @NonNull
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Writes a snapshot of the given rows, replacing any existing file.
+   *
+   * <p>This performs blocking I/O. Errors are logged and otherwise ignored: a missing snapshot only
+   * means that the next startup will query the schema tables.
+   *
+   * @param rows the rows of a full refresh (the snapshot would be incomplete otherwise).
+   * @param schemaVersion the version that the cluster agreed on <em>before</em> the rows were
+   *     queried (if the schema changed in between, the rows are newer than the version, and the
+   *     next startup will do a refresh anyway).
+   * @param refreshedKeyspaces the keyspace filter that the rows were queried with.
+   * @return whether the snapshot was written.
+   */
+  public boolean save(
+      @NonNull SchemaRows rows,
+      @NonNull UUID schemaVersion,
+      @Nullable String clusterName,
+      @NonNull List<String> refreshedKeyspaces) {
+    assert rows.refreshTarget() == null;
+    long start = System.nanoTime();
+    ProtocolVersion protocolVersion = context.getProtocolVersion();
+    ByteBuf buffer = Unpooled.buffer();
+    try {
+      CODEC.writeInt(FORMAT_VERSION, buffer);
+      CODEC.writeString(Objects.toString(clusterName, ""), buffer);
+      CODEC.writeString(serverVersion(rows.getNode()), buffer);
+      CODEC.writeStringList(refreshedKeyspaces, buffer);
+      CODEC.writeUuid(schemaVersion, buffer);
+      CODEC.writeString(protocolVersion.name(), buffer);
+
+      int code = protocolVersion.getCode();
+      writeRows(rows.keyspaces(), buffer, code);
+      writeRows(rows.virtualKeyspaces(), buffer, code);
+      writeRows(rows.tables().values(), buffer, code);
+      writeRows(rows.virtualTables().values(), buffer, code);
+      writeRows(rows.views().values(), buffer, code);
+      writeRows(rows.types().values(), buffer, code);
+      writeRows(rows.functions().values(), buffer, code);
+      writeRows(rows.aggregates().values(), buffer, code);
+      writeRows(flatten(rows.columns()), buffer, code);
+      writeRows(flatten(rows.virtualColumns()), buffer, code);
+      writeRows(flatten(rows.indexes()), buffer, code);
+      writeRows(flatten(rows.vertices()), buffer, code);
+      writeRows(flatten(rows.edges()), buffer, code);
+
+      // Write to a temporary file first, so that a concurrent reader never sees a partial file
+      Path parent = path.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+          buffer.readBytes(out, buffer.readableBytes());
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+      LOG.debug(
+          "[{}] Saved schema snapshot for version {} to {} in {}",
+          logPrefix,
+          schemaVersion,
+          path,
+          NanoTime.formatTimeSince(start));
+      return true;
+    } catch (Throwable t) {
+      LOG.warn(
+          String.format("[%s] Error while saving schema snapshot to %s, ignoring", logPrefix, path),
+          t);
+      return false;
+    } finally {
+      buffer.release();
+    }
+  }
+
+  /**
+   * Reads the snapshot, if it exists and matches the current cluster.
+   *
+   * <p>This performs blocking I/O.
+   *
+   * @param node the node that the rows will be attributed to (typically the control node). Its
+   *     version must match the one that the snapshot was written with.
+   * @return the snapshot, or {@code null} if there is no usable file.
+   */
+  @Nullable
+  public Snapshot load(
+      @NonNull Node node, @Nullable String clusterName, @NonNull List<String> refreshedKeyspaces) {
+    byte[] bytes;
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+      bytes = readFully(in);
+    } catch (NoSuchFileException e) {
+      LOG.debug("[{}] No schema snapshot found at {}", logPrefix, path);
+      return null;
+    } catch (Throwable t) {
+      LOG.warn(
+          String.format("[%s] Error while reading schema snapshot %s, ignoring", logPrefix, path),
+          t);
+      return null;
+    }
+    ByteBuf buffer = Unpooled.wrappedBuffer(bytes);
+    try {
+      int formatVersion = CODEC.readInt(buffer);
+      if (formatVersion != FORMAT_VERSION) {
+        LOG.debug(
+            "[{}] Ignoring schema snapshot {} (unsupported format {})",
+            logPrefix,
+            path,
+            formatVersion);
+        return null;
+      }
+      String snapshotClusterName = CODEC.readString(buffer);
+      String snapshotServerVersion = CODEC.readString(buffer);
+      List<String> snapshotKeyspaces = CODEC.readStringList(buffer);
+      if (!snapshotClusterName.equals(Objects.toString(clusterName, ""))
+          || !snapshotServerVersion.equals(serverVersion(node))
+          || !snapshotKeyspaces.equals(refreshedKeyspaces)) {
+        LOG.debug(
+            "[{}] Ignoring schema snapshot {} "
+                + "(written for cluster '{}', version {} and keyspaces {})",
+            logPrefix,
+            path,
+            snapshotClusterName,
+            snapshotServerVersion,
+            snapshotKeyspaces);
+        return null;
+      }
+      UUID schemaVersion = CODEC.readUuid(buffer);
+      ProtocolVersion protocolVersion =
+          context.getProtocolVersionRegistry().fromName(CODEC.readString(buffer));
+
+      CassandraSchemaRows.Builder builder = new CassandraSchemaRows.Builder(node, logPrefix);
+      builder
+          .withKeyspaces(readRows(buffer, protocolVersion))
+          .withVirtualKeyspaces(readRows(buffer, protocolVersion))
+          .withTables(readRows(buffer, protocolVersion))
+          .withVirtualTables(readRows(buffer, protocolVersion))
+          .withViews(readRows(buffer, protocolVersion))
+          .withTypes(readRows(buffer, protocolVersion))
+          .withFunctions(readRows(buffer, protocolVersion))
+          .withAggregates(readRows(buffer, protocolVersion))
+          .withColumns(readRows(buffer, protocolVersion))
+          .withVirtualColumns(readRows(buffer, protocolVersion))
+          .withIndexes(readRows(buffer, protocolVersion))
+          .withVertices(readRows(buffer, protocolVersion))
+          .withEdges(readRows(buffer, protocolVersion));
+      return new Snapshot(schemaVersion, builder.build());
+    } catch (Throwable t) {
+      LOG.warn(
+          String.format("[%s] Error while decoding schema snapshot %s, ignoring", logPrefix, path),
+          t);
+      return null;
+    }
+  }
+
+  private static void writeRows(Collection<AdminRow> rows, ByteBuf target, int protocolVersion) {
+    CODEC.writeInt(rows.size(), target);
+    if (rows.isEmpty()) {
+      return;
+    }
+    // All the rows of a group come from the same query
+    Map<String, ColumnSpec> specs = rows.iterator().next().getColumnSpecs();
+    CODEC.writeInt(specs.size(), target);
+    for (ColumnSpec spec : specs.values()) {
+      CODEC.writeString(spec.ksName, target);
+      CODEC.writeString(spec.tableName, target);
+      CODEC.writeString(spec.name, target);
+      CODEC.writeInt(spec.index, target);
+      spec.type.encode(target, CODEC, protocolVersion);
+    }
+    for (AdminRow row : rows) {
+      if (!row.getColumnSpecs().equals(specs)) {
+        throw new IllegalArgumentException(
+            "Rows of the same group have different columns: "
+                + specs.keySet()
+                + " vs. "
+                + row.getColumnSpecs().keySet());
+      }
+      List<ByteBuffer> data = row.getData();
+      CODEC.writeInt(data.size(), target);
+      for (ByteBuffer value : data) {
+        CODEC.writeBytes(value, target);
+      }
+    }
+  }
+
+  private static List<AdminRow> readRows(ByteBuf source, ProtocolVersion protocolVersion) {
+    int rowCount = CODEC.readInt(source);
+    if (rowCount == 0) {
+      return ImmutableList.of();
+    }
+    int specCount = CODEC.readInt(source);
+    ImmutableMap.Builder<String, ColumnSpec> specsBuilder = ImmutableMap.builder();
+    for (int i = 0; i < specCount; i++) {
+      String ksName = CODEC.readString(source);
+      String tableName = CODEC.readString(source);
+      String name = CODEC.readString(source);
+      int index = CODEC.readInt(source);
+      RawType type = RawType.decode(source, CODEC, protocolVersion.getCode());
+      specsBuilder.put(name, new ColumnSpec(ksName, tableName, name, index, type));
+    }
+    Map<String, ColumnSpec> specs = specsBuilder.build();
+    List<AdminRow> rows = new ArrayList<>(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      int valueCount = CODEC.readInt(source);
+      List<ByteBuffer> data = new ArrayList<>(valueCount);
+      for (int j = 0; j < valueCount; j++) {
+        data.add(CODEC.readBytes(source));
+      }
+      rows.add(new AdminRow(specs, data, protocolVersion));
+    }
+    return rows;
+  }
+
+  private static Collection<AdminRow> flatten(
+      Map<CqlIdentifier, Multimap<CqlIdentifier, AdminRow>> rowsByKeyspace) {
+    List<AdminRow> result = new ArrayList<>();
+    for (Multimap<CqlIdentifier, AdminRow> rowsByTable : rowsByKeyspace.values()) {
+      result.addAll(rowsByTable.values());
+    }
+    return result;
+  }
+
+  private static String serverVersion(Node node) {
+    Object dseVersion = node.getExtras().get(DseNodeProperties.DSE_VERSION);
+    return (dseVersion != null)
+        ? "DSE " + dseVersion
+        : "Cassandra " + Objects.toString(node.getCassandraVersion(), "?");
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[8192];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      out.write(chunk, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  /** The contents of a snapshot file. */
+  public static class Snapshot {
+    private final UUID schemaVersion;
+    private final SchemaRows rows;
+
+    Snapshot(UUID schemaVersion, SchemaRows rows) {
+      this.schemaVersion = schemaVersion;
+      this.rows = rows;
+    }
+
+    /** The version that the cluster agreed on when the snapshot was taken. */
+    @NonNull
+    public UUID getSchemaVersion() {
+      return schemaVersion;
+    }
+
+    @NonNull
+    public SchemaRows getRows() {
+      return rows;
+    }
+  }
+}
@@ -75,6 +75,9 @@ public class SchemaRefresh implements MetadataRefresh {
       ImmutableList.Builder<Object> events) {
     if (oldKeyspace == null) {
       events.add(KeyspaceChangeEvent.created(newKeyspace));
+    } else if (oldKeyspace == newKeyspace) {
+      // Reused as-is by a targeted refresh, no need to traverse the children
+      return;
     } else {
       if (!oldKeyspace.shallowEquals(newKeyspace)) {
         events.add(KeyspaceChangeEvent.updated(oldKeyspace, newKeyspace));
@@ -105,6 +105,8 @@ public class DefaultTokenMap implements TokenMap {
   @VisibleForTesting final SetMultimap<Node, TokenRange> tokenRangesByPrimary;
   @VisibleForTesting final Map<CqlIdentifier, Map<String, String>> replicationConfigs;
   @VisibleForTesting final Map<Map<String, String>, KeyspaceTokenMap> keyspaceMaps;
+  // Resolves keyspaces directly, to avoid hashing their replication config on every lookup
+  private final Map<CqlIdentifier, KeyspaceTokenMap> keyspaceMapsByName;
   private final String logPrefix;
 
   private DefaultTokenMap(
@@ -119,6 +121,12 @@ public class DefaultTokenMap implements TokenMap {
     this.tokenRangesByPrimary = tokenRangesByPrimary;
     this.replicationConfigs = replicationConfigs;
     this.keyspaceMaps = keyspaceMaps;
+    ImmutableMap.Builder<CqlIdentifier, KeyspaceTokenMap> keyspaceMapsByName =
+        ImmutableMap.builder();
+    for (Map.Entry<CqlIdentifier, Map<String, String>> entry : replicationConfigs.entrySet()) {
+      keyspaceMapsByName.put(entry.getKey(), keyspaceMaps.get(entry.getValue()));
+    }
+    this.keyspaceMapsByName = keyspaceMapsByName.build();
     this.logPrefix = logPrefix;
   }
 
@@ -190,8 +198,7 @@ public class DefaultTokenMap implements TokenMap {
   }
 
   private KeyspaceTokenMap getKeyspaceMap(CqlIdentifier keyspace) {
-    Map<String, String> config = replicationConfigs.get(keyspace);
-    return (config == null) ? null : keyspaceMaps.get(config);
+    return keyspaceMapsByName.get(keyspace);
   }
 
   /** Called when only the schema has changed. */
@@ -19,10 +19,13 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.internal.core.util.NanoTime;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSetMultimap;
 import com.datastax.oss.driver.shaded.guava.common.collect.SetMultimap;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -82,6 +85,14 @@ class KeyspaceTokenMap {
   private final SetMultimap<Token, Node> replicasByToken;
   private final TokenFactory tokenFactory;
 
+  // Specialized representation of the ring for Murmur3 (the default partitioner), used to look up
+  // replicas without boxing or hashing tokens: the sorted token values, and for each of them the
+  // index of its replicas in a table of distinct replica sets. Null for other partitioners.
+  private final Murmur3TokenFactory murmur3Factory;
+  private final long[] murmur3Ring;
+  private final int[] murmur3ReplicaIndices;
+  private final List<Set<Node>> murmur3ReplicaSets;
+
   private KeyspaceTokenMap(
       List<Token> ring,
       SetMultimap<Node, TokenRange> tokenRangesByNode,
@@ -91,6 +102,33 @@ class KeyspaceTokenMap {
     this.tokenRangesByNode = tokenRangesByNode;
     this.replicasByToken = replicasByToken;
     this.tokenFactory = tokenFactory;
+    if (tokenFactory instanceof Murmur3TokenFactory) {
+      this.murmur3Factory = (Murmur3TokenFactory) tokenFactory;
+      this.murmur3Ring = new long[ring.size()];
+      this.murmur3ReplicaIndices = new int[ring.size()];
+      Map<List<Node>, Integer> replicaSetIndices = new HashMap<>();
+      ImmutableList.Builder<Set<Node>> replicaSets = ImmutableList.builder();
+      for (int i = 0; i < ring.size(); i++) {
+        Token token = ring.get(i);
+        murmur3Ring[i] = ((Murmur3Token) token).getValue();
+        Set<Node> replicas = replicasByToken.get(token);
+        // Compare as lists, the iteration order of the replicas matters
+        List<Node> key = ImmutableList.copyOf(replicas);
+        Integer index = replicaSetIndices.get(key);
+        if (index == null) {
+          index = replicaSetIndices.size();
+          replicaSetIndices.put(key, index);
+          replicaSets.add(replicas);
+        }
+        murmur3ReplicaIndices[i] = index;
+      }
+      this.murmur3ReplicaSets = replicaSets.build();
+    } else {
+      this.murmur3Factory = null;
+      this.murmur3Ring = null;
+      this.murmur3ReplicaIndices = null;
+      this.murmur3ReplicaSets = null;
+    }
   }
 
   Set<TokenRange> getTokenRanges(Node replica) {
@@ -98,10 +136,16 @@ class KeyspaceTokenMap {
   }
 
   Set<Node> getReplicas(ByteBuffer partitionKey) {
+    if (murmur3Factory != null) {
+      return getMurmur3Replicas(murmur3Factory.hashToLong(partitionKey));
+    }
     return getReplicas(tokenFactory.hash(partitionKey));
   }
 
   Set<Node> getReplicas(Token token) {
+    if (murmur3Factory != null && token instanceof Murmur3Token) {
+      return getMurmur3Replicas(((Murmur3Token) token).getValue());
+    }
     // If the token happens to be one of the "primary" tokens, get result directly
     Set<Node> nodes = replicasByToken.get(token);
     if (!nodes.isEmpty()) {
@@ -118,6 +162,18 @@ class KeyspaceTokenMap {
     return replicasByToken.get(ring.get(i));
   }
 
+  private Set<Node> getMurmur3Replicas(long token) {
+    // Find the closest "primary" token on the ring (it's the token itself if it's in the ring)
+    int i = Arrays.binarySearch(murmur3Ring, token);
+    if (i < 0) {
+      i = -i - 1;
+      if (i >= murmur3Ring.length) {
+        i = 0;
+      }
+    }
+    return murmur3ReplicaSets.get(murmur3ReplicaIndices[i]);
+  }
+
   private static SetMultimap<Node, TokenRange> buildTokenRangesByNode(
       Set<TokenRange> tokenRanges, SetMultimap<Token, Node> replicasByToken) {
     ImmutableSetMultimap.Builder<Node, TokenRange> result = ImmutableSetMultimap.builder();
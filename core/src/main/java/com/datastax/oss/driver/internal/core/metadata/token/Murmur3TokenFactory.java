@@ -36,8 +36,13 @@ public class Murmur3TokenFactory implements TokenFactory {
 
   @Override
   public Token hash(ByteBuffer partitionKey) {
+    return new Murmur3Token(hashToLong(partitionKey));
+  }
+
+  /** Same as {@link #hash(ByteBuffer)}, but returns the raw value to avoid allocating a token. */
+  long hashToLong(ByteBuffer partitionKey) {
     long v = murmur(partitionKey);
-    return new Murmur3Token(v == Long.MIN_VALUE ? Long.MAX_VALUE : v);
+    return v == Long.MIN_VALUE ? Long.MAX_VALUE : v;
   }
 
   @Override
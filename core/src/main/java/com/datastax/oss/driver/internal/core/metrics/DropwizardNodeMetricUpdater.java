@@ -63,6 +63,15 @@ public class DropwizardNodeMetricUpdater extends DropwizardMetricUpdater<NodeMet
         DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_HIGHEST,
         DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_DIGITS,
         DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_INTERVAL);
+    initializeHdrTimer(
+        DefaultNodeMetric.POOL_INIT_TIME,
+        config,
+        DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_HIGHEST,
+        DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_DIGITS,
+        DefaultDriverOption.METRICS_NODE_POOL_INIT_TIME_INTERVAL);
+    initializeDefaultCounter(DefaultNodeMetric.CHANNEL_SELECTION_RETRIES, null);
+    initializeDefaultCounter(DefaultNodeMetric.REPREPARE_SENT, null);
+    initializeDefaultCounter(DefaultNodeMetric.REPREPARE_SKIPPED, null);
     initializeDefaultCounter(DefaultNodeMetric.UNSENT_REQUESTS, null);
     initializeDefaultCounter(DefaultNodeMetric.ABORTED_REQUESTS, null);
     initializeDefaultCounter(DefaultNodeMetric.WRITE_TIMEOUTS, null);
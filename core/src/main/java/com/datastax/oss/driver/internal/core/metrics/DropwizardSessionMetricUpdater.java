@@ -28,7 +28,9 @@ import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareAsyncProcessor;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareSyncProcessor;
 import com.datastax.oss.driver.internal.core.session.RequestProcessor;
+import com.datastax.oss.driver.internal.core.session.throttling.AdaptiveConcurrencyLimitingRequestThrottler;
 import com.datastax.oss.driver.internal.core.session.throttling.ConcurrencyLimitingRequestThrottler;
+import com.datastax.oss.driver.internal.core.session.throttling.LockFreeConcurrencyLimitingRequestThrottler;
 import com.datastax.oss.driver.internal.core.session.throttling.RateLimitingRequestThrottler;
 import com.datastax.oss.driver.shaded.guava.common.cache.Cache;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -69,6 +71,11 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
           buildFullName(DefaultSessionMetric.THROTTLING_QUEUE_SIZE, null),
           () -> buildQueueGauge(context.getRequestThrottler(), context.getSessionName()));
     }
+    if (enabledMetrics.contains(DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT)) {
+      this.registry.gauge(
+          buildFullName(DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT, null),
+          () -> buildLimitGauge(context.getRequestThrottler(), context.getSessionName()));
+    }
     if (enabledMetrics.contains(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE)) {
       this.registry.gauge(
           buildFullName(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, null),
@@ -126,6 +133,10 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
   private Gauge<Integer> buildQueueGauge(RequestThrottler requestThrottler, String logPrefix) {
     if (requestThrottler instanceof ConcurrencyLimitingRequestThrottler) {
       return ((ConcurrencyLimitingRequestThrottler) requestThrottler)::getQueueSize;
+    } else if (requestThrottler instanceof AdaptiveConcurrencyLimitingRequestThrottler) {
+      return ((AdaptiveConcurrencyLimitingRequestThrottler) requestThrottler)::getQueueSize;
+    } else if (requestThrottler instanceof LockFreeConcurrencyLimitingRequestThrottler) {
+      return ((LockFreeConcurrencyLimitingRequestThrottler) requestThrottler)::getQueueSize;
     } else if (requestThrottler instanceof RateLimitingRequestThrottler) {
       return ((RateLimitingRequestThrottler) requestThrottler)::getQueueSize;
     } else {
@@ -138,6 +149,19 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
     }
   }
 
+  private Gauge<Integer> buildLimitGauge(RequestThrottler requestThrottler, String logPrefix) {
+    if (requestThrottler instanceof AdaptiveConcurrencyLimitingRequestThrottler) {
+      return ((AdaptiveConcurrencyLimitingRequestThrottler) requestThrottler)::getConcurrencyLimit;
+    } else {
+      LOG.warn(
+          "[{}] Metric {} does not support {}, it will always return 0",
+          logPrefix,
+          DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT.getPath(),
+          requestThrottler.getClass().getName());
+      return () -> 0;
+    }
+  }
+
   @Nullable
   private static Cache<?, ?> getPreparedStatementCache(InternalDriverContext context) {
     // By default, both the sync processor and the async one are registered and they share the same
@@ -22,6 +22,7 @@ import com.datastax.oss.driver.api.core.UnsupportedProtocolVersionException;
 import com.datastax.oss.driver.api.core.auth.AuthenticationException;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.connection.ReconnectionPolicy;
 import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
 import com.datastax.oss.driver.api.core.metadata.Node;
@@ -36,6 +37,7 @@ import com.datastax.oss.driver.internal.core.context.EventBus;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
 import com.datastax.oss.driver.internal.core.metadata.TopologyEvent;
+import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
 import com.datastax.oss.driver.internal.core.util.Loggers;
 import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
 import com.datastax.oss.driver.internal.core.util.concurrent.Reconnection;
@@ -47,12 +49,15 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
@@ -65,11 +70,17 @@ import org.slf4j.LoggerFactory;
  *
  * <p>If one or more channels go down, a reconnection process starts in order to replace them; it
  * runs until the channel count is back to its intended target.
+ *
+ * <p>If a maximum size is configured for the node's distance, the pool is elastic: it periodically
+ * checks the proportion of stream ids in use on its channels, and adjusts the intended target
+ * between the configured size and the maximum size.
  */
 @ThreadSafe
 public class ChannelPool implements AsyncAutoCloseable {
   private static final Logger LOG = LoggerFactory.getLogger(ChannelPool.class);
 
+  private static final Duration DEFAULT_ELASTIC_INTERVAL = Duration.ofSeconds(1);
+
   /**
    * Initializes a new pool.
    *
@@ -89,7 +100,7 @@ public class ChannelPool implements AsyncAutoCloseable {
   }
 
   // This is read concurrently, but only mutated on adminExecutor (by methods in SingleThreaded)
-  @VisibleForTesting final ChannelSet channels = new ChannelSet();
+  @VisibleForTesting final ChannelSet channels;
 
   private final Node node;
   private final CqlIdentifier initialKeyspaceName;
@@ -110,6 +121,16 @@ public class ChannelPool implements AsyncAutoCloseable {
     this.adminExecutor = context.getNettyOptions().adminEventExecutorGroup().next();
     this.sessionLogPrefix = sessionLogPrefix;
     this.logPrefix = sessionLogPrefix + "|" + node.getEndPoint();
+    this.channels =
+        new ChannelSet(
+            ChannelSelector.fromConfig(
+                context
+                    .getConfig()
+                    .getDefaultProfile()
+                    .getString(DefaultDriverOption.CONNECTION_POOL_SELECTION_STRATEGY, null)),
+            (node instanceof DefaultNode)
+                ? ((DefaultNode) node).getMetricUpdater()
+                : NoopNodeMetricUpdater.INSTANCE);
     this.singleThreaded = new SingleThreaded(keyspaceName, distance, context);
   }
 
@@ -240,6 +261,10 @@ public class ChannelPool implements AsyncAutoCloseable {
     private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
     private boolean isClosing;
     private CompletableFuture<Void> setKeyspaceFuture;
+    private ScheduledFuture<?> elasticCheck;
+    // Whether the utilization is currently under the shrink watermark, and since when
+    private boolean lowUtilization;
+    private long lowUtilizationStart;
 
     private CqlIdentifier keyspaceName;
 
@@ -271,16 +296,25 @@ public class ChannelPool implements AsyncAutoCloseable {
         return;
       }
       isConnecting = true;
+      long start = System.nanoTime();
       CompletionStage<ChannelPool> initialChannels =
           addMissingChannels()
               .thenApply(
                   allConnected -> {
+                    ((DefaultNode) node)
+                        .getMetricUpdater()
+                        .updateTimer(
+                            DefaultNodeMetric.POOL_INIT_TIME,
+                            null,
+                            System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS);
                     if (!allConnected) {
                       reconnection.start();
                     }
                     return ChannelPool.this;
                   });
       CompletableFutures.completeFrom(initialChannels, connectFuture);
+      scheduleElasticCheckIfNeeded();
     }
 
     private CompletionStage<Boolean> addMissingChannels() {
@@ -432,7 +466,9 @@ public class ChannelPool implements AsyncAutoCloseable {
     private void resize(NodeDistance newDistance) {
       assert adminExecutor.inEventLoop();
       distance = newDistance;
-      int newChannelCount = getConfiguredSize(newDistance);
+      // If the pool is elastic, keep the current count if it's still within the bounds
+      int newChannelCount =
+          Math.min(Math.max(wantedCount, getConfiguredSize(newDistance)), getMaxSize(newDistance));
       if (newChannelCount > wantedCount) {
         LOG.debug("[{}] Growing ({} => {} channels)", logPrefix, wantedCount, newChannelCount);
         wantedCount = newChannelCount;
@@ -471,6 +507,70 @@ public class ChannelPool implements AsyncAutoCloseable {
       // resize re-reads the pool size from the configuration and does nothing if it hasn't changed,
       // which is exactly what we want.
       resize(distance);
+      scheduleElasticCheckIfNeeded();
+    }
+
+    private void scheduleElasticCheckIfNeeded() {
+      assert adminExecutor.inEventLoop();
+      if (elasticCheck == null
+          && !isClosing
+          && (getMaxSize(NodeDistance.LOCAL) > getConfiguredSize(NodeDistance.LOCAL)
+              || getMaxSize(NodeDistance.REMOTE) > getConfiguredSize(NodeDistance.REMOTE))) {
+        long intervalNanos = getElasticInterval().toNanos();
+        LOG.debug("[{}] Pool is elastic, scheduling utilization checks", logPrefix);
+        elasticCheck =
+            adminExecutor.scheduleAtFixedRate(
+                this::checkUtilization, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void checkUtilization() {
+      assert adminExecutor.inEventLoop();
+      int minCount = getConfiguredSize(distance);
+      int maxCount = getMaxSize(distance);
+      int currentCount = channels.size();
+      // Don't interfere with an ongoing reconnection, our counts would be off
+      if (isClosing || maxCount <= minCount || reconnection.isRunning() || currentCount == 0) {
+        lowUtilization = false;
+        return;
+      }
+      int inFlight = channels.getInFlight();
+      int capacity = inFlight + channels.getAvailableIds();
+      double utilization = (capacity == 0) ? 1.0 : (double) inFlight / capacity;
+
+      DriverExecutionProfile profile = config.getDefaultProfile();
+      if (utilization
+          >= profile.getDouble(DefaultDriverOption.CONNECTION_POOL_ELASTIC_GROW_WATERMARK)) {
+        lowUtilization = false;
+        if (wantedCount < maxCount) {
+          LOG.debug(
+              "[{}] {}% of stream ids in use, growing ({} => {} channels)",
+              logPrefix, Math.round(utilization * 100), wantedCount, wantedCount + 1);
+          wantedCount += 1;
+          reconnection.reconnectNow(true);
+        }
+      } else if (utilization
+              < profile.getDouble(DefaultDriverOption.CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK)
+          && wantedCount > minCount) {
+        long now = System.nanoTime();
+        if (!lowUtilization) {
+          lowUtilization = true;
+          lowUtilizationStart = now;
+        } else if (now - lowUtilizationStart
+            >= profile
+                .getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN)
+                .toNanos()) {
+          LOG.debug(
+              "[{}] {}% of stream ids in use, shrinking ({} => {} channels)",
+              logPrefix, Math.round(utilization * 100), wantedCount, wantedCount - 1);
+          wantedCount -= 1;
+          shrinkIfTooManyChannels();
+          // Start a new cool-down before the next removal
+          lowUtilizationStart = now;
+        }
+      } else {
+        lowUtilization = false;
+      }
     }
 
     private CompletionStage<Void> setKeyspace(CqlIdentifier newKeyspaceName) {
@@ -530,6 +630,9 @@ public class ChannelPool implements AsyncAutoCloseable {
       // If an attempt was in progress right now, it might open new channels but they will be
       // handled in onAllConnected
       reconnection.stop();
+      if (elasticCheck != null) {
+        elasticCheck.cancel(false);
+      }
 
       eventBus.unregister(configListenerKey, ConfigChangeEvent.class);
 
@@ -580,5 +683,37 @@ public class ChannelPool implements AsyncAutoCloseable {
                   ? DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE
                   : DefaultDriverOption.CONNECTION_POOL_REMOTE_SIZE);
     }
+
+    /** @return the configured elastic check interval, or the default if it is not positive. */
+    private Duration getElasticInterval() {
+      Duration interval =
+          config
+              .getDefaultProfile()
+              .getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL);
+      if (interval.isNegative() || interval.isZero()) {
+        LOG.warn(
+            "[{}] Invalid value for {}: expected a strictly positive duration (got {}), "
+                + "using {} instead",
+            logPrefix,
+            DefaultDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL.getPath(),
+            interval,
+            DEFAULT_ELASTIC_INTERVAL);
+        return DEFAULT_ELASTIC_INTERVAL;
+      }
+      return interval;
+    }
+
+    /**
+     * @return the maximum size if the pool is elastic at this distance, the fixed size otherwise.
+     */
+    private int getMaxSize(NodeDistance distance) {
+      DefaultDriverOption option =
+          (distance == NodeDistance.LOCAL)
+              ? DefaultDriverOption.CONNECTION_POOL_LOCAL_MAX_SIZE
+              : DefaultDriverOption.CONNECTION_POOL_REMOTE_MAX_SIZE;
+      DriverExecutionProfile profile = config.getDefaultProfile();
+      int size = getConfiguredSize(distance);
+      return profile.isDefined(option) ? Math.max(size, profile.getInt(option)) : size;
+    }
   }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * The strategy used by {@link ChannelSet#next()} to pick a candidate channel when there is more
+ * than one.
+ *
+ * <p>Implementations only pick a candidate, they don't try to acquire a stream id on it: if that
+ * fails because of a race with another thread, {@link ChannelSet} will call them again.
+ */
+@ThreadSafe
+interface ChannelSelector {
+
+  /**
+   * @param channels a snapshot of the channels in the set; it contains at least two elements, and
+   *     must not be modified.
+   * @return the candidate channel, or null if all channels appear to be full.
+   */
+  @Nullable
+  DriverChannel select(@NonNull DriverChannel[] channels);
+
+  /**
+   * Builds a new selector from the value of {@code advanced.connection.pool.selection-strategy}.
+   */
+  @NonNull
+  static ChannelSelector fromConfig(@Nullable String strategy) {
+    if (strategy == null) {
+      return new LeastBusy();
+    }
+    switch (strategy.toUpperCase(Locale.ROOT)) {
+      case "LEAST_BUSY":
+        return new LeastBusy();
+      case "POWER_OF_TWO_CHOICES":
+        return new PowerOfTwoChoices();
+      case "ROUND_ROBIN":
+        return new RoundRobin();
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown value for %s: %s "
+                    + "(expected LEAST_BUSY, POWER_OF_TWO_CHOICES or ROUND_ROBIN)",
+                DefaultDriverOption.CONNECTION_POOL_SELECTION_STRATEGY.getPath(), strategy));
+    }
+  }
+
+  /**
+   * Scans all the channels and returns the one with the most available stream ids.
+   *
+   * <p>This gives the best balance, but the cost is linear in the number of channels, and
+   * concurrent callers tend to converge on the same channel.
+   */
+  class LeastBusy implements ChannelSelector {
+    @Nullable
+    @Override
+    public DriverChannel select(@NonNull DriverChannel[] channels) {
+      DriverChannel best = null;
+      int bestScore = 0;
+      for (DriverChannel channel : channels) {
+        int score = channel.getAvailableIds();
+        if (score > bestScore) {
+          bestScore = score;
+          best = channel;
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * Picks two distinct channels at random, and returns the one with the most available stream ids.
+   *
+   * <p>This runs in constant time, and spreads concurrent callers across channels while still
+   * avoiding the busiest ones. If both candidates are full, it falls back to a full scan.
+   */
+  class PowerOfTwoChoices implements ChannelSelector {
+    private final LeastBusy fallback = new LeastBusy();
+
+    @Nullable
+    @Override
+    public DriverChannel select(@NonNull DriverChannel[] channels) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int length = channels.length;
+      int i = random.nextInt(length);
+      // pick j in [0, length) minus i
+      int j = random.nextInt(length - 1);
+      if (j >= i) {
+        j += 1;
+      }
+      DriverChannel first = channels[i];
+      DriverChannel second = channels[j];
+      int firstScore = first.getAvailableIds();
+      int secondScore = second.getAvailableIds();
+      if (firstScore == 0 && secondScore == 0) {
+        return fallback.select(channels);
+      }
+      return (firstScore >= secondScore) ? first : second;
+    }
+  }
+
+  /**
+   * Cycles through the channels in order, skipping those that are full.
+   *
+   * <p>This runs in constant time when the channels are not saturated.
+   */
+  class RoundRobin implements ChannelSelector {
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Nullable
+    @Override
+    public DriverChannel select(@NonNull DriverChannel[] channels) {
+      int length = channels.length;
+      int start = Math.floorMod(index.getAndIncrement(), length);
+      for (int i = 0; i < length; i++) {
+        DriverChannel channel = channels[(start + i) % length];
+        if (channel.getAvailableIds() > 0) {
+          return channel;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -15,7 +15,10 @@
  */
 package com.datastax.oss.driver.internal.core.pool;
 
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -31,6 +34,8 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Its write semantics are similar to "copy-on-write" JDK collections, selection operations are
  * expected to vastly outnumber mutations.
+ *
+ * <p>When there are multiple channels, the choice is delegated to a {@link ChannelSelector}.
  */
 @ThreadSafe
 class ChannelSet implements Iterable<DriverChannel> {
@@ -45,9 +50,17 @@ class ChannelSet implements Iterable<DriverChannel> {
 
   private volatile DriverChannel[] channels;
   private final ReentrantLock lock = new ReentrantLock(); // must be held when mutating the array
+  private final ChannelSelector selector;
+  private final NodeMetricUpdater metricUpdater;
 
   ChannelSet() {
+    this(new ChannelSelector.LeastBusy(), NoopNodeMetricUpdater.INSTANCE);
+  }
+
+  ChannelSet(ChannelSelector selector, NodeMetricUpdater metricUpdater) {
     this.channels = new DriverChannel[] {};
+    this.selector = selector;
+    this.metricUpdater = metricUpdater;
   }
 
   void add(DriverChannel toAdd) {
@@ -98,26 +111,24 @@ class ChannelSet implements Iterable<DriverChannel> {
         return onlyChannel.preAcquireId() ? onlyChannel : null;
       default:
         for (int i = 0; i < MAX_ITERATIONS; i++) {
-          DriverChannel best = null;
-          int bestScore = 0;
-          for (DriverChannel channel : snapshot) {
-            int score = channel.getAvailableIds();
-            if (score > bestScore) {
-              bestScore = score;
-              best = channel;
-            }
-          }
-          if (best == null) {
-            return null;
-          } else if (best.preAcquireId()) {
+          DriverChannel best = selector.select(snapshot);
+          if (best == null || best.preAcquireId()) {
+            recordRetries(i);
             return best;
           }
         }
+        recordRetries(MAX_ITERATIONS);
         LOG.trace("Could not select a channel after {} iterations", MAX_ITERATIONS);
         return null;
     }
   }
 
+  private void recordRetries(int retries) {
+    if (retries > 0) {
+      metricUpdater.incrementCounter(DefaultNodeMetric.CHANNEL_SELECTION_RETRIES, null, retries);
+    }
+  }
+
   /** @return the number of available stream ids on all channels in this channel set. */
   int getAvailableIds() {
     int availableIds = 0;
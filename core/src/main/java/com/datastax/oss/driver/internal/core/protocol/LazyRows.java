@@ -0,0 +1,233 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.PrimitiveCodec;
+import com.datastax.oss.protocol.internal.PrimitiveSizes;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.Result;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A {@code ROWS} response that decodes its cells on demand.
+ *
+ * <p>The default decoder ({@link DefaultRows.SubCodec}) copies every cell of the page into its own
+ * heap buffer, and stores each row in its own list, before the client has read anything. This
+ * implementation instead copies the whole rows section of the frame into a single array, and
+ * indexes the offset of each cell once. Rows are materialized when they are polled from {@link
+ * #getData()}, and each cell is exposed as a view over the shared array. This greatly reduces
+ * allocations for large pages, especially if the client only reads a few columns.
+ *
+ * <p>Note that the frame buffer itself is not retained: the array belongs to this message, and is
+ * reclaimed by the garbage collector along with it.
+ */
+public class LazyRows extends Rows {
+
+  private final RowsMetadata metadata;
+  private final int columnCount;
+  private final byte[] cells;
+  // For each cell, row by row: the offset of its [bytes] value (length prefix included) in cells
+  private final int[] offsets;
+  private final LazyQueue data;
+
+  public LazyRows(RowsMetadata metadata, int rowCount, byte[] cells, int[] offsets) {
+    this.metadata = metadata;
+    this.columnCount = metadata.columnCount;
+    this.cells = cells;
+    this.offsets = offsets;
+    this.data = new LazyQueue(rowCount);
+  }
+
+  @Override
+  public RowsMetadata getMetadata() {
+    return metadata;
+  }
+
+  @Override
+  public Queue<List<ByteBuffer>> getData() {
+    return data;
+  }
+
+  @Override
+  public String toString() {
+    return "ROWS(" + data.size() + " x " + columnCount + " columns, lazy)";
+  }
+
+  private ByteBuffer cell(int row, int column) {
+    int offset = offsets[row * columnCount + column];
+    int length = readInt(cells, offset);
+    if (length < 0) {
+      return null;
+    }
+    return ByteBuffer.wrap(cells, offset + 4, length).slice();
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xff) << 24
+        | (bytes[offset + 1] & 0xff) << 16
+        | (bytes[offset + 2] & 0xff) << 8
+        | (bytes[offset + 3] & 0xff);
+  }
+
+  @NotThreadSafe // like the ArrayDeque used by DefaultRows
+  private class LazyQueue extends AbstractQueue<List<ByteBuffer>> {
+
+    private final int rowCount;
+    private int next;
+
+    private LazyQueue(int rowCount) {
+      this.rowCount = rowCount;
+    }
+
+    @Override
+    public boolean offer(List<ByteBuffer> row) {
+      throw new UnsupportedOperationException("This queue is read-only");
+    }
+
+    @Override
+    public List<ByteBuffer> poll() {
+      return (next < rowCount) ? new LazyRow(next++) : null;
+    }
+
+    @Override
+    public List<ByteBuffer> peek() {
+      return (next < rowCount) ? new LazyRow(next) : null;
+    }
+
+    @Override
+    public int size() {
+      return rowCount - next;
+    }
+
+    @Override
+    public Iterator<List<ByteBuffer>> iterator() {
+      return new Iterator<List<ByteBuffer>>() {
+        private int current = next;
+
+        @Override
+        public boolean hasNext() {
+          return current < rowCount;
+        }
+
+        @Override
+        public List<ByteBuffer> next() {
+          if (current >= rowCount) {
+            throw new NoSuchElementException();
+          }
+          return new LazyRow(current++);
+        }
+      };
+    }
+  }
+
+  private class LazyRow extends AbstractList<ByteBuffer> {
+    private final int row;
+
+    private LazyRow(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public ByteBuffer get(int column) {
+      if (column < 0 || column >= columnCount) {
+        throw new IndexOutOfBoundsException("Index: " + column + ", size: " + columnCount);
+      }
+      return cell(row, column);
+    }
+
+    @Override
+    public int size() {
+      return columnCount;
+    }
+  }
+
+  /**
+   * Decodes {@code ROWS} responses into {@link LazyRows} instances.
+   *
+   * <p>This only applies to frames decoded from a Netty {@link ByteBuf}; other sources are decoded
+   * into a {@link DefaultRows} like the default codec does.
+   */
+  public static class SubCodec extends Result.SubCodec {
+
+    public SubCodec(int protocolVersion) {
+      super(ProtocolConstants.ResultKind.ROWS, protocolVersion);
+    }
+
+    @Override
+    public <B> void encode(B dest, Message message, PrimitiveCodec<B> encoder) {
+      Rows rows = (Rows) message;
+      rows.getMetadata().encode(dest, encoder, false, protocolVersion);
+      encoder.writeInt(rows.getData().size(), dest);
+      for (List<ByteBuffer> row : rows.getData()) {
+        for (ByteBuffer cell : row) {
+          encoder.writeBytes(cell, dest);
+        }
+      }
+    }
+
+    @Override
+    public int encodedSize(Message message) {
+      Rows rows = (Rows) message;
+      int size = rows.getMetadata().encodedSize(false, protocolVersion) + 4;
+      for (List<ByteBuffer> row : rows.getData()) {
+        for (ByteBuffer cell : row) {
+          size += PrimitiveSizes.sizeOfBytes(cell);
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public <B> Message decode(B source, PrimitiveCodec<B> decoder) {
+      if (!(source instanceof ByteBuf)) {
+        return new DefaultRows.SubCodec(protocolVersion).decode(source, decoder);
+      }
+      RowsMetadata metadata = RowsMetadata.decode(source, decoder, false, protocolVersion);
+      ByteBuf buffer = (ByteBuf) source;
+      int rowCount = buffer.readInt();
+      int columnCount = metadata.columnCount;
+
+      // Index the cells, and find out where the rows end
+      int start = buffer.readerIndex();
+      int[] offsets = new int[rowCount * columnCount];
+      int i = 0;
+      for (int row = 0; row < rowCount; row++) {
+        for (int column = 0; column < columnCount; column++) {
+          offsets[i++] = buffer.readerIndex() - start;
+          int length = buffer.readInt();
+          if (length > 0) {
+            buffer.skipBytes(length);
+          }
+        }
+      }
+      byte[] cells = new byte[buffer.readerIndex() - start];
+      buffer.getBytes(start, cells);
+      return new LazyRows(metadata, rowCount, cells, offsets);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.Result;
+import com.datastax.oss.protocol.internal.response.result.Prepared;
+import com.datastax.oss.protocol.internal.response.result.SchemaChange;
+import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import com.datastax.oss.protocol.internal.response.result.Void;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Wraps a codec group to decode {@code ROWS} responses with {@link LazyRows.SubCodec}.
+ *
+ * <p>Only the default {@code RESULT} decoders of the OSS protocol versions are replaced; DSE
+ * versions use their own row format, and are left untouched.
+ */
+@Immutable
+public class LazyRowsCodecGroup implements FrameCodec.CodecGroup {
+
+  private final FrameCodec.CodecGroup delegate;
+
+  public LazyRowsCodecGroup(FrameCodec.CodecGroup delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void registerCodecs(Registry registry) {
+    delegate.registerCodecs(
+        new Registry() {
+          @Override
+          public Registry addCodec(Message.Codec codec) {
+            registry.addCodec(codec);
+            return this;
+          }
+
+          @Override
+          public Registry addEncoder(Message.Codec codec) {
+            registry.addEncoder(codec);
+            return this;
+          }
+
+          @Override
+          public Registry addDecoder(Message.Codec codec) {
+            registry.addDecoder(maybeReplace(codec));
+            return this;
+          }
+        });
+  }
+
+  private static Message.Codec maybeReplace(Message.Codec codec) {
+    if (codec.getClass() != Result.Codec.class) {
+      return codec;
+    }
+    int version = codec.protocolVersion;
+    switch (version) {
+      case ProtocolConstants.Version.V3:
+      case ProtocolConstants.Version.V4:
+      case ProtocolConstants.Version.V5:
+        return new Result.Codec(
+            version,
+            new Void.SubCodec(version),
+            new LazyRows.SubCodec(version),
+            new SetKeyspace.SubCodec(version),
+            new Prepared.SubCodec(version),
+            new SchemaChange.SubCodec(version));
+      default:
+        return codec;
+    }
+  }
+}
@@ -43,9 +43,12 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -176,6 +179,12 @@ public class PoolManager implements AsyncAutoCloseable {
     // If we receive events while a pool is initializing, the last one is stored here
     private final Map<Node, DistanceEvent> pendingDistanceEvents = new WeakHashMap<>();
     private final Map<Node, NodeStateEvent> pendingStateEvents = new WeakHashMap<>();
+    // Only used during initialization, when the readiness threshold is lower than 1
+    private Map<Node, CompletionStage<ChannelPool>> initPoolStages;
+    private Set<Node> thresholdNodes;
+    private int requiredReadyPools;
+    private int readyPools;
+    private int initializedPools;
 
     private SingleThreaded(InternalDriverContext context) {
       this.context = context;
@@ -212,7 +221,8 @@ public class PoolManager implements AsyncAutoCloseable {
       stateEventFilter.start();
 
       Collection<Node> nodes = context.getMetadataManager().getMetadata().getNodes().values();
-      List<CompletionStage<ChannelPool>> poolStages = new ArrayList<>(nodes.size());
+      Map<Node, CompletionStage<ChannelPool>> poolStages = new LinkedHashMap<>();
+      Set<Node> localNodes = new HashSet<>();
       for (Node node : nodes) {
         NodeDistance distance = node.getDistance();
         if (distance == NodeDistance.IGNORED) {
@@ -221,13 +231,99 @@ public class PoolManager implements AsyncAutoCloseable {
           LOG.debug("[{}] Skipping {} because it is FORCED_DOWN", logPrefix, node);
         } else {
           LOG.debug("[{}] Creating a pool for {}", logPrefix, node);
-          poolStages.add(channelPoolFactory.init(node, keyspace, distance, context, logPrefix));
+          poolStages.put(
+              node, channelPoolFactory.init(node, keyspace, distance, context, logPrefix));
+          if (distance == NodeDistance.LOCAL) {
+            localNodes.add(node);
+          }
         }
       }
-      CompletableFutures.whenAllDone(poolStages, () -> this.onPoolsInit(poolStages), adminExecutor);
+
+      double threshold = getReadyThreshold();
+      if (threshold >= 1.0 || poolStages.isEmpty()) {
+        List<CompletionStage<ChannelPool>> allStages = new ArrayList<>(poolStages.values());
+        CompletableFutures.whenAllDone(allStages, () -> this.onPoolsInit(allStages), adminExecutor);
+      } else {
+        initPoolStages = poolStages;
+        thresholdNodes = localNodes.isEmpty() ? poolStages.keySet() : localNodes;
+        requiredReadyPools = Math.max(1, (int) Math.ceil(threshold * thresholdNodes.size()));
+        LOG.debug(
+            "[{}] Session will be ready when {} of {} pools are connected",
+            logPrefix,
+            requiredReadyPools,
+            thresholdNodes.size());
+        for (CompletionStage<ChannelPool> poolStage : poolStages.values()) {
+          poolStage
+              .thenAcceptAsync(this::onInitialPoolDone, adminExecutor)
+              .exceptionally(UncaughtExceptions::log);
+        }
+      }
+    }
+
+    private double getReadyThreshold() {
+      if (!config.isDefined(DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD)) {
+        return 1.0;
+      }
+      double threshold = config.getDouble(DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD);
+      if (threshold <= 0 || threshold > 1) {
+        LOG.warn(
+            "[{}] Invalid value for {}: {}, it must be in the range ]0, 1]. Using 1.0 instead.",
+            logPrefix,
+            DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD.getPath(),
+            threshold);
+        return 1.0;
+      }
+      return threshold;
+    }
+
+    private void onInitialPoolDone(ChannelPool pool) {
+      assert adminExecutor.inEventLoop();
+      if (initFuture.isDone()) {
+        // We're already past the threshold, the pool is in pending and completes like any pool
+        // that gets added at runtime.
+        onPoolInitialized(pool);
+        return;
+      }
+      initializedPools += 1;
+      Node node = pool.getNode();
+      if (thresholdNodes.contains(node) && pool.size() > 0 && !pool.isInvalidKeyspace()) {
+        readyPools += 1;
+      }
+      if (initializedPools == initPoolStages.size()) {
+        // Either the threshold was reached by the last pool, or it can't be reached anymore
+        onPoolsInit(initPoolStages.values());
+      } else if (readyPools >= requiredReadyPools) {
+        onEnoughPoolsInit();
+      }
     }
 
-    private void onPoolsInit(List<CompletionStage<ChannelPool>> poolStages) {
+    private void onEnoughPoolsInit() {
+      assert adminExecutor.inEventLoop();
+      LOG.debug(
+          "[{}] {} of {} pools have finished initializing, "
+              + "the others will keep connecting in the background",
+          logPrefix,
+          initializedPools,
+          initPoolStages.size());
+      for (Map.Entry<Node, CompletionStage<ChannelPool>> entry : initPoolStages.entrySet()) {
+        CompletableFuture<ChannelPool> poolFuture = entry.getValue().toCompletableFuture();
+        if (poolFuture.isDone()) {
+          ChannelPool pool = CompletableFutures.getCompleted(poolFuture);
+          if (pool.isInvalidKeyspace()) {
+            LOG.debug("[{}] Pool to {} reports an invalid keyspace", logPrefix, pool.getNode());
+          }
+          pools.put(pool.getNode(), pool);
+        } else {
+          pending.put(entry.getKey(), poolFuture);
+        }
+      }
+      LOG.debug("[{}] Initialization complete, ready", logPrefix);
+      initFuture.complete(null);
+      distanceEventFilter.markReady();
+      stateEventFilter.markReady();
+    }
+
+    private void onPoolsInit(Collection<CompletionStage<ChannelPool>> poolStages) {
       assert adminExecutor.inEventLoop();
       LOG.debug("[{}] All pools have finished initializing", logPrefix);
       // We will only propagate an invalid keyspace error if all pools get it
@@ -312,6 +408,9 @@ public class PoolManager implements AsyncAutoCloseable {
       DefaultNode node = event.node;
       NodeState oldState = event.oldState;
       NodeState newState = event.newState;
+      if (newState == null || newState == NodeState.DOWN || newState == NodeState.FORCED_DOWN) {
+        forgetReprepareClaims(node);
+      }
       if (pending.containsKey(node)) {
         pendingStateEvents.put(node, event);
       } else if (newState == null || newState == NodeState.FORCED_DOWN) {
@@ -329,6 +428,9 @@ public class PoolManager implements AsyncAutoCloseable {
                     return null;
                   });
         }
+        if (newState == null) {
+          evictReprepareClaims();
+        }
       } else if (oldState == NodeState.FORCED_DOWN
           && newState == NodeState.UP
           && node.getDistance() != NodeDistance.IGNORED) {
@@ -419,6 +521,24 @@ public class PoolManager implements AsyncAutoCloseable {
       }
     }
 
+    // The coordinator is shared by all the sessions of the JVM, and otherwise only evicts when a
+    // node comes back up: don't let removed nodes and closed sessions leave entries behind.
+    private void evictReprepareClaims() {
+      if (config.getBoolean(DefaultDriverOption.REPREPARE_ENABLED)) {
+        ReprepareCoordinator.getInstance()
+            .evictExpired(
+                config.getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW).toNanos());
+      }
+    }
+
+    // The node might be restarting: statements claimed before must be reprepared again when it is
+    // back up, even if it's still within the dedupe window.
+    private void forgetReprepareClaims(Node node) {
+      if (config.getBoolean(DefaultDriverOption.REPREPARE_ENABLED)) {
+        ReprepareCoordinator.getInstance().onNodeDown(node.getEndPoint());
+      }
+    }
+
     private void onPoolReady(ChannelPool pool) {
       assert adminExecutor.inEventLoop();
       Node node = pool.getNode();
@@ -474,6 +594,8 @@ public class PoolManager implements AsyncAutoCloseable {
       }
       CompletableFutures.whenAllDone(
           closePoolStages, () -> onAllPoolsClosed(closePoolStages), adminExecutor);
+
+      evictReprepareClaims();
     }
 
     private void forceClose() {
@@ -0,0 +1,192 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session;
+
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Coordinates {@link ReprepareOnUp} across all the sessions of the JVM.
+ *
+ * <p>Prepared statements are cached globally on the server, so when several sessions reprepare on
+ * the same node, they only need to send each statement once; this class remembers which statements
+ * were recently claimed on each node. It also spreads the prepare requests to a node over time, to
+ * honor a maximum rate.
+ *
+ * <p>Nodes are identified by their {@link EndPoint}, since each session has its own node instances.
+ * Claims only apply to the current up cycle of a node: they are forgotten when it goes down (see
+ * {@link #onNodeDown(EndPoint)}), since it might restart with an empty cache. The state of a node
+ * is dropped once it has no recent claims and no pending slots (see {@link #evictExpired(long)}).
+ */
+@ThreadSafe
+class ReprepareCoordinator {
+
+  private static final ReprepareCoordinator INSTANCE = new ReprepareCoordinator();
+
+  static ReprepareCoordinator getInstance() {
+    return INSTANCE;
+  }
+
+  private final ConcurrentMap<EndPoint, NodeReprepares> nodes = new ConcurrentHashMap<>();
+
+  @VisibleForTesting
+  ReprepareCoordinator() {}
+
+  /**
+   * Claims the right to reprepare a statement on a node.
+   *
+   * @return false if another caller already claimed it less than {@code windowNanos} ago (in which
+   *     case the statement should be skipped), true otherwise. If {@code windowNanos} is 0 or
+   *     negative, this always returns true.
+   */
+  boolean claim(EndPoint endPoint, ByteBuffer id, long windowNanos) {
+    if (windowNanos <= 0) {
+      return true;
+    }
+    return withNode(endPoint, node -> node.claim(id, nanoTime(), windowNanos));
+  }
+
+  /**
+   * Releases a claim, because the statement could not be reprepared: the next caller will try it
+   * again.
+   */
+  void release(EndPoint endPoint, ByteBuffer id) {
+    NodeReprepares node = nodes.get(endPoint);
+    if (node != null) {
+      node.release(id);
+    }
+  }
+
+  /**
+   * Forgets all the claims on a node that went down or was removed. If it was restarting, its cache
+   * is empty when it comes back up, so every statement must be reprepared again.
+   */
+  void onNodeDown(EndPoint endPoint) {
+    NodeReprepares node = nodes.get(endPoint);
+    if (node != null) {
+      node.releaseAll();
+    }
+  }
+
+  /**
+   * Reserves a slot to send a prepare request to a node.
+   *
+   * @return how long the caller must wait before sending the request, in nanoseconds (0 if it can
+   *     be sent right away). If {@code maxRatePerSecond} is 0 or negative, this always returns 0.
+   */
+  long reserve(EndPoint endPoint, int maxRatePerSecond) {
+    if (maxRatePerSecond <= 0) {
+      return 0;
+    }
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / maxRatePerSecond;
+    return withNode(endPoint, node -> node.reserve(nanoTime(), intervalNanos));
+  }
+
+  /**
+   * Forgets the claims that are older than {@code windowNanos}, and the nodes that have nothing
+   * left to remember.
+   */
+  void evictExpired(long windowNanos) {
+    for (EndPoint endPoint : nodes.keySet()) {
+      evictExpired(endPoint, windowNanos);
+    }
+  }
+
+  /** Same as {@link #evictExpired(long)}, but only for the given node. */
+  void evictExpired(EndPoint endPoint, long windowNanos) {
+    NodeReprepares node = nodes.get(endPoint);
+    if (node != null) {
+      synchronized (node) {
+        long now = nanoTime();
+        node.claims.values().removeIf(claimed -> now - claimed >= windowNanos);
+        if (node.claims.isEmpty() && node.nextSlot - now <= 0) {
+          node.evicted = true;
+          nodes.remove(endPoint, node);
+        }
+      }
+    }
+  }
+
+  @VisibleForTesting
+  boolean isTracked(EndPoint endPoint) {
+    return nodes.containsKey(endPoint);
+  }
+
+  @VisibleForTesting
+  protected long nanoTime() {
+    return System.nanoTime();
+  }
+
+  private <ResultT> ResultT withNode(EndPoint endPoint, Function<NodeReprepares, ResultT> action) {
+    while (true) {
+      NodeReprepares node = nodes.computeIfAbsent(endPoint, e -> new NodeReprepares(nanoTime()));
+      synchronized (node) {
+        if (!node.evicted) {
+          return action.apply(node);
+        }
+      }
+      // The node was evicted between the lookup and the lock, try again with a new entry
+    }
+  }
+
+  private static class NodeReprepares {
+    // The time at which each statement was last claimed
+    @GuardedBy("this")
+    private final Map<ByteBuffer, Long> claims = new HashMap<>();
+
+    @GuardedBy("this")
+    private long nextSlot;
+
+    @GuardedBy("this")
+    private boolean evicted;
+
+    private NodeReprepares(long now) {
+      this.nextSlot = now;
+    }
+
+    private synchronized boolean claim(ByteBuffer id, long now, long windowNanos) {
+      Long previous = claims.get(id);
+      if (previous != null && now - previous < windowNanos) {
+        return false;
+      }
+      claims.put(id, now);
+      return true;
+    }
+
+    private synchronized void release(ByteBuffer id) {
+      claims.remove(id);
+    }
+
+    private synchronized void releaseAll() {
+      claims.clear();
+    }
+
+    private synchronized long reserve(long now, long intervalNanos) {
+      long slot = Math.max(now, nextSlot);
+      nextSlot = slot + intervalNanos;
+      return slot - now;
+    }
+  }
+}
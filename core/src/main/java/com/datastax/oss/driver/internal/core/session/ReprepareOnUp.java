@@ -18,6 +18,9 @@ package com.datastax.oss.driver.internal.core.session;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.connection.BusyConnectionException;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
 import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminResult;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
@@ -25,6 +28,9 @@ import com.datastax.oss.driver.internal.core.adminrequest.ThrottledAdminRequestH
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.cql.CqlRequestHandler;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
@@ -38,12 +44,15 @@ import io.netty.util.concurrent.EventExecutor;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +65,10 @@ import org.slf4j.LoggerFactory;
  * prepare request fail, we ignore the error because it will be retried on the fly (see {@link
  * CqlRequestHandler}).
  *
+ * <p>Statements are reprepared in order of most recent usage. The {@link ReprepareCoordinator}
+ * ensures that concurrent instances for the same node (from other sessions in the JVM) don't send
+ * the same statements twice, and share the same rate limit.
+ *
  * <p>Logically this code belongs to {@link DefaultSession}, but it was extracted for modularity and
  * testability.
  */
@@ -77,6 +90,11 @@ class ReprepareOnUp {
   private final Duration timeout;
   private final RequestThrottler throttler;
   private final SessionMetricUpdater metricUpdater;
+  private final NodeMetricUpdater nodeMetricUpdater;
+  private final ReprepareCoordinator coordinator;
+  private final EndPoint endPoint;
+  private final int maxRatePerNode;
+  private final long dedupeWindowNanos;
 
   // After the constructor, everything happens on adminExecutor, so these fields do not need any
   // synchronization.
@@ -91,6 +109,25 @@ class ReprepareOnUp {
       Map<ByteBuffer, RepreparePayload> repreparePayloads,
       InternalDriverContext context,
       Runnable whenPrepared) {
+    this(
+        logPrefix,
+        pool,
+        adminExecutor,
+        repreparePayloads,
+        context,
+        whenPrepared,
+        ReprepareCoordinator.getInstance());
+  }
+
+  @VisibleForTesting
+  ReprepareOnUp(
+      String logPrefix,
+      ChannelPool pool,
+      EventExecutor adminExecutor,
+      Map<ByteBuffer, RepreparePayload> repreparePayloads,
+      InternalDriverContext context,
+      Runnable whenPrepared,
+      ReprepareCoordinator coordinator) {
 
     this.logPrefix = logPrefix;
     this.pool = pool;
@@ -107,8 +144,22 @@ class ReprepareOnUp {
         config.getDefaultProfile().getInt(DefaultDriverOption.REPREPARE_MAX_STATEMENTS);
     this.maxParallelism =
         config.getDefaultProfile().getInt(DefaultDriverOption.REPREPARE_MAX_PARALLELISM);
+    this.maxRatePerNode =
+        config.getDefaultProfile().getInt(DefaultDriverOption.REPREPARE_MAX_RATE_PER_NODE);
+    this.dedupeWindowNanos =
+        config
+            .getDefaultProfile()
+            .getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW)
+            .toNanos();
 
     this.metricUpdater = context.getMetricsFactory().getSessionUpdater();
+    Node node = pool.getNode();
+    this.nodeMetricUpdater =
+        (node instanceof DefaultNode)
+            ? ((DefaultNode) node).getMetricUpdater()
+            : NoopNodeMetricUpdater.INSTANCE;
+    this.endPoint = node.getEndPoint();
+    this.coordinator = coordinator;
   }
 
   void start() {
@@ -169,26 +220,31 @@ class ReprepareOnUp {
 
   private void gatherPayloadsToReprepare() {
     assert adminExecutor.inEventLoop();
-    toReprepare = new ArrayDeque<>();
+    List<RepreparePayload> candidates = new ArrayList<>();
     for (RepreparePayload payload : repreparePayloads.values()) {
       if (serverKnownIds.contains(payload.id)) {
         LOG.trace(
             "[{}] Skipping statement {} because it is already known to the server",
             logPrefix,
             Bytes.toHexString(payload.id));
+        nodeMetricUpdater.incrementCounter(DefaultNodeMetric.REPREPARE_SKIPPED, null);
       } else {
-        if (maxStatements > 0 && toReprepare.size() == maxStatements) {
-          LOG.debug(
-              "[{}] Limiting number of statements to reprepare to {} as configured, "
-                  + "but there are more",
-              logPrefix,
-              maxStatements);
-          break;
-        } else {
-          toReprepare.add(payload);
-        }
+        candidates.add(payload);
       }
     }
+    // Most recently used first (the sort is stable, so this preserves the map order otherwise)
+    candidates.sort(
+        (payload1, payload2) ->
+            Long.compare(payload2.getLastUsedNanos(), payload1.getLastUsedNanos()));
+    if (maxStatements > 0 && candidates.size() > maxStatements) {
+      LOG.debug(
+          "[{}] Limiting number of statements to reprepare to {} as configured, "
+              + "but there are more",
+          logPrefix,
+          maxStatements);
+      candidates = candidates.subList(0, maxStatements);
+    }
+    toReprepare = new ArrayDeque<>(candidates);
     if (toReprepare.isEmpty()) {
       LOG.debug(
           "[{}] No statements to reprepare that are not known by the server already, done",
@@ -201,41 +257,68 @@ class ReprepareOnUp {
 
   private void startWorkers() {
     assert adminExecutor.inEventLoop();
-    runningWorkers = Math.min(maxParallelism, toReprepare.size());
+    coordinator.evictExpired(dedupeWindowNanos);
+    int workers = Math.min(maxParallelism, toReprepare.size());
+    runningWorkers = workers;
     LOG.debug(
         "[{}] Repreparing {} statements with {} parallel workers",
         logPrefix,
         toReprepare.size(),
-        runningWorkers);
-    for (int i = 0; i < runningWorkers; i++) {
+        workers);
+    // Don't loop on runningWorkers: a worker that skips all remaining statements decrements it
+    for (int i = 0; i < workers; i++) {
       startWorker();
     }
   }
 
   private void startWorker() {
     assert adminExecutor.inEventLoop();
-    if (toReprepare.isEmpty()) {
+    RepreparePayload payload = toReprepare.poll();
+    while (payload != null && !coordinator.claim(endPoint, payload.id, dedupeWindowNanos)) {
+      LOG.trace(
+          "[{}] Skipping statement {} because another session reprepared it",
+          logPrefix,
+          Bytes.toHexString(payload.id));
+      nodeMetricUpdater.incrementCounter(DefaultNodeMetric.REPREPARE_SKIPPED, null);
+      payload = toReprepare.poll();
+    }
+    if (payload == null) {
       runningWorkers -= 1;
       if (runningWorkers == 0) {
         LOG.debug("[{}] All workers finished, done", logPrefix);
         whenPrepared.run();
       }
     } else {
-      RepreparePayload payload = toReprepare.poll();
-      prepareAsync(
-              new Prepare(
-                  payload.query, (payload.keyspace == null ? null : payload.keyspace.asInternal())),
-              payload.customPayload)
-          .handleAsync(
-              (result, error) -> {
-                // Don't log, AdminRequestHandler does already
-                startWorker();
-                return null;
-              },
-              adminExecutor);
+      long delayNanos = coordinator.reserve(endPoint, maxRatePerNode);
+      if (delayNanos > 0) {
+        RepreparePayload scheduledPayload = payload;
+        adminExecutor.schedule(() -> reprepare(scheduledPayload), delayNanos, TimeUnit.NANOSECONDS);
+      } else {
+        reprepare(payload);
+      }
     }
   }
 
+  private void reprepare(RepreparePayload payload) {
+    assert adminExecutor.inEventLoop();
+    nodeMetricUpdater.incrementCounter(DefaultNodeMetric.REPREPARE_SENT, null);
+    prepareAsync(
+            new Prepare(
+                payload.query, (payload.keyspace == null ? null : payload.keyspace.asInternal())),
+            payload.customPayload)
+        .handleAsync(
+            (result, error) -> {
+              // Don't log, AdminRequestHandler does already
+              if (error != null) {
+                // Let the next attempt (from another session, or after a reconnection) retry it
+                coordinator.release(endPoint, payload.id);
+              }
+              startWorker();
+              return null;
+            },
+            adminExecutor);
+  }
+
   @VisibleForTesting
   protected CompletionStage<AdminResult> queryAsync(
       Message message, Map<String, ByteBuffer> customPayload, String debugString) {
@@ -20,7 +20,8 @@ import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
 import com.datastax.oss.protocol.internal.request.Prepare;
 import java.nio.ByteBuffer;
 import java.util.Map;
-import net.jcip.annotations.Immutable;
+import java.util.concurrent.TimeUnit;
+import net.jcip.annotations.ThreadSafe;
 
 /**
  * The information that's necessary to reprepare an already prepared statement, in case we hit a
@@ -28,9 +29,17 @@ import net.jcip.annotations.Immutable;
  *
  * <p>Make sure the object that's returned to the client (e.g. {@link DefaultPreparedStatement} for
  * CQL statements) keeps a reference to this.
+ *
+ * <p>This also tracks when the statement was last used, so that the most active statements get
+ * reprepared first when a node comes back up.
  */
-@Immutable
+@ThreadSafe
 public class RepreparePayload {
+
+  private static final long NEVER_USED = Long.MIN_VALUE;
+  // Don't write the timestamp on every call, hot statements can get bound from many threads
+  private static final long USAGE_RESOLUTION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
   public final ByteBuffer id;
   public final String query;
 
@@ -39,6 +48,8 @@ public class RepreparePayload {
 
   public final Map<String, ByteBuffer> customPayload;
 
+  private volatile long lastUsedNanos = NEVER_USED;
+
   public RepreparePayload(
       ByteBuffer id, String query, CqlIdentifier keyspace, Map<String, ByteBuffer> customPayload) {
     this.id = id;
@@ -50,4 +61,21 @@ public class RepreparePayload {
   public Prepare toMessage() {
     return new Prepare(query, keyspace == null ? null : keyspace.asInternal());
   }
+
+  /** Records that the statement is being used now. */
+  public void markUsed() {
+    long now = System.nanoTime();
+    long last = lastUsedNanos;
+    if (last == NEVER_USED || now - last > USAGE_RESOLUTION_NANOS) {
+      lastUsedNanos = now;
+    }
+  }
+
+  /**
+   * The {@link System#nanoTime()} of the last {@link #markUsed()} call (to a one-second precision),
+   * or {@link Long#MIN_VALUE} if the statement was never used.
+   */
+  public long getLastUsedNanos() {
+    return lastUsedNanos;
+  }
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request throttler that limits the number of concurrent requests, and adjusts that limit
+ * dynamically based on the observed latencies.
+ *
+ * <p>Like {@link ConcurrencyLimitingRequestThrottler}, requests that exceed the current limit are
+ * enqueued, and dequeued as active requests complete. But the limit moves between {@code
+ * min-concurrent-requests} and {@code max-concurrent-requests}: it grows while the cluster keeps
+ * up, and shrinks when latencies degrade or requests time out. Two algorithms are available:
+ *
+ * <ul>
+ *   <li>{@code AIMD} (additive increase, multiplicative decrease): the limit grows by one for every
+ *       "limit" successful requests, and is multiplied by {@code backoff-ratio} when a request
+ *       times out or takes longer than {@code latency-threshold}.
+ *   <li>{@code GRADIENT}: the limit follows the ratio between the long-term average latency and the
+ *       latest one. When latencies increase above the average (with a margin of {@code
+ *       latency-tolerance}), the limit shrinks; otherwise, it grows by roughly its square root.
+ * </ul>
+ *
+ * Failed requests are not used as samples, since their latency is not representative (for example,
+ * a syntax error is reported almost instantly).
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = AdaptiveConcurrencyLimitingRequestThrottler
+ *     max-concurrent-requests = 10000
+ *     max-queue-size = 10000
+ *     limit-algorithm = GRADIENT
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ */
+@ThreadSafe
+public class AdaptiveConcurrencyLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(AdaptiveConcurrencyLimitingRequestThrottler.class);
+
+  private final String logPrefix;
+  private final NanoClock clock;
+  private final int minConcurrentRequests;
+  private final int maxConcurrentRequests;
+  private final int maxQueueSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @GuardedBy("lock")
+  private final LimitAlgorithm algorithm;
+
+  @GuardedBy("lock")
+  private double limit;
+
+  @GuardedBy("lock")
+  private int concurrentRequests;
+
+  @GuardedBy("lock")
+  private final Deque<Throttled> queue = new ArrayDeque<>();
+
+  // The start time of each active request
+  @GuardedBy("lock")
+  private final Map<Throttled, Long> startTimes = new IdentityHashMap<>();
+
+  @GuardedBy("lock")
+  private boolean closed;
+
+  public AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context, NanoClock clock) {
+    this.logPrefix = context.getSessionName();
+    this.clock = clock;
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
+    this.minConcurrentRequests =
+        Math.min(
+            config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS, 1),
+            maxConcurrentRequests);
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    this.limit =
+        clamp(
+            config.getInt(
+                DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS,
+                minConcurrentRequests));
+    String algorithmName =
+        config.getString(DefaultDriverOption.REQUEST_THROTTLER_LIMIT_ALGORITHM, "AIMD");
+    switch (algorithmName.toUpperCase(Locale.ROOT)) {
+      case "AIMD":
+        this.algorithm =
+            new Aimd(
+                config
+                    .getDuration(
+                        DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD,
+                        Duration.ofMillis(100))
+                    .toNanos(),
+                config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO, 0.9));
+        break;
+      case "GRADIENT":
+        this.algorithm =
+            new Gradient(
+                config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_LATENCY_TOLERANCE, 1.5),
+                config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_SMOOTHING, 0.2));
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown value for %s: %s (expected AIMD or GRADIENT)",
+                DefaultDriverOption.REQUEST_THROTTLER_LIMIT_ALGORITHM.getPath(), algorithmName));
+    }
+    LOG.debug(
+        "[{}] Initializing with {}, minConcurrentRequests = {}, maxConcurrentRequests = {}, "
+            + "initial limit = {}, maxQueueSize = {}",
+        logPrefix,
+        algorithm,
+        minConcurrentRequests,
+        maxConcurrentRequests,
+        (int) limit,
+        maxQueueSize);
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      if (closed) {
+        LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+        fail(request, "The session is shutting down");
+      } else if (queue.isEmpty() && concurrentRequests < (int) limit) {
+        LOG.trace("[{}] Starting newly registered request", logPrefix);
+        start(request, false);
+      } else if (queue.size() < maxQueueSize) {
+        LOG.trace("[{}] Enqueuing request", logPrefix);
+        queue.add(request);
+      } else {
+        LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+        fail(
+            request,
+            String.format(
+                "The session has reached its maximum capacity "
+                    + "(current concurrency limit: %d, queue size: %d)",
+                (int) limit, maxQueueSize));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      onRequestDone(request, true, false);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    lock.lock();
+    try {
+      onRequestDone(request, false, false);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      if (!closed) {
+        if (queue.remove(request)) { // The request timed out before it was active
+          LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        } else {
+          onRequestDone(request, true, true);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void start(Throttled request, boolean wasDelayed) {
+    assert lock.isHeldByCurrentThread();
+    concurrentRequests += 1;
+    startTimes.put(request, clock.nanoTime());
+    request.onThrottleReady(wasDelayed);
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void onRequestDone(Throttled request, boolean isSample, boolean timedOut) {
+    assert lock.isHeldByCurrentThread();
+    if (closed) {
+      return;
+    }
+    Long startNanos = startTimes.remove(request);
+    if (startNanos == null) {
+      // Not started by this throttler (or already signaled), ignore
+      return;
+    }
+    int inFlight = concurrentRequests;
+    concurrentRequests -= 1;
+    if (isSample) {
+      long now = clock.nanoTime();
+      double newLimit = clamp(algorithm.update(limit, startNanos, now, inFlight, timedOut));
+      if ((int) newLimit != (int) limit) {
+        LOG.trace("[{}] Adjusting concurrency limit to {}", logPrefix, (int) newLimit);
+      }
+      limit = newLimit;
+    }
+    while (!queue.isEmpty() && concurrentRequests < (int) limit) {
+      LOG.trace("[{}] Starting dequeued request", logPrefix);
+      start(queue.poll(), true);
+    }
+  }
+
+  private double clamp(double value) {
+    return Math.max(minConcurrentRequests, Math.min(maxConcurrentRequests, value));
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queue.size());
+      for (Throttled request : queue) {
+        fail(request, "The session is shutting down");
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The current maximum number of concurrent requests. */
+  public int getConcurrencyLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  int getConcurrentRequests() {
+    lock.lock();
+    try {
+      return concurrentRequests;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  Deque<Throttled> getQueue() {
+    lock.lock();
+    try {
+      return queue;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+
+  /** Computes a new limit after each sample. Only invoked with the throttler's lock held. */
+  @NotThreadSafe
+  interface LimitAlgorithm {
+    /**
+     * @param limit the current limit.
+     * @param startNanos when the request that produced this sample was started.
+     * @param nowNanos when the request completed.
+     * @param inFlight the number of active requests, including this one.
+     * @param timedOut whether the request timed out.
+     * @return the new limit (the caller will clamp it within the configured bounds).
+     */
+    double update(double limit, long startNanos, long nowNanos, int inFlight, boolean timedOut);
+  }
+
+  @NotThreadSafe
+  static class Aimd implements LimitAlgorithm {
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private boolean hasBackedOff;
+    private long lastBackoffNanos;
+
+    Aimd(long latencyThresholdNanos, double backoffRatio) {
+      this.latencyThresholdNanos = latencyThresholdNanos;
+      this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public double update(
+        double limit, long startNanos, long nowNanos, int inFlight, boolean timedOut) {
+      if (timedOut || nowNanos - startNanos > latencyThresholdNanos) {
+        // Only back off once for all the requests that were already running at the time of the
+        // last decrease, otherwise a burst of slow responses would collapse the limit.
+        if (!hasBackedOff || startNanos - lastBackoffNanos > 0) {
+          hasBackedOff = true;
+          lastBackoffNanos = nowNanos;
+          return limit * backoffRatio;
+        }
+        return limit;
+      } else if (inFlight * 2 >= limit) {
+        // Only grow if the current limit is actually used
+        return limit + 1 / limit;
+      } else {
+        return limit;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "AIMD(latencyThreshold = %d ns, backoffRatio = %s)", latencyThresholdNanos, backoffRatio);
+    }
+  }
+
+  @NotThreadSafe
+  static class Gradient implements LimitAlgorithm {
+    // The long-term latency is an exponential moving average over roughly this number of samples
+    private static final int LONG_TERM_WINDOW = 600;
+    private static final double LONG_TERM_ALPHA = 2.0 / (LONG_TERM_WINDOW + 1);
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final double latencyTolerance;
+    private final double smoothing;
+    private double longTermLatency;
+
+    Gradient(double latencyTolerance, double smoothing) {
+      this.latencyTolerance = latencyTolerance;
+      this.smoothing = smoothing;
+    }
+
+    @Override
+    public double update(
+        double limit, long startNanos, long nowNanos, int inFlight, boolean timedOut) {
+      double gradient;
+      if (timedOut) {
+        gradient = MIN_GRADIENT;
+      } else {
+        double latency = Math.max(1, nowNanos - startNanos);
+        if (longTermLatency == 0) {
+          longTermLatency = latency;
+        } else {
+          longTermLatency += LONG_TERM_ALPHA * (latency - longTermLatency);
+          // If the long-term average is well above the current latency, the system has recovered
+          // from a slowdown: let the average catch up faster, so that the limit can grow again.
+          if (longTermLatency > 2 * latency) {
+            longTermLatency *= 0.95;
+          }
+        }
+        gradient =
+            Math.max(MIN_GRADIENT, Math.min(1.0, latencyTolerance * longTermLatency / latency));
+      }
+      double newLimit = limit * gradient + Math.sqrt(limit);
+      if (newLimit > limit && inFlight * 2 < limit) {
+        // Don't grow if the current limit is not used
+        return limit;
+      }
+      return limit * (1 - smoothing) + newLimit * smoothing;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "GRADIENT(latencyTolerance = %s, smoothing = %s)", latencyTolerance, smoothing);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request throttler that limits the number of concurrent requests, without locking.
+ *
+ * <p>It has the same behavior and configuration options as {@link
+ * ConcurrencyLimitingRequestThrottler}, but it is built on atomic counters and a non-blocking
+ * queue, which scales better when many threads submit requests concurrently. The counterpart is
+ * that the ordering of queued requests is only approximately FIFO: a request that registers at the
+ * exact time a slot frees up may overtake requests that were enqueued just before.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = LockFreeConcurrencyLimitingRequestThrottler
+ *     max-concurrent-requests = 10000
+ *     max-queue-size = 10000
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ */
+@ThreadSafe
+public class LockFreeConcurrencyLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(LockFreeConcurrencyLimitingRequestThrottler.class);
+
+  private final String logPrefix;
+  private final int maxConcurrentRequests;
+  private final int maxQueueSize;
+
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  // Tracked separately because ConcurrentLinkedQueue.size() is linear. It is incremented before an
+  // element is added, in order to reserve a slot in the queue.
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final Queue<Throttled> queue = new ConcurrentLinkedQueue<>();
+  private volatile boolean closed;
+
+  public LockFreeConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this.logPrefix = context.getSessionName();
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    LOG.debug(
+        "[{}] Initializing with maxConcurrentRequests = {}, maxQueueSize = {}",
+        logPrefix,
+        maxConcurrentRequests,
+        maxQueueSize);
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    if (closed) {
+      LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+      fail(request, "The session is shutting down");
+    } else if (queueSize.get() == 0 && tryAcquire()) {
+      // We have capacity for one more concurrent request. Note that we only try if the queue is
+      // empty, to avoid overtaking enqueued requests.
+      LOG.trace("[{}] Starting newly registered request", logPrefix);
+      request.onThrottleReady(false);
+    } else if (tryReserveQueueSlot()) {
+      LOG.trace("[{}] Enqueuing request", logPrefix);
+      queue.offer(request);
+      if (closed && queue.remove(request)) {
+        // close() ran concurrently, and might have drained the queue before we added to it
+        queueSize.decrementAndGet();
+        fail(request, "The session is shutting down");
+      } else {
+        // An active request might have completed since we tried to acquire a permit, and missed
+        // our request because it wasn't in the queue yet.
+        drain();
+      }
+    } else {
+      LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+      fail(
+          request,
+          String.format(
+              "The session has reached its maximum capacity "
+                  + "(concurrent requests: %d, queue size: %d)",
+              maxConcurrentRequests, maxQueueSize));
+    }
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    onRequestDone();
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    signalSuccess(request); // not treated differently
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    if (!closed) {
+      if (queue.remove(request)) { // The request timed out before it was active
+        LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        queueSize.decrementAndGet();
+      } else {
+        onRequestDone();
+      }
+    }
+  }
+
+  private void onRequestDone() {
+    if (!closed) {
+      concurrentRequests.decrementAndGet();
+      drain();
+    }
+  }
+
+  /** Starts as many queued requests as there are available permits. */
+  private void drain() {
+    while (!queue.isEmpty() && tryAcquire()) {
+      Throttled request = queue.poll();
+      if (request == null) {
+        // Another thread emptied the queue since we checked. If an element gets added after this
+        // point, the thread that adds it will call drain() again.
+        concurrentRequests.decrementAndGet();
+        if (queue.isEmpty()) {
+          return;
+        }
+      } else {
+        queueSize.decrementAndGet();
+        LOG.trace("[{}] Starting dequeued request", logPrefix);
+        request.onThrottleReady(true);
+      }
+    }
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      int current = concurrentRequests.get();
+      if (current >= maxConcurrentRequests) {
+        return false;
+      } else if (concurrentRequests.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private boolean tryReserveQueueSlot() {
+    while (true) {
+      int current = queueSize.get();
+      if (current >= maxQueueSize) {
+        return false;
+      } else if (queueSize.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queueSize.get());
+    Throttled request;
+    while ((request = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+      fail(request, "The session is shutting down");
+    }
+  }
+
+  public int getQueueSize() {
+    return queueSize.get();
+  }
+
+  @VisibleForTesting
+  int getConcurrentRequests() {
+    return concurrentRequests.get();
+  }
+
+  @VisibleForTesting
+  Queue<Throttled> getQueue() {
+    return queue;
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.specex;
+
+import com.codahale.metrics.Snapshot;
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.metrics.HdrReservoir;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A policy that schedules speculative executions when the previous node has not replied after a
+ * high percentile of its recent latencies, and limits the extra load that they generate.
+ *
+ * <p>To activate this policy, modify the {@code advanced.speculative-execution-policy} section in
+ * the driver configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.speculative-execution-policy {
+ *     class = PercentileSpeculativeExecutionPolicy
+ *     max-executions = 2
+ *     percentile = 99.0
+ *     budget = 0.05
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p><b>Latency percentiles</b>: the policy registers itself as a {@link RequestTracker}, and
+ * records the latency of successful responses in an {@link HdrReservoir} per node. Only requests
+ * executed with a profile that uses this policy instance are sampled. This does not depend on
+ * driver metrics being enabled. The percentile is recomputed every {@code refresh-interval}, from
+ * the samples recorded during the previous interval; as long as a node does not have {@code
+ * min-samples} samples, the optional {@code delay} option is used instead.
+ *
+ * <p><b>Budget</b>: speculative executions are limited by a token bucket. Each request adds {@code
+ * budget} tokens, and each speculative execution consumes one; no speculative execution is
+ * scheduled while the bucket is empty.
+ */
+@ThreadSafe
+public class PercentileSpeculativeExecutionPolicy
+    implements SpeculativeExecutionPolicy, RequestTracker {
+
+  /** The number of requests worth of budget that the bucket can hold. */
+  private static final int BURST_REQUESTS = 1000;
+
+  /** Tokens are stored in millionths, to be able to use an atomic long. */
+  private static final long ONE_TOKEN = 1_000_000;
+
+  private final DriverContext context;
+  private final String logPrefix;
+  private final int maxExecutions;
+  private final double quantile;
+  private final int minSamples;
+  private final long fallbackDelayMillis;
+  private final Duration highestLatency;
+  private final int significantDigits;
+  private final Duration refreshInterval;
+  private final long refillTokens;
+  private final long maxTokens;
+  private final AtomicLong tokens;
+  private final Object nodeStateListenerKey;
+
+  protected final Map<Node, HdrReservoir> latencies = new ConcurrentHashMap<>();
+
+  public PercentileSpeculativeExecutionPolicy(
+      @NonNull DriverContext context, @NonNull String profileName) {
+    this.context = context;
+    this.logPrefix = context.getSessionName() + "|" + profileName;
+    DriverExecutionProfile config = context.getConfig().getProfile(profileName);
+
+    this.maxExecutions = config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX);
+    if (this.maxExecutions < 1) {
+      throw new IllegalArgumentException("Max must be at least 1");
+    }
+    double percentile =
+        config.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, 99.0);
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in the range ]0, 100]");
+    }
+    this.quantile = percentile / 100;
+    double budget = config.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_BUDGET, 0.05);
+    if (budget < 0) {
+      throw new IllegalArgumentException("Budget must be positive or 0");
+    }
+    this.minSamples = config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES, 100);
+    if (this.minSamples < 0) {
+      throw new IllegalArgumentException("Min samples must be positive or 0");
+    }
+    Duration delay = config.getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY, null);
+    if (delay != null && delay.isNegative()) {
+      throw new IllegalArgumentException("Delay must be positive or 0");
+    }
+    this.fallbackDelayMillis = (delay == null) ? -1 : delay.toMillis();
+    this.refreshInterval =
+        config.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, Duration.ofSeconds(10));
+    if (this.refreshInterval.isNegative() || this.refreshInterval.isZero()) {
+      throw new IllegalArgumentException("Refresh interval must be strictly positive");
+    }
+    this.highestLatency = config.getDuration(DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_HIGHEST);
+    this.significantDigits = config.getInt(DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_DIGITS);
+
+    this.refillTokens = Math.round(budget * ONE_TOKEN);
+    this.maxTokens = Math.max(ONE_TOKEN, refillTokens * BURST_REQUESTS);
+    this.tokens = new AtomicLong(maxTokens);
+
+    ((MultiplexingRequestTracker) context.getRequestTracker()).register(this);
+    this.nodeStateListenerKey =
+        ((InternalDriverContext) context)
+            .getEventBus()
+            .register(NodeStateEvent.class, this::onNodeStateEvent);
+  }
+
+  @Override
+  public long nextExecution(
+      @NonNull Node node,
+      @Nullable CqlIdentifier keyspace,
+      @NonNull Request request,
+      int runningExecutions) {
+    assert runningExecutions >= 1;
+    if (runningExecutions == 1) {
+      // A new request starts
+      refill();
+    } else {
+      // The driver asks again each time that an execution starts, so we know that a speculative
+      // execution was just sent.
+      tokens.addAndGet(-ONE_TOKEN);
+    }
+    if (runningExecutions >= maxExecutions || tokens.get() < ONE_TOKEN) {
+      return -1;
+    }
+    return computeDelay(node);
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    // Profiles that don't define their own policy share the default profile's instance
+    if (latencyNanos >= 0
+        && context.getSpeculativeExecutionPolicy(executionProfile.getName()) == this) {
+      latencies
+          .computeIfAbsent(
+              node,
+              n ->
+                  new HdrReservoir(
+                      highestLatency, significantDigits, refreshInterval, this.logPrefix))
+          .update(latencyNanos);
+    }
+  }
+
+  @Override
+  public void close() {
+    ((InternalDriverContext) context)
+        .getEventBus()
+        .unregister(nodeStateListenerKey, NodeStateEvent.class);
+  }
+
+  /**
+   * @return the delay before the next execution in milliseconds, or -1 if there is not enough data
+   *     for this node and no fallback delay.
+   */
+  protected long computeDelay(@NonNull Node node) {
+    HdrReservoir reservoir = latencies.get(node);
+    if (reservoir != null) {
+      Snapshot snapshot = reservoir.getSnapshot();
+      if (snapshot.size() > 0 && snapshot.size() >= minSamples) {
+        double nanos = snapshot.getValue(quantile);
+        // Round up, a delay of 0 would send all executions at once
+        return (long) Math.ceil(nanos / TimeUnit.MILLISECONDS.toNanos(1));
+      }
+    }
+    return fallbackDelayMillis;
+  }
+
+  private void refill() {
+    while (true) {
+      long current = tokens.get();
+      if (current >= maxTokens || tokens.compareAndSet(current, current + refillTokens)) {
+        return;
+      }
+    }
+  }
+
+  private void onNodeStateEvent(NodeStateEvent event) {
+    if (event.newState == null) {
+      latencies.remove(event.node);
+    }
+  }
+}
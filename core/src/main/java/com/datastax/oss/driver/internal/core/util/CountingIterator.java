@@ -109,6 +109,14 @@ public abstract class CountingIterator<ElementT> implements Iterator<ElementT> {
     return result;
   }
 
+  /**
+   * Whether the next element was already computed by {@link #hasNext()} or {@link #peek()}, but not
+   * returned by {@link #next()} yet.
+   */
+  protected final boolean isNextComputed() {
+    return state == State.READY;
+  }
+
   public final ElementT peek() {
     if (!hasNext()) {
       throw new NoSuchElementException();
@@ -36,6 +36,8 @@ public enum DependencyCheck {
       "com.fasterxml.jackson.core.JsonParser",
       // jackson-databind
       "com.fasterxml.jackson.databind.ObjectMapper"),
+  NETTY_EPOLL("io.netty.channel.epoll.Epoll"),
+  NETTY_IO_URING("io.netty.incubator.channel.uring.IOUring"),
   ;
 
   /**
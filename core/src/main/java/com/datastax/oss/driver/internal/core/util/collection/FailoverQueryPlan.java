@@ -0,0 +1,126 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.collection;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A variant of {@link QueryPlan} that chains two arrays: the nodes of the plan itself, followed by
+ * a failover "tail" that is typically shared between all the plans of a load balancing policy.
+ *
+ * <p>The tail is read in a circular fashion, starting at a given offset: this allows policies to
+ * round-robin it without copying it. Neither array is ever modified by this class.
+ *
+ * <p>Like {@link QueryPlan}, the only valid mutation operation is {@link #poll()}, other methods
+ * throw.
+ */
+@ThreadSafe
+public class FailoverQueryPlan extends AbstractCollection<Node> implements Queue<Node> {
+
+  private final Object[] nodes;
+  private final Object[] tail;
+  private final int tailOffset;
+  private final AtomicInteger nextIndex = new AtomicInteger();
+
+  /**
+   * @param nodes the nodes to try first. As in {@link QueryPlan#QueryPlan(Object...)}, there is no
+   *     defensive copy.
+   * @param tail the nodes to try next. There is no defensive copy either, so this array must not be
+   *     modified afterwards.
+   * @param tailOffset the index in {@code tail} of the first node to try after {@code nodes}.
+   */
+  public FailoverQueryPlan(@NonNull Object[] nodes, @NonNull Object[] tail, int tailOffset) {
+    this.nodes = nodes;
+    this.tail = tail;
+    this.tailOffset = (tail.length == 0) ? 0 : Math.floorMod(tailOffset, tail.length);
+  }
+
+  @Nullable
+  @Override
+  public Node poll() {
+    // We don't handle overflow, see QueryPlan.
+    return get(nextIndex.getAndIncrement());
+  }
+
+  @Nullable
+  private Node get(int i) {
+    if (i < nodes.length) {
+      return (Node) nodes[i];
+    }
+    i -= nodes.length;
+    if (i < tail.length) {
+      i += tailOffset;
+      return (Node) tail[(i >= tail.length) ? i - tail.length : i];
+    }
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned iterator reflects the state of the queue at the time of the call, and is not
+   * affected by further modifications.
+   */
+  @NonNull
+  @Override
+  public Iterator<Node> iterator() {
+    int start = nextIndex.get();
+    int end = nodes.length + tail.length;
+    if (start >= end) {
+      return Collections.<Node>emptyList().iterator();
+    } else {
+      Node[] remaining = new Node[end - start];
+      for (int i = start; i < end; i++) {
+        remaining[i - start] = get(i);
+      }
+      return Iterators.forArray(remaining);
+    }
+  }
+
+  @Override
+  public int size() {
+    return Math.max(nodes.length + tail.length - nextIndex.get(), 0);
+  }
+
+  @Override
+  public boolean offer(Node node) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node remove() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node element() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node peek() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.concurrent;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A timer that spreads its timeouts over several {@link HashedWheelTimer} instances, each with its
+ * own worker thread.
+ *
+ * <p>A single wheel timer funnels every request timeout and speculative execution of the process
+ * through one queue and one worker thread; at high request rates, that thread becomes a bottleneck,
+ * and client threads contend on the queue. With this implementation, each new timeout is assigned
+ * to a random shard, which divides both the contention and the work by the number of shards.
+ * Cancellations are still batched by each shard, and processed on its next tick.
+ *
+ * <p>Note that {@link Timeout#timer()} returns the shard that the timeout was scheduled on, not
+ * this object.
+ */
+@ThreadSafe
+public class ShardedTimer implements Timer {
+
+  private final HashedWheelTimer[] shards;
+
+  public ShardedTimer(
+      int shardCount,
+      ThreadFactory threadFactory,
+      long tickDuration,
+      TimeUnit unit,
+      int ticksPerWheel) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("shardCount must be at least 1, got " + shardCount);
+    }
+    this.shards = new HashedWheelTimer[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new HashedWheelTimer(threadFactory, tickDuration, unit, ticksPerWheel);
+    }
+  }
+
+  @Override
+  public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+    HashedWheelTimer shard =
+        (shards.length == 1)
+            ? shards[0]
+            : shards[ThreadLocalRandom.current().nextInt(shards.length)];
+    return shard.newTimeout(task, delay, unit);
+  }
+
+  @Override
+  public Set<Timeout> stop() {
+    Set<Timeout> unprocessed = new HashSet<>();
+    for (HashedWheelTimer shard : shards) {
+      unprocessed.addAll(shard.stop());
+    }
+    return unprocessed;
+  }
+
+  /** The number of timeouts that are currently scheduled, across all shards. */
+  public long getPendingTimeouts() {
+    long result = 0;
+    for (HashedWheelTimer shard : shards) {
+      result += shard.pendingTimeouts();
+    }
+    return result;
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.data.ValuesHelper;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class BoundStatementBuilderTest {
+
+  @Mock private PreparedStatement preparedStatement;
+  private ColumnDefinitions variableDefinitions;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    variableDefinitions =
+        DefaultColumnDefinitions.valueOf(
+            ImmutableList.of(
+                columnDefinition("c1", ProtocolConstants.DataType.INT),
+                columnDefinition("c2", ProtocolConstants.DataType.VARCHAR)));
+    when(preparedStatement.getVariableDefinitions()).thenReturn(variableDefinitions);
+  }
+
+  @Test
+  public void should_not_affect_built_statement_when_reused() {
+    BoundStatementBuilder builder = newBuilder();
+
+    BoundStatement statement1 = builder.setInt(0, 1).setString(1, "a").build();
+    BoundStatement statement2 = builder.setInt(0, 2).build();
+
+    assertThat(statement1.getInt(0)).isEqualTo(1);
+    assertThat(statement1.getString(1)).isEqualTo("a");
+    assertThat(statement2.getInt(0)).isEqualTo(2);
+    assertThat(statement2.getString(1)).isEqualTo("a");
+  }
+
+  @Test
+  public void should_unset_all_values() {
+    BoundStatementBuilder builder = newBuilder();
+    BoundStatement statement1 = builder.setInt(0, 1).setString(1, "a").build();
+
+    BoundStatement statement2 = builder.unsetAll().setInt(0, 2).build();
+
+    assertThat(statement2.getInt(0)).isEqualTo(2);
+    assertThat(statement2.isSet(1)).isFalse();
+    assertThat(statement1.isSet(1)).isTrue();
+    assertThat(statement1.getInt(0)).isEqualTo(1);
+  }
+
+  @Test
+  public void should_unset_all_values_before_first_build() {
+    BoundStatementBuilder builder = newBuilder().setInt(0, 1).setString(1, "a");
+
+    BoundStatement statement = builder.unsetAll().build();
+
+    assertThat(statement.isSet(0)).isFalse();
+    assertThat(statement.isSet(1)).isFalse();
+  }
+
+  private BoundStatementBuilder newBuilder() {
+    return new BoundStatementBuilder(
+        preparedStatement,
+        variableDefinitions,
+        ValuesHelper.encodePreparedValues(
+            new Object[0], variableDefinitions, CodecRegistry.DEFAULT, DefaultProtocolVersion.V4),
+        null,
+        null,
+        null,
+        null,
+        null,
+        Collections.emptyMap(),
+        null,
+        false,
+        Statement.NO_DEFAULT_TIMESTAMP,
+        null,
+        Integer.MIN_VALUE,
+        null,
+        null,
+        null,
+        CodecRegistry.DEFAULT,
+        DefaultProtocolVersion.V4);
+  }
+
+  private static ColumnDefinition columnDefinition(String name, int typeCode) {
+    return new DefaultColumnDefinition(
+        new ColumnSpec("ks", "table", name, -1, RawType.PRIMITIVES.get(typeCode)),
+        AttachmentPoint.NONE);
+  }
+}
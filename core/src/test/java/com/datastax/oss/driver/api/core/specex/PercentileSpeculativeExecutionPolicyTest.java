@@ -0,0 +1,220 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.specex;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.context.EventBus;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.specex.PercentileSpeculativeExecutionPolicy;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PercentileSpeculativeExecutionPolicyTest {
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private DriverExecutionProfile otherProfile;
+  @Mock private SpeculativeExecutionPolicy otherPolicy;
+  @Mock private Request request;
+  @Mock private DefaultNode node1;
+  @Mock private DefaultNode node2;
+
+  private EventBus eventBus;
+
+  @Before
+  public void setup() {
+    eventBus = new EventBus("test");
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(context.getEventBus()).thenReturn(eventBus);
+    when(context.getRequestTracker()).thenReturn(new MultiplexingRequestTracker());
+    when(config.getProfile(DriverExecutionProfile.DEFAULT_NAME)).thenReturn(defaultProfile);
+    when(defaultProfile.getName()).thenReturn(DriverExecutionProfile.DEFAULT_NAME);
+    when(otherProfile.getName()).thenReturn("other");
+
+    when(defaultProfile.getDuration(DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_HIGHEST))
+        .thenReturn(Duration.ofSeconds(3));
+    when(defaultProfile.getInt(DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_DIGITS)).thenReturn(3);
+    // Recompute on every call, so that the percentile reflects the samples recorded in each test
+    when(defaultProfile.getDuration(
+            eq(DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL), any()))
+        .thenReturn(Duration.ofNanos(1));
+  }
+
+  private void mockOptions(
+      int maxExecutions, double percentile, double budget, int minSamples, Duration delay) {
+    when(defaultProfile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX))
+        .thenReturn(maxExecutions);
+    when(defaultProfile.getDouble(
+            eq(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE), anyDouble()))
+        .thenReturn(percentile);
+    when(defaultProfile.getDouble(
+            eq(DefaultDriverOption.SPECULATIVE_EXECUTION_BUDGET), anyDouble()))
+        .thenReturn(budget);
+    when(defaultProfile.getInt(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES), anyInt()))
+        .thenReturn(minSamples);
+    when(defaultProfile.getDuration(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY), any()))
+        .thenReturn(delay);
+  }
+
+  private PercentileSpeculativeExecutionPolicy newPolicy() {
+    PercentileSpeculativeExecutionPolicy policy =
+        new PercentileSpeculativeExecutionPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+    when(context.getSpeculativeExecutionPolicy(DriverExecutionProfile.DEFAULT_NAME))
+        .thenReturn(policy);
+    when(context.getSpeculativeExecutionPolicy("other")).thenReturn(otherPolicy);
+    return policy;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_max_less_than_one() {
+    mockOptions(0, 99, 0.05, 100, null);
+    newPolicy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_percentile_out_of_range() {
+    mockOptions(2, 120, 0.05, 100, null);
+    newPolicy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_budget_negative() {
+    mockOptions(2, 99, -1, 100, null);
+    newPolicy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_refresh_interval_zero() {
+    mockOptions(2, 99, 0.05, 100, null);
+    when(defaultProfile.getDuration(
+            eq(DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL), any()))
+        .thenReturn(Duration.ZERO);
+    newPolicy();
+  }
+
+  @Test
+  public void should_use_fallback_delay_until_enough_samples() {
+    mockOptions(2, 90, 0.05, 10, Duration.ofMillis(100));
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+    recordLatencies(policy, node1, defaultProfile, 5);
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+  }
+
+  @Test
+  public void should_not_speculate_until_enough_samples_if_no_fallback_delay() {
+    mockOptions(2, 90, 0.05, 10, null);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isNegative();
+  }
+
+  @Test
+  public void should_use_percentile_of_node() {
+    mockOptions(2, 90, 0.05, 10, null);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    // 1 to 100 ms => p90 is 90 ms
+    recordLatencies(policy, node1, defaultProfile, 100);
+    for (int i = 0; i < 100; i++) {
+      policy.onNodeSuccess(request, 1_000_000, defaultProfile, node2, "test");
+    }
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isBetween(90L, 91L);
+    assertThat(policy.nextExecution(node2, null, request, 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void should_ignore_samples_from_profiles_that_use_another_policy() {
+    mockOptions(2, 90, 0.05, 10, Duration.ofMillis(100));
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    recordLatencies(policy, node1, otherProfile, 100);
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+  }
+
+  @Test
+  public void should_stop_at_max_executions() {
+    mockOptions(2, 90, 0.05, 10, Duration.ofMillis(100));
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+    assertThat(policy.nextExecution(node2, null, request, 2)).isNegative();
+  }
+
+  @Test
+  public void should_enforce_budget() {
+    // The bucket holds 1000 * 0.01 = 10 tokens
+    mockOptions(2, 90, 0.01, 10, Duration.ofMillis(100));
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    // Every request gets a speculative execution: the initial tokens are spent first
+    for (int i = 0; i < 10; i++) {
+      assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+      policy.nextExecution(node2, null, request, 2);
+    }
+    // Then we need to accumulate enough tokens again (0.09 left, each request adds 0.01)
+    for (int i = 0; i < 90; i++) {
+      assertThat(policy.nextExecution(node1, null, request, 1)).isNegative();
+    }
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+    policy.nextExecution(node2, null, request, 2);
+    assertThat(policy.nextExecution(node1, null, request, 1)).isNegative();
+  }
+
+  @Test
+  public void should_forget_removed_node() {
+    mockOptions(2, 90, 0.05, 10, Duration.ofMillis(100));
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+    recordLatencies(policy, node1, defaultProfile, 100);
+
+    eventBus.fire(NodeStateEvent.removed(node1));
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(100);
+  }
+
+  private void recordLatencies(
+      PercentileSpeculativeExecutionPolicy policy,
+      DefaultNode node,
+      DriverExecutionProfile profile,
+      int count) {
+    for (int i = 1; i <= count; i++) {
+      policy.onNodeSuccess(request, i * 1_000_000L, profile, node, "test");
+    }
+  }
+}
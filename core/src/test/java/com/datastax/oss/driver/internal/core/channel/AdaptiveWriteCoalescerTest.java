@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AdaptiveWriteCoalescerTest {
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+
+  private EmbeddedChannel channel;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(context.getConfig()).thenReturn(config);
+    when(context.getSessionName()).thenReturn("test");
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getDuration(DefaultDriverOption.COALESCER_INTERVAL))
+        .thenReturn(Duration.ofNanos(10_000));
+    when(defaultProfile.getBytes(DefaultDriverOption.COALESCER_MAX_BATCH_BYTES)).thenReturn(1000L);
+    channel = new EmbeddedChannel();
+  }
+
+  @After
+  public void teardown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void should_flush_when_byte_threshold_is_reached() {
+    AdaptiveWriteCoalescer coalescer = newCoalescer(Duration.ofHours(1));
+
+    // Note that Netty adds a fixed overhead to the size of each pending message
+    ChannelFuture future1 = coalescer.writeAndFlush(channel, buffer(400));
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).isEmpty();
+    assertThat(future1.isDone()).isFalse();
+
+    ChannelFuture future2 = coalescer.writeAndFlush(channel, buffer(700));
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).hasSize(2);
+    assertThat(future1.isSuccess()).isTrue();
+    assertThat(future2.isSuccess()).isTrue();
+
+    AdaptiveWriteCoalescer.Statistics statistics =
+        coalescer.getStatistics().get(channel.eventLoop());
+    assertThat(statistics.getWrites()).isEqualTo(2);
+    assertThat(statistics.getFlushes()).isEqualTo(1);
+    assertThat(statistics.getBytesPerFlush()).isGreaterThanOrEqualTo(1100.0);
+    assertThat(statistics.getWritesPerFlush()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void should_flush_at_end_of_run_if_no_delay() {
+    AdaptiveWriteCoalescer coalescer = newCoalescer(Duration.ZERO);
+
+    ChannelFuture future1 = coalescer.writeAndFlush(channel, buffer(1));
+    ChannelFuture future2 = coalescer.writeAndFlush(channel, buffer(1));
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).hasSize(2);
+    assertThat(future1.isSuccess()).isTrue();
+    assertThat(future2.isSuccess()).isTrue();
+
+    AdaptiveWriteCoalescer.Statistics statistics =
+        coalescer.getStatistics().get(channel.eventLoop());
+    assertThat(statistics.getFlushes()).isEqualTo(1);
+    assertThat(statistics.getWritesPerFlush()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void should_flush_when_deadline_expires() throws InterruptedException {
+    AdaptiveWriteCoalescer coalescer = newCoalescer(Duration.ofMillis(50));
+
+    ChannelFuture future = coalescer.writeAndFlush(channel, buffer(1));
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).isEmpty();
+
+    Thread.sleep(100);
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).hasSize(1);
+    assertThat(future.isSuccess()).isTrue();
+  }
+
+  private AdaptiveWriteCoalescer newCoalescer(Duration maxDelay) {
+    when(defaultProfile.getDuration(DefaultDriverOption.COALESCER_MAX_DELAY)).thenReturn(maxDelay);
+    return new AdaptiveWriteCoalescer(context);
+  }
+
+  private static ByteBuf buffer(int size) {
+    return Unpooled.wrappedBuffer(new byte[size]);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.connection.BusyConnectionException;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.request.Query;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class EncodingWriteCoalescerTest extends ChannelHandlerTestBase {
+  private static final Query QUERY = new Query("select * from foo");
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private StreamIdGenerator streamIds;
+
+  private FrameCodec<ByteBuf> frameCodec;
+  private EncodingWriteCoalescer coalescer;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    MockitoAnnotations.initMocks(this);
+    frameCodec =
+        FrameCodec.defaultClient(
+            new ByteBufPrimitiveCodec(UnpooledByteBufAllocator.DEFAULT), Compressor.none());
+    when(context.getConfig()).thenReturn(config);
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getFrameCodec()).thenReturn(frameCodec);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getDuration(DefaultDriverOption.COALESCER_INTERVAL))
+        .thenReturn(Duration.ofNanos(10_000));
+    when(defaultProfile.getBytes(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH))
+        .thenReturn(256L * 1024 * 1024);
+    when(streamIds.preAcquire()).thenReturn(true);
+
+    channel
+        .pipeline()
+        .addLast(
+            new InFlightHandler(
+                DefaultProtocolVersion.V4, streamIds, 10, 100, channel.newPromise(), null, "test"));
+    channel.attr(DriverChannel.PROTOCOL_VERSION_KEY).set(DefaultProtocolVersion.V4);
+    coalescer = new EncodingWriteCoalescer(context);
+  }
+
+  @Test
+  public void should_encode_frame_and_fill_in_stream_id() {
+    when(streamIds.acquire()).thenReturn(42);
+
+    ChannelFuture writeFuture =
+        coalescer.writeAndFlush(
+            channel,
+            new DriverChannel.RequestMessage(
+                QUERY, false, Frame.NO_PAYLOAD, new MockResponseCallback()));
+    channel.runPendingTasks();
+
+    assertThat(writeFuture).isSuccess();
+    Object o = channel.readOutbound();
+    assertThat(o).isInstanceOf(ByteBuf.class);
+    ByteBuf buffer = (ByteBuf) o;
+    Frame frame =
+        FrameCodec.defaultServer(
+                new ByteBufPrimitiveCodec(UnpooledByteBufAllocator.DEFAULT), Compressor.none())
+            .decode(buffer);
+    buffer.release();
+    assertThat(frame.protocolVersion).isEqualTo(DefaultProtocolVersion.V4.getCode());
+    assertThat(frame.streamId).isEqualTo(42);
+    assertThat(frame.message).isInstanceOf(Query.class);
+    assertThat(((Query) frame.message).query).isEqualTo(QUERY.query);
+  }
+
+  @Test
+  public void should_release_encoded_frame_if_write_fails() {
+    when(streamIds.acquire()).thenReturn(-1);
+    DriverChannel.RequestMessage message =
+        new DriverChannel.RequestMessage(
+            QUERY, false, Frame.NO_PAYLOAD, new MockResponseCallback());
+    DriverChannel.EncodedRequestMessage encoded =
+        new DriverChannel.EncodedRequestMessage(
+            message,
+            frameCodec.encode(
+                Frame.forRequest(
+                    DefaultProtocolVersion.V4.getCode(), 0, false, Frame.NO_PAYLOAD, QUERY)));
+
+    ChannelFuture writeFuture = coalescer.writeAndFlush(channel, encoded);
+    channel.runPendingTasks();
+
+    assertThat(writeFuture)
+        .isFailed(e -> assertThat(e).isInstanceOf(BusyConnectionException.class));
+    assertThat(encoded.refCnt()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_not_encode_if_protocol_version_unknown() {
+    when(streamIds.acquire()).thenReturn(1);
+    channel.attr(DriverChannel.PROTOCOL_VERSION_KEY).set(null);
+
+    ChannelFuture writeFuture =
+        coalescer.writeAndFlush(
+            channel,
+            new DriverChannel.RequestMessage(
+                QUERY, false, Frame.NO_PAYLOAD, new MockResponseCallback()));
+
+    assertThat(writeFuture).isNotDone();
+    // No encoder in the pipeline, so we get the frame that InFlightHandler built
+    assertThat(readOutboundFrame().streamId).isEqualTo(1);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class FreeListStreamIdGeneratorTest {
+
+  @Test
+  public void should_have_all_available_upon_creation() {
+    StreamIdGenerator generator = new FreeListStreamIdGenerator(8);
+    assertThat(generator.getAvailableIds()).isEqualTo(8);
+  }
+
+  @Test
+  public void should_return_available_ids_in_sequence() {
+    StreamIdGenerator generator = new FreeListStreamIdGenerator(8);
+    for (int i = 0; i < 8; i++) {
+      assertThat(generator.preAcquire()).isTrue();
+      assertThat(generator.acquire()).isEqualTo(i);
+      assertThat(generator.getAvailableIds()).isEqualTo(7 - i);
+    }
+    assertThat(generator.preAcquire()).isFalse();
+  }
+
+  @Test
+  public void should_return_most_recently_released_ids_first() {
+    StreamIdGenerator generator = new FreeListStreamIdGenerator(8);
+    for (int i = 0; i < 8; i++) {
+      assertThat(generator.preAcquire()).isTrue();
+      assertThat(generator.acquire()).isEqualTo(i);
+    }
+    generator.release(7);
+    generator.release(2);
+    assertThat(generator.getAvailableIds()).isEqualTo(2);
+    assertThat(generator.preAcquire()).isTrue();
+    assertThat(generator.acquire()).isEqualTo(2);
+    assertThat(generator.preAcquire()).isTrue();
+    assertThat(generator.acquire()).isEqualTo(7);
+    assertThat(generator.preAcquire()).isFalse();
+  }
+
+  @Test
+  public void should_fail_to_release_id_that_was_not_borrowed() {
+    StreamIdGenerator generator = new FreeListStreamIdGenerator(8);
+    assertThat(generator.preAcquire()).isTrue();
+    int id = generator.acquire();
+    generator.release(id);
+    assertThatThrownBy(() -> generator.release(id)).isInstanceOf(IllegalStateException.class);
+    assertThat(generator.getAvailableIds()).isEqualTo(8);
+  }
+
+  @Test
+  public void should_never_hand_out_the_same_id_twice() {
+    int max = 32767;
+    StreamIdGenerator generator = new FreeListStreamIdGenerator(max);
+    Random random = new Random(0);
+    Set<Integer> borrowed = new HashSet<>();
+    List<Integer> borrowedList = new ArrayList<>();
+    for (int i = 0; i < 200_000; i++) {
+      if (borrowedList.isEmpty() || (random.nextBoolean() && generator.preAcquire())) {
+        if (borrowedList.isEmpty()) {
+          assertThat(generator.preAcquire()).isTrue();
+        }
+        int id = generator.acquire();
+        assertThat(id).isBetween(0, max - 1);
+        assertThat(borrowed.add(id)).isTrue();
+        borrowedList.add(id);
+      } else {
+        int index = random.nextInt(borrowedList.size());
+        int id = borrowedList.get(index);
+        borrowedList.set(index, borrowedList.get(borrowedList.size() - 1));
+        borrowedList.remove(borrowedList.size() - 1);
+        borrowed.remove(id);
+        generator.release(id);
+      }
+      assertThat(generator.getAvailableIds()).isEqualTo(max - borrowed.size());
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(DataProviderRunner.class)
+public class NettyTransportTest {
+
+  @Test
+  @DataProvider({"NIO", "nio"})
+  public void should_resolve_nio(String configValue) {
+    assertThat(NettyTransport.resolve(configValue, "test")).isEqualTo(NettyTransport.NIO);
+  }
+
+  @Test
+  public void should_default_to_nio_if_undefined() {
+    assertThat(NettyTransport.resolve(null, "test")).isEqualTo(NettyTransport.NIO);
+  }
+
+  @Test
+  @DataProvider({"EPOLL", "IO_URING", "AUTO"})
+  public void should_fall_back_to_nio_if_native_transport_not_available(String configValue) {
+    // native transports are not on the test classpath
+    assertThat(NettyTransport.EPOLL.isAvailable()).isFalse();
+    assertThat(NettyTransport.IO_URING.isAvailable()).isFalse();
+
+    NettyTransport transport = NettyTransport.resolve(configValue, "test");
+    assertThat(transport).isEqualTo(NettyTransport.NIO);
+    assertThat(transport.channelClass()).isEqualTo(NioSocketChannel.class);
+  }
+
+  @Test
+  public void should_fail_on_unknown_transport() {
+    assertThatThrownBy(() -> NettyTransport.resolve("KQUEUE_OR_WHATEVER", "test"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unknown Netty transport");
+  }
+}
@@ -21,10 +21,12 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.channel.DriverChannelOptions;
 import com.datastax.oss.driver.internal.core.channel.EventCallback;
 import com.datastax.oss.driver.internal.core.metadata.TopologyEvent;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
 import com.datastax.oss.protocol.internal.response.event.SchemaChangeEvent;
@@ -150,6 +152,38 @@ public class ControlConnectionEventsTest extends ControlConnectionTestBase {
     callback.onEvent(event);
 
     // Then
-    verify(metadataManager).refreshSchema("ks", false, false);
+    verify(metadataManager).refreshSchema("ks", null, false, false);
+  }
+
+  @Test
+  public void should_process_table_schema_change_events_as_targeted_refreshes() {
+    // Given
+    DriverChannel channel1 = newMockDriverChannel(1);
+    ArgumentCaptor<DriverChannelOptions> optionsCaptor =
+        ArgumentCaptor.forClass(DriverChannelOptions.class);
+    when(channelFactory.connect(eq(node1), optionsCaptor.capture()))
+        .thenReturn(CompletableFuture.completedFuture(channel1));
+    controlConnection.init(false, false, false);
+    await().until(() -> optionsCaptor.getValue() != null);
+    EventCallback callback = optionsCaptor.getValue().eventCallback;
+    SchemaChangeEvent event =
+        new SchemaChangeEvent(
+            ProtocolConstants.SchemaChangeType.UPDATED,
+            ProtocolConstants.SchemaChangeTarget.TABLE,
+            "ks",
+            "tbl",
+            ImmutableList.of());
+
+    // When
+    callback.onEvent(event);
+
+    // Then
+    verify(metadataManager)
+        .refreshSchema(
+            "ks",
+            SchemaRefreshTarget.forTable(
+                CqlIdentifier.fromInternal("ks"), CqlIdentifier.fromInternal("tbl")),
+            false,
+            false);
   }
 }
@@ -124,6 +124,8 @@ abstract class ControlConnectionTestBase {
     when(metadataManager.refreshNodes()).thenReturn(CompletableFuture.completedFuture(null));
     when(metadataManager.refreshSchema(anyString(), anyBoolean(), anyBoolean()))
         .thenReturn(CompletableFuture.completedFuture(null));
+    when(metadataManager.refreshSchema(anyString(), any(), anyBoolean(), anyBoolean()))
+        .thenReturn(CompletableFuture.completedFuture(null));
     when(context.getMetadataManager()).thenReturn(metadataManager);
 
     when(context.getConfig()).thenReturn(config);
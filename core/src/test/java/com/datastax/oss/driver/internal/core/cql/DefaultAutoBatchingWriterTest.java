@@ -0,0 +1,255 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.AutoBatchingWriter;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.context.NettyOptions;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import io.netty.channel.DefaultEventLoopGroup;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DefaultAutoBatchingWriterTest {
+
+  private static final ByteBuffer KEY1 = ByteBuffer.wrap(new byte[] {1});
+  private static final ByteBuffer KEY2 = ByteBuffer.wrap(new byte[] {2});
+  private static final ByteBuffer KEY3 = ByteBuffer.wrap(new byte[] {3});
+
+  @Mock private CqlSession session;
+  @Mock private InternalDriverContext context;
+  @Mock private NettyOptions nettyOptions;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+  @Mock private AsyncResultSet resultSet;
+  @Mock private Node node1, node2;
+
+  private DefaultEventLoopGroup adminEventLoopGroup;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    adminEventLoopGroup = new DefaultEventLoopGroup(1);
+    when(nettyOptions.adminEventExecutorGroup()).thenReturn(adminEventLoopGroup);
+    when(context.getNettyOptions()).thenReturn(nettyOptions);
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getInt(DefaultDriverOption.AUTO_BATCHING_MAX_STATEMENTS)).thenReturn(3);
+    when(defaultProfile.getDuration(DefaultDriverOption.AUTO_BATCHING_MAX_DELAY))
+        .thenReturn(Duration.ofHours(1));
+    when(defaultProfile.getString(DefaultDriverOption.AUTO_BATCHING_GROUPING))
+        .thenReturn("PARTITION");
+
+    when(session.getContext()).thenReturn(context);
+    when(session.getKeyspace()).thenReturn(Optional.empty());
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenAnswer(i -> Optional.of(tokenMap));
+    when(session.executeAsync(any(Statement.class)))
+        .thenReturn(CompletableFuture.completedFuture(resultSet));
+  }
+
+  @After
+  public void teardown() {
+    adminEventLoopGroup.shutdownGracefully(100, 200, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void should_send_batch_when_group_is_full() {
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+
+    CompletionStage<AsyncResultSet> future1 = writer.addAsync(insert(KEY1));
+    CompletionStage<AsyncResultSet> future2 = writer.addAsync(insert(KEY2));
+    CompletionStage<AsyncResultSet> future3 = writer.addAsync(insert(KEY1));
+    assertThatStage(future1).isNotDone();
+    assertThatStage(future3).isNotDone();
+
+    CompletionStage<AsyncResultSet> future4 = writer.addAsync(insert(KEY1));
+
+    List<Statement<?>> executed = captureExecuted(1);
+    assertThat(executed.get(0)).isInstanceOf(BatchStatement.class);
+    BatchStatement batch = (BatchStatement) executed.get(0);
+    assertThat(batch.getBatchType()).isEqualTo(DefaultBatchType.UNLOGGED);
+    assertThat(batch.size()).isEqualTo(3);
+    assertThatStage(future1).isSuccess(rs -> assertThat(rs).isSameAs(resultSet));
+    assertThatStage(future3).isSuccess(rs -> assertThat(rs).isSameAs(resultSet));
+    assertThatStage(future4).isSuccess(rs -> assertThat(rs).isSameAs(resultSet));
+    assertThatStage(future2).isNotDone();
+  }
+
+  @Test
+  public void should_send_pending_statements_on_flush() {
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+    CompletionStage<AsyncResultSet> future1 = writer.addAsync(insert(KEY1));
+    CompletionStage<AsyncResultSet> future2 = writer.addAsync(insert(KEY1));
+    CompletionStage<AsyncResultSet> future3 = writer.addAsync(insert(KEY2));
+
+    CompletionStage<Void> flushed = writer.flushAsync();
+
+    assertThatStage(flushed).isSuccess();
+    List<Statement<?>> executed = captureExecuted(2);
+    // The lone statement is sent as-is
+    assertThat(executed)
+        .anySatisfy(statement -> assertThat(statement).isInstanceOf(BatchStatement.class))
+        .anySatisfy(statement -> assertThat(statement).isInstanceOf(SimpleStatement.class));
+    assertThatStage(future1).isSuccess();
+    assertThatStage(future2).isSuccess();
+    assertThatStage(future3).isSuccess();
+  }
+
+  @Test
+  public void should_send_pending_statements_when_delay_expires() {
+    when(defaultProfile.getDuration(DefaultDriverOption.AUTO_BATCHING_MAX_DELAY))
+        .thenReturn(Duration.ofMillis(50));
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+
+    CompletionStage<AsyncResultSet> future = writer.addAsync(insert(KEY1));
+
+    verify(session, timeout(500)).executeAsync(any(Statement.class));
+    assertThatStage(future).isSuccess();
+  }
+
+  @Test
+  public void should_execute_immediately_if_no_routing_information() {
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+
+    CompletionStage<AsyncResultSet> future =
+        writer.addAsync(SimpleStatement.newInstance("INSERT INTO foo (k) VALUES (1)"));
+
+    assertThatStage(future).isSuccess();
+    verify(session).executeAsync(any(Statement.class));
+  }
+
+  @Test
+  public void should_group_by_replica_set() {
+    when(defaultProfile.getString(DefaultDriverOption.AUTO_BATCHING_GROUPING))
+        .thenReturn("REPLICA_SET");
+    when(tokenMap.getReplicas(any(CqlIdentifier.class), any(ByteBuffer.class)))
+        .thenAnswer(
+            invocation ->
+                invocation.getArgument(1).equals(KEY3)
+                    ? ImmutableSet.of(node2)
+                    : ImmutableSet.of(node1, node2));
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+
+    writer.addAsync(insert(KEY1));
+    writer.addAsync(insert(KEY3));
+    writer.addAsync(insert(KEY2));
+    writer.addAsync(insert(KEY1));
+
+    List<Statement<?>> executed = captureExecuted(1);
+    assertThat(((BatchStatement) executed.get(0)).size()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_propagate_failure_to_all_statements_of_batch() {
+    when(session.executeAsync(any(Statement.class)))
+        .thenReturn(CompletableFutures.failedFuture(new IllegalArgumentException("mock error")));
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+
+    CompletionStage<AsyncResultSet> future1 = writer.addAsync(insert(KEY1));
+    CompletionStage<AsyncResultSet> future2 = writer.addAsync(insert(KEY1));
+    writer.flushAsync();
+
+    assertThatStage(future1).isFailed(e -> assertThat(e).hasMessage("mock error"));
+    assertThatStage(future2).isFailed(e -> assertThat(e).hasMessage("mock error"));
+  }
+
+  @Test
+  public void should_flush_on_close_and_reject_new_statements() {
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+    CompletionStage<AsyncResultSet> future = writer.addAsync(insert(KEY1));
+
+    CompletionStage<Void> closed = writer.closeAsync();
+
+    assertThatStage(closed).isSuccess();
+    assertThatStage(future).isSuccess();
+    assertThatStage(writer.addAsync(insert(KEY1)))
+        .isFailed(e -> assertThat(e).isInstanceOf(IllegalStateException.class));
+  }
+
+  @Test
+  public void should_fail_pending_statements_on_force_close() {
+    AutoBatchingWriter writer = new DefaultAutoBatchingWriter(session);
+    CompletionStage<AsyncResultSet> future = writer.addAsync(insert(KEY1));
+
+    writer.forceCloseAsync();
+
+    assertThatStage(future).isFailed(e -> assertThat(e).isInstanceOf(IllegalStateException.class));
+    verify(session, times(0)).executeAsync(any(Statement.class));
+  }
+
+  @Test
+  public void should_fail_if_grouping_unknown() {
+    when(defaultProfile.getString(DefaultDriverOption.AUTO_BATCHING_GROUPING))
+        .thenReturn("TOKEN_RANGE");
+    assertThatThrownBy(() -> new DefaultAutoBatchingWriter(session))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("advanced.auto-batching.grouping");
+  }
+
+  private static SimpleStatement insert(ByteBuffer key) {
+    return SimpleStatement.builder("INSERT INTO foo (k, v) VALUES (?, 1)")
+        .addPositionalValue(key)
+        .setRoutingKeyspace("ks")
+        .setRoutingKey(key)
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Statement<?>> captureExecuted(int count) {
+    ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+    verify(session, times(count)).executeAsync(captor.capture());
+    return captor.getAllValues();
+  }
+}
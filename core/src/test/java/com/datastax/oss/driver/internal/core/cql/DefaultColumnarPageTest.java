@@ -0,0 +1,208 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ColumnarPage;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DefaultColumnarPageTest {
+
+  private static final ProtocolVersion V4 = DefaultProtocolVersion.V4;
+
+  @Mock private ExecutionInfo executionInfo;
+  @Mock private CqlSession session;
+  @Mock private InternalDriverContext context;
+
+  private ColumnDefinitions definitions;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(context.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT);
+    when(context.getProtocolVersion()).thenReturn(V4);
+
+    definitions =
+        DefaultColumnDefinitions.valueOf(
+            ImmutableList.of(
+                column("i", ProtocolConstants.DataType.INT),
+                column("l", ProtocolConstants.DataType.BIGINT),
+                column("d", ProtocolConstants.DataType.DOUBLE),
+                column("f", ProtocolConstants.DataType.FLOAT),
+                column("b", ProtocolConstants.DataType.BOOLEAN),
+                column("t", ProtocolConstants.DataType.VARCHAR)));
+  }
+
+  @Test
+  public void should_decode_page_into_columns() {
+    DefaultAsyncResultSet resultSet = newResultSet(row(1, 10L, 1.5, 2.5f, true, "a"), nullRow());
+
+    ColumnarPage page = resultSet.currentPageColumns();
+
+    assertThat(page.getColumnDefinitions()).isSameAs(definitions);
+    assertThat(page.getRowCount()).isEqualTo(2);
+    assertThat(page.getInts(0)).containsExactly(1, 0);
+    assertThat(page.getLongs(1)).containsExactly(10L, 0L);
+    assertThat(page.getDoubles(2)).containsExactly(1.5, 0.0);
+    assertThat(page.getFloats(3)).containsExactly(2.5f, 0.0f);
+    assertThat(page.getBooleans(4)).containsExactly(true, false);
+    assertThat(page.getString(5, 0)).isEqualTo("a");
+    for (int column = 0; column < 6; column++) {
+      assertThat(page.isNull(column, 0)).isFalse();
+      assertThat(page.isNull(column, 1)).isTrue();
+      assertThat(page.getNulls(column).cardinality()).isEqualTo(1);
+      assertThat(page.getBytesUnsafe(column, 1)).isNull();
+    }
+    assertThat(page.getString(5, 1)).isNull();
+  }
+
+  @Test
+  public void should_store_variable_length_values_contiguously() {
+    DefaultAsyncResultSet resultSet =
+        newResultSet(
+            row(1, 1L, 1.0, 1.0f, true, "hello"),
+            row(2, 2L, 2.0, 2.0f, false, ""),
+            row(3, 3L, 3.0, 3.0f, true, "world"));
+
+    ColumnarPage page = resultSet.currentPageColumns();
+
+    assertThat(page.getString(5, 0)).isEqualTo("hello");
+    assertThat(page.getString(5, 1)).isEmpty();
+    assertThat(page.isNull(5, 1)).isFalse();
+    assertThat(page.getString(5, 2)).isEqualTo("world");
+    assertThat(page.get(5, 2, TypeCodecs.TEXT)).isEqualTo("world");
+    assertThat(page.getBytesUnsafe(5, 2)).isEqualTo(TypeCodecs.TEXT.encode("world", V4));
+  }
+
+  @Test
+  public void should_reencode_primitive_values_as_bytes() {
+    DefaultAsyncResultSet resultSet = newResultSet(row(42, 1L, 1.0, 1.0f, true, "a"));
+
+    ColumnarPage page = resultSet.currentPageColumns();
+
+    assertThat(page.getBytesUnsafe(0, 0)).isEqualTo(TypeCodecs.INT.encode(42, V4));
+    assertThat(page.get(0, 0, Integer.class)).isEqualTo(42);
+  }
+
+  @Test
+  public void should_fail_if_column_has_wrong_type() {
+    ColumnarPage page = newResultSet(row(1, 1L, 1.0, 1.0f, true, "a")).currentPageColumns();
+
+    assertThatThrownBy(() -> page.getInts(1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("BIGINT");
+    assertThatThrownBy(() -> page.getLongs(5)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> page.isNull(0, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void should_only_include_rows_not_consumed_yet() {
+    DefaultAsyncResultSet resultSet =
+        newResultSet(
+            row(1, 1L, 1.0, 1.0f, true, "a"),
+            row(2, 2L, 2.0, 2.0f, true, "b"),
+            row(3, 3L, 3.0, 3.0f, true, "c"));
+    Iterator<Row> iterator = resultSet.currentPage().iterator();
+    assertThat(iterator.next().getInt(0)).isEqualTo(1);
+    // Peek at the next row without consuming it
+    assertThat(iterator.hasNext()).isTrue();
+
+    ColumnarPage page = resultSet.currentPageColumns();
+
+    assertThat(page.getInts(0)).containsExactly(2, 3);
+    assertThat(resultSet.remaining()).isEqualTo(0);
+    assertThat(iterator.hasNext()).isFalse();
+  }
+
+  @Test
+  public void should_build_from_rows() {
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>();
+    data.add(row(7, 1L, 1.0, 1.0f, true, "a"));
+    data.add(row(8, 2L, 2.0, 2.0f, false, "b"));
+    DefaultAsyncResultSet resultSet =
+        new DefaultAsyncResultSet(definitions, executionInfo, data, session, context);
+
+    // Bypass the optimized implementation, as a custom result set would do
+    ColumnarPage page =
+        DefaultColumnarPage.fromRows(definitions, resultSet.remaining(), resultSet.currentPage());
+
+    assertThat(page.getRowCount()).isEqualTo(2);
+    assertThat(page.getInts(0)).containsExactly(7, 8);
+    assertThat(page.getString(5, 1)).isEqualTo("b");
+  }
+
+  @Test
+  public void should_build_empty_page() {
+    ColumnarPage page = newResultSet().currentPageColumns();
+
+    assertThat(page.getRowCount()).isEqualTo(0);
+    assertThat(page.getInts(0)).isEmpty();
+    assertThat(DefaultColumnarPage.fromRows(definitions, 0, ImmutableList.of()).getRowCount())
+        .isEqualTo(0);
+  }
+
+  @SafeVarargs
+  private final DefaultAsyncResultSet newResultSet(List<ByteBuffer>... rows) {
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>(Arrays.asList(rows));
+    return new DefaultAsyncResultSet(definitions, executionInfo, data, session, context);
+  }
+
+  private static List<ByteBuffer> row(int i, long l, double d, float f, boolean b, String t) {
+    return Arrays.asList(
+        TypeCodecs.INT.encode(i, V4),
+        TypeCodecs.BIGINT.encode(l, V4),
+        TypeCodecs.DOUBLE.encode(d, V4),
+        TypeCodecs.FLOAT.encode(f, V4),
+        TypeCodecs.BOOLEAN.encode(b, V4),
+        TypeCodecs.TEXT.encode(t, V4));
+  }
+
+  private static List<ByteBuffer> nullRow() {
+    return Arrays.asList(null, null, null, null, null, null);
+  }
+
+  private static DefaultColumnDefinition column(String name, int typeCode) {
+    return new DefaultColumnDefinition(
+        new ColumnSpec("ks", "table", name, -1, RawType.PRIMITIVES.get(typeCode)),
+        AttachmentPoint.NONE);
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.cql.TokenRangeScanner;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.data.ValuesHelper;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultReplicationStrategyFactory;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenFactory;
+import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DefaultTokenRangeScannerTest extends ResultSetTestBase {
+
+  private static final String DC1 = "DC1";
+  private static final String DC2 = "DC2";
+  private static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+  private static final CqlIdentifier TABLE = CqlIdentifier.fromInternal("foo");
+  private static final ByteBuffer PAGING_STATE = ByteBuffer.wrap(new byte[] {1});
+
+  @Mock private CqlSession session;
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile profile;
+  @Mock private LoadBalancingPolicy loadBalancingPolicy;
+  @Mock private Metadata metadata;
+  @Mock private KeyspaceMetadata keyspaceMetadata;
+  @Mock private TableMetadata tableMetadata;
+  @Mock private ColumnMetadata partitionKey;
+
+  private List<Node> nodes;
+  private final List<BoundStatement> executed = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(session.getContext()).thenReturn(context);
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(profile);
+    when(profile.getName()).thenReturn(DriverExecutionProfile.DEFAULT_NAME);
+    when(context.getLoadBalancingPolicy(anyString())).thenReturn(loadBalancingPolicy);
+    when(profile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_DATACENTER, null))
+        .thenReturn(DC1);
+    when(profile.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE)).thenReturn(1);
+    when(profile.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_CONCURRENT_RANGES)).thenReturn(2);
+    when(profile.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_MAX_RETRIES)).thenReturn(1);
+
+    nodes =
+        ImmutableList.of(
+            mockNode(DC1, "-9000000000000000000"),
+            mockNode(DC2, "-6000000000000000000"),
+            mockNode(DC1, "4000000000000000000"),
+            mockNode(DC2, "9000000000000000000"));
+    when(keyspaceMetadata.getName()).thenReturn(KS);
+    when(keyspaceMetadata.getReplication())
+        .thenReturn(
+            ImmutableMap.of(
+                "class",
+                "org.apache.cassandra.locator.NetworkTopologyStrategy",
+                DC1,
+                "1",
+                DC2,
+                "1"));
+    DefaultTokenMap tokenMap =
+        DefaultTokenMap.build(
+            nodes,
+            ImmutableList.of(keyspaceMetadata),
+            new Murmur3TokenFactory(),
+            new DefaultReplicationStrategyFactory(context),
+            "test");
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    Map<UUID, Node> nodesById = new HashMap<>();
+    for (Node node : nodes) {
+      nodesById.put(UUID.randomUUID(), node);
+    }
+    when(metadata.getNodes()).thenReturn(nodesById);
+    when(metadata.getKeyspace(KS)).thenReturn(Optional.of(keyspaceMetadata));
+    when(keyspaceMetadata.getTable(TABLE)).thenReturn(Optional.of(tableMetadata));
+    when(tableMetadata.getPartitionKey()).thenReturn(ImmutableList.of(partitionKey));
+    when(partitionKey.getName()).thenReturn(CqlIdentifier.fromInternal("k"));
+
+    when(session.prepareAsync(any(SimpleStatement.class)))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(mockPrepared(invocation.getArgument(0))));
+  }
+
+  @Test
+  public void should_cover_ring_with_local_replicas() {
+    // Given
+    when(profile.getInt(DefaultDriverOption.TOKEN_RANGE_SCAN_SPLITS_PER_NODE)).thenReturn(2);
+    mockExecution(statement -> CompletableFuture.completedFuture(mockPage(false, 1)));
+    TokenRangeScanner scanner = new DefaultTokenRangeScanner(session, KS, TABLE, null);
+
+    // When
+    long count = scanner.stream().count();
+
+    // Then
+    // 4 ring ranges split in 2, and the sub-range that wraps around the ring gets unwrapped
+    assertThat(count).isEqualTo(9);
+    assertThat(executed).hasSize(9);
+    List<long[]> bounds = new ArrayList<>();
+    for (BoundStatement statement : executed) {
+      assertThat(statement.getNode().getDatacenter()).isEqualTo(DC1);
+      assertThat(statement.isIdempotent()).isTrue();
+      bounds.add(bounds(statement));
+    }
+    bounds.sort(Comparator.comparingLong(b -> b[0]));
+    long previousEnd = Long.MIN_VALUE;
+    for (long[] bound : bounds) {
+      assertThat(bound[0]).isEqualTo(previousEnd);
+      assertThat(bound[1]).isGreaterThan(bound[0]);
+      previousEnd = bound[1];
+    }
+    assertThat(previousEnd).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void should_resume_on_next_replica_after_failure() {
+    // Given
+    mockExecution(
+        statement -> {
+          if (statement.getPagingState() == null) {
+            AsyncResultSet page = mockPage(true, 1);
+            when(page.getExecutionInfo().getPagingState()).thenReturn(PAGING_STATE);
+            return CompletableFuture.completedFuture(page);
+          } else if (DC1.equals(statement.getNode().getDatacenter())) {
+            return CompletableFutures.failedFuture(new DriverTimeoutException("mock"));
+          } else {
+            return CompletableFuture.completedFuture(mockPage(false, 2));
+          }
+        });
+    TokenRangeScanner scanner = new DefaultTokenRangeScanner(session, KS, TABLE, null);
+
+    // When
+    List<Integer> values = new ArrayList<>();
+    scanner.spliterator().forEachRemaining(row -> values.add(row.getInt(0)));
+
+    // Then
+    // 4 ring ranges, one of which wraps around, 2 rows per sub-range
+    assertThat(values).hasSize(10);
+    assertThat(values.stream().filter(v -> v == 1).count()).isEqualTo(5);
+    // For each sub-range: first page, failed second page, retried second page
+    assertThat(executed).hasSize(15);
+    for (int i = 0; i < executed.size(); i += 3) {
+      BoundStatement first = executed.get(i);
+      BoundStatement failed = executed.get(i + 1);
+      BoundStatement retried = executed.get(i + 2);
+      assertThat(bounds(failed)).isEqualTo(bounds(first));
+      assertThat(bounds(retried)).isEqualTo(bounds(first));
+      assertThat(retried.getPagingState()).isEqualTo(PAGING_STATE);
+      assertThat(retried.getNode().getDatacenter()).isEqualTo(DC2);
+    }
+  }
+
+  @Test
+  public void should_not_retry_validation_errors() {
+    // Given
+    mockExecution(
+        statement -> CompletableFutures.failedFuture(new InvalidQueryException(null, "mock")));
+    TokenRangeScanner scanner = new DefaultTokenRangeScanner(session, KS, TABLE, null);
+    Spliterator<Row> spliterator = scanner.spliterator();
+
+    // When/Then
+    assertThatThrownBy(() -> spliterator.tryAdvance(row -> {}))
+        .isInstanceOf(InvalidQueryException.class);
+    assertThat(executed).hasSize(1);
+  }
+
+  @Test
+  public void should_publish_rows_with_bounded_concurrency() {
+    // Given
+    List<CompletableFuture<AsyncResultSet>> pending = new CopyOnWriteArrayList<>();
+    mockExecution(
+        statement -> {
+          CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+          pending.add(future);
+          return future;
+        });
+    TokenRangeScanner scanner = new DefaultTokenRangeScanner(session, KS, TABLE, null);
+    List<Integer> values = new CopyOnWriteArrayList<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+
+    // When
+    Disposable subscription =
+        Flowable.fromPublisher(scanner.publisher())
+            .subscribe(
+                row -> values.add(row.getInt(0)),
+                done::completeExceptionally,
+                () -> done.complete(null));
+
+    // Then
+    for (int i = 0; i < 5; i++) {
+      // max-concurrent-ranges = 2
+      assertThat(pending).hasSize(Math.min(i + 2, 5));
+      pending.get(i).complete(mockPage(false, i));
+      assertThat(values).hasSize(i + 1);
+    }
+    assertThat(done).isCompleted();
+    assertThat(values).containsOnly(0, 1, 2, 3, 4);
+    subscription.dispose();
+  }
+
+  @Test
+  public void should_publish_error_if_token_metadata_not_available() {
+    // Given
+    when(metadata.getTokenMap()).thenReturn(Optional.empty());
+    TokenRangeScanner scanner = new DefaultTokenRangeScanner(session, KS, TABLE, null);
+
+    // When/Then
+    assertThatThrownBy(() -> Flowable.fromPublisher(scanner.publisher()).blockingFirst())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Token metadata is not available");
+  }
+
+  private void mockExecution(Function<BoundStatement, CompletionStage<AsyncResultSet>> answer) {
+    when(session.executeAsync(any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              BoundStatement statement = invocation.getArgument(0);
+              executed.add(statement);
+              return answer.apply(statement);
+            });
+  }
+
+  /** Returns the bounds of the sub-range queried by a statement, with the ring end as MAX_VALUE. */
+  private static long[] bounds(BoundStatement statement) {
+    String query = statement.getPreparedStatement().getQuery();
+    int i = 0;
+    long lower =
+        query.contains(" > ?")
+            ? ((Murmur3Token) statement.getToken(i++)).getValue()
+            : Long.MIN_VALUE;
+    long upper =
+        query.contains(" <= ?")
+            ? ((Murmur3Token) statement.getToken(i)).getValue()
+            : Long.MAX_VALUE;
+    return new long[] {lower, upper};
+  }
+
+  private PreparedStatement mockPrepared(SimpleStatement statement) {
+    String query = statement.getQuery();
+    List<ColumnDefinition> variables = new ArrayList<>();
+    for (int i = 0; i < query.length(); i++) {
+      if (query.charAt(i) == '?') {
+        variables.add(
+            new DefaultColumnDefinition(
+                new ColumnSpec(
+                    "ks",
+                    "foo",
+                    "token",
+                    variables.size(),
+                    RawType.PRIMITIVES.get(ProtocolConstants.DataType.BIGINT)),
+                AttachmentPoint.NONE));
+      }
+    }
+    ColumnDefinitions variableDefinitions = DefaultColumnDefinitions.valueOf(variables);
+    PreparedStatement prepared = mock(PreparedStatement.class);
+    when(prepared.getQuery()).thenReturn(query);
+    when(prepared.getVariableDefinitions()).thenReturn(variableDefinitions);
+    when(prepared.boundStatementBuilder())
+        .thenAnswer(
+            invocation ->
+                new BoundStatementBuilder(
+                    prepared,
+                    variableDefinitions,
+                    ValuesHelper.encodePreparedValues(
+                        new Object[0],
+                        variableDefinitions,
+                        CodecRegistry.DEFAULT,
+                        DefaultProtocolVersion.V4),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    Collections.emptyMap(),
+                    null,
+                    false,
+                    Statement.NO_DEFAULT_TIMESTAMP,
+                    null,
+                    Integer.MIN_VALUE,
+                    null,
+                    null,
+                    null,
+                    CodecRegistry.DEFAULT,
+                    DefaultProtocolVersion.V4));
+    return prepared;
+  }
+
+  private static DefaultNode mockNode(String dc, String token) {
+    DefaultNode node = mock(DefaultNode.class);
+    when(node.getDatacenter()).thenReturn(dc);
+    when(node.getRawTokens()).thenReturn(ImmutableSet.of(token));
+    when(node.getState()).thenReturn(NodeState.UP);
+    when(node.getDistance()).thenReturn(DC1.equals(dc) ? NodeDistance.LOCAL : NodeDistance.REMOTE);
+    return node;
+  }
+}
@@ -16,6 +16,10 @@
 package com.datastax.oss.driver.internal.core.cql;
 
 import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
@@ -94,4 +98,93 @@ public class ResultSetsTest extends ResultSetTestBase {
     assertNextRow(iterator, 7);
     assertNextRow(iterator, 8);
   }
+
+  @Test
+  public void should_prefetch_pages_in_advance() {
+    // Given
+    AsyncResultSet page1 = mockPage(true, 0, 1, 2);
+    AsyncResultSet page2 = mockPage(true, 3, 4, 5);
+    AsyncResultSet page3 = mockPage(true, 6, 7, 8);
+    AsyncResultSet page4 = mockPage(false, 9);
+
+    // When
+    ResultSet resultSet = new MultiPageResultSet(page1, 2, Long.MAX_VALUE);
+
+    // Then
+    verify(page1).fetchNextPage();
+    complete(page1.fetchNextPage(), page2);
+    // page2 arrived while we're still on page1, the chain continues
+    verify(page2).fetchNextPage();
+    complete(page2.fetchNextPage(), page3);
+    // but stops at 2 pages ahead
+    verify(page3, never()).fetchNextPage();
+
+    Iterator<Row> iterator = resultSet.iterator();
+    assertNextRow(iterator, 0);
+    assertNextRow(iterator, 1);
+    assertNextRow(iterator, 2);
+    assertNextRow(iterator, 3);
+    // Moving to page2 freed a slot
+    verify(page3).fetchNextPage();
+    assertThat(resultSet.getExecutionInfos())
+        .containsExactly(page1.getExecutionInfo(), page2.getExecutionInfo());
+
+    complete(page3.fetchNextPage(), page4);
+    assertNextRow(iterator, 4);
+    assertNextRow(iterator, 5);
+    assertNextRow(iterator, 6);
+    assertNextRow(iterator, 7);
+    assertNextRow(iterator, 8);
+    assertNextRow(iterator, 9);
+    assertThat(iterator.hasNext()).isFalse();
+    assertThat(resultSet.isFullyFetched()).isTrue();
+  }
+
+  @Test
+  public void should_stop_prefetching_when_byte_limit_reached() {
+    // Given
+    AsyncResultSet page1 = mockPage(true, 0);
+    AsyncResultSet page2 = mockPage(true, 1);
+    AsyncResultSet page3 = mockPage(false, 2);
+    when(page2.getExecutionInfo().getResponseSizeInBytes()).thenReturn(1000);
+    when(page3.getExecutionInfo().getResponseSizeInBytes()).thenReturn(1000);
+
+    // When
+    ResultSet resultSet = new MultiPageResultSet(page1, 5, 1000);
+    complete(page1.fetchNextPage(), page2);
+
+    // Then
+    verify(page2, never()).fetchNextPage();
+
+    Iterator<Row> iterator = resultSet.iterator();
+    assertNextRow(iterator, 0);
+    assertNextRow(iterator, 1);
+    verify(page2).fetchNextPage();
+    complete(page2.fetchNextPage(), page3);
+    assertNextRow(iterator, 2);
+    assertThat(iterator.hasNext()).isFalse();
+  }
+
+  @Test
+  public void should_surface_prefetch_failure_when_page_is_reached() {
+    // Given
+    AsyncResultSet page1 = mockPage(true, 0);
+    AsyncResultSet page2 = mockPage(true, 1);
+    ResultSet resultSet = new MultiPageResultSet(page1, 3, Long.MAX_VALUE);
+    complete(page1.fetchNextPage(), page2);
+    page2
+        .fetchNextPage()
+        .toCompletableFuture()
+        .completeExceptionally(new IllegalStateException("mock"));
+
+    // When
+    Iterator<Row> iterator = resultSet.iterator();
+    assertNextRow(iterator, 0);
+    assertNextRow(iterator, 1);
+
+    // Then
+    assertThatThrownBy(iterator::hasNext)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("mock");
+  }
 }
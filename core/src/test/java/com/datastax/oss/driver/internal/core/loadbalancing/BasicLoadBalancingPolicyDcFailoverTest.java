@@ -0,0 +1,181 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.DefaultConsistencyLevelRegistry;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BasicLoadBalancingPolicyDcFailoverTest extends DefaultLoadBalancingPolicyTestBase {
+
+  @Mock private DefaultSession session;
+  @Mock private Request request;
+  @Mock private Metadata metadata;
+
+  private BasicLoadBalancingPolicy policy;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    when(context.getConsistencyLevelRegistry()).thenReturn(new DefaultConsistencyLevelRegistry());
+    when(defaultProfile.getString(DefaultDriverOption.REQUEST_CONSISTENCY)).thenReturn("LOCAL_ONE");
+    when(defaultProfile.getInt(
+            DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC, 0))
+        .thenReturn(2);
+    when(metadataManager.getContactPoints()).thenReturn(ImmutableSet.of(node1));
+    when(metadataManager.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.empty());
+    when(node3.getDatacenter()).thenReturn("dc2");
+    when(node4.getDatacenter()).thenReturn("dc2");
+    when(node5.getDatacenter()).thenReturn("dc2");
+  }
+
+  @Test
+  public void should_use_bounded_number_of_remote_nodes() {
+    policy = createAndInitPolicy();
+
+    verify(distanceReporter).setDistance(node1, NodeDistance.LOCAL);
+    verify(distanceReporter).setDistance(node2, NodeDistance.LOCAL);
+    verify(distanceReporter).setDistance(node3, NodeDistance.REMOTE);
+    verify(distanceReporter).setDistance(node4, NodeDistance.REMOTE);
+    verify(distanceReporter, never()).setDistance(node5, NodeDistance.REMOTE);
+    assertThat(policy.getLiveNodes()).containsExactly(node1, node2);
+    assertThat(policy.getRemoteNodes()).containsExactly(node3, node4);
+  }
+
+  @Test
+  public void should_append_remote_nodes_after_local_nodes() {
+    policy = createAndInitPolicy();
+
+    assertThat(policy.newQueryPlan(statement(ConsistencyLevel.QUORUM), session))
+        .containsExactly(node1, node2, node4, node3);
+    assertThat(policy.newQueryPlan(statement(ConsistencyLevel.QUORUM), session))
+        .containsExactly(node2, node1, node3, node4);
+  }
+
+  @Test
+  public void should_not_append_remote_nodes_for_local_consistency_levels() {
+    policy = createAndInitPolicy();
+
+    assertThat(policy.newQueryPlan(statement(ConsistencyLevel.LOCAL_QUORUM), session))
+        .containsOnly(node1, node2);
+    // Falls back to the profile's consistency level, LOCAL_ONE
+    assertThat(policy.newQueryPlan(statement(null), session)).containsOnly(node1, node2);
+    assertThat(policy.newQueryPlan(request, session)).containsOnly(node1, node2);
+  }
+
+  @Test
+  public void should_append_remote_nodes_for_internal_queries() {
+    // The profile's consistency level is LOCAL_ONE, but it does not apply to internal queries
+    policy = createAndInitPolicy();
+
+    assertThat(policy.newQueryPlan(null, null)).containsOnly(node1, node2, node3, node4);
+    assertThat(policy.newQueryPlan(null, session)).containsOnly(node1, node2, node3, node4);
+  }
+
+  @Test
+  public void should_append_remote_nodes_for_local_consistency_levels_if_allowed() {
+    when(defaultProfile.getBoolean(
+            DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_ALLOW_FOR_LOCAL_CONSISTENCY_LEVELS,
+            false))
+        .thenReturn(true);
+    policy = createAndInitPolicy();
+
+    assertThat(policy.newQueryPlan(statement(ConsistencyLevel.LOCAL_QUORUM), session))
+        .containsOnly(node1, node2, node3, node4);
+  }
+
+  @Test
+  public void should_replace_remote_node_that_goes_down() {
+    policy = createAndInitPolicy();
+    clearInvocations(distanceReporter);
+
+    policy.onDown(node3);
+
+    verify(distanceReporter).setDistance(node3, NodeDistance.IGNORED);
+    verify(distanceReporter).setDistance(node5, NodeDistance.REMOTE);
+    assertThat(policy.getRemoteNodes()).containsExactly(node4, node5);
+
+    // Comes back UP, but the DC already has enough nodes
+    policy.onUp(node3);
+    assertThat(policy.getRemoteNodes()).containsExactly(node4, node5);
+
+    policy.onRemove(node4);
+    assertThat(policy.getRemoteNodes()).containsExactly(node5, node3);
+  }
+
+  @Test
+  public void should_not_use_remote_nodes_if_disabled() {
+    when(defaultProfile.getInt(
+            DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC, 0))
+        .thenReturn(0);
+    policy = createAndInitPolicy();
+
+    verify(distanceReporter, never()).setDistance(any(Node.class), eq(NodeDistance.REMOTE));
+    assertThat(policy.getRemoteNodes()).isEmpty();
+    assertThat(policy.newQueryPlan(statement(ConsistencyLevel.QUORUM), session))
+        .containsOnly(node1, node2);
+  }
+
+  private Statement<?> statement(ConsistencyLevel consistencyLevel) {
+    Statement<?> statement = mock(Statement.class);
+    when(statement.getConsistencyLevel()).thenReturn(consistencyLevel);
+    return statement;
+  }
+
+  private BasicLoadBalancingPolicy createAndInitPolicy() {
+    BasicLoadBalancingPolicy policy =
+        new BasicLoadBalancingPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+    when(defaultProfile.isDefined(DefaultDriverOption.LOAD_BALANCING_LOCAL_DATACENTER))
+        .thenReturn(true);
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+    return policy;
+  }
+}
@@ -30,6 +30,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
@@ -250,6 +251,29 @@ public class BasicLoadBalancingPolicyQueryPlanTest extends DefaultLoadBalancingP
     verify(session, never()).getPools();
   }
 
+  @Test
+  public void should_prioritize_local_rack() {
+    when(defaultProfile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, null))
+        .thenReturn("rack1");
+    when(node2.getRack()).thenReturn("rack1");
+    when(node5.getRack()).thenReturn("rack1");
+    when(node3.getRack()).thenReturn("rack2");
+    policy = createAndInitPolicy();
+    when(request.getRoutingKeyspace()).thenReturn(KEYSPACE);
+    when(request.getRoutingKey()).thenReturn(ROUTING_KEY);
+    when(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY)).thenReturn(ImmutableSet.of(node3, node5));
+
+    // local rack replica, other replica, then round-robin with local rack first
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node2, node1, node4);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node2, node4, node1);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node2, node4, node1);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node2, node1, node4);
+  }
+
   protected BasicLoadBalancingPolicy createAndInitPolicy() {
     // Use a subclass to disable shuffling, we just spy to make sure that the shuffling method was
     // called (makes tests easier)
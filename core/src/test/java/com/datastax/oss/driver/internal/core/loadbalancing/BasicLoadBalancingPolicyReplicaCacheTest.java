@@ -0,0 +1,179 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.loadbalancing.BasicLoadBalancingPolicyQueryPlanTest.NonShufflingBasicLoadBalancingPolicy;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BasicLoadBalancingPolicyReplicaCacheTest extends DefaultLoadBalancingPolicyTestBase {
+
+  private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromInternal("ks");
+
+  @Mock private Request request;
+  @Mock private DefaultSession session;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+  @Mock private Token routingToken;
+
+  private TokenMap currentTokenMap;
+  private BasicLoadBalancingPolicy policy;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    when(defaultProfile.getInt(DefaultDriverOption.LOAD_BALANCING_REPLICA_CACHE_SIZE, 0))
+        .thenReturn(100);
+    when(metadataManager.getContactPoints()).thenReturn(ImmutableSet.of(node1));
+    when(metadataManager.getMetadata()).thenReturn(metadata);
+    currentTokenMap = tokenMap;
+    when(metadata.getTokenMap()).thenAnswer(invocation -> Optional.of(currentTokenMap));
+    when(request.getRoutingKeyspace()).thenReturn(KEYSPACE);
+
+    policy = new NonShufflingBasicLoadBalancingPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+  }
+
+  @Test
+  public void should_look_up_replicas_once_per_routing_key() {
+    when(request.getRoutingKey()).thenAnswer(invocation -> Bytes.fromHexString("0xdeadbeef"));
+    when(tokenMap.getReplicas(KEYSPACE, Bytes.fromHexString("0xdeadbeef")))
+        .thenReturn(ImmutableSet.of(node5, node3));
+
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node1, node2, node4);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node2, node4, node1);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node4, node1, node2);
+
+    then(tokenMap).should(times(1)).getReplicas(any(CqlIdentifier.class), any(ByteBuffer.class));
+  }
+
+  @Test
+  public void should_not_be_affected_by_changes_to_the_routing_key_buffer() {
+    ByteBuffer routingKey = Bytes.fromHexString("0xdeadbeef");
+    when(request.getRoutingKey()).thenReturn(routingKey);
+    when(tokenMap.getReplicas(KEYSPACE, Bytes.fromHexString("0xdeadbeef")))
+        .thenReturn(ImmutableSet.of(node3));
+    when(tokenMap.getReplicas(KEYSPACE, Bytes.fromHexString("0xcafebabe")))
+        .thenReturn(ImmutableSet.of(node4));
+
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node3);
+
+    // The client reuses the buffer for another key
+    routingKey.duplicate().put(Bytes.getArray(Bytes.fromHexString("0xcafebabe")));
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node4);
+  }
+
+  @Test
+  public void should_invalidate_when_node_goes_down_or_up() {
+    when(request.getRoutingToken()).thenReturn(routingToken);
+    when(tokenMap.getReplicas(KEYSPACE, routingToken)).thenReturn(ImmutableSet.of(node3, node5));
+
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node1, node2, node4);
+
+    policy.onDown(node3);
+    assertThat(policy.newQueryPlan(request, session)).containsExactly(node5, node2, node4, node1);
+
+    policy.onUp(node3);
+    // node3 is now last in the live set
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node4, node1, node2);
+
+    then(tokenMap).should(times(3)).getReplicas(KEYSPACE, routingToken);
+  }
+
+  @Test
+  public void should_invalidate_when_token_map_changes() {
+    when(request.getRoutingToken()).thenReturn(routingToken);
+    when(tokenMap.getReplicas(KEYSPACE, routingToken)).thenReturn(ImmutableSet.of(node3));
+    TokenMap newTokenMap = mock(TokenMap.class);
+    when(newTokenMap.getReplicas(KEYSPACE, routingToken)).thenReturn(ImmutableSet.of(node4));
+
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node3);
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node3);
+
+    currentTokenMap = newTokenMap;
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node4);
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node4);
+
+    then(tokenMap).should(times(1)).getReplicas(KEYSPACE, routingToken);
+    then(newTokenMap).should(times(1)).getReplicas(KEYSPACE, routingToken);
+  }
+
+  @Test
+  public void should_evict_least_recently_used_entries() {
+    ReplicaCache cache = new ReplicaCache(2);
+    ReplicaCache.Key key1 = ReplicaCache.Key.forRoutingKey(KEYSPACE, Bytes.fromHexString("0x01"));
+    ReplicaCache.Key key2 = ReplicaCache.Key.forRoutingKey(KEYSPACE, Bytes.fromHexString("0x02"));
+    ReplicaCache.Key key3 = ReplicaCache.Key.forRoutingKey(KEYSPACE, Bytes.fromHexString("0x03"));
+    long epoch = cache.epoch(tokenMap);
+
+    cache.put(key1, new Object[] {node1}, epoch);
+    cache.put(key2, new Object[] {node2}, epoch);
+    cache.put(key3, new Object[] {node3}, epoch);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get(key3)).containsExactly(node3);
+  }
+
+  @Test
+  public void should_reject_entry_computed_before_invalidation() {
+    ReplicaCache cache = new ReplicaCache(10);
+    ReplicaCache.Key key = ReplicaCache.Key.forToken(KEYSPACE, routingToken);
+    long epoch = cache.epoch(tokenMap);
+
+    cache.invalidate();
+    cache.put(key, new Object[] {node1}, epoch);
+
+    assertThat(cache.get(key)).isNull();
+  }
+}
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 
 import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
@@ -325,6 +326,83 @@ public class DefaultLoadBalancingPolicyQueryPlanTest extends BasicLoadBalancingP
     then(dsePolicy).should(never()).diceRoll1d4();
   }
 
+  @Test
+  public void should_prioritize_healthy_local_rack_replicas() {
+    // Given
+    given(defaultProfile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, null))
+        .willReturn("rack1");
+    given(node3.getRack()).willReturn("rack1");
+    given(node5.getRack()).willReturn("rack1");
+    dsePolicy = createAndInitPolicy();
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node3, node5));
+    given(pool1.getInFlight()).willReturn(0);
+    given(pool3.getInFlight()).willReturn(0);
+    given(pool5.getInFlight()).willReturn(100); // unhealthy
+
+    // When
+    Queue<Node> plan1 = dsePolicy.newQueryPlan(request, session);
+    Queue<Node> plan2 = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    // node3 is in the local rack -> first
+    // node5 is in the local rack, but unhealthy -> stays behind node1
+    assertThat(plan1).containsExactly(node3, node1, node5, node2, node4);
+    assertThat(plan2).containsExactly(node3, node1, node5, node4, node2);
+  }
+
+  @Test
+  public void should_not_prioritize_newly_up_local_rack_replica() {
+    // Given
+    given(defaultProfile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, null))
+        .willReturn("rack1");
+    given(node1.getRack()).willReturn("rack1");
+    given(node3.getRack()).willReturn("rack1");
+    dsePolicy = createAndInitPolicy();
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node3, node5));
+    dsePolicy.upTimes.put(node1, T2); // newest up replica
+    dsePolicy.upTimes.put(node3, T1);
+
+    // When
+    Queue<Node> plan1 = dsePolicy.newQueryPlan(request, session);
+    Queue<Node> plan2 = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    // newest up replica is node1 in first position and diceRoll = 4 -> bubbles down, and stays
+    // there even though it is in the local rack
+    assertThat(plan1).containsExactly(node3, node5, node1, node2, node4);
+    assertThat(plan2).containsExactly(node3, node5, node1, node4, node2);
+  }
+
+  @Test
+  public void should_reorder_first_two_replicas_only_within_local_rack() {
+    // Given
+    given(defaultProfile.getString(DefaultDriverOption.LOAD_BALANCING_LOCAL_RACK, null))
+        .willReturn("rack1");
+    given(node3.getRack()).willReturn("rack1");
+    dsePolicy = createAndInitPolicy();
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node3, node5));
+    given(pool1.getInFlight()).willReturn(0);
+    given(pool3.getInFlight()).willReturn(5); // busier, but still healthy
+
+    // When
+    Queue<Node> plan1 = dsePolicy.newQueryPlan(request, session);
+    Queue<Node> plan2 = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    // node3 has more in-flight than node1, but it is the only local rack replica -> no swap
+    assertThat(plan1).containsExactly(node3, node1, node5, node2, node4);
+    assertThat(plan2).containsExactly(node3, node1, node5, node4, node2);
+  }
+
   @Override
   protected DefaultLoadBalancingPolicy createAndInitPolicy() {
     DefaultLoadBalancingPolicy policy =
@@ -0,0 +1,234 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static com.datastax.oss.driver.api.core.config.DriverExecutionProfile.DEFAULT_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LatencyAwareLoadBalancingPolicyTest extends DefaultLoadBalancingPolicyTestBase {
+
+  private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromInternal("ks");
+  private static final long DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  @Mock private Request request;
+  @Mock private DefaultSession session;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+  @Mock private Token routingToken;
+  @Mock private DriverExecutionProfile profile;
+
+  private LatencyAwareLoadBalancingPolicy policy;
+  private long nextNanoTime;
+
+  @Before
+  @Override
+  public void setup() {
+    given(context.getRequestTracker()).willReturn(new MultiplexingRequestTracker());
+    super.setup();
+    given(
+            defaultProfile.getDuration(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_DECAY_TIME, Duration.ofSeconds(10)))
+        .willReturn(Duration.ofNanos(DECAY_TIME_NANOS));
+    given(defaultProfile.getDuration(DefaultDriverOption.REQUEST_TIMEOUT))
+        .willReturn(Duration.ofSeconds(2));
+    given(metadataManager.getContactPoints()).willReturn(ImmutableSet.of(node1));
+    given(metadataManager.getMetadata()).willReturn(metadata);
+    given(metadata.getTokenMap()).willAnswer(invocation -> Optional.of(tokenMap));
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingToken()).willReturn(routingToken);
+    given(tokenMap.getReplicas(KEYSPACE, routingToken))
+        .willReturn(ImmutableSet.of(node1, node2, node3));
+    given(session.getPools()).willReturn(ImmutableMap.of());
+
+    policy =
+        new LatencyAwareLoadBalancingPolicy(context, DEFAULT_NAME) {
+          @Override
+          protected long nanoTime() {
+            return nextNanoTime;
+          }
+
+          @Override
+          protected void shuffleHead(Object[] currentNodes, int replicaCount) {
+            // nothing (keep in same order)
+          }
+        };
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+  }
+
+  @Test
+  public void should_order_replicas_by_latency() {
+    record(node1, 30);
+    record(node2, 10);
+    record(node3, 20);
+
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node2, node3, node1, node4, node5);
+  }
+
+  @Test
+  public void should_put_unsampled_replicas_first() {
+    record(node1, 30);
+    record(node2, 10);
+
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node2, node1, node4, node5);
+  }
+
+  @Test
+  public void should_order_replicas_by_latency_if_clock_is_negative() {
+    nextNanoTime = -DECAY_TIME_NANOS * 100;
+    record(node1, 30);
+    record(node2, 10);
+    record(node3, 20);
+
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node2, node3, node1, node4, node5);
+  }
+
+  @Test
+  public void should_penalize_slow_sample_immediately() {
+    record(node1, 10);
+    nextNanoTime += 1;
+    record(node1, 100);
+
+    assertThat(score(node1)).isCloseTo((double) ms(100), offset((double) ms(1)));
+  }
+
+  @Test
+  public void should_blend_fast_samples_according_to_elapsed_time() {
+    record(node1, 100);
+    nextNanoTime += DECAY_TIME_NANOS;
+    record(node1, 10);
+
+    double weight = Math.exp(-1);
+    assertThat(score(node1))
+        .isCloseTo(ms(100) * weight + ms(10) * (1 - weight), offset((double) ms(1)));
+  }
+
+  @Test
+  public void should_decay_score_of_idle_node() {
+    record(node1, 100);
+    nextNanoTime += 2 * DECAY_TIME_NANOS;
+
+    assertThat(score(node1)).isCloseTo(ms(100) * Math.exp(-2), offset((double) ms(1)));
+  }
+
+  @Test
+  public void should_account_for_in_flight_requests() {
+    ChannelPool pool = mock(ChannelPool.class);
+    given(pool.getInFlight()).willReturn(3);
+    given(session.getPools()).willReturn(ImmutableMap.of(node2, pool));
+    record(node1, 30);
+    record(node2, 10);
+    record(node3, 20);
+
+    // node2: 10 * (3 + 1) = 40
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node1, node2, node4, node5);
+  }
+
+  @Test
+  public void should_forget_latency_when_node_comes_back_up() {
+    record(node1, 100);
+    record(node2, 10);
+    record(node3, 20);
+
+    policy.onDown(node1);
+    policy.onUp(node1);
+
+    assertThat(policy.latencies).doesNotContainKey(node1);
+    assertThat(policy.newQueryPlan(request, session).poll()).isEqualTo(node1);
+  }
+
+  @Test
+  public void should_record_latency_of_timeouts() {
+    policy.onNodeError(request, readTimeout(), ms(500), profile, node1, "test");
+
+    assertThat(score(node1)).isCloseTo((double) ms(500), offset((double) ms(1)));
+  }
+
+  @Test
+  public void should_penalize_fast_errors() {
+    record(node2, 10);
+    policy.onNodeError(request, new RuntimeException(), ms(1), profile, node1, "test");
+
+    // Penalty defaults to the request timeout
+    assertThat(score(node1)).isCloseTo((double) ms(2000), offset((double) ms(1)));
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node2, node1, node4, node5);
+  }
+
+  @Test
+  public void should_ignore_query_validation_errors() {
+    policy.onNodeError(
+        request, new InvalidQueryException(node1, "test"), ms(1), profile, node1, "test");
+
+    assertThat(policy.latencies).doesNotContainKey(node1);
+  }
+
+  private ReadTimeoutException readTimeout() {
+    return new ReadTimeoutException(node1, DefaultConsistencyLevel.ONE, 0, 1, false);
+  }
+
+  private void record(Node node, long latencyMillis) {
+    policy.onNodeSuccess(request, ms(latencyMillis), profile, node, "test");
+  }
+
+  private double score(Node node) {
+    return policy.getScore(node, session, nextNanoTime);
+  }
+
+  private static long ms(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
@@ -117,6 +117,24 @@ public class SchemaAgreementCheckerTest {
     assertThatStage(future).isSuccess(b -> assertThat(b).isFalse());
   }
 
+  @Test
+  public void should_return_agreed_version() {
+    // Given
+    TestSchemaAgreementChecker checker = new TestSchemaAgreementChecker(channel, context);
+    checker.stubQueries(
+        new StubbedQuery(
+            "SELECT schema_version FROM system.local WHERE key='local'",
+            mockResult(mockRow(null, VERSION1))),
+        new StubbedQuery(
+            "SELECT host_id, schema_version FROM system.peers", mockResult(/*empty*/ )));
+
+    // When
+    CompletionStage<UUID> future = checker.runForVersion();
+
+    // Then
+    assertThatStage(future).isSuccess(v -> assertThat(v).isEqualTo(VERSION1));
+  }
+
   @Test
   public void should_succeed_if_only_one_node() {
     // Given
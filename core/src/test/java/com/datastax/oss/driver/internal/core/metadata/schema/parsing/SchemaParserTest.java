@@ -16,6 +16,7 @@
 package com.datastax.oss.driver.internal.core.metadata.schema.parsing;
 
 import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
@@ -23,7 +24,9 @@ import com.datastax.oss.driver.api.core.metadata.schema.FunctionSignature;
 import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
 import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.metadata.MetadataManager;
 import com.datastax.oss.driver.internal.core.metadata.MetadataRefresh;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.internal.core.metadata.schema.queries.CassandraSchemaRows;
 import com.datastax.oss.driver.internal.core.metadata.schema.queries.SchemaRows;
 import com.datastax.oss.driver.internal.core.metadata.schema.refresh.SchemaRefresh;
@@ -136,6 +139,75 @@ public class SchemaParserTest extends SchemaParserTestBase {
     assertThat(ks2.getUserDefinedTypes()).hasSize(1).containsKey(CqlIdentifier.fromInternal("t2"));
   }
 
+  @Test
+  public void should_merge_targeted_rows_into_current_keyspace() {
+    SchemaRefresh fullRefresh =
+        (SchemaRefresh)
+            parse(
+                rows ->
+                    rows.withKeyspaces(ImmutableList.of(mockModernKeyspaceRow("ks")))
+                        .withTypes(
+                            ImmutableList.of(
+                                mockTypeRow(
+                                    "ks", "t", ImmutableList.of("i"), ImmutableList.of("int"))))
+                        .withTables(ImmutableList.of(TableParserTest.TABLE_ROW_3_0))
+                        .withColumns(TableParserTest.COLUMN_ROWS_3_0)
+                        .withIndexes(TableParserTest.INDEX_ROWS_3_0));
+    KeyspaceMetadata oldKeyspace = fullRefresh.newKeyspaces.get(KEYSPACE_ID);
+    mockCurrentKeyspaces(fullRefresh.newKeyspaces);
+
+    SchemaRefresh refresh =
+        (SchemaRefresh)
+            parse(
+                rows ->
+                    rows.withRefreshTarget(
+                            SchemaRefreshTarget.forType(
+                                KEYSPACE_ID, CqlIdentifier.fromInternal("t2")))
+                        .withTypes(
+                            ImmutableList.of(
+                                mockTypeRow(
+                                    "ks", "t2", ImmutableList.of("i"), ImmutableList.of("int")))));
+
+    KeyspaceMetadata keyspace = refresh.newKeyspaces.get(KEYSPACE_ID);
+    checkKeyspace(keyspace);
+    assertThat(keyspace.getUserDefinedTypes())
+        .hasSize(2)
+        .containsKeys(CqlIdentifier.fromInternal("t"), CqlIdentifier.fromInternal("t2"));
+    // Untouched elements are reused as-is
+    CqlIdentifier foo = CqlIdentifier.fromInternal("foo");
+    assertThat(keyspace.getTables().get(foo)).isSameAs(oldKeyspace.getTables().get(foo));
+  }
+
+  @Test
+  public void should_remove_targeted_element_if_absent_from_rows() {
+    SchemaRefresh fullRefresh =
+        (SchemaRefresh)
+            parse(
+                rows ->
+                    rows.withKeyspaces(ImmutableList.of(mockModernKeyspaceRow("ks")))
+                        .withTables(ImmutableList.of(TableParserTest.TABLE_ROW_3_0))
+                        .withColumns(TableParserTest.COLUMN_ROWS_3_0)
+                        .withIndexes(TableParserTest.INDEX_ROWS_3_0));
+    mockCurrentKeyspaces(fullRefresh.newKeyspaces);
+
+    SchemaRefresh refresh =
+        (SchemaRefresh)
+            parse(
+                rows ->
+                    rows.withRefreshTarget(
+                        SchemaRefreshTarget.forTable(
+                            KEYSPACE_ID, CqlIdentifier.fromInternal("foo"))));
+
+    assertThat(refresh.newKeyspaces.get(KEYSPACE_ID).getTables()).isEmpty();
+  }
+
+  private void mockCurrentKeyspaces(Map<CqlIdentifier, KeyspaceMetadata> keyspaces) {
+    MetadataManager metadataManager = mock(MetadataManager.class);
+    when(context.getMetadataManager()).thenReturn(metadataManager);
+    when(metadataManager.getMetadata()).thenReturn(currentMetadata);
+    when(currentMetadata.getKeyspaces()).thenReturn(keyspaces);
+  }
+
   private MetadataRefresh parse(Consumer<CassandraSchemaRows.Builder> builderConfig) {
     CassandraSchemaRows.Builder builder = new CassandraSchemaRows.Builder(NODE_3_0, "test");
     builderConfig.accept(builder);
@@ -19,12 +19,14 @@ import static com.datastax.oss.driver.Assertions.assertThat;
 import static com.datastax.oss.driver.Assertions.assertThatStage;
 import static org.mockito.Mockito.when;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.Version;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminResult;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.metadata.schema.SchemaRefreshTarget;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import java.util.Collections;
 import java.util.Queue;
@@ -326,6 +328,69 @@ public class Cassandra3SchemaQueriesTest extends SchemaQueriesTest {
             });
   }
 
+  @Test
+  public void should_query_targeted_elements_only() {
+    SchemaRefreshTarget target =
+        SchemaRefreshTarget.merge(
+            SchemaRefreshTarget.forTable(KS1_ID, FOO_ID),
+            SchemaRefreshTarget.forType(KS1_ID, CqlIdentifier.fromInternal("type")));
+    SchemaQueriesWithMockedChannel queries =
+        new SchemaQueriesWithMockedChannel(driverChannel, node, config, "test", target);
+    CompletionStage<SchemaRows> result = queries.execute();
+
+    // Types
+    Call call = queries.calls.poll();
+    assertThat(call.query)
+        .isEqualTo(
+            "SELECT * FROM system_schema.types WHERE keyspace_name='ks1' AND type_name IN ('type')");
+    call.result.complete(mockResult(mockRow("keyspace_name", "ks1", "type_name", "type")));
+
+    // Tables
+    call = queries.calls.poll();
+    assertThat(call.query)
+        .isEqualTo(
+            "SELECT * FROM system_schema.tables WHERE keyspace_name='ks1' AND table_name IN ('foo')");
+    call.result.complete(mockResult(mockRow("keyspace_name", "ks1", "table_name", "foo")));
+
+    // Columns
+    call = queries.calls.poll();
+    assertThat(call.query)
+        .isEqualTo(
+            "SELECT * FROM system_schema.columns WHERE keyspace_name='ks1' AND table_name IN ('foo')");
+    call.result.complete(
+        mockResult(mockRow("keyspace_name", "ks1", "table_name", "foo", "column_name", "k")));
+
+    // Indexes
+    call = queries.calls.poll();
+    assertThat(call.query)
+        .isEqualTo(
+            "SELECT * FROM system_schema.indexes WHERE keyspace_name='ks1' AND table_name IN ('foo')");
+    call.result.complete(mockResult(/*empty*/ ));
+
+    // Views
+    call = queries.calls.poll();
+    assertThat(call.query)
+        .isEqualTo(
+            "SELECT * FROM system_schema.views WHERE keyspace_name='ks1' AND view_name IN ('foo')");
+    call.result.complete(mockResult(/*empty*/ ));
+
+    // Nothing else (keyspaces, functions, aggregates)
+    assertThat(queries.calls).isEmpty();
+
+    channel.runPendingTasks();
+
+    assertThatStage(result)
+        .isSuccess(
+            rows -> {
+              assertThat(rows.refreshTarget()).isEqualTo(target);
+              assertThat(rows.keyspaces()).isEmpty();
+              assertThat(rows.types().get(KS1_ID)).hasSize(1);
+              assertThat(rows.tables().get(KS1_ID)).hasSize(1);
+              assertThat(rows.columns().get(KS1_ID).keySet()).containsOnly(FOO_ID);
+              assertThat(rows.views().isEmpty()).isTrue();
+            });
+  }
+
   @Test
   public void should_abort_if_query_fails() {
     SchemaQueriesWithMockedChannel queries =
@@ -353,6 +418,15 @@ public class Cassandra3SchemaQueriesTest extends SchemaQueriesTest {
       super(channel, node, config, logPrefix);
     }
 
+    SchemaQueriesWithMockedChannel(
+        DriverChannel channel,
+        Node node,
+        DriverExecutionProfile config,
+        String logPrefix,
+        SchemaRefreshTarget target) {
+      super(channel, node, config, logPrefix, target);
+    }
+
     @Override
     protected CompletionStage<AdminResult> query(String query) {
       Call call = new Call(query);
@@ -0,0 +1,179 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.schema.queries;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.Version;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.DefaultProtocolVersionRegistry;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SchemaSnapshotFileTest {
+
+  private static final ProtocolVersion PROTOCOL_VERSION = DefaultProtocolVersion.V4;
+  private static final UUID SCHEMA_VERSION = UUID.randomUUID();
+  private static final CqlIdentifier KS_ID = CqlIdentifier.fromInternal("ks");
+  private static final RawType TEXT = RawType.PRIMITIVES.get(ProtocolConstants.DataType.VARCHAR);
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Mock private InternalDriverContext context;
+  @Mock private Node node;
+
+  private Path path;
+  private SchemaSnapshotFile snapshotFile;
+
+  @Before
+  public void setup() throws Exception {
+    when(context.getProtocolVersion()).thenReturn(PROTOCOL_VERSION);
+    when(context.getProtocolVersionRegistry())
+        .thenReturn(new DefaultProtocolVersionRegistry("test"));
+    when(node.getCassandraVersion()).thenReturn(Version.V3_0_0);
+    when(node.getExtras()).thenReturn(Collections.emptyMap());
+
+    path = folder.getRoot().toPath().resolve("snapshot.bin");
+    snapshotFile = new SchemaSnapshotFile(path, context, "test");
+  }
+
+  @Test
+  public void should_save_and_load_rows() {
+    // Given
+    SchemaRows rows =
+        new CassandraSchemaRows.Builder(node, "test")
+            .withKeyspaces(ImmutableList.of(keyspaceRow()))
+            .withTables(ImmutableList.of(tableRow("foo"), tableRow("bar")))
+            .build();
+
+    // When
+    boolean saved = snapshotFile.save(rows, SCHEMA_VERSION, "cluster", ImmutableList.of());
+    SchemaSnapshotFile.Snapshot snapshot = snapshotFile.load(node, "cluster", ImmutableList.of());
+
+    // Then
+    assertThat(saved).isTrue();
+    assertThat(snapshot).isNotNull();
+    assertThat(snapshot.getSchemaVersion()).isEqualTo(SCHEMA_VERSION);
+    SchemaRows loaded = snapshot.getRows();
+    assertThat(loaded.refreshTarget()).isNull();
+    assertThat(loaded.keyspaces()).hasSize(1);
+    AdminRow keyspaceRow = loaded.keyspaces().get(0);
+    assertThat(keyspaceRow.getString("keyspace_name")).isEqualTo("ks");
+    assertThat(keyspaceRow.getMapOfStringToString("replication"))
+        .containsEntry("class", "org.apache.cassandra.locator.SimpleStrategy");
+    assertThat(keyspaceRow.isNull("durable_writes")).isTrue();
+    assertThat(loaded.tables().get(KS_ID))
+        .extracting(row -> row.getString("table_name"))
+        .containsExactly("foo", "bar");
+    assertThat(loaded.views().isEmpty()).isTrue();
+    assertThat(loaded.columns()).isEmpty();
+  }
+
+  @Test
+  public void should_not_load_if_file_does_not_exist() {
+    assertThat(snapshotFile.load(node, "cluster", ImmutableList.of())).isNull();
+  }
+
+  @Test
+  public void should_not_load_if_file_is_corrupt() throws Exception {
+    Files.write(path, new byte[] {1, 2, 3});
+    assertThat(snapshotFile.load(node, "cluster", ImmutableList.of())).isNull();
+  }
+
+  @Test
+  public void should_not_load_if_written_for_other_cluster_version_or_keyspaces() {
+    // Given
+    SchemaRows rows =
+        new CassandraSchemaRows.Builder(node, "test")
+            .withKeyspaces(ImmutableList.of(keyspaceRow()))
+            .build();
+    snapshotFile.save(rows, SCHEMA_VERSION, "cluster", ImmutableList.of());
+
+    // Then
+    assertThat(snapshotFile.load(node, "otherCluster", ImmutableList.of())).isNull();
+    assertThat(snapshotFile.load(node, "cluster", ImmutableList.of("ks"))).isNull();
+    when(node.getCassandraVersion()).thenReturn(Version.V4_0_0);
+    assertThat(snapshotFile.load(node, "cluster", ImmutableList.of())).isNull();
+  }
+
+  private static AdminRow keyspaceRow() {
+    Map<String, ColumnSpec> specs =
+        ImmutableMap.of(
+            "keyspace_name",
+            new ColumnSpec("system_schema", "keyspaces", "keyspace_name", 0, TEXT),
+            "durable_writes",
+            new ColumnSpec(
+                "system_schema",
+                "keyspaces",
+                "durable_writes",
+                1,
+                RawType.PRIMITIVES.get(ProtocolConstants.DataType.BOOLEAN)),
+            "replication",
+            new ColumnSpec(
+                "system_schema", "keyspaces", "replication", 2, new RawType.RawMap(TEXT, TEXT)));
+    List<ByteBuffer> data =
+        Arrays.asList(
+            TypeCodecs.TEXT.encode("ks", PROTOCOL_VERSION),
+            null,
+            TypeCodecs.mapOf(TypeCodecs.TEXT, TypeCodecs.TEXT)
+                .encode(
+                    ImmutableMap.of("class", "org.apache.cassandra.locator.SimpleStrategy"),
+                    PROTOCOL_VERSION));
+    return new AdminRow(specs, data, PROTOCOL_VERSION);
+  }
+
+  private static final Map<String, ColumnSpec> TABLE_SPECS =
+      ImmutableMap.of(
+          "keyspace_name",
+          new ColumnSpec("system_schema", "tables", "keyspace_name", 0, TEXT),
+          "table_name",
+          new ColumnSpec("system_schema", "tables", "table_name", 1, TEXT));
+
+  private static AdminRow tableRow(String name) {
+    return new AdminRow(
+        TABLE_SPECS,
+        ImmutableList.of(
+            TypeCodecs.TEXT.encode("ks", PROTOCOL_VERSION),
+            TypeCodecs.TEXT.encode(name, PROTOCOL_VERSION)),
+        PROTOCOL_VERSION);
+  }
+}
@@ -32,9 +32,13 @@ import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -75,6 +79,9 @@ public class DefaultTokenMapTest {
   private static final ImmutableMap<String, String> REPLICATE_ON_BOTH_DCS =
       ImmutableMap.of(
           "class", "org.apache.cassandra.locator.NetworkTopologyStrategy", DC1, "1", DC2, "1");
+  private static final ImmutableMap<String, String> REPLICATE_ONCE =
+      ImmutableMap.of(
+          "class", "org.apache.cassandra.locator.SimpleStrategy", "replication_factor", "1");
   private static final ImmutableMap<String, String> REPLICATE_ON_DC1 =
       ImmutableMap.of("class", "org.apache.cassandra.locator.NetworkTopologyStrategy", DC1, "1");
 
@@ -357,6 +364,52 @@ public class DefaultTokenMapTest {
         .containsEntry(KS2, REPLICATE_ON_BOTH_DCS);
   }
 
+  @Test
+  public void should_resolve_murmur3_replicas_from_primitive_ring() {
+    // Given
+    Random random = new Random(42);
+    TreeMap<Long, Node> ring = new TreeMap<>();
+    List<Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Set<String> tokens = new HashSet<>();
+      DefaultNode node = mock(DefaultNode.class);
+      for (int j = 0; j < 16; j++) {
+        long token = random.nextLong();
+        tokens.add(Long.toString(token));
+        ring.put(token, node);
+      }
+      when(node.getRawTokens()).thenReturn(tokens);
+      nodes.add(node);
+    }
+    DefaultTokenMap tokenMap =
+        DefaultTokenMap.build(
+            nodes,
+            ImmutableList.of(mockKeyspace(KS1, REPLICATE_ONCE)),
+            TOKEN_FACTORY,
+            replicationStrategyFactory,
+            "test");
+
+    for (int i = 0; i < 1000; i++) {
+      // When
+      long value = random.nextLong();
+      Map.Entry<Long, Node> primary = ring.ceilingEntry(value);
+      if (primary == null) {
+        primary = ring.firstEntry();
+      }
+      Set<Node> replicas = tokenMap.getReplicas(KS1, new Murmur3Token(value));
+
+      // Then
+      assertThat(replicas).containsExactly(primary.getValue());
+      // Exact hits on ring tokens go through the same path
+      assertThat(tokenMap.getReplicas(KS1, new Murmur3Token(primary.getKey()))).isSameAs(replicas);
+    }
+    for (int i = 0; i < 1000; i++) {
+      ByteBuffer key = TypeCodecs.BIGINT.encode(random.nextLong(), DefaultProtocolVersion.V3);
+      assertThat(tokenMap.getReplicas(KS1, key))
+          .isSameAs(tokenMap.getReplicas(KS1, TOKEN_FACTORY.hash(key)));
+    }
+  }
+
   private DefaultNode mockNode(String dc, String rack, Set<String> tokens) {
     DefaultNode node = mock(DefaultNode.class);
     when(node.getDatacenter()).thenReturn(dc);
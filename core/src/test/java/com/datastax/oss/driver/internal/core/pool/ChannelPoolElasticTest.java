@@ -0,0 +1,200 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.internal.core.channel.ChannelEvent;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.channel.MockChannelFactoryHelper;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ChannelPoolElasticTest extends ChannelPoolTestBase {
+
+  private static final int MAX_REQUESTS = 1024;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).thenReturn(1);
+    when(defaultProfile.isDefined(DefaultDriverOption.CONNECTION_POOL_LOCAL_MAX_SIZE))
+        .thenReturn(true);
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_MAX_SIZE)).thenReturn(2);
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_REMOTE_SIZE)).thenReturn(1);
+    when(defaultProfile.getDouble(DefaultDriverOption.CONNECTION_POOL_ELASTIC_GROW_WATERMARK))
+        .thenReturn(0.75);
+    when(defaultProfile.getDouble(DefaultDriverOption.CONNECTION_POOL_ELASTIC_SHRINK_WATERMARK))
+        .thenReturn(0.25);
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL))
+        .thenReturn(Duration.ofMillis(10));
+  }
+
+  @Test
+  public void should_grow_when_utilization_above_watermark() throws Exception {
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN))
+        .thenReturn(Duration.ofDays(1));
+
+    AtomicInteger inFlight1 = new AtomicInteger();
+    DriverChannel channel1 = newMockDriverChannel(1, inFlight1);
+    DriverChannel channel2 = newMockDriverChannel(2, new AtomicInteger());
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            .success(node, channel1)
+            .success(node, channel2)
+            .build();
+    InOrder inOrder = inOrder(eventBus);
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 1);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelOpened(node));
+
+    // Under the watermark: nothing happens
+    inFlight1.set(700);
+    Thread.sleep(100);
+    assertThat(pool.channels).containsOnly(channel1);
+
+    inFlight1.set(800);
+    factoryHelper.waitForCalls(node, 1);
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelOpened(node));
+    await().untilAsserted(() -> assertThat(pool.channels).containsOnly(channel1, channel2));
+
+    // Stays busy but already at max size
+    inFlight1.set(MAX_REQUESTS);
+    Thread.sleep(100);
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  @Test
+  public void should_use_default_interval_if_configured_interval_is_not_positive()
+      throws Exception {
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_INTERVAL))
+        .thenReturn(Duration.ZERO);
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN))
+        .thenReturn(Duration.ofDays(1));
+
+    AtomicInteger inFlight1 = new AtomicInteger(MAX_REQUESTS);
+    DriverChannel channel1 = newMockDriverChannel(1, inFlight1);
+    DriverChannel channel2 = newMockDriverChannel(2, new AtomicInteger());
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            .success(node, channel1)
+            .success(node, channel2)
+            .build();
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 1);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+
+    // Still grows, with the default interval (1 second)
+    await().untilAsserted(() -> assertThat(pool.channels).containsOnly(channel1, channel2));
+  }
+
+  @Test
+  public void should_shrink_when_utilization_below_watermark_after_cool_down() throws Exception {
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN))
+        .thenReturn(Duration.ofMillis(50));
+
+    AtomicInteger inFlight1 = new AtomicInteger(MAX_REQUESTS);
+    AtomicInteger inFlight2 = new AtomicInteger();
+    DriverChannel channel1 = newMockDriverChannel(1, inFlight1);
+    DriverChannel channel2 = newMockDriverChannel(2, inFlight2);
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            .success(node, channel1)
+            .success(node, channel2)
+            .build();
+    InOrder inOrder = inOrder(eventBus);
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 2);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    inOrder.verify(eventBus, VERIFY_TIMEOUT.times(2)).fire(ChannelEvent.channelOpened(node));
+
+    // Between the watermarks: nothing happens
+    inFlight1.set(400);
+    inFlight2.set(400);
+    Thread.sleep(200);
+    assertThat(pool.channels).containsOnly(channel1, channel2);
+
+    inFlight1.set(100);
+    inFlight2.set(100);
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelClosed(node));
+    await().untilAsserted(() -> assertThat(pool.channels).hasSize(1));
+
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  @Test
+  public void should_apply_new_bounds_when_distance_changes() throws Exception {
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_ELASTIC_COOL_DOWN))
+        .thenReturn(Duration.ofDays(1));
+
+    AtomicInteger inFlight1 = new AtomicInteger(MAX_REQUESTS);
+    DriverChannel channel1 = newMockDriverChannel(1, inFlight1);
+    DriverChannel channel2 = newMockDriverChannel(2, new AtomicInteger(MAX_REQUESTS));
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            .success(node, channel1)
+            .success(node, channel2)
+            .build();
+    InOrder inOrder = inOrder(eventBus);
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 2);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    inOrder.verify(eventBus, VERIFY_TIMEOUT.times(2)).fire(ChannelEvent.channelOpened(node));
+
+    // REMOTE pools are not elastic
+    pool.resize(NodeDistance.REMOTE);
+
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelClosed(node));
+    await().untilAsserted(() -> assertThat(pool.channels).hasSize(1));
+    Thread.sleep(100);
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  private DriverChannel newMockDriverChannel(int id, AtomicInteger inFlight) {
+    DriverChannel channel = newMockDriverChannel(id);
+    when(channel.getInFlight()).then(i -> inFlight.get());
+    when(channel.getAvailableIds()).then(i -> MAX_REQUESTS - inFlight.get());
+    return channel;
+  }
+}
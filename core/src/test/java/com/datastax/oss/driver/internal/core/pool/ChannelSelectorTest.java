@@ -0,0 +1,138 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ChannelSelectorTest {
+
+  @Mock private DriverChannel channel1, channel2, channel3;
+  private DriverChannel[] channels;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    channels = new DriverChannel[] {channel1, channel2, channel3};
+  }
+
+  @Test
+  public void should_build_from_config() {
+    assertThat(ChannelSelector.fromConfig(null)).isInstanceOf(ChannelSelector.LeastBusy.class);
+    assertThat(ChannelSelector.fromConfig("least_busy"))
+        .isInstanceOf(ChannelSelector.LeastBusy.class);
+    assertThat(ChannelSelector.fromConfig("POWER_OF_TWO_CHOICES"))
+        .isInstanceOf(ChannelSelector.PowerOfTwoChoices.class);
+    assertThat(ChannelSelector.fromConfig("ROUND_ROBIN"))
+        .isInstanceOf(ChannelSelector.RoundRobin.class);
+    assertThatThrownBy(() -> ChannelSelector.fromConfig("RANDOM"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void should_pick_best_of_two_random_channels() {
+    when(channel1.getAvailableIds()).thenReturn(0);
+    when(channel2.getAvailableIds()).thenReturn(0);
+    when(channel3.getAvailableIds()).thenReturn(10);
+    ChannelSelector selector = new ChannelSelector.PowerOfTwoChoices();
+    for (int i = 0; i < 100; i++) {
+      // either channel3 is one of the candidates, or both are full and we fall back to a scan
+      assertThat(selector.select(channels)).isEqualTo(channel3);
+    }
+  }
+
+  @Test
+  public void should_pick_two_distinct_channels() {
+    when(channel1.getAvailableIds()).thenReturn(5);
+    when(channel2.getAvailableIds()).thenReturn(10);
+    DriverChannel[] twoChannels = new DriverChannel[] {channel1, channel2};
+    ChannelSelector selector = new ChannelSelector.PowerOfTwoChoices();
+    for (int i = 0; i < 100; i++) {
+      assertThat(selector.select(twoChannels)).isEqualTo(channel2);
+    }
+  }
+
+  @Test
+  public void should_return_null_from_power_of_two_choices_if_all_full() {
+    ChannelSelector selector = new ChannelSelector.PowerOfTwoChoices();
+    assertThat(selector.select(channels)).isNull();
+  }
+
+  @Test
+  public void should_cycle_through_channels_and_skip_full_ones() {
+    when(channel1.getAvailableIds()).thenReturn(1);
+    when(channel2.getAvailableIds()).thenReturn(0);
+    when(channel3.getAvailableIds()).thenReturn(1);
+    ChannelSelector selector = new ChannelSelector.RoundRobin();
+    assertThat(selector.select(channels)).isEqualTo(channel1);
+    assertThat(selector.select(channels)).isEqualTo(channel3);
+    assertThat(selector.select(channels)).isEqualTo(channel3);
+    assertThat(selector.select(channels)).isEqualTo(channel1);
+  }
+
+  @Test
+  public void should_return_null_from_round_robin_if_all_full() {
+    ChannelSelector selector = new ChannelSelector.RoundRobin();
+    assertThat(selector.select(channels)).isNull();
+  }
+
+  @Test
+  public void should_record_retries_when_selected_channel_gets_full() {
+    NodeMetricUpdater metricUpdater = mock(NodeMetricUpdater.class);
+    ChannelSet set = new ChannelSet(new ChannelSelector.RoundRobin(), metricUpdater);
+    set.add(channel1);
+    set.add(channel2);
+    when(channel1.getAvailableIds()).thenReturn(1);
+    when(channel2.getAvailableIds()).thenReturn(1);
+    // channel1 got filled by another thread after being selected
+    when(channel1.preAcquireId()).thenReturn(false);
+    when(channel2.preAcquireId()).thenReturn(true);
+
+    assertThat(set.next()).isEqualTo(channel2);
+    verify(metricUpdater).incrementCounter(DefaultNodeMetric.CHANNEL_SELECTION_RETRIES, null, 1);
+  }
+
+  @Test
+  public void should_not_record_retries_if_first_selection_succeeds() {
+    NodeMetricUpdater metricUpdater = mock(NodeMetricUpdater.class);
+    ChannelSet set = new ChannelSet(new ChannelSelector.PowerOfTwoChoices(), metricUpdater);
+    set.add(channel1);
+    set.add(channel2);
+    when(channel1.getAvailableIds()).thenReturn(1);
+    when(channel2.getAvailableIds()).thenReturn(1);
+    when(channel1.preAcquireId()).thenReturn(true);
+    when(channel2.preAcquireId()).thenReturn(true);
+
+    assertThat(set.next()).isIn(channel1, channel2);
+    verify(metricUpdater, never())
+        .incrementCounter(eq(DefaultNodeMetric.CHANNEL_SELECTION_RETRIES), isNull(), anyLong());
+  }
+}
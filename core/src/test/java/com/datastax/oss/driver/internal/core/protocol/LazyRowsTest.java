@@ -0,0 +1,190 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import com.datastax.dse.protocol.internal.ProtocolV4ClientCodecsForDse;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LazyRowsTest {
+
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private ByteBufPrimitiveCodec primitiveCodec;
+  private FrameCodec<ByteBuf> serverCodec;
+  private FrameCodec<ByteBuf> clientCodec;
+
+  @Before
+  public void setup() {
+    primitiveCodec = new ByteBufPrimitiveCodec(UnpooledByteBufAllocator.DEFAULT);
+    serverCodec = FrameCodec.defaultServer(primitiveCodec, Compressor.none());
+    clientCodec =
+        new FrameCodec<>(
+            primitiveCodec,
+            Compressor.none(),
+            new LazyRowsCodecGroup(new ProtocolV4ClientCodecsForDse()));
+  }
+
+  @Test
+  public void should_decode_cells_on_demand() {
+    Rows rows =
+        roundTrip(
+            rows(
+                Arrays.asList(Bytes.fromHexString("0x00000001"), Bytes.fromHexString("0xcafe")),
+                Arrays.asList(Bytes.fromHexString("0x00000002"), null),
+                Arrays.asList(Bytes.fromHexString("0x00000003"), EMPTY)));
+
+    assertThat(rows).isInstanceOf(LazyRows.class);
+    assertThat(rows.getMetadata().columnCount).isEqualTo(2);
+    Queue<List<ByteBuffer>> data = rows.getData();
+    assertThat(data).hasSize(3);
+
+    List<ByteBuffer> row = data.poll();
+    assertThat(row).hasSize(2);
+    assertThat(Bytes.toHexString(row.get(0))).isEqualTo("0x00000001");
+    assertThat(Bytes.toHexString(row.get(1))).isEqualTo("0xcafe");
+    assertThat(data).hasSize(2);
+
+    row = data.poll();
+    assertThat(Bytes.toHexString(row.get(0))).isEqualTo("0x00000002");
+    assertThat(row.get(1)).isNull();
+
+    row = data.poll();
+    assertThat(Bytes.toHexString(row.get(0))).isEqualTo("0x00000003");
+    assertThat(row.get(1).remaining()).isEqualTo(0);
+
+    assertThat(data.poll()).isNull();
+    assertThat(data).isEmpty();
+  }
+
+  @Test
+  public void should_return_independent_views_of_cells() {
+    Rows rows = roundTrip(rows(Collections.singletonList(Bytes.fromHexString("0xcafebabe"))));
+    List<ByteBuffer> row = rows.getData().poll();
+
+    ByteBuffer cell = row.get(0);
+    cell.getShort();
+
+    assertThat(cell.remaining()).isEqualTo(2);
+    assertThat(Bytes.toHexString(row.get(0))).isEqualTo("0xcafebabe");
+  }
+
+  @Test
+  public void should_iterate_without_consuming() {
+    Rows rows =
+        roundTrip(
+            rows(
+                Collections.singletonList(Bytes.fromHexString("0x01")),
+                Collections.singletonList(Bytes.fromHexString("0x02"))));
+
+    int count = 0;
+    for (List<ByteBuffer> row : rows.getData()) {
+      count += 1;
+      assertThat(row).hasSize(1);
+    }
+
+    assertThat(count).isEqualTo(2);
+    assertThat(rows.getData()).hasSize(2);
+  }
+
+  @Test
+  public void should_handle_empty_page() {
+    Rows rows = roundTrip(rows());
+
+    assertThat(rows).isInstanceOf(LazyRows.class);
+    assertThat(rows.getData()).isEmpty();
+    assertThat(rows.getData().poll()).isNull();
+  }
+
+  @Test
+  public void should_reencode_to_same_bytes() {
+    DefaultRows original =
+        rows(
+            Arrays.asList(Bytes.fromHexString("0x00000001"), Bytes.fromHexString("0xcafe")),
+            Arrays.asList(Bytes.fromHexString("0x00000002"), null));
+    Rows lazy = roundTrip(original);
+    LazyRows.SubCodec subCodec = new LazyRows.SubCodec(ProtocolConstants.Version.V4);
+
+    ByteBuf expected = encode(original);
+    ByteBuf actual = UnpooledByteBufAllocator.DEFAULT.buffer();
+    try {
+      subCodec.encode(actual, lazy, primitiveCodec);
+      // Skip the frame header and the result kind
+      expected.skipBytes(FrameCodec.headerEncodedSize() + 4);
+      assertThat(subCodec.encodedSize(lazy)).isEqualTo(expected.readableBytes());
+      assertThat(actual).isEqualTo(expected);
+    } finally {
+      expected.release();
+      actual.release();
+    }
+  }
+
+  @SafeVarargs
+  private static DefaultRows rows(List<ByteBuffer>... rows) {
+    int columnCount = (rows.length == 0) ? 2 : rows[0].size();
+    ImmutableList.Builder<ColumnSpec> specs = ImmutableList.builder();
+    for (int i = 0; i < columnCount; i++) {
+      specs.add(
+          new ColumnSpec(
+              "ks", "table", "c" + i, i, RawType.PRIMITIVES.get(ProtocolConstants.DataType.BLOB)));
+    }
+    RowsMetadata metadata = new RowsMetadata(specs.build(), null, new int[] {}, null);
+    return new DefaultRows(metadata, new ArrayDeque<>(Arrays.asList(rows)));
+  }
+
+  private Rows roundTrip(Rows rows) {
+    ByteBuf buffer = encode(rows);
+    try {
+      Frame frame = clientCodec.decode(buffer);
+      assertThat(frame.message).isInstanceOf(Rows.class);
+      return (Rows) frame.message;
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private ByteBuf encode(Rows rows) {
+    return serverCodec.encode(
+        Frame.forResponse(
+            ProtocolConstants.Version.V4,
+            1,
+            null,
+            Frame.NO_PAYLOAD,
+            Collections.emptyList(),
+            rows));
+  }
+}
@@ -226,6 +226,89 @@ public class DefaultSessionPoolsTest {
                     .containsValues(pool1, pool2, pool3));
   }
 
+  @Test
+  public void should_be_ready_when_enough_local_pools_are_connected() {
+    mockReadyThreshold(0.5);
+    when(node3.getDistance()).thenReturn(NodeDistance.REMOTE);
+
+    CompletableFuture<ChannelPool> pool1Future = new CompletableFuture<>();
+    CompletableFuture<ChannelPool> pool2Future = new CompletableFuture<>();
+    CompletableFuture<ChannelPool> pool3Future = new CompletableFuture<>();
+    ChannelPool pool1 = mockPool(node1);
+    ChannelPool pool2 = mockPool(node2);
+    ChannelPool pool3 = mockPool(node3);
+    MockChannelPoolFactoryHelper factoryHelper =
+        MockChannelPoolFactoryHelper.builder(channelPoolFactory)
+            .pending(node1, KEYSPACE, NodeDistance.LOCAL, pool1Future)
+            .pending(node2, KEYSPACE, NodeDistance.LOCAL, pool2Future)
+            .pending(node3, KEYSPACE, NodeDistance.REMOTE, pool3Future)
+            .build();
+
+    CompletionStage<CqlSession> initFuture = newSession();
+
+    factoryHelper.waitForCall(node1, KEYSPACE, NodeDistance.LOCAL);
+    factoryHelper.waitForCall(node2, KEYSPACE, NodeDistance.LOCAL);
+    factoryHelper.waitForCall(node3, KEYSPACE, NodeDistance.REMOTE);
+
+    // The remote node does not count towards the threshold
+    pool3Future.complete(pool3);
+    assertThatStage(initFuture).isNotDone();
+
+    // 1 out of 2 local nodes is enough
+    pool1Future.complete(pool1);
+    assertThatStage(initFuture)
+        .isSuccess(
+            session ->
+                assertThat(((DefaultSession) session).getPools()).containsOnlyKeys(node1, node3));
+
+    // The last pool is added once it connects
+    pool2Future.complete(pool2);
+    Session session = CompletableFutures.getCompleted(initFuture.toCompletableFuture());
+    await()
+        .untilAsserted(
+            () ->
+                assertThat(((DefaultSession) session).getPools())
+                    .containsValues(pool1, pool2, pool3));
+  }
+
+  @Test
+  public void should_wait_for_all_pools_if_ready_threshold_not_reached() {
+    mockReadyThreshold(0.5);
+
+    CompletableFuture<ChannelPool> pool1Future = new CompletableFuture<>();
+    CompletableFuture<ChannelPool> pool2Future = new CompletableFuture<>();
+    CompletableFuture<ChannelPool> pool3Future = new CompletableFuture<>();
+    ChannelPool pool1 = mockPool(node1);
+    ChannelPool pool2 = mockPool(node2);
+    ChannelPool pool3 = mockPool(node3);
+    // The first two pools fail to open any connection
+    when(pool1.size()).thenReturn(0);
+    when(pool2.size()).thenReturn(0);
+    MockChannelPoolFactoryHelper factoryHelper =
+        MockChannelPoolFactoryHelper.builder(channelPoolFactory)
+            .pending(node1, KEYSPACE, NodeDistance.LOCAL, pool1Future)
+            .pending(node2, KEYSPACE, NodeDistance.LOCAL, pool2Future)
+            .pending(node3, KEYSPACE, NodeDistance.LOCAL, pool3Future)
+            .build();
+
+    CompletionStage<CqlSession> initFuture = newSession();
+
+    factoryHelper.waitForCall(node1, KEYSPACE, NodeDistance.LOCAL);
+    factoryHelper.waitForCall(node2, KEYSPACE, NodeDistance.LOCAL);
+    factoryHelper.waitForCall(node3, KEYSPACE, NodeDistance.LOCAL);
+
+    pool1Future.complete(pool1);
+    pool2Future.complete(pool2);
+    assertThatStage(initFuture).isNotDone();
+
+    pool3Future.complete(pool3);
+    assertThatStage(initFuture)
+        .isSuccess(
+            session ->
+                assertThat(((DefaultSession) session).getPools())
+                    .containsValues(pool1, pool2, pool3));
+  }
+
   @Test
   public void should_not_connect_to_ignored_nodes() {
     when(node2.getDistance()).thenReturn(NodeDistance.IGNORED);
@@ -894,6 +977,7 @@ public class DefaultSessionPoolsTest {
     ChannelPool pool = mock(ChannelPool.class);
     when(pool.getNode()).thenReturn(node);
     when(pool.getInitialKeyspaceName()).thenReturn(KEYSPACE);
+    when(pool.size()).thenReturn(1);
     when(pool.setKeyspace(any(CqlIdentifier.class)))
         .thenReturn(CompletableFuture.completedFuture(null));
     CompletableFuture<Void> closeFuture = new CompletableFuture<>();
@@ -913,6 +997,13 @@ public class DefaultSessionPoolsTest {
     return pool;
   }
 
+  private void mockReadyThreshold(double threshold) {
+    when(defaultProfile.isDefined(DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD))
+        .thenReturn(true);
+    when(defaultProfile.getDouble(DefaultDriverOption.CONNECTION_POOL_INIT_READY_THRESHOLD))
+        .thenReturn(threshold);
+  }
+
   private CompletionStage<CqlSession> newSession() {
     return DefaultSession.init(context, Collections.emptySet(), KEYSPACE);
   }
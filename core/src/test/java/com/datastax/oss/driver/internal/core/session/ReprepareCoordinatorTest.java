@@ -0,0 +1,159 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReprepareCoordinatorTest {
+
+  private static final EndPoint END_POINT1 =
+      new DefaultEndPoint(new InetSocketAddress("127.0.0.1", 9042));
+  private static final EndPoint END_POINT2 =
+      new DefaultEndPoint(new InetSocketAddress("127.0.0.2", 9042));
+  private static final ByteBuffer ID1 = Bytes.fromHexString("0x01");
+  private static final ByteBuffer ID2 = Bytes.fromHexString("0x02");
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(30);
+
+  private long nanoTime;
+  private ReprepareCoordinator coordinator;
+
+  @Before
+  public void setup() {
+    nanoTime = 0;
+    coordinator =
+        new ReprepareCoordinator() {
+          @Override
+          protected long nanoTime() {
+            return nanoTime;
+          }
+        };
+  }
+
+  @Test
+  public void should_claim_statement_once_per_node_within_window() {
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isTrue();
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isFalse();
+    assertThat(coordinator.claim(END_POINT1, ID2, WINDOW)).isTrue();
+    assertThat(coordinator.claim(END_POINT2, ID1, WINDOW)).isTrue();
+
+    nanoTime += WINDOW;
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isTrue();
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isFalse();
+  }
+
+  @Test
+  public void should_always_claim_if_window_is_zero() {
+    assertThat(coordinator.claim(END_POINT1, ID1, 0)).isTrue();
+    assertThat(coordinator.claim(END_POINT1, ID1, 0)).isTrue();
+  }
+
+  @Test
+  public void should_forget_claims_when_node_goes_down() {
+    coordinator.claim(END_POINT1, ID1, WINDOW);
+    coordinator.claim(END_POINT2, ID1, WINDOW);
+
+    coordinator.onNodeDown(END_POINT1);
+
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isTrue();
+    assertThat(coordinator.claim(END_POINT2, ID1, WINDOW)).isFalse();
+  }
+
+  @Test
+  public void should_release_claim() {
+    coordinator.claim(END_POINT1, ID1, WINDOW);
+    coordinator.claim(END_POINT1, ID2, WINDOW);
+
+    coordinator.release(END_POINT1, ID1);
+
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isTrue();
+    assertThat(coordinator.claim(END_POINT1, ID2, WINDOW)).isFalse();
+  }
+
+  @Test
+  public void should_evict_expired_claims() {
+    coordinator.claim(END_POINT1, ID1, WINDOW);
+    nanoTime += WINDOW / 2;
+    coordinator.claim(END_POINT1, ID2, WINDOW);
+    nanoTime += WINDOW / 2;
+
+    coordinator.evictExpired(END_POINT1, WINDOW);
+
+    // Use a longer window to check what's still there
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW * 2)).isTrue();
+    assertThat(coordinator.claim(END_POINT1, ID2, WINDOW * 2)).isFalse();
+  }
+
+  @Test
+  public void should_drop_nodes_with_no_claims_and_no_pending_slots() {
+    long interval = TimeUnit.MILLISECONDS.toNanos(100);
+    coordinator.claim(END_POINT1, ID1, WINDOW);
+    coordinator.reserve(END_POINT2, 10);
+    coordinator.reserve(END_POINT2, 10);
+
+    // END_POINT1's claim is still valid, END_POINT2 has a pending slot
+    coordinator.evictExpired(WINDOW);
+    assertThat(coordinator.isTracked(END_POINT1)).isTrue();
+    assertThat(coordinator.isTracked(END_POINT2)).isTrue();
+
+    nanoTime += 2 * interval;
+    coordinator.evictExpired(WINDOW);
+    assertThat(coordinator.isTracked(END_POINT1)).isTrue();
+    assertThat(coordinator.isTracked(END_POINT2)).isFalse();
+
+    nanoTime += WINDOW;
+    coordinator.evictExpired(WINDOW);
+    assertThat(coordinator.isTracked(END_POINT1)).isFalse();
+
+    // A dropped node starts over
+    assertThat(coordinator.claim(END_POINT1, ID1, WINDOW)).isTrue();
+    assertThat(coordinator.reserve(END_POINT2, 10)).isEqualTo(0);
+  }
+
+  @Test
+  public void should_spread_reservations_according_to_rate() {
+    long interval = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // 10 per second => one every 100 ms
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(0);
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(interval);
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(2 * interval);
+    // Other nodes have their own rate
+    assertThat(coordinator.reserve(END_POINT2, 10)).isEqualTo(0);
+
+    nanoTime += 2 * interval;
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(interval);
+
+    // Unused slots are not accumulated
+    nanoTime += 10 * interval;
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(0);
+    assertThat(coordinator.reserve(END_POINT1, 10)).isEqualTo(interval);
+  }
+
+  @Test
+  public void should_not_limit_rate_if_zero() {
+    assertThat(coordinator.reserve(END_POINT1, 0)).isEqualTo(0);
+    assertThat(coordinator.reserve(END_POINT1, 0)).isEqualTo(0);
+  }
+}
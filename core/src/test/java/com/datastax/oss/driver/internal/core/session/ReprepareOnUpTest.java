@@ -23,9 +23,11 @@ import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.adminrequest.AdminResult;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
 import com.datastax.oss.driver.internal.core.metadata.TopologyMonitor;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
@@ -45,6 +47,7 @@ import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
 import com.datastax.oss.protocol.internal.util.Bytes;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.ImmediateEventExecutor;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayDeque;
@@ -68,6 +71,8 @@ public class ReprepareOnUpTest {
   @Mock private TopologyMonitor topologyMonitor;
   @Mock private MetricsFactory metricsFactory;
   @Mock private SessionMetricUpdater metricUpdater;
+  @Mock private Node node;
+  private ReprepareCoordinator coordinator;
   private Runnable whenPrepared;
   private CompletionStage<Void> done;
 
@@ -76,6 +81,10 @@ public class ReprepareOnUpTest {
     MockitoAnnotations.initMocks(this);
 
     when(pool.next()).thenReturn(channel);
+    when(node.getEndPoint())
+        .thenReturn(new DefaultEndPoint(new InetSocketAddress("127.0.0.1", 9042)));
+    when(pool.getNode()).thenReturn(node);
+    coordinator = new ReprepareCoordinator();
 
     when(config.getDefaultProfile()).thenReturn(defaultProfile);
     when(defaultProfile.getBoolean(DefaultDriverOption.REPREPARE_CHECK_SYSTEM_TABLE))
@@ -84,6 +93,9 @@ public class ReprepareOnUpTest {
         .thenReturn(Duration.ofMillis(500));
     when(defaultProfile.getInt(DefaultDriverOption.REPREPARE_MAX_STATEMENTS)).thenReturn(0);
     when(defaultProfile.getInt(DefaultDriverOption.REPREPARE_MAX_PARALLELISM)).thenReturn(100);
+    when(defaultProfile.getInt(DefaultDriverOption.REPREPARE_MAX_RATE_PER_NODE)).thenReturn(0);
+    when(defaultProfile.getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW))
+        .thenReturn(Duration.ZERO);
     when(context.getConfig()).thenReturn(config);
 
     when(context.getMetricsFactory()).thenReturn(metricsFactory);
@@ -103,7 +115,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads(/*none*/ ),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     // When
     reprepareOnUp.start();
@@ -121,7 +134,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -152,7 +166,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -188,7 +203,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -213,7 +229,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -262,7 +279,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -297,7 +315,8 @@ public class ReprepareOnUpTest {
             ImmediateEventExecutor.INSTANCE,
             getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
             context,
-            whenPrepared);
+            whenPrepared,
+            coordinator);
 
     reprepareOnUp.start();
 
@@ -335,6 +354,166 @@ public class ReprepareOnUpTest {
     assertThatStage(done).isSuccess(v -> assertThat(reprepareOnUp.queries).isEmpty());
   }
 
+  @Test
+  public void should_reprepare_most_recently_used_statements_first() {
+    when(defaultProfile.getBoolean(DefaultDriverOption.REPREPARE_CHECK_SYSTEM_TABLE))
+        .thenReturn(false);
+    when(defaultProfile.getInt(DefaultDriverOption.REPREPARE_MAX_STATEMENTS)).thenReturn(2);
+    Map<ByteBuffer, RepreparePayload> payloads = getMockPayloads('a', 'b', 'c', 'd');
+    payloads.get(Bytes.fromHexString("0x0c")).markUsed();
+
+    MockReprepareOnUp reprepareOnUp =
+        new MockReprepareOnUp(
+            "test",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            payloads,
+            context,
+            whenPrepared,
+            coordinator);
+
+    reprepareOnUp.start();
+
+    // c was used, then the others in map order, up to the limit
+    for (char c : new char[] {'c', 'a'}) {
+      MockAdminQuery adminQuery = reprepareOnUp.queries.poll();
+      assertThat(adminQuery).isNotNull();
+      assertThat(adminQuery.request).isInstanceOf(Prepare.class);
+      assertThat(((Prepare) adminQuery.request).cqlQuery).isEqualTo("mock query " + c);
+      adminQuery.resultFuture.complete(null);
+    }
+
+    assertThatStage(done).isSuccess(v -> assertThat(reprepareOnUp.queries).isEmpty());
+  }
+
+  @Test
+  public void should_not_reprepare_statements_already_reprepared_by_another_session() {
+    when(defaultProfile.getBoolean(DefaultDriverOption.REPREPARE_CHECK_SYSTEM_TABLE))
+        .thenReturn(false);
+    when(defaultProfile.getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW))
+        .thenReturn(Duration.ofMinutes(1));
+
+    // Another session on the same node reprepares a, b and c
+    MockReprepareOnUp otherReprepareOnUp =
+        new MockReprepareOnUp(
+            "other",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b', 'c'),
+            context,
+            () -> {},
+            coordinator);
+    otherReprepareOnUp.start();
+    assertThat(otherReprepareOnUp.queries).hasSize(3);
+
+    MockReprepareOnUp reprepareOnUp =
+        new MockReprepareOnUp(
+            "test",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b', 'c', 'd', 'e', 'f'),
+            context,
+            whenPrepared,
+            coordinator);
+
+    reprepareOnUp.start();
+
+    for (char c = 'd'; c <= 'f'; c++) {
+      MockAdminQuery adminQuery = reprepareOnUp.queries.poll();
+      assertThat(adminQuery).isNotNull();
+      assertThat(adminQuery.request).isInstanceOf(Prepare.class);
+      assertThat(((Prepare) adminQuery.request).cqlQuery).isEqualTo("mock query " + c);
+      adminQuery.resultFuture.complete(null);
+    }
+
+    assertThatStage(done).isSuccess(v -> assertThat(reprepareOnUp.queries).isEmpty());
+  }
+
+  @Test
+  public void should_reprepare_again_if_node_bounces_within_dedupe_window() {
+    when(defaultProfile.getBoolean(DefaultDriverOption.REPREPARE_CHECK_SYSTEM_TABLE))
+        .thenReturn(false);
+    when(defaultProfile.getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW))
+        .thenReturn(Duration.ofMinutes(1));
+
+    MockReprepareOnUp firstReprepareOnUp =
+        new MockReprepareOnUp(
+            "first",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b', 'c'),
+            context,
+            () -> {},
+            coordinator);
+    firstReprepareOnUp.start();
+    for (char c = 'a'; c <= 'c'; c++) {
+      firstReprepareOnUp.queries.poll().resultFuture.complete(null);
+    }
+
+    // The node restarts: its cache is empty again
+    coordinator.onNodeDown(node.getEndPoint());
+
+    MockReprepareOnUp reprepareOnUp =
+        new MockReprepareOnUp(
+            "test",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b', 'c'),
+            context,
+            whenPrepared,
+            coordinator);
+    reprepareOnUp.start();
+
+    for (char c = 'a'; c <= 'c'; c++) {
+      MockAdminQuery adminQuery = reprepareOnUp.queries.poll();
+      assertThat(adminQuery).isNotNull();
+      assertThat(adminQuery.request).isInstanceOf(Prepare.class);
+      assertThat(((Prepare) adminQuery.request).cqlQuery).isEqualTo("mock query " + c);
+      adminQuery.resultFuture.complete(null);
+    }
+
+    assertThatStage(done).isSuccess(v -> assertThat(reprepareOnUp.queries).isEmpty());
+  }
+
+  @Test
+  public void should_not_skip_statements_that_another_session_failed_to_reprepare() {
+    when(defaultProfile.getBoolean(DefaultDriverOption.REPREPARE_CHECK_SYSTEM_TABLE))
+        .thenReturn(false);
+    when(defaultProfile.getDuration(DefaultDriverOption.REPREPARE_DEDUPE_WINDOW))
+        .thenReturn(Duration.ofMinutes(1));
+
+    MockReprepareOnUp otherReprepareOnUp =
+        new MockReprepareOnUp(
+            "other",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b'),
+            context,
+            () -> {},
+            coordinator);
+    otherReprepareOnUp.start();
+    otherReprepareOnUp.queries.poll().resultFuture.complete(null);
+    otherReprepareOnUp.queries.poll().resultFuture.completeExceptionally(new RuntimeException());
+
+    MockReprepareOnUp reprepareOnUp =
+        new MockReprepareOnUp(
+            "test",
+            pool,
+            ImmediateEventExecutor.INSTANCE,
+            getMockPayloads('a', 'b'),
+            context,
+            whenPrepared,
+            coordinator);
+    reprepareOnUp.start();
+
+    MockAdminQuery adminQuery = reprepareOnUp.queries.poll();
+    assertThat(adminQuery).isNotNull();
+    assertThat(((Prepare) adminQuery.request).cqlQuery).isEqualTo("mock query b");
+    adminQuery.resultFuture.complete(null);
+
+    assertThatStage(done).isSuccess(v -> assertThat(reprepareOnUp.queries).isEmpty());
+  }
+
   private Map<ByteBuffer, RepreparePayload> getMockPayloads(char... values) {
     ImmutableMap.Builder<ByteBuffer, RepreparePayload> builder = ImmutableMap.builder();
     for (char value : values) {
@@ -356,8 +535,9 @@ public class ReprepareOnUpTest {
         EventExecutor adminExecutor,
         Map<ByteBuffer, RepreparePayload> repreparePayloads,
         InternalDriverContext context,
-        Runnable whenPrepared) {
-      super(logPrefix, pool, adminExecutor, repreparePayloads, context, whenPrepared);
+        Runnable whenPrepared,
+        ReprepareCoordinator coordinator) {
+      super(logPrefix, pool, adminExecutor, repreparePayloads, context, whenPrepared, coordinator);
     }
 
     @Override
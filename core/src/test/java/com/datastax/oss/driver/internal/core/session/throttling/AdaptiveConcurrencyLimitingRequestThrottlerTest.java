@@ -0,0 +1,274 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AdaptiveConcurrencyLimitingRequestThrottlerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+
+  private final SettableNanoClock clock = new SettableNanoClock();
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(10);
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE))
+        .thenReturn(10);
+    when(defaultProfile.getInt(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS), anyInt()))
+        .thenReturn(2);
+    when(defaultProfile.getInt(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS), anyInt()))
+        .thenReturn(4);
+    when(defaultProfile.getDuration(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD),
+            ArgumentMatchers.any(Duration.class)))
+        .thenReturn(Duration.ofMillis(100));
+    when(defaultProfile.getDouble(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO), anyDouble()))
+        .thenReturn(0.5);
+    when(defaultProfile.getDouble(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_LATENCY_TOLERANCE), anyDouble()))
+        .thenReturn(1.5);
+    when(defaultProfile.getDouble(eq(DefaultDriverOption.REQUEST_THROTTLER_SMOOTHING), anyDouble()))
+        .thenReturn(1.0);
+    useAlgorithm("AIMD");
+  }
+
+  @Test
+  public void should_enqueue_when_over_initial_limit() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    List<MockThrottled> active = startRequests(throttler, 4);
+    for (MockThrottled request : active) {
+      assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
+    }
+
+    MockThrottled incoming = new MockThrottled();
+    throttler.register(incoming);
+
+    assertThatStage(incoming.started).isNotDone();
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(4);
+    assertThat(throttler.getQueue()).containsExactly(incoming);
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_increase_limit_when_requests_are_fast() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    List<MockThrottled> active = startRequests(throttler, 4);
+    List<MockThrottled> queued = startRequests(throttler, 6);
+    assertThat(throttler.getQueue()).hasSize(6);
+
+    // Each fast response grows the limit by 1/limit, so it takes 5 of them to go from 4 to 5
+    for (int i = 0; i < 4; i++) {
+      clock.add(FAST);
+      throttler.signalSuccess(active.get(i));
+    }
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+    assertThat(throttler.getQueue()).hasSize(2);
+    clock.add(FAST);
+    throttler.signalSuccess(queued.get(0));
+
+    // The last completion freed one slot, and the new limit added another one
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(5);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
+    assertThat(throttler.getQueue()).isEmpty();
+    for (MockThrottled request : queued) {
+      assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    }
+  }
+
+  @Test
+  public void should_decrease_limit_once_when_requests_are_slow() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    List<MockThrottled> active = startRequests(throttler, 4);
+    MockThrottled queued = new MockThrottled();
+    throttler.register(queued);
+
+    clock.add(SLOW);
+    throttler.signalSuccess(active.get(0));
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+
+    // This request was already running when the limit decreased, so it doesn't count again
+    throttler.signalSuccess(active.get(1));
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+
+    // Still 2 active requests, so the queued one can't start yet
+    assertThatStage(queued.started).isNotDone();
+    throttler.signalSuccess(active.get(2));
+    assertThatStage(queued.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+  }
+
+  @Test
+  public void should_decrease_limit_when_request_times_out() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    List<MockThrottled> active = startRequests(throttler, 4);
+
+    clock.add(FAST);
+    throttler.signalTimeout(active.get(0));
+
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_not_go_under_min_limit() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    for (int i = 0; i < 5; i++) {
+      MockThrottled request = new MockThrottled();
+      throttler.register(request);
+      clock.add(SLOW);
+      throttler.signalSuccess(request);
+    }
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_not_use_errors_as_samples() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    List<MockThrottled> active = startRequests(throttler, 4);
+
+    clock.add(SLOW);
+    throttler.signalError(active.get(0), new RuntimeException("mock error"));
+
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_decrease_limit_with_gradient_when_latency_increases() {
+    useAlgorithm("GRADIENT");
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    // Establish a baseline
+    for (int i = 0; i < 4; i++) {
+      List<MockThrottled> active = startRequests(throttler, 4);
+      clock.add(FAST);
+      for (MockThrottled request : active) {
+        throttler.signalSuccess(request);
+      }
+    }
+    int limitBefore = throttler.getConcurrencyLimit();
+    assertThat(limitBefore).isGreaterThanOrEqualTo(4);
+
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+    clock.add(SLOW);
+    throttler.signalSuccess(request);
+
+    assertThat(throttler.getConcurrencyLimit()).isLessThan(limitBefore);
+  }
+
+  @Test
+  public void should_reject_when_queue_is_full() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    startRequests(throttler, 14);
+
+    MockThrottled incoming = new MockThrottled();
+    throttler.register(incoming);
+
+    assertThatStage(incoming.started)
+        .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+  }
+
+  @Test
+  public void should_remove_timed_out_request_from_queue() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    startRequests(throttler, 4);
+    MockThrottled queued = new MockThrottled();
+    throttler.register(queued);
+
+    throttler.signalTimeout(queued);
+
+    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_reject_enqueued_when_closing() {
+    AdaptiveConcurrencyLimitingRequestThrottler throttler = newThrottler();
+    startRequests(throttler, 4);
+    List<MockThrottled> queued = startRequests(throttler, 3);
+
+    throttler.close();
+
+    for (MockThrottled request : queued) {
+      assertThatStage(request.started)
+          .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+    }
+  }
+
+  @Test
+  public void should_fail_if_algorithm_unknown() {
+    useAlgorithm("VEGAS");
+    assertThatThrownBy(this::newThrottler)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("advanced.throttler.limit-algorithm");
+  }
+
+  private void useAlgorithm(String name) {
+    when(defaultProfile.getString(
+            eq(DefaultDriverOption.REQUEST_THROTTLER_LIMIT_ALGORITHM), anyString()))
+        .thenReturn(name);
+  }
+
+  private AdaptiveConcurrencyLimitingRequestThrottler newThrottler() {
+    return new AdaptiveConcurrencyLimitingRequestThrottler(context, clock);
+  }
+
+  private static List<MockThrottled> startRequests(
+      AdaptiveConcurrencyLimitingRequestThrottler throttler, int count) {
+    List<MockThrottled> requests = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      MockThrottled request = new MockThrottled();
+      throttler.register(request);
+      requests.add(request);
+    }
+    return requests;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.concurrent;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.util.Timeout;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class ShardedTimerTest {
+
+  private static final ThreadFactory THREAD_FACTORY =
+      new ThreadFactoryBuilder().setNameFormat("test-timer-%d").setDaemon(true).build();
+
+  private ShardedTimer timer;
+
+  @After
+  public void teardown() {
+    if (timer != null) {
+      timer.stop();
+    }
+  }
+
+  @Test
+  public void should_run_timeouts_on_all_shards() throws InterruptedException {
+    timer = new ShardedTimer(4, THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, 64);
+    assertThat(timer.getShardCount()).isEqualTo(4);
+
+    int count = 200;
+    CountDownLatch latch = new CountDownLatch(count);
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < count; i++) {
+      timer.newTimeout(
+          t -> {
+            threadNames.add(Thread.currentThread().getName());
+            latch.countDown();
+          },
+          1,
+          TimeUnit.MILLISECONDS);
+    }
+
+    assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    // With 200 random assignments, the odds of leaving a shard unused are negligible
+    assertThat(threadNames).hasSize(4);
+    assertThat(timer.getPendingTimeouts()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_not_run_cancelled_timeouts() throws InterruptedException {
+    timer = new ShardedTimer(2, THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, 64);
+    CountDownLatch cancelledLatch = new CountDownLatch(1);
+    CountDownLatch otherLatch = new CountDownLatch(1);
+
+    Timeout cancelled =
+        timer.newTimeout(t -> cancelledLatch.countDown(), 50, TimeUnit.MILLISECONDS);
+    timer.newTimeout(t -> otherLatch.countDown(), 100, TimeUnit.MILLISECONDS);
+    assertThat(cancelled.cancel()).isTrue();
+
+    assertThat(otherLatch.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(cancelledLatch.getCount()).isEqualTo(1);
+    assertThat(cancelled.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void should_return_unprocessed_timeouts_of_all_shards_on_stop() {
+    timer = new ShardedTimer(3, THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, 64);
+    for (int i = 0; i < 30; i++) {
+      timer.newTimeout(t -> {}, 1, TimeUnit.HOURS);
+    }
+    assertThat(timer.getPendingTimeouts()).isEqualTo(30);
+
+    Set<Timeout> unprocessed = timer.stop();
+    timer = null;
+
+    assertThat(unprocessed).hasSize(30);
+  }
+
+  @Test
+  public void should_fail_if_no_shards() {
+    assertThatThrownBy(() -> new ShardedTimer(0, THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, 64))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}